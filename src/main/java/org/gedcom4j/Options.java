@@ -37,6 +37,12 @@ public final class Options {
     /** Should collections in the object model be pre-initialized? NOT THREADSAFE. */
     private static boolean collectionInitializationEnabled = false;
 
+    /**
+     * Should the root-level records (individuals, families, sources, repositories, notes, multimedia and submitters) be equal and
+     * hashed by record identity rather than by their contents? NOT THREADSAFE.
+     */
+    private static boolean recordIdentityEnabled = false;
+
     /**
      * Get whether collections in the object model should be pre-initialized. NOT THREADSAFE.
      * 
@@ -46,11 +52,26 @@ public final class Options {
         return collectionInitializationEnabled;
     }
 
+    /**
+     * Get whether the root-level records (individuals, families, sources, repositories, notes, multimedia and submitters) are equal
+     * and hashed by record identity rather than by their contents. When enabled, two records are equal only if they are the same
+     * object, or are of the same class and have the same non-null xref, and a record's hash code is that of its xref (or its
+     * identity hash code if it has no xref) - so sets and maps of records cost next to nothing however large the records are. The
+     * records' <code>deepEquals</code> and <code>contentHash</code> methods compare their contents either way. NOT THREADSAFE.
+     * 
+     * @return whether the root-level records are equal and hashed by record identity. NOT THREADSAFE.
+     * @since 4.0.2
+     */
+    public static boolean isRecordIdentityEnabled() {
+        return recordIdentityEnabled;
+    }
+
     /**
      * Reset all options to defaults
      */
     public static void resetToDefaults() {
         collectionInitializationEnabled = false;
+        recordIdentityEnabled = false;
     }
 
     /**
@@ -63,6 +84,19 @@ public final class Options {
         Options.collectionInitializationEnabled = collectionInitializationEnabled;
     }
 
+    /**
+     * Set whether the root-level records (individuals, families, sources, repositories, notes, multimedia and submitters) are equal
+     * and hashed by record identity rather than by their contents. Records should not be in any hash-based collection while this
+     * is changed. NOT THREADSAFE.
+     * 
+     * @param recordIdentityEnabled
+     *            whether the root-level records should be equal and hashed by record identity. NOT THREADSAFE.
+     * @since 4.0.2
+     */
+    public static void setRecordIdentityEnabled(boolean recordIdentityEnabled) {
+        Options.recordIdentityEnabled = recordIdentityEnabled;
+    }
+
     /**
      * Private constructor prevents instantiation and subclassing.
      */
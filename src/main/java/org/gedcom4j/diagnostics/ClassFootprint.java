@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.diagnostics;
+
+/**
+ * The estimated heap footprint of all the instances of one class, or of all the root-level records of one type, in a
+ * {@link HeapFootprint}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public final class ClassFootprint {
+
+    /**
+     * The name of the class or record type
+     */
+    private final String name;
+
+    /**
+     * The number of instances
+     */
+    private int instanceCount;
+
+    /**
+     * The estimated bytes taken by the instances themselves
+     */
+    private long shallowBytes;
+
+    /**
+     * The estimated bytes taken by the instances and everything in them
+     */
+    private long retainedBytes;
+
+    /**
+     * Constructor
+     * 
+     * @param name
+     *            the name of the class or record type
+     */
+    ClassFootprint(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the number of instances
+     * 
+     * @return the number of instances
+     */
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    /**
+     * Get the name of the class or record type
+     * 
+     * @return the name of the class or record type
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the estimated bytes taken by the instances and everything in them. For instances inside other instances of the same
+     * class, such as custom facts within custom facts, the bytes are only counted once. For record types, this does not include
+     * anything shared with other records.
+     * 
+     * @return the estimated bytes taken by the instances and everything in them
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Get the estimated bytes taken by the instances themselves, not counting the objects they refer to
+     * 
+     * @return the estimated bytes taken by the instances themselves
+     */
+    public long getShallowBytes() {
+        return shallowBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(64);
+        builder.append("ClassFootprint [name=");
+        builder.append(name);
+        builder.append(", instanceCount=");
+        builder.append(instanceCount);
+        builder.append(", shallowBytes=");
+        builder.append(shallowBytes);
+        builder.append(", retainedBytes=");
+        builder.append(retainedBytes);
+        builder.append("]");
+        return builder.toString();
+    }
+
+    /**
+     * Count an instance
+     * 
+     * @param shallow
+     *            the estimated bytes taken by the instance itself
+     */
+    void addInstance(long shallow) {
+        instanceCount++;
+        shallowBytes += shallow;
+    }
+
+    /**
+     * Count bytes taken by something in the instances
+     * 
+     * @param bytes
+     *            the estimated bytes
+     */
+    void addRetained(long bytes) {
+        retainedBytes += bytes;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.diagnostics;
+
+/**
+ * What a {@link GedcomCompactor} did to a {@link org.gedcom4j.model.Gedcom}, and the estimated bytes of heap it gave back. The
+ * byte counts are estimated the same way as in {@link HeapFootprint}.
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public final class CompactionResult {
+
+    /**
+     * The number of lists trimmed to their size
+     */
+    private int trimmedListCount;
+
+    /**
+     * The estimated bytes given back by trimming lists
+     */
+    private long trimmedListBytes;
+
+    /**
+     * The number of empty lists dropped
+     */
+    private int droppedListCount;
+
+    /**
+     * The estimated bytes given back by dropping empty lists
+     */
+    private long droppedListBytes;
+
+    /**
+     * The number of duplicate strings replaced with another string of the same value
+     */
+    private int deduplicatedStringCount;
+
+    /**
+     * The estimated bytes given back by replacing duplicate strings
+     */
+    private long deduplicatedStringBytes;
+
+    /**
+     * Constructor
+     */
+    CompactionResult() {
+        // Filled in by the compactor
+    }
+
+    /**
+     * Get the estimated bytes given back by replacing duplicate strings. A replaced string only actually goes away if nothing
+     * outside the model still refers to it.
+     * 
+     * @return the estimated bytes given back by replacing duplicate strings
+     */
+    public long getDeduplicatedStringBytes() {
+        return deduplicatedStringBytes;
+    }
+
+    /**
+     * Get the number of duplicate strings replaced with another string of the same value
+     * 
+     * @return the number of duplicate strings replaced
+     */
+    public int getDeduplicatedStringCount() {
+        return deduplicatedStringCount;
+    }
+
+    /**
+     * Get the estimated bytes given back by dropping empty lists
+     * 
+     * @return the estimated bytes given back by dropping empty lists
+     */
+    public long getDroppedListBytes() {
+        return droppedListBytes;
+    }
+
+    /**
+     * Get the number of empty lists dropped
+     * 
+     * @return the number of empty lists dropped
+     */
+    public int getDroppedListCount() {
+        return droppedListCount;
+    }
+
+    /**
+     * Get the estimated bytes given back altogether
+     * 
+     * @return the estimated bytes given back altogether
+     */
+    public long getReclaimedBytes() {
+        return trimmedListBytes + droppedListBytes + deduplicatedStringBytes;
+    }
+
+    /**
+     * Get the estimated bytes given back by trimming lists. Each list is taken to have grown one element at a time from empty, so
+     * lists made with room for more elements to begin with give back more than this, and lists that were already the right size,
+     * such as those trimmed by an earlier compaction, are counted as if they were not.
+     * 
+     * @return the estimated bytes given back by trimming lists
+     */
+    public long getTrimmedListBytes() {
+        return trimmedListBytes;
+    }
+
+    /**
+     * Get the number of lists trimmed to their size
+     * 
+     * @return the number of lists trimmed to their size
+     */
+    public int getTrimmedListCount() {
+        return trimmedListCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(200);
+        builder.append("CompactionResult [trimmedListCount=");
+        builder.append(trimmedListCount);
+        builder.append(", trimmedListBytes=");
+        builder.append(trimmedListBytes);
+        builder.append(", droppedListCount=");
+        builder.append(droppedListCount);
+        builder.append(", droppedListBytes=");
+        builder.append(droppedListBytes);
+        builder.append(", deduplicatedStringCount=");
+        builder.append(deduplicatedStringCount);
+        builder.append(", deduplicatedStringBytes=");
+        builder.append(deduplicatedStringBytes);
+        builder.append("]");
+        return builder.toString();
+    }
+
+    /**
+     * Add in what was done by another part of the same compaction
+     * 
+     * @param other
+     *            the result of the other part
+     */
+    void add(CompactionResult other) {
+        trimmedListCount += other.trimmedListCount;
+        trimmedListBytes += other.trimmedListBytes;
+        droppedListCount += other.droppedListCount;
+        droppedListBytes += other.droppedListBytes;
+        deduplicatedStringCount += other.deduplicatedStringCount;
+        deduplicatedStringBytes += other.deduplicatedStringBytes;
+    }
+
+    /**
+     * Count a duplicate string that was replaced
+     * 
+     * @param bytes
+     *            the estimated bytes it took
+     */
+    void deduplicatedString(long bytes) {
+        deduplicatedStringCount++;
+        deduplicatedStringBytes += bytes;
+    }
+
+    /**
+     * Count an empty list that was dropped
+     * 
+     * @param bytes
+     *            the estimated bytes it took
+     */
+    void droppedList(long bytes) {
+        droppedListCount++;
+        droppedListBytes += bytes;
+    }
+
+    /**
+     * Count a list that was trimmed
+     * 
+     * @param bytes
+     *            the estimated bytes given back
+     */
+    void trimmedList(long bytes) {
+        trimmedListCount++;
+        trimmedListBytes += bytes;
+    }
+}
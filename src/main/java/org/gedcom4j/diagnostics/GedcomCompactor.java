@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.diagnostics;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.gedcom4j.Options;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.XrefMap;
+
+/**
+ * <p>
+ * Gives back heap taken by a loaded {@link Gedcom} that it does not need, once it is done being built. Across the whole model:
+ * </p>
+ * <ul>
+ * <li>Each {@link ArrayList} is trimmed to its size, dropping the room it kept to grow into while the file was being parsed.</li>
+ * <li>Empty lists are dropped - the fields holding them are set to null - but only while
+ * {@link Options#isCollectionInitializationEnabled()} is turned off, since otherwise code using the model counts on them being
+ * there.</li>
+ * <li>Strings with the same value are replaced with a single string, kept in a table the compactor holds on to, so that strings
+ * in several {@link Gedcom}s compacted by the same compactor are shared too. This picks up the places, dates, titles and so on
+ * that were left as separate objects once the parser stopped canonicalizing strings.</li>
+ * </ul>
+ * <p>
+ * The lists are left as {@link ArrayList}s rather than swapped for immutable ones, since the model hands its lists out to be added
+ * to; trimmed, a list with one element holds an array with one slot. Lists of other types, such as those in a
+ * {@link org.gedcom4j.io.snapshot.FrozenGedcom}, are left alone, and so are final fields. The fields of the model objects are got
+ * at by reflection, the same way as in {@link HeapFootprint}, and the bytes given back are estimated the same way.
+ * </p>
+ * <p>
+ * The root-level records can be compacted in parallel with {@link #compact(Gedcom, ForkJoinPool)}: each kind of record is split
+ * into slices compacted as separate tasks. Either way, nothing else may use the {@link Gedcom} while it is being compacted.
+ * Compacting a {@link Gedcom} loaded with {@link org.gedcom4j.parser.GedcomParser#setLazyLoadingEnabled(boolean)} turned on loads
+ * every record, and any record that is later let go and loaded again comes back uncompacted. The compactor itself is
+ * thread-safe.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public final class GedcomCompactor {
+
+    /**
+     * Compacts everything that can be reached from some root-level items without going through another one
+     */
+    private final class CompactRecords extends RecursiveAction {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = 4730924718204518361L;
+
+        /**
+         * The root-level items to compact
+         */
+        private final List<ModelElement> items;
+
+        /**
+         * Every root-level item in the {@link Gedcom}, keyed by itself
+         */
+        private final Map<Object, Boolean> roots;
+
+        /**
+         * Whether empty lists may be dropped
+         */
+        private final boolean dropEmptyLists = !Options.isCollectionInitializationEnabled();
+
+        /**
+         * The objects already reached, and the duplicate strings already counted
+         */
+        private final Map<Object, Boolean> reached = new IdentityHashMap<>();
+
+        /**
+         * What this task did
+         */
+        private final CompactionResult result = new CompactionResult();
+
+        /**
+         * Constructor
+         * 
+         * @param items
+         *            the root-level items to compact
+         * @param roots
+         *            every root-level item in the {@link Gedcom}, keyed by itself
+         */
+        CompactRecords(List<ModelElement> items, Map<Object, Boolean> roots) {
+            this.items = items;
+            this.roots = roots;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            for (ModelElement item : items) {
+                reached.put(item, Boolean.TRUE);
+                compactFields(item);
+            }
+        }
+
+        /**
+         * Get the string to use in place of another with the same value, counting the other one if it is to be replaced
+         * 
+         * @param s
+         *            the string
+         * @return the string to use in its place - s itself if it is the first with its value
+         */
+        @SuppressWarnings("PMD.CompareObjectsWithEquals")
+        private String canonical(String s) {
+            String c = strings.putIfAbsent(s, s);
+            if (c == null || c == s) {
+                return s;
+            }
+            if (reached.put(s, Boolean.TRUE) == null) {
+                result.deduplicatedString(HeapFootprint.sizeOfString(s));
+            }
+            return c;
+        }
+
+        /**
+         * Compact the fields of a model object
+         * 
+         * @param obj
+         *            the model object
+         */
+        @SuppressWarnings("PMD.CompareObjectsWithEquals")
+        private void compactFields(Object obj) {
+            for (Field f : HeapFootprint.getModelFields(obj.getClass())) {
+                Object value = HeapFootprint.getField(f, obj);
+                if (Modifier.isFinal(f.getModifiers())) {
+                    if (value instanceof String) {
+                        strings.putIfAbsent((String) value, (String) value);
+                    } else {
+                        visit(value);
+                    }
+                } else if (value instanceof String) {
+                    String c = canonical((String) value);
+                    if (c != value) {
+                        setField(f, obj, c);
+                    }
+                } else if (dropEmptyLists && value instanceof ArrayList && ((List<?>) value).isEmpty()) {
+                    setField(f, obj, null);
+                    result.droppedList(HeapFootprint.shallowSize(ArrayList.class));
+                } else {
+                    visit(value);
+                }
+            }
+        }
+
+        /**
+         * Compact a list and what is in it
+         * 
+         * @param list
+         *            the list
+         */
+        @SuppressWarnings({ "unchecked", "PMD.CompareObjectsWithEquals" })
+        private void compactList(List<?> list) {
+            if (list.getClass() != ArrayList.class) {
+                for (Object item : list) {
+                    visit(item);
+                }
+                return;
+            }
+            ArrayList<Object> arrayList = (ArrayList<Object>) list;
+            int size = arrayList.size();
+            for (int i = 0; i < size; i++) {
+                Object item = arrayList.get(i);
+                if (item instanceof String) {
+                    String c = canonical((String) item);
+                    if (c != item) {
+                        arrayList.set(i, c);
+                    }
+                } else {
+                    visit(item);
+                }
+            }
+            if (size > 0) {
+                long bytes = HeapFootprint.arraySize(HeapFootprint.arrayListCapacity(size)) - HeapFootprint.arraySize(size);
+                arrayList.trimToSize();
+                if (bytes > 0) {
+                    result.trimmedList(bytes);
+                }
+            }
+        }
+
+        /**
+         * Compact an object, and everything that can be reached from it without going through a root-level item
+         * 
+         * @param obj
+         *            the object
+         */
+        private void visit(Object obj) {
+            if (obj == null || obj instanceof Enum || obj instanceof String || reached.containsKey(obj) || roots.containsKey(obj)) {
+                return;
+            }
+            reached.put(obj, Boolean.TRUE);
+            if (obj instanceof List) {
+                compactList((List<?>) obj);
+            } else if (obj instanceof Collection) {
+                for (Object item : (Collection<?>) obj) {
+                    visit(item);
+                }
+            } else if (obj instanceof Map) {
+                for (Object value : ((Map<?, ?>) obj).values()) {
+                    visit(value);
+                }
+            } else if (obj instanceof ModelElement) {
+                compactFields(obj);
+            }
+        }
+    }
+
+    /**
+     * The smallest number of root-level records worth compacting in a task of their own when compacting in parallel
+     */
+    private static final int MIN_RECORDS_PER_TASK = 256;
+
+    /**
+     * The string to use for each value
+     */
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * Compact a {@link Gedcom} on the calling thread
+     * 
+     * @param gedcom
+     *            the {@link Gedcom}. Required.
+     * @return what was done, and the estimated bytes given back
+     */
+    public CompactionResult compact(Gedcom gedcom) {
+        return compact(gedcom, null);
+    }
+
+    /**
+     * Compact a {@link Gedcom}, compacting its records in parallel
+     * 
+     * @param gedcom
+     *            the {@link Gedcom}. Required.
+     * @param pool
+     *            the pool to compact the records in. If null, they are compacted on the calling thread.
+     * @return what was done, and the estimated bytes given back
+     */
+    public CompactionResult compact(Gedcom gedcom, ForkJoinPool pool) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is required");
+        }
+        List<List<ModelElement>> groups = new ArrayList<>(8);
+        List<ModelElement> topLevel = new ArrayList<>(4);
+        addItem(topLevel, gedcom);
+        addItem(topLevel, gedcom.getHeader());
+        addItem(topLevel, gedcom.getSubmission());
+        addItem(topLevel, gedcom.getTrailer());
+        groups.add(topLevel);
+        addGroup(groups, gedcom.getIndividuals());
+        addGroup(groups, gedcom.getFamilies());
+        addGroup(groups, gedcom.getSources());
+        addGroup(groups, gedcom.getRepositories());
+        addGroup(groups, gedcom.getNotes());
+        addGroup(groups, gedcom.getMultimedia());
+        addGroup(groups, gedcom.getSubmitters());
+
+        Map<Object, Boolean> roots = new IdentityHashMap<>();
+        for (List<ModelElement> group : groups) {
+            for (ModelElement item : group) {
+                roots.put(item, Boolean.TRUE);
+            }
+        }
+        List<CompactRecords> tasks = new ArrayList<>();
+        for (List<ModelElement> group : groups) {
+            int slices = pool == null ? 1 : Math.max(1, Math.min(pool.getParallelism() * 4, group.size() / MIN_RECORDS_PER_TASK));
+            for (int i = 0; i < slices; i++) {
+                tasks.add(new CompactRecords(group.subList(group.size() * i / slices, group.size() * (i + 1) / slices), roots));
+            }
+        }
+        if (pool == null) {
+            for (CompactRecords task : tasks) {
+                task.invoke();
+            }
+        } else {
+            for (CompactRecords task : tasks) {
+                pool.execute(task);
+            }
+            for (CompactRecords task : tasks) {
+                task.join();
+            }
+        }
+
+        CompactionResult result = new CompactionResult();
+        for (CompactRecords task : tasks) {
+            result.add(task.result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of different string values the compactor has seen
+     * 
+     * @return the number of different string values the compactor has seen
+     */
+    public int getStringCount() {
+        return strings.size();
+    }
+
+    /**
+     * Add a root-level item to be compacted
+     * 
+     * @param group
+     *            the group of root-level items
+     * @param item
+     *            the item. Ignored if null.
+     */
+    private static void addItem(List<ModelElement> group, ModelElement item) {
+        if (item != null) {
+            group.add(item);
+        }
+    }
+
+    /**
+     * Set the value of a field
+     * 
+     * @param f
+     *            the field
+     * @param obj
+     *            the object whose field it is
+     * @param value
+     *            the new value
+     */
+    private static void setField(Field f, Object obj, Object value) {
+        try {
+            f.set(obj, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to write " + f, e);
+        }
+    }
+
+    /**
+     * Add the records in one of the {@link Gedcom}'s maps as a group to be compacted. The keys go into the string table first, so
+     * that the records' xrefs can be replaced with them - unless the map is an {@link XrefMap}, which makes most of its keys as
+     * they are asked for.
+     * 
+     * @param groups
+     *            the groups of root-level items
+     * @param records
+     *            the map of records
+     */
+    private void addGroup(List<List<ModelElement>> groups, Map<String, ? extends ModelElement> records) {
+        List<ModelElement> group = new ArrayList<>(records.size());
+        boolean keysHeld = !(records instanceof XrefMap);
+        for (Entry<String, ? extends ModelElement> e : records.entrySet()) {
+            if (keysHeld && e.getKey() != null) {
+                strings.putIfAbsent(e.getKey(), e.getKey());
+            }
+            addItem(group, e.getValue());
+        }
+        groups.add(group);
+    }
+}
@@ -0,0 +1,792 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.diagnostics;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.XrefMap;
+
+/**
+ * <p>
+ * An estimate of how much heap a loaded {@link Gedcom} takes, and where it goes: by class (custom facts, notes, citations,
+ * strings...), by type of root-level record, and for the heaviest records. It also counts duplicate strings - strings with the
+ * same characters held as separate objects - and empty collections, such as those made when
+ * {@link org.gedcom4j.Options#isCollectionInitializationEnabled()} is turned on. {@link #getReport()} puts it all in a
+ * tab-separated report for capacity planning.
+ * </p>
+ * <p>
+ * The sizes are estimates for a 64-bit JVM using compressed references: 12-byte object headers, 16-byte array headers, 4-byte
+ * references and objects padded to a multiple of 8 bytes. The fields of the model objects are looked at by reflection. The
+ * insides of JDK collections can't be, so an {@link ArrayList}'s backing array is taken to have grown one element at a time from
+ * empty, and every map is taken to be laid out like a {@link HashMap}, though the keys of an {@link XrefMap} are not counted,
+ * since it makes most of them as they are asked for. Anything reached from more than one record - such as shared
+ * {@link org.gedcom4j.model.StringWithCustomFacts} instances or canonicalized strings - is counted once, as shared rather than
+ * against any one record.
+ * </p>
+ * <p>
+ * Working out the footprint of a {@link Gedcom} loaded with
+ * {@link org.gedcom4j.parser.GedcomParser#setLazyLoadingEnabled(boolean)} turned on loads every record.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public final class HeapFootprint {
+
+    /**
+     * Works out the footprint
+     */
+    private final class Walker {
+
+        /**
+         * Each object reached so far, with the record it belongs to ({@link #SHARED} if it was reached from more than one) and its
+         * estimated bytes
+         */
+        private final Map<Object, Object[]> reached = new IdentityHashMap<>();
+
+        /**
+         * The root-level items, in the order they are to be walked
+         */
+        private final List<RecordFootprint> roots;
+
+        /**
+         * The root-level items, keyed by themselves
+         */
+        private final Map<Object, RecordFootprint> rootsByItem = new IdentityHashMap<>();
+
+        /**
+         * How many times each model class is on the way from the current root-level item to the current object
+         */
+        private final Map<ClassFootprint, Integer> path = new IdentityHashMap<>();
+
+        /**
+         * The number of strings with each value
+         */
+        private final Map<String, Integer> stringValues = new HashMap<>();
+
+        /**
+         * The objects already reached from the current root-level item
+         */
+        private Map<Object, Boolean> reachedFromRoot;
+
+        /**
+         * Constructor
+         * 
+         * @param roots
+         *            the root-level items, in the order they are to be walked
+         */
+        Walker(List<RecordFootprint> roots) {
+            this.roots = roots;
+            for (RecordFootprint root : roots) {
+                rootsByItem.put(root.getRecord(), root);
+            }
+        }
+
+        /**
+         * Walk everything that can be reached from each root-level item without going through another one
+         */
+        void walk() {
+            for (RecordFootprint root : roots) {
+                reachedFromRoot = new IdentityHashMap<>();
+                visit(root.getRecord(), root);
+            }
+            for (Object[] ownerAndBytes : reached.values()) {
+                long bytes = (Long) ownerAndBytes[1];
+                totalBytes += bytes;
+                if (ownerAndBytes[0] == SHARED) {
+                    sharedBytes += bytes;
+                } else {
+                    ((RecordFootprint) ownerAndBytes[0]).addRetained(bytes);
+                }
+            }
+            for (Entry<String, Integer> e : stringValues.entrySet()) {
+                stringCount += e.getValue();
+                duplicateStringBytes += (e.getValue() - 1) * sizeOfString(e.getKey());
+            }
+            distinctStringCount = stringValues.size();
+        }
+
+        /**
+         * Count an object the first time it is reached
+         * 
+         * @param obj
+         *            the object
+         * @param root
+         *            the root-level item it was reached from
+         * @return the class footprint of a model object, to go on the path to the objects inside it; null for anything else
+         */
+        private ClassFootprint count(Object obj, RecordFootprint root) {
+            Class<?> type = obj.getClass();
+            long shallow = SHALLOW_SIZES.get(type);
+            long bytes = shallow;
+            if (obj instanceof String) {
+                bytes = sizeOfString((String) obj);
+                Integer count = stringValues.get(obj);
+                stringValues.put((String) obj, count == null ? 1 : count + 1);
+            } else if (obj instanceof Collection) {
+                int size = ((Collection<?>) obj).size();
+                if (size > 0) {
+                    bytes += arraySize(obj instanceof ArrayList ? arrayListCapacity(size) : size);
+                }
+            } else if (obj instanceof Map) {
+                int size = ((Map<?, ?>) obj).size();
+                if (size > 0) {
+                    bytes += arraySize(hashTableSize(size)) + (long) size * (obj instanceof LinkedHashMap ? LINKED_MAP_ENTRY
+                            : MAP_ENTRY);
+                }
+            }
+            if ((obj instanceof Collection && ((Collection<?>) obj).isEmpty()) || (obj instanceof Map && ((Map<?, ?>) obj)
+                    .isEmpty())) {
+                emptyCollectionCount++;
+                emptyCollectionBytes += bytes;
+            }
+            reached.put(obj, new Object[] { root, bytes });
+
+            ClassFootprint cf = getClassFootprint(type);
+            cf.addInstance(shallow);
+            if (!(obj instanceof ModelElement) || !path.containsKey(cf)) {
+                cf.addRetained(bytes);
+            }
+            for (ClassFootprint onPath : path.keySet()) {
+                onPath.addRetained(bytes);
+            }
+            return obj instanceof ModelElement ? cf : null;
+        }
+
+        /**
+         * Visit an object, and everything that can be reached from it without going through another root-level item
+         * 
+         * @param obj
+         *            the object
+         * @param root
+         *            the root-level item it was reached from
+         */
+        private void visit(Object obj, RecordFootprint root) {
+            if (obj == null || obj instanceof Enum || reachedFromRoot.containsKey(obj) || obj != root.getRecord()
+                    && rootsByItem.containsKey(obj)) {
+                return;
+            }
+            reachedFromRoot.put(obj, Boolean.TRUE);
+            Object[] ownerAndBytes = reached.get(obj);
+            ClassFootprint onPath = null;
+            if (ownerAndBytes == null) {
+                onPath = count(obj, root);
+            } else if (ownerAndBytes[0] != root) {
+                ownerAndBytes[0] = SHARED;
+            }
+            if (onPath != null) {
+                Integer times = path.get(onPath);
+                path.put(onPath, times == null ? 1 : times + 1);
+            }
+            if (obj instanceof Collection) {
+                for (Object item : (Collection<?>) obj) {
+                    visit(item, root);
+                }
+            } else if (obj instanceof Map) {
+                boolean keysHeld = !(obj instanceof XrefMap);
+                for (Entry<?, ?> e : ((Map<?, ?>) obj).entrySet()) {
+                    if (keysHeld) {
+                        visit(e.getKey(), root);
+                    }
+                    visit(e.getValue(), root);
+                }
+            } else if (obj instanceof ModelElement) {
+                for (Field f : MODEL_FIELDS.get(obj.getClass())) {
+                    visit(getField(f, obj), root);
+                }
+            }
+            if (onPath != null) {
+                int times = path.get(onPath);
+                if (times == 1) {
+                    path.remove(onPath);
+                } else {
+                    path.put(onPath, times - 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * The bytes taken by an object header
+     */
+    private static final int OBJECT_HEADER = 12;
+
+    /**
+     * The bytes taken by an array header, including its length
+     */
+    private static final int ARRAY_HEADER = 16;
+
+    /**
+     * The bytes taken by a reference
+     */
+    private static final int REFERENCE = 4;
+
+    /**
+     * Objects take a multiple of this many bytes
+     */
+    private static final int ALIGNMENT = 8;
+
+    /**
+     * The bytes taken by each entry of a hash map - a hash code, a key, a value and the next entry in the same bucket
+     */
+    private static final int MAP_ENTRY = 32;
+
+    /**
+     * The bytes taken by each entry of a linked hash map - a hash map entry and the entries before and after it
+     */
+    private static final int LINKED_MAP_ENTRY = 40;
+
+    /**
+     * Marks an object reached from more than one root-level item
+     */
+    private static final Object SHARED = new Object();
+
+    /**
+     * Are strings stored one byte per character when they can be, as they are from Java 9 on?
+     */
+    private static final boolean COMPACT_STRINGS = hasField(String.class, "coder");
+
+    /**
+     * The estimated bytes taken by an instance of each class itself
+     */
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<Long>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long bytes = OBJECT_HEADER;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers())) {
+                        bytes += sizeOfField(f.getType());
+                    }
+                }
+            }
+            return align(bytes);
+        }
+    };
+
+    /**
+     * The fields of each model class, superclass fields included, that can lead to other objects
+     */
+    private static final ClassValue<Field[]> MODEL_FIELDS = new ClassValue<Field[]>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> result = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive()) {
+                        f.setAccessible(true);
+                        result.add(f);
+                    }
+                }
+            }
+            return result.toArray(new Field[result.size()]);
+        }
+    };
+
+    /**
+     * Orders class footprints by the most retained bytes first, then by name
+     */
+    private static final Comparator<ClassFootprint> BY_RETAINED_BYTES = new Comparator<ClassFootprint>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compare(ClassFootprint c1, ClassFootprint c2) {
+            int result = Long.compare(c2.getRetainedBytes(), c1.getRetainedBytes());
+            return result == 0 ? c1.getName().compareTo(c2.getName()) : result;
+        }
+    };
+
+    /**
+     * Orders record footprints by the most retained bytes first
+     */
+    private static final Comparator<RecordFootprint> HEAVIEST_FIRST = new Comparator<RecordFootprint>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compare(RecordFootprint r1, RecordFootprint r2) {
+            return Long.compare(r2.getRetainedBytes(), r1.getRetainedBytes());
+        }
+    };
+
+    /**
+     * The footprint of each class, keyed by class
+     */
+    private final Map<Class<?>, ClassFootprint> classFootprints = new HashMap<>();
+
+    /**
+     * The footprint of each type of root-level record, heaviest first
+     */
+    private final List<ClassFootprint> recordTypeFootprints = new ArrayList<>();
+
+    /**
+     * The heaviest records with xrefs
+     */
+    private final List<RecordFootprint> heaviestRecords;
+
+    /**
+     * The estimated bytes taken by everything in the {@link Gedcom}
+     */
+    private long totalBytes;
+
+    /**
+     * The estimated bytes taken by things reached from more than one root-level item
+     */
+    private long sharedBytes;
+
+    /**
+     * The number of string objects
+     */
+    private int stringCount;
+
+    /**
+     * The number of different string values
+     */
+    private int distinctStringCount;
+
+    /**
+     * The estimated bytes that could be saved if strings with the same value were the same object
+     */
+    private long duplicateStringBytes;
+
+    /**
+     * The number of empty collections and maps
+     */
+    private int emptyCollectionCount;
+
+    /**
+     * The estimated bytes taken by empty collections and maps
+     */
+    private long emptyCollectionBytes;
+
+    /**
+     * Constructor. Works out the footprint of the {@link Gedcom} as it is now.
+     * 
+     * @param gedcom
+     *            the {@link Gedcom}. Required.
+     * @param heaviestRecordCount
+     *            how many of the heaviest records to keep track of
+     */
+    public HeapFootprint(Gedcom gedcom, int heaviestRecordCount) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is required");
+        }
+        if (heaviestRecordCount < 0) {
+            throw new IllegalArgumentException("heaviestRecordCount cannot be negative");
+        }
+        List<RecordFootprint> roots = new ArrayList<>();
+        addRoot(roots, gedcom, null);
+        addRoot(roots, gedcom.getHeader(), null);
+        addRoot(roots, gedcom.getSubmission(), gedcom.getSubmission() == null ? null : gedcom.getSubmission().getXref());
+        addRoot(roots, gedcom.getTrailer(), null);
+        addRoots(roots, gedcom.getIndividuals());
+        addRoots(roots, gedcom.getFamilies());
+        addRoots(roots, gedcom.getSources());
+        addRoots(roots, gedcom.getRepositories());
+        addRoots(roots, gedcom.getNotes());
+        addRoots(roots, gedcom.getMultimedia());
+        addRoots(roots, gedcom.getSubmitters());
+        new Walker(roots).walk();
+
+        Map<Class<?>, ClassFootprint> byType = new HashMap<>();
+        List<RecordFootprint> records = new ArrayList<>(roots);
+        for (RecordFootprint rf : records) {
+            Class<?> type = rf.getRecord().getClass();
+            ClassFootprint cf = byType.get(type);
+            if (cf == null) {
+                cf = new ClassFootprint(type.getSimpleName());
+                byType.put(type, cf);
+            }
+            cf.addInstance(SHALLOW_SIZES.get(type));
+            cf.addRetained(rf.getRetainedBytes());
+        }
+        recordTypeFootprints.addAll(byType.values());
+        Collections.sort(recordTypeFootprints, BY_RETAINED_BYTES);
+        List<RecordFootprint> withXrefs = new ArrayList<>(records.size());
+        for (RecordFootprint rf : records) {
+            if (rf.getXref() != null) {
+                withXrefs.add(rf);
+            }
+        }
+        Collections.sort(withXrefs, HEAVIEST_FIRST);
+        heaviestRecords = new ArrayList<>(withXrefs.subList(0, Math.min(heaviestRecordCount, withXrefs.size())));
+    }
+
+    /**
+     * Get the footprint of each class of object in the {@link Gedcom}
+     * 
+     * @return the footprint of each class, the most retained bytes first
+     */
+    public List<ClassFootprint> getClassFootprints() {
+        List<ClassFootprint> result = new ArrayList<>(classFootprints.values());
+        Collections.sort(result, BY_RETAINED_BYTES);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Get the number of different string values
+     * 
+     * @return the number of different string values
+     */
+    public int getDistinctStringCount() {
+        return distinctStringCount;
+    }
+
+    /**
+     * Get the estimated bytes that could be saved if all the strings with the same value were the same object
+     * 
+     * @return the estimated bytes taken by duplicate strings
+     */
+    public long getDuplicateStringBytes() {
+        return duplicateStringBytes;
+    }
+
+    /**
+     * Get the estimated bytes taken by empty collections and maps
+     * 
+     * @return the estimated bytes taken by empty collections and maps
+     */
+    public long getEmptyCollectionBytes() {
+        return emptyCollectionBytes;
+    }
+
+    /**
+     * Get the number of empty collections and maps
+     * 
+     * @return the number of empty collections and maps
+     */
+    public int getEmptyCollectionCount() {
+        return emptyCollectionCount;
+    }
+
+    /**
+     * Get the heaviest records - the root-level items with xrefs
+     * 
+     * @return the heaviest records, heaviest first
+     */
+    public List<RecordFootprint> getHeaviestRecords() {
+        return Collections.unmodifiableList(heaviestRecords);
+    }
+
+    /**
+     * Get the footprint of each type of root-level item - each type of record, plus the header, submission, trailer, and the
+     * {@link Gedcom} itself with its maps of records
+     * 
+     * @return the footprint of each type of root-level item, the most retained bytes first
+     */
+    public List<ClassFootprint> getRecordTypeFootprints() {
+        return Collections.unmodifiableList(recordTypeFootprints);
+    }
+
+    /**
+     * Get a tab-separated report of the footprint, with a section for the totals, record types, classes, strings and empty
+     * collections, and heaviest records. Each section starts with a line of column headings.
+     * 
+     * @return the report
+     */
+    public String getReport() {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("Total bytes\tShared bytes\n");
+        sb.append(totalBytes).append('\t').append(sharedBytes).append("\n\n");
+        appendClassFootprints(sb, "Record type", recordTypeFootprints);
+        appendClassFootprints(sb, "Class", getClassFootprints());
+        sb.append("Strings\tDistinct values\tDuplicate bytes\tEmpty collections\tEmpty collection bytes\n");
+        sb.append(stringCount).append('\t').append(distinctStringCount).append('\t').append(duplicateStringBytes).append('\t')
+                .append(emptyCollectionCount).append('\t').append(emptyCollectionBytes).append("\n\n");
+        sb.append("Heaviest record\tType\tRetained bytes\n");
+        for (RecordFootprint rf : heaviestRecords) {
+            sb.append(rf.getXref()).append('\t').append(rf.getRecord().getClass().getSimpleName()).append('\t').append(rf
+                    .getRetainedBytes()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Get the estimated bytes taken by things reached from more than one root-level item, which are not counted against any of
+     * them
+     * 
+     * @return the estimated bytes taken by things reached from more than one root-level item
+     */
+    public long getSharedBytes() {
+        return sharedBytes;
+    }
+
+    /**
+     * Get the number of string objects
+     * 
+     * @return the number of string objects
+     */
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Get the estimated bytes taken by everything in the {@link Gedcom}
+     * 
+     * @return the estimated bytes taken by everything in the {@link Gedcom}
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Estimate the capacity of an {@link ArrayList}, taking it to have grown one element at a time from empty
+     * 
+     * @param size
+     *            the number of elements
+     * @return the estimated capacity
+     */
+    static int arrayListCapacity(int size) {
+        int capacity = 0;
+        while (capacity < size) {
+            capacity = Math.max(capacity + 1, capacity + (capacity >> 1));
+        }
+        return capacity;
+    }
+
+    /**
+     * Estimate the bytes taken by an array of references
+     * 
+     * @param length
+     *            the length of the array
+     * @return the estimated bytes
+     */
+    static long arraySize(int length) {
+        return align(ARRAY_HEADER + (long) REFERENCE * length);
+    }
+
+    /**
+     * Get the value of a field
+     * 
+     * @param f
+     *            the field
+     * @param obj
+     *            the object whose field it is
+     * @return the value of the field
+     */
+    static Object getField(Field f, Object obj) {
+        try {
+            return f.get(obj);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to read " + f, e);
+        }
+    }
+
+    /**
+     * Get the fields of a model class, superclass fields included, that can lead to other objects
+     * 
+     * @param type
+     *            the model class
+     * @return the fields, made accessible
+     */
+    static Field[] getModelFields(Class<?> type) {
+        return MODEL_FIELDS.get(type);
+    }
+
+    /**
+     * Estimate the bytes taken by an instance of a class itself, not counting anything it refers to
+     * 
+     * @param type
+     *            the class
+     * @return the estimated bytes
+     */
+    static long shallowSize(Class<?> type) {
+        return SHALLOW_SIZES.get(type);
+    }
+
+    /**
+     * Estimate the bytes taken by a string, including its characters
+     * 
+     * @param s
+     *            the string
+     * @return the estimated bytes
+     */
+    static long sizeOfString(String s) {
+        int bytesPerChar = 2;
+        if (COMPACT_STRINGS) {
+            bytesPerChar = 1;
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) > 0xFF) {
+                    bytesPerChar = 2;
+                    break;
+                }
+            }
+        }
+        return SHALLOW_SIZES.get(String.class) + align(ARRAY_HEADER + (long) bytesPerChar * s.length());
+    }
+
+    /**
+     * Add a root-level item to be walked
+     * 
+     * @param roots
+     *            the root-level items
+     * @param item
+     *            the item. Ignored if null.
+     * @param xref
+     *            the item's xref, if it has one
+     */
+    private static void addRoot(List<RecordFootprint> roots, ModelElement item, String xref) {
+        if (item != null) {
+            roots.add(new RecordFootprint(item, xref));
+        }
+    }
+
+    /**
+     * Add the records in one of the {@link Gedcom}'s maps to be walked
+     * 
+     * @param roots
+     *            the root-level items
+     * @param records
+     *            the map of records
+     */
+    private static void addRoots(List<RecordFootprint> roots, Map<String, ? extends ModelElement> records) {
+        for (Entry<String, ? extends ModelElement> e : records.entrySet()) {
+            addRoot(roots, e.getValue(), e.getKey());
+        }
+    }
+
+    /**
+     * Round a number of bytes up to the next multiple of {@link #ALIGNMENT}
+     * 
+     * @param bytes
+     *            the number of bytes
+     * @return the number of bytes, rounded up
+     */
+    private static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Append a section of class footprints to a report
+     * 
+     * @param sb
+     *            the report
+     * @param heading
+     *            the heading of the first column
+     * @param footprints
+     *            the class footprints
+     */
+    private static void appendClassFootprints(StringBuilder sb, String heading, List<ClassFootprint> footprints) {
+        sb.append(heading).append("\tInstances\tShallow bytes\tRetained bytes\n");
+        for (ClassFootprint cf : footprints) {
+            sb.append(cf.getName()).append('\t').append(cf.getInstanceCount()).append('\t').append(cf.getShallowBytes()).append(
+                    '\t').append(cf.getRetainedBytes()).append('\n');
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * Does a class have a field with a name?
+     * 
+     * @param type
+     *            the class
+     * @param name
+     *            the name of the field
+     * @return true if the class declares a field with the name
+     */
+    private static boolean hasField(Class<?> type, String name) {
+        try {
+            type.getDeclaredField(name);
+            return true;
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Estimate the number of buckets in a hash map
+     * 
+     * @param size
+     *            the number of entries
+     * @return the estimated number of buckets - the smallest power of two, at least 16, that holds the entries at the default load
+     *         factor
+     */
+    private static int hashTableSize(int size) {
+        int buckets = 16;
+        while (buckets * 3 / 4 < size) {
+            buckets *= 2;
+        }
+        return buckets;
+    }
+
+    /**
+     * Get the bytes taken by a field of a type
+     * 
+     * @param type
+     *            the type of the field
+     * @return the bytes taken by the field
+     */
+    private static int sizeOfField(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    /**
+     * Get the footprint of a class, making it if need be
+     * 
+     * @param type
+     *            the class
+     * @return the footprint of the class
+     */
+    private ClassFootprint getClassFootprint(Class<?> type) {
+        ClassFootprint result = classFootprints.get(type);
+        if (result == null) {
+            String name = type.getSimpleName();
+            result = new ClassFootprint(name.isEmpty() ? type.getName() : name);
+            classFootprints.put(type, result);
+        }
+        return result;
+    }
+}
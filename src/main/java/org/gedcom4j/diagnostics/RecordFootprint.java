@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.diagnostics;
+
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * The estimated heap footprint of one root-level item of a {@link org.gedcom4j.model.Gedcom} - a record, or the header,
+ * submission or trailer - in a {@link HeapFootprint}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public final class RecordFootprint {
+
+    /**
+     * The record
+     */
+    private final ModelElement record;
+
+    /**
+     * The xref of the record, if it has one
+     */
+    private final String xref;
+
+    /**
+     * The estimated bytes taken by the record and everything in it that is not shared with other records
+     */
+    private long retainedBytes;
+
+    /**
+     * Constructor
+     * 
+     * @param record
+     *            the record
+     * @param xref
+     *            the xref of the record, if it has one
+     */
+    RecordFootprint(ModelElement record, String xref) {
+        this.record = record;
+        this.xref = xref;
+    }
+
+    /**
+     * Get the record
+     * 
+     * @return the record
+     */
+    public ModelElement getRecord() {
+        return record;
+    }
+
+    /**
+     * Get the estimated bytes taken by the record and everything in it that is not shared with other records
+     * 
+     * @return the estimated bytes taken by the record and everything in it that is not shared with other records
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Get the xref of the record
+     * 
+     * @return the xref of the record, or null if it has none
+     */
+    public String getXref() {
+        return xref;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(64);
+        builder.append("RecordFootprint [type=");
+        builder.append(record.getClass().getSimpleName());
+        builder.append(", xref=");
+        builder.append(xref);
+        builder.append(", retainedBytes=");
+        builder.append(retainedBytes);
+        builder.append("]");
+        return builder.toString();
+    }
+
+    /**
+     * Count bytes taken by something in the record
+     * 
+     * @param bytes
+     *            the estimated bytes
+     */
+    void addRetained(long bytes) {
+        retainedBytes += bytes;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields of a model class that go into a snapshot, and how to make a new instance of it. Each class is looked at by reflection
+ * once, and its layout kept from then on. Thread-safe.
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class ClassLayout {
+
+    /**
+     * Orders fields by name
+     */
+    private static final Comparator<Field> BY_NAME = new Comparator<Field>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compare(Field f1, Field f2) {
+            return f1.getName().compareTo(f2.getName());
+        }
+    };
+
+    /**
+     * The layout of each class
+     */
+    private static final ClassValue<ClassLayout> LAYOUTS = new ClassValue<ClassLayout>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected ClassLayout computeValue(Class<?> type) {
+            return new ClassLayout(type);
+        }
+    };
+
+    /**
+     * The class
+     */
+    private final Class<?> type;
+
+    /**
+     * The fields to write, superclass fields first, and in order of name within each class. Empty for an enum, whose constants are
+     * written by name.
+     */
+    private final Field[] fields;
+
+    /**
+     * The same fields, keyed by name
+     */
+    private final Map<String, Field> fieldsByName;
+
+    /**
+     * The constructor used to make new instances - the no-arg constructor if there is one, otherwise the one that takes a single
+     * string, which is passed null. Null if the class has neither.
+     */
+    private final Constructor<?> constructor;
+
+    /**
+     * Constructor
+     * 
+     * @param type
+     *            the class
+     */
+    private ClassLayout(Class<?> type) {
+        this.type = type;
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class && !type.isEnum(); c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        List<Field> found = new ArrayList<>();
+        fieldsByName = new HashMap<>();
+        for (Class<?> c : hierarchy) {
+            List<Field> declared = new ArrayList<>();
+            for (Field f : c.getDeclaredFields()) {
+                int modifiers = f.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || f.isSynthetic()) {
+                    continue;
+                }
+                if (fieldsByName.containsKey(f.getName())) {
+                    throw new IllegalStateException(type.getName() + " has more than one field named " + f.getName());
+                }
+                f.setAccessible(true);
+                fieldsByName.put(f.getName(), f);
+                declared.add(f);
+            }
+            Collections.sort(declared, BY_NAME);
+            found.addAll(declared);
+        }
+        fields = found.toArray(new Field[found.size()]);
+        constructor = findConstructor(type);
+    }
+
+    /**
+     * Get the layout of a class
+     * 
+     * @param type
+     *            the class
+     * @return the layout of the class
+     */
+    static ClassLayout of(Class<?> type) {
+        return LAYOUTS.get(type);
+    }
+
+    /**
+     * Find the constructor to make new instances with
+     * 
+     * @param type
+     *            the class
+     * @return the no-arg constructor if there is one, otherwise the one that takes a single string, or null if there is neither
+     */
+    private static Constructor<?> findConstructor(Class<?> type) {
+        if (type.isEnum() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        for (Class<?>[] parameterTypes : new Class<?>[][] { {}, { String.class } }) {
+            try {
+                Constructor<?> c = type.getDeclaredConstructor(parameterTypes);
+                c.setAccessible(true);
+                return c;
+            } catch (NoSuchMethodException e) { // NOPMD - deliberately trying the next kind of constructor
+                // Try the next one
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the field with the supplied name
+     * 
+     * @param name
+     *            the name of the field
+     * @return the field, or null if the class has no field of that name that goes into a snapshot
+     */
+    Field getField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    /**
+     * Get the fields that go into a snapshot
+     * 
+     * @return the fields that go into a snapshot, superclass fields first, and in order of name within each class. Do not modify.
+     */
+    Field[] getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the class
+     * 
+     * @return the class
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Make a new instance of the class, to have its fields filled in
+     * 
+     * @return the new instance
+     * @throws ReflectiveOperationException
+     *             if the class has no suitable constructor, or the constructor fails
+     */
+    Object newInstance() throws ReflectiveOperationException {
+        if (constructor == null) {
+            throw new InstantiationException(type.getName() + " has neither a no-arg constructor nor one that takes a string");
+        }
+        if (constructor.getParameterTypes().length == 0) {
+            return constructor.newInstance();
+        }
+        return constructor.newInstance((Object) null);
+    }
+}
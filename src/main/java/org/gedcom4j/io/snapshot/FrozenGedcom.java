@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.RecordResolver;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.gedcom4j.model.Submitter;
+import org.gedcom4j.model.XrefMap;
+
+/**
+ * <p>
+ * A frozen snapshot of a {@link Gedcom}, for sharing among any number of threads that only read it, without locking. Freezing
+ * makes a deep copy of the {@link Gedcom}, with references between records leading to the records of the copy, in which:
+ * </p>
+ * <ul>
+ * <li>every list and map, including the maps of records, is unmodifiable, so trying to add to or remove from one throws an
+ * {@link UnsupportedOperationException}</li>
+ * <li>every list is present, empty if there was none (as when
+ * {@link org.gedcom4j.Options#setCollectionInitializationEnabled(boolean)} is turned on), so the <code>getXxx(true)</code> getters
+ * never have to create one</li>
+ * <li>a {@link StringWithCustomFacts} that is shared (see {@link StringWithCustomFacts#newSharedInstance(String)}) is copied once,
+ * and the copy is shared by the same model objects, as it cannot be changed either</li>
+ * <li>every record is loaded, even if the {@link Gedcom} was loaded with
+ * {@link org.gedcom4j.parser.GedcomParser#setLazyLoadingEnabled(boolean)} turned on</li>
+ * </ul>
+ * <p>
+ * So reading the snapshot never changes it. The copy is only reachable through a final field of this object, so every thread that
+ * gets hold of this object sees the copy complete, however it got hold of it. To move readers on to a new version, freeze the
+ * {@link Gedcom} again after changing it and swap the new snapshot in - for example, with
+ * {@link java.util.concurrent.atomic.AtomicReference#set(Object)} - so each reader sees either the old snapshot or the new one as
+ * a whole. Readers still holding the old snapshot can carry on using it.
+ * </p>
+ * <p>
+ * The model classes have setters for their other fields that cannot be turned off, so a snapshot can only be shared safely as long
+ * as nobody calls them. The {@link Gedcom} being frozen must not be changed while it is being frozen.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public final class FrozenGedcom {
+
+    /**
+     * Makes the frozen copy
+     */
+    private static final class Freezer {
+
+        /**
+         * The copies made so far, keyed by what they were copied from
+         */
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+        /**
+         * The model objects that have been made but whose fields are still to be copied, each with what it is a copy of. Filling
+         * them in later, rather than as they are found, keeps the copying from recursing through chains of records.
+         */
+        private final Deque<ModelElement[]> pending = new ArrayDeque<>();
+
+        /**
+         * Copy the fields of the model objects waiting for it, and of the ones they lead to
+         */
+        void copyPending() {
+            while (!pending.isEmpty()) {
+                ModelElement[] fromTo = pending.remove();
+                for (Field f : ClassLayout.of(fromTo[0].getClass()).getFields()) {
+                    if (Modifier.isFinal(f.getModifiers()) && getField(f, fromTo[1]) != null) {
+                        // Already set by the constructor, like the maps of records
+                        continue;
+                    }
+                    Object value = copyValue(getField(f, fromTo[0]));
+                    if (value == null && List.class.isAssignableFrom(f.getType())) {
+                        value = Collections.emptyList();
+                    }
+                    setField(f, fromTo[1], value);
+                }
+            }
+        }
+
+        /**
+         * Make the frozen map of one kind of record
+         * 
+         * @param <T>
+         *            the type of record
+         * @param records
+         *            the {@link Gedcom}'s map of records
+         * @return the unmodifiable map of copies of the records, with the same keys
+         */
+        @SuppressWarnings("unchecked")
+        <T> Map<String, T> freezeRecords(Map<String, T> records) {
+            Map<String, T> result = new XrefMap<>(records.size());
+            for (Entry<String, T> e : records.entrySet()) {
+                result.put(e.getKey(), (T) copyValue(e.getValue()));
+            }
+            return Collections.unmodifiableMap(result);
+        }
+
+        /**
+         * Note a copy of a model object, to have its fields copied by {@link #copyPending()}
+         * 
+         * @param from
+         *            the model object
+         * @param to
+         *            the new, empty object of the same class
+         */
+        void startCopy(ModelElement from, ModelElement to) {
+            copies.put(from, to);
+            pending.add(new ModelElement[] { from, to });
+        }
+
+        /**
+         * Copy a value from a field of a model object. Strings, numbers, booleans and enums are shared rather than copied. A copy
+         * of a model object is only made here, and filled in by {@link #copyPending()}.
+         * 
+         * @param value
+         *            the value
+         * @return the copy
+         */
+        private Object copyValue(Object value) {
+            if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+                    || value instanceof Enum) {
+                return value;
+            }
+            Object copy = copies.get(value);
+            if (copy != null) {
+                return copy;
+            }
+            if (value instanceof ModelElement) {
+                if (value instanceof HasXref) {
+                    RecordResolver.resolve((HasXref) value);
+                }
+                ModelElement element = newInstance((ModelElement) value);
+                startCopy((ModelElement) value, element);
+                return element;
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                if (list.isEmpty()) {
+                    copy = Collections.emptyList();
+                } else {
+                    List<Object> items = new ArrayList<>(list.size());
+                    for (Object item : list) {
+                        items.add(copyValue(item));
+                    }
+                    copy = Collections.unmodifiableList(items);
+                }
+            } else if (value instanceof Map) {
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                    map.put(copyValue(e.getKey()), copyValue(e.getValue()));
+                }
+                copy = Collections.unmodifiableMap(map);
+            } else {
+                throw new IllegalStateException("A " + value.getClass().getName() + " can't be frozen");
+            }
+            copies.put(value, copy);
+            return copy;
+        }
+
+        /**
+         * Get the value of a field
+         * 
+         * @param f
+         *            the field
+         * @param obj
+         *            the object whose field it is
+         * @return the value of the field
+         */
+        private Object getField(Field f, Object obj) {
+            try {
+                return f.get(obj);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to read " + f, e);
+            }
+        }
+
+        /**
+         * Make a new, empty object of the same class as a model object
+         * 
+         * @param item
+         *            the model object
+         * @return the new object
+         */
+        private ModelElement newInstance(ModelElement item) {
+            try {
+                return (ModelElement) ClassLayout.of(item.getClass()).newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to copy a " + item.getClass().getName(), e);
+            }
+        }
+
+        /**
+         * Set the value of a field
+         * 
+         * @param f
+         *            the field
+         * @param obj
+         *            the object whose field it is
+         * @param value
+         *            the value
+         */
+        private void setField(Field f, Object obj, Object value) {
+            try {
+                f.set(obj, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to set " + f, e);
+            }
+        }
+    }
+
+    /**
+     * The frozen copy
+     */
+    private final Gedcom gedcom;
+
+    /**
+     * Constructor. Freezes a copy of the {@link Gedcom} as it is now.
+     * 
+     * @param gedcom
+     *            the {@link Gedcom} to freeze. Required.
+     */
+    public FrozenGedcom(Gedcom gedcom) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is required");
+        }
+        Freezer freezer = new Freezer();
+        Map<String, Family> families = freezer.freezeRecords(gedcom.getFamilies());
+        Map<String, Individual> individuals = freezer.freezeRecords(gedcom.getIndividuals());
+        Map<String, Multimedia> multimedia = freezer.freezeRecords(gedcom.getMultimedia());
+        Map<String, NoteRecord> notes = freezer.freezeRecords(gedcom.getNotes());
+        Map<String, Repository> repositories = freezer.freezeRecords(gedcom.getRepositories());
+        Map<String, Source> sources = freezer.freezeRecords(gedcom.getSources());
+        Map<String, Submitter> submitters = freezer.freezeRecords(gedcom.getSubmitters());
+        Gedcom frozen = new Gedcom(families, individuals, multimedia, notes, repositories, sources, submitters);
+        freezer.startCopy(gedcom, frozen);
+        freezer.copyPending();
+        this.gedcom = frozen;
+    }
+
+    /**
+     * Get the frozen copy of the {@link Gedcom}
+     * 
+     * @return the frozen copy of the {@link Gedcom}. Do not call its setters.
+     */
+    public Gedcom getGedcom() {
+        return gedcom;
+    }
+}
@@ -0,0 +1,481 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.Submission;
+import org.gedcom4j.model.Submitter;
+import org.gedcom4j.model.Trailer;
+
+/**
+ * <p>
+ * A copy-on-write checkpoint of a {@link Gedcom}, which can put the {@link Gedcom} back the way it was when the checkpoint was
+ * made - for example, to undo an editing session. Making a checkpoint copies no records: it only notes which records are in each
+ * of the {@link Gedcom}'s maps, along with its header, submission, trailer and custom facts. A record (or the header or
+ * submission) is only copied when {@link #beforeChange(ModelElement)} is called for it, before it is first changed; the copy
+ * includes everything in the record, but not the other records it refers to, which stay shared.
+ * </p>
+ * <p>
+ * {@link #restore()} puts back the records that were in each map (removing records added since, and putting back records removed
+ * since), and copies the saved state back into each record that was saved. The records are the same objects they were when the
+ * checkpoint was made, so references between records stay as they were, and anything else holding on to a record sees it as it
+ * was. The checkpoint can be restored more than once.
+ * </p>
+ * <p>
+ * The model cannot tell when it is changed, so a record changed without {@link #beforeChange(ModelElement)} being called first
+ * keeps its changes when the checkpoint is restored. Making a checkpoint of a {@link Gedcom} loaded with
+ * {@link org.gedcom4j.parser.GedcomParser#setLazyLoadingEnabled(boolean)} turned on loads every record.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public final class GedcomCheckpoint {
+
+    /**
+     * The records in one of the {@link Gedcom}'s maps when the checkpoint was made
+     * 
+     * @param <T>
+     *            the type of record
+     */
+    private static final class SavedMap<T> {
+
+        /**
+         * The {@link Gedcom}'s map
+         */
+        private final Map<String, T> live;
+
+        /**
+         * The records that were in it
+         */
+        private final Map<String, T> saved;
+
+        /**
+         * Constructor
+         * 
+         * @param live
+         *            the {@link Gedcom}'s map
+         */
+        SavedMap(Map<String, T> live) {
+            this.live = live;
+            saved = new HashMap<>(live);
+        }
+
+        /**
+         * Get the record that was in the map with an xref
+         * 
+         * @param xref
+         *            the xref
+         * @return the record that was in the map with the xref, or null if there was none
+         */
+        T get(String xref) {
+            return saved.get(xref);
+        }
+
+        /**
+         * Put back the records that were in the map, unless they are all still there
+         */
+        @SuppressWarnings("PMD.CompareObjectsWithEquals")
+        void restore() {
+            if (live.size() == saved.size()) {
+                boolean same = true;
+                for (Entry<String, T> e : saved.entrySet()) {
+                    if (live.get(e.getKey()) != e.getValue()) {
+                        same = false;
+                        break;
+                    }
+                }
+                if (same) {
+                    return;
+                }
+            }
+            live.clear();
+            live.putAll(saved);
+        }
+    }
+
+    /**
+     * The field in which the {@link Gedcom} keeps its custom facts
+     */
+    private static final Field CUSTOM_FACTS = ClassLayout.of(Gedcom.class).getField("customFacts");
+
+    /**
+     * The {@link Gedcom}
+     */
+    private final Gedcom gedcom;
+
+    /**
+     * The records in each of the {@link Gedcom}'s maps when the checkpoint was made
+     */
+    private final List<SavedMap<?>> savedMaps = new ArrayList<>(7);
+
+    /**
+     * The families when the checkpoint was made
+     */
+    private final SavedMap<Family> families;
+
+    /**
+     * The individuals when the checkpoint was made
+     */
+    private final SavedMap<Individual> individuals;
+
+    /**
+     * The multimedia items when the checkpoint was made
+     */
+    private final SavedMap<Multimedia> multimedia;
+
+    /**
+     * The note records when the checkpoint was made
+     */
+    private final SavedMap<NoteRecord> notes;
+
+    /**
+     * The repositories when the checkpoint was made
+     */
+    private final SavedMap<Repository> repositories;
+
+    /**
+     * The sources when the checkpoint was made
+     */
+    private final SavedMap<Source> sources;
+
+    /**
+     * The submitters when the checkpoint was made
+     */
+    private final SavedMap<Submitter> submitters;
+
+    /**
+     * The header when the checkpoint was made
+     */
+    private final Header header;
+
+    /**
+     * The submission when the checkpoint was made
+     */
+    private final Submission submission;
+
+    /**
+     * The trailer when the checkpoint was made
+     */
+    private final Trailer trailer;
+
+    /**
+     * A copy of the {@link Gedcom}'s custom facts when the checkpoint was made
+     */
+    private final Object customFacts;
+
+    /**
+     * Copies of the items saved before they were changed, keyed by the items themselves
+     */
+    private final Map<ModelElement, ModelElement> savedItems = new IdentityHashMap<>();
+
+    /**
+     * Constructor. Makes a checkpoint of the {@link Gedcom} as it is now.
+     * 
+     * @param gedcom
+     *            the {@link Gedcom}. Required.
+     */
+    public GedcomCheckpoint(Gedcom gedcom) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is required");
+        }
+        this.gedcom = gedcom;
+        families = save(gedcom.getFamilies());
+        individuals = save(gedcom.getIndividuals());
+        multimedia = save(gedcom.getMultimedia());
+        notes = save(gedcom.getNotes());
+        repositories = save(gedcom.getRepositories());
+        sources = save(gedcom.getSources());
+        submitters = save(gedcom.getSubmitters());
+        header = gedcom.getHeader();
+        submission = gedcom.getSubmission();
+        trailer = gedcom.getTrailer();
+        customFacts = copyValue(getField(CUSTOM_FACTS, gedcom), new IdentityHashMap<Object, Object>());
+    }
+
+    /**
+     * Save a copy of a record, or the header or submission, before it is changed, so that {@link #restore()} can put it back the
+     * way it was. Does nothing if it has been saved already, or if it was not part of the {@link Gedcom} when the checkpoint was
+     * made (so {@link #restore()} simply removes it).
+     * 
+     * @param item
+     *            the root-level record, header or submission that is about to be changed. To change something inside a record,
+     *            such as a name or an event, pass the record. Required.
+     * @throws IllegalArgumentException
+     *             if the item is not a root-level record, header or submission
+     */
+    public void beforeChange(ModelElement item) {
+        if (!(item instanceof HasXref || item instanceof Header)) {
+            throw new IllegalArgumentException("Only root-level records, the header and the submission can be saved - pass the "
+                    + "record that contains the item instead");
+        }
+        if (savedItems.containsKey(item) || !wasInGedcom(item)) {
+            return;
+        }
+        savedItems.put(item, copy(item));
+    }
+
+    /**
+     * Get the {@link Gedcom} this is a checkpoint of
+     * 
+     * @return the {@link Gedcom} this is a checkpoint of
+     */
+    public Gedcom getGedcom() {
+        return gedcom;
+    }
+
+    /**
+     * Put the {@link Gedcom} back the way it was when the checkpoint was made - except for anything changed without calling
+     * {@link #beforeChange(ModelElement)} first
+     */
+    public void restore() {
+        for (SavedMap<?> savedMap : savedMaps) {
+            savedMap.restore();
+        }
+        gedcom.setHeader(header);
+        gedcom.setSubmission(submission);
+        gedcom.setTrailer(trailer);
+        setField(CUSTOM_FACTS, gedcom, copyValue(customFacts, new IdentityHashMap<Object, Object>()));
+        for (Entry<ModelElement, ModelElement> e : savedItems.entrySet()) {
+            Map<Object, Object> copies = new IdentityHashMap<>();
+            copies.put(e.getValue(), e.getKey());
+            copyFields(e.getValue(), e.getKey(), copies);
+        }
+    }
+
+    /**
+     * Copy an item, with everything in it except other root-level records
+     * 
+     * @param item
+     *            the item to copy
+     * @return the copy
+     */
+    private ModelElement copy(ModelElement item) {
+        ModelElement result = newInstance(item);
+        Map<Object, Object> copies = new IdentityHashMap<>();
+        copies.put(item, result);
+        copyFields(item, result, copies);
+        return result;
+    }
+
+    /**
+     * Copy the fields of one object of a model class to another of the same class
+     * 
+     * @param from
+     *            the object to copy from
+     * @param to
+     *            the object to copy to
+     * @param copies
+     *            the copies made so far, keyed by what they were copied from
+     */
+    private void copyFields(Object from, Object to, Map<Object, Object> copies) {
+        for (Field f : ClassLayout.of(from.getClass()).getFields()) {
+            setField(f, to, copyValue(getField(f, from), copies));
+        }
+    }
+
+    /**
+     * Copy a value from a field of a model object. Strings, numbers, booleans, enums and root-level records are shared rather than
+     * copied.
+     * 
+     * @param value
+     *            the value
+     * @param copies
+     *            the copies made so far, keyed by what they were copied from
+     * @return the copy
+     */
+    private Object copyValue(Object value, Map<Object, Object> copies) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof Enum) {
+            return value;
+        }
+        Object copy = copies.get(value);
+        if (copy != null) {
+            return copy;
+        }
+        if (value instanceof ModelElement) {
+            if (isRecord(value)) {
+                return value;
+            }
+            copy = newInstance((ModelElement) value);
+            copies.put(value, copy);
+            copyFields(value, copy, copies);
+        } else if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List<?>) value).size());
+            copies.put(value, list);
+            for (Object item : (List<?>) value) {
+                list.add(copyValue(item, copies));
+            }
+            copy = list;
+        } else if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            copies.put(value, map);
+            for (Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                map.put(copyValue(e.getKey(), copies), copyValue(e.getValue(), copies));
+            }
+            copy = map;
+        } else {
+            throw new IllegalStateException("A " + value.getClass().getName() + " can't be copied for a checkpoint");
+        }
+        return copy;
+    }
+
+    /**
+     * Get the value of a field
+     * 
+     * @param f
+     *            the field
+     * @param obj
+     *            the object whose field it is
+     * @return the value of the field
+     */
+    private Object getField(Field f, Object obj) {
+        try {
+            return f.get(obj);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to read " + f, e);
+        }
+    }
+
+    /**
+     * Is an object a root-level record of the {@link Gedcom}, now or when the checkpoint was made, so it is to be shared rather
+     * than copied?
+     * 
+     * @param obj
+     *            the object
+     * @return true if the object is a root-level record
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private boolean isRecord(Object obj) {
+        if (!(obj instanceof HasXref) || ((HasXref) obj).getXref() == null) {
+            return false;
+        }
+        String xref = ((HasXref) obj).getXref();
+        if (obj instanceof Individual) {
+            return individuals.get(xref) == obj || gedcom.getIndividuals().get(xref) == obj;
+        } else if (obj instanceof Family) {
+            return families.get(xref) == obj || gedcom.getFamilies().get(xref) == obj;
+        } else if (obj instanceof Source) {
+            return sources.get(xref) == obj || gedcom.getSources().get(xref) == obj;
+        } else if (obj instanceof NoteRecord) {
+            return notes.get(xref) == obj || gedcom.getNotes().get(xref) == obj;
+        } else if (obj instanceof Repository) {
+            return repositories.get(xref) == obj || gedcom.getRepositories().get(xref) == obj;
+        } else if (obj instanceof Multimedia) {
+            return multimedia.get(xref) == obj || gedcom.getMultimedia().get(xref) == obj;
+        } else if (obj instanceof Submitter) {
+            return submitters.get(xref) == obj || gedcom.getSubmitters().get(xref) == obj;
+        } else if (obj instanceof Submission) {
+            return obj == submission || obj == gedcom.getSubmission();
+        }
+        return false;
+    }
+
+    /**
+     * Make a new, empty object of the same class as a model object
+     * 
+     * @param item
+     *            the model object
+     * @return the new object
+     */
+    private ModelElement newInstance(ModelElement item) {
+        try {
+            return (ModelElement) ClassLayout.of(item.getClass()).newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to copy a " + item.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Note the records in one of the {@link Gedcom}'s maps
+     * 
+     * @param <T>
+     *            the type of record
+     * @param live
+     *            the map
+     * @return the records in the map
+     */
+    private <T> SavedMap<T> save(Map<String, T> live) {
+        SavedMap<T> result = new SavedMap<>(live);
+        savedMaps.add(result);
+        return result;
+    }
+
+    /**
+     * Set the value of a field
+     * 
+     * @param f
+     *            the field
+     * @param obj
+     *            the object whose field it is
+     * @param value
+     *            the value
+     */
+    private void setField(Field f, Object obj, Object value) {
+        try {
+            f.set(obj, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to set " + f, e);
+        }
+    }
+
+    /**
+     * Was an item part of the {@link Gedcom} when the checkpoint was made?
+     * 
+     * @param item
+     *            the item
+     * @return true if the item was part of the {@link Gedcom} when the checkpoint was made
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private boolean wasInGedcom(ModelElement item) {
+        if (item instanceof Header) {
+            return item == header;
+        }
+        String xref = ((HasXref) item).getXref();
+        return item == submission || item == individuals.get(xref) || item == families.get(xref) || item == sources.get(xref)
+                || item == notes.get(xref) || item == repositories.get(xref) || item == multimedia.get(xref) || item == submitters
+                        .get(xref);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+/**
+ * Constants for the layout of a snapshot, shared by {@link SnapshotWriter} and {@link SnapshotReader}. See the
+ * {@link org.gedcom4j.io.snapshot package documentation} for the overall layout.
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class SnapshotFormat {
+
+    /**
+     * The first four bytes of every snapshot - "G4JS"
+     */
+    static final int MAGIC = 0x47344A53;
+
+    /**
+     * The version of the format written by {@link SnapshotWriter}, and the only one {@link SnapshotReader} understands
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Tag for a null value
+     */
+    static final int NULL = 0;
+
+    /**
+     * Tag for a string, followed by its index in the string table
+     */
+    static final int STRING = 1;
+
+    /**
+     * Tag for a model element written in full, followed by the index of its class in the class table and then its fields
+     */
+    static final int OBJECT = 2;
+
+    /**
+     * Tag for a root-level record, followed by its index in the record table
+     */
+    static final int REF = 3;
+
+    /**
+     * Tag for an object that encloses the one being written (such as the parent of a {@link org.gedcom4j.model.StringTree}),
+     * followed by how many levels out it is
+     */
+    static final int BACKREF = 4;
+
+    /**
+     * Tag for a list, followed by its size and its items
+     */
+    static final int LIST = 5;
+
+    /**
+     * Tag for a map, followed by its size and its keys and values, alternately
+     */
+    static final int MAP = 6;
+
+    /**
+     * Tag for an enum constant, followed by the index of its class in the class table and the index of its name in the string
+     * table
+     */
+    static final int ENUM = 7;
+
+    /**
+     * Tag for an int, followed by its zigzag-encoded value
+     */
+    static final int INT = 8;
+
+    /**
+     * Tag for boolean true
+     */
+    static final int TRUE = 9;
+
+    /**
+     * Tag for boolean false
+     */
+    static final int FALSE = 10;
+
+    /**
+     * Private constructor prevents instantiation and subclassing
+     */
+    private SnapshotFormat() {
+        // Nothing to do
+    }
+}
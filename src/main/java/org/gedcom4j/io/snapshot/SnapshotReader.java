@@ -0,0 +1,442 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * <p>
+ * Loads a {@link Gedcom} from a binary snapshot written by {@link SnapshotWriter}. Loading a snapshot skips all the work of
+ * reading, decoding, tokenizing and interpreting GEDCOM text - strings are decoded once each from the string table, and each model
+ * element's fields are set directly - so it is many times faster than {@link org.gedcom4j.parser.GedcomParser} loading the same
+ * data.
+ * </p>
+ * <p>
+ * Typical usage:
+ * </p>
+ * 
+ * <pre>
+ * SnapshotReader sr = new SnapshotReader();
+ * sr.load(&quot;family.g4js&quot;);
+ * Gedcom g = sr.getGedcom();
+ * </pre>
+ * 
+ * <p>
+ * Only classes from the gedcom4j object model are ever instantiated, whatever class names the snapshot contains. This class is not
+ * threadsafe.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class SnapshotReader {
+
+    /**
+     * An entry in the class table of the snapshot being read
+     */
+    private static final class ClassEntry {
+
+        /**
+         * The layout of the class
+         */
+        private final ClassLayout layout;
+
+        /**
+         * The fields of the class, in the order they were written. Null for any field the class no longer has, whose value is read
+         * and ignored.
+         */
+        private final Field[] fields;
+
+        /**
+         * The indexes of the fields that are not null in a newly made instance, and so have to be set to null when the snapshot
+         * says they are. Worked out from the first instance made while loading, since it can depend on
+         * {@link org.gedcom4j.Options}.
+         */
+        private int[] nonNullWhenNew;
+
+        /**
+         * Constructor
+         * 
+         * @param layout
+         *            the layout of the class
+         * @param fields
+         *            the fields of the class, in the order they were written
+         */
+        ClassEntry(ClassLayout layout, Field[] fields) {
+            this.layout = layout;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * The gedcom loaded
+     */
+    private Gedcom gedcom;
+
+    /**
+     * The snapshot being read
+     */
+    private ByteBuffer in;
+
+    /**
+     * The string table of the snapshot being read
+     */
+    private String[] strings;
+
+    /**
+     * The class table of the snapshot being read
+     */
+    private ClassEntry[] classes;
+
+    /**
+     * The root-level records of the snapshot being read, made up front so that references to them can be filled in whenever
+     * they're found
+     */
+    private Object[] records;
+
+    /**
+     * The model elements enclosing the one being read, outermost first
+     */
+    private final List<Object> enclosing = new ArrayList<>();
+
+    /**
+     * Get the gedcom loaded
+     * 
+     * @return the gedcom loaded, or null if nothing has been loaded yet
+     */
+    public Gedcom getGedcom() {
+        return gedcom;
+    }
+
+    /**
+     * Load a snapshot from a buffer, starting at its current position. The buffer's position, limit and byte order are left as
+     * they were.
+     * 
+     * @param buffer
+     *            the buffer holding the snapshot - a memory-mapped file, for example
+     * @throws GedcomParserException
+     *             if the buffer doesn't hold a valid snapshot
+     */
+    public void load(ByteBuffer buffer) throws GedcomParserException {
+        in = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (in.getInt() != SnapshotFormat.MAGIC) {
+                throw new GedcomParserException("Not a gedcom4j snapshot");
+            }
+            int version = in.getInt();
+            if (version != SnapshotFormat.VERSION) {
+                throw new GedcomParserException("Unsupported snapshot format version " + version);
+            }
+            readStrings();
+            readClasses();
+            int[] recordClasses = readRecords();
+            int[] offsets = new int[records.length];
+            for (int r = 0; r < offsets.length; r++) {
+                offsets[r] = in.getInt();
+            }
+            in.getInt(); // Length of the body
+            int bodyStart = in.position();
+
+            Gedcom result = new Gedcom();
+            if (classes.length == 0 || classes[0].layout.getType() != Gedcom.class) {
+                throw new GedcomParserException("Snapshot does not start with a gedcom");
+            }
+            readFields(result, classes[0]);
+            for (int r = 0; r < records.length; r++) {
+                in.position(bodyStart + offsets[r]);
+                readFields(records[r], classes[recordClasses[r]]);
+            }
+            gedcom = result;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | ClassCastException e) {
+            throw new GedcomParserException("Snapshot is corrupt", e);
+        } finally {
+            in = null;
+            strings = null;
+            classes = null;
+            records = null;
+            enclosing.clear();
+        }
+    }
+
+    /**
+     * Load a snapshot from a file, which is memory-mapped rather than read into the heap
+     * 
+     * @param filename
+     *            the name of the file
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file doesn't hold a valid snapshot
+     */
+    public void load(String filename) throws IOException, GedcomParserException {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r"); FileChannel channel = file.getChannel()) {
+            load(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Make a new instance of a class from the class table
+     * 
+     * @param entry
+     *            the class table entry
+     * @return the new instance
+     * @throws GedcomParserException
+     *             if the class can't be instantiated
+     */
+    private Object newInstance(ClassEntry entry) throws GedcomParserException {
+        try {
+            Object result = entry.layout.newInstance();
+            if (entry.nonNullWhenNew == null) {
+                int[] nonNull = new int[entry.fields.length];
+                int count = 0;
+                for (int f = 0; f < entry.fields.length; f++) {
+                    if (entry.fields[f] != null && entry.fields[f].get(result) != null) {
+                        nonNull[count++] = f;
+                    }
+                }
+                entry.nonNullWhenNew = Arrays.copyOf(nonNull, count);
+            }
+            return result;
+        } catch (ReflectiveOperationException e) {
+            throw new GedcomParserException("Unable to create a " + entry.layout.getType().getName(), e);
+        }
+    }
+
+    /**
+     * Read the class table, and work out which field each written field name refers to now
+     * 
+     * @throws GedcomParserException
+     *             if the class table names a class that isn't part of the object model, or doesn't exist
+     */
+    private void readClasses() throws GedcomParserException {
+        classes = new ClassEntry[readVarint()];
+        for (int c = 0; c < classes.length; c++) {
+            String name = strings[readVarint()];
+            Class<?> type;
+            try {
+                type = Class.forName(name, false, SnapshotReader.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new GedcomParserException("Snapshot contains unknown class " + name, e);
+            }
+            if (!ModelElement.class.isAssignableFrom(type) && !(type.isEnum() && name.startsWith("org.gedcom4j.model."))) {
+                throw new GedcomParserException("Snapshot contains " + name + ", which is not part of the object model");
+            }
+            ClassLayout layout = ClassLayout.of(type);
+            Field[] fields = new Field[readVarint()];
+            for (int f = 0; f < fields.length; f++) {
+                fields[f] = layout.getField(strings[readVarint()]);
+            }
+            classes[c] = new ClassEntry(layout, fields);
+        }
+    }
+
+    /**
+     * Read the fields of an object, and set them on it. Fields the snapshot has as null are set to null only if they aren't
+     * already.
+     * 
+     * @param object
+     *            the object
+     * @param entry
+     *            the class table entry for the object's class
+     * @throws GedcomParserException
+     *             if the fields can't be read or set
+     */
+    private void readFields(Object object, ClassEntry entry) throws GedcomParserException {
+        Field[] fields = entry.fields;
+        int bitmapStart = in.position();
+        int bitmapLength = (fields.length + 7) / 8;
+        in.position(bitmapStart + bitmapLength);
+        enclosing.add(object);
+        for (int b = 0; b < bitmapLength; b++) {
+            int bits = in.get(bitmapStart + b) & 0xFF;
+            while (bits != 0) {
+                int f = b * 8 + Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                setField(object, fields[f], readValue());
+            }
+        }
+        if (entry.nonNullWhenNew != null) {
+            for (int f : entry.nonNullWhenNew) {
+                if ((in.get(bitmapStart + f / 8) & 1 << f % 8) == 0) {
+                    setField(object, fields[f], null);
+                }
+            }
+        }
+        enclosing.remove(enclosing.size() - 1);
+    }
+
+    /**
+     * Read the record table, and make a new instance of each record
+     * 
+     * @return the index in the class table of each record's class
+     * @throws GedcomParserException
+     *             if the records can't be instantiated
+     */
+    private int[] readRecords() throws GedcomParserException {
+        int[] result = new int[readVarint()];
+        records = new Object[result.length];
+        for (int r = 0; r < records.length; r++) {
+            result[r] = readVarint();
+            readVarint(); // The xref, which is also among the record's fields
+            records[r] = newInstance(classes[result[r]]);
+        }
+        return result;
+    }
+
+    /**
+     * Read the string table
+     */
+    private void readStrings() {
+        strings = new String[readVarint()];
+        byte[] utf8 = new byte[256];
+        for (int s = 0; s < strings.length; s++) {
+            int length = readVarint();
+            if (length > utf8.length) {
+                utf8 = new byte[Math.max(length, utf8.length * 2)];
+            }
+            in.get(utf8, 0, length);
+            strings[s] = new String(utf8, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Read a value
+     * 
+     * @return the value
+     * @throws GedcomParserException
+     *             if the value can't be read
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes", "PMD.CyclomaticComplexity", "PMD.StdCyclomaticComplexity",
+            "PMD.ModifiedCyclomaticComplexity" })
+    private Object readValue() throws GedcomParserException {
+        int tag = in.get();
+        switch (tag) {
+            case SnapshotFormat.NULL:
+                return null;
+            case SnapshotFormat.STRING:
+                return strings[readVarint()];
+            case SnapshotFormat.OBJECT:
+                ClassEntry entry = classes[readVarint()];
+                Object object = newInstance(entry);
+                readFields(object, entry);
+                return object;
+            case SnapshotFormat.REF:
+                return records[readVarint()];
+            case SnapshotFormat.BACKREF:
+                return enclosing.get(enclosing.size() - 1 - readVarint());
+            case SnapshotFormat.LIST:
+                int size = readVarint();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue());
+                }
+                return list;
+            case SnapshotFormat.MAP:
+                int entries = readVarint();
+                Map<Object, Object> map = new LinkedHashMap<>(entries * 4 / 3 + 1);
+                for (int i = 0; i < entries; i++) {
+                    map.put(readValue(), readValue());
+                }
+                return map;
+            case SnapshotFormat.ENUM:
+                Class enumType = classes[readVarint()].layout.getType();
+                return Enum.valueOf(enumType, strings[readVarint()]);
+            case SnapshotFormat.INT:
+                int zigzag = readVarint();
+                return zigzag >>> 1 ^ -(zigzag & 1);
+            case SnapshotFormat.TRUE:
+                return Boolean.TRUE;
+            case SnapshotFormat.FALSE:
+                return Boolean.FALSE;
+            default:
+                throw new GedcomParserException("Snapshot is corrupt - unknown tag " + tag + " at offset " + (in.position() - 1));
+        }
+    }
+
+    /**
+     * Read a varint
+     * 
+     * @return the value of the varint
+     * @throws IllegalArgumentException
+     *             if the varint is more than five bytes long
+     */
+    private int readVarint() {
+        int b = in.get();
+        if (b >= 0) {
+            // Most varints are a single byte
+            return b;
+        }
+        int result = b & 0x7F;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            if (shift > 28) {
+                throw new IllegalArgumentException("Varint too long at offset " + in.position());
+            }
+            b = in.get();
+            result |= (b & 0x7F) << shift;
+        }
+        return result;
+    }
+
+    /**
+     * Set a field of an object
+     * 
+     * @param object
+     *            the object
+     * @param field
+     *            the field, or null if the value is for a field the class no longer has
+     * @param value
+     *            the value
+     * @throws GedcomParserException
+     *             if the field can't be set
+     */
+    private void setField(Object object, Field field, Object value) throws GedcomParserException {
+        if (field != null) {
+            try {
+                field.set(object, value);
+            } catch (IllegalAccessException e) {
+                throw new GedcomParserException("Unable to set field " + field.getName() + " of " + object.getClass().getName(), e);
+            }
+        }
+    }
+}
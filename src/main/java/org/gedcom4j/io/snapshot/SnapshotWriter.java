@@ -0,0 +1,525 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.gedcom4j.exception.GedcomWriterException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * <p>
+ * Writes a {@link Gedcom} to a compact binary snapshot, which {@link SnapshotReader} can load back far faster than
+ * {@link org.gedcom4j.parser.GedcomParser} can parse GEDCOM text. Every field of every model element is written, custom facts
+ * included, and references between records are kept, so the loaded {@link Gedcom} is equal to the one written.
+ * </p>
+ * <p>
+ * Typical usage:
+ * </p>
+ * 
+ * <pre>
+ * GedcomParser gp = new GedcomParser();
+ * gp.load(&quot;family.ged&quot;);
+ * new SnapshotWriter(gp.getGedcom()).write(&quot;family.g4js&quot;);
+ * </pre>
+ * 
+ * <p>
+ * This class is not threadsafe, and the {@link Gedcom} must not be changed while it is being written.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class SnapshotWriter {
+
+    /**
+     * A growable array of bytes, with the varint and fixed-width encodings used in snapshots
+     */
+    private static final class Bytes {
+
+        /**
+         * The bytes written so far, followed by spare capacity
+         */
+        private byte[] buf = new byte[8192];
+
+        /**
+         * The number of bytes written so far
+         */
+        private int size;
+
+        /**
+         * Get the number of bytes written so far
+         * 
+         * @return the number of bytes written so far
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Write a byte
+         * 
+         * @param b
+         *            the byte
+         */
+        void write(int b) {
+            ensureCapacity(1);
+            buf[size++] = (byte) b;
+        }
+
+        /**
+         * Write an array of bytes
+         * 
+         * @param bytes
+         *            the bytes
+         */
+        void write(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+
+        /**
+         * Write an int as four bytes, most significant first
+         * 
+         * @param i
+         *            the int
+         */
+        void writeFixed(int i) {
+            ensureCapacity(4);
+            buf[size++] = (byte) (i >>> 24);
+            buf[size++] = (byte) (i >>> 16);
+            buf[size++] = (byte) (i >>> 8);
+            buf[size++] = (byte) i;
+        }
+
+        /**
+         * Write the bytes written so far to a stream
+         * 
+         * @param out
+         *            the stream
+         * @throws IOException
+         *             if the bytes can't be written
+         */
+        void writeTo(OutputStream out) throws IOException {
+            out.write(buf, 0, size);
+        }
+
+        /**
+         * Write a non-negative int as a varint - seven bits per byte, least significant first, with the top bit set on every byte
+         * but the last
+         * 
+         * @param i
+         *            the int
+         */
+        void writeVarint(int i) {
+            ensureCapacity(5);
+            int v = i;
+            while ((v & ~0x7F) != 0) {
+                buf[size++] = (byte) (v & 0x7F | 0x80);
+                v >>>= 7;
+            }
+            buf[size++] = (byte) v;
+        }
+
+        /**
+         * Make room for more bytes
+         * 
+         * @param needed
+         *            how many more bytes are about to be written
+         */
+        private void ensureCapacity(int needed) {
+            if (size + needed > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + needed));
+            }
+        }
+    }
+
+    /**
+     * The gedcom being written
+     */
+    private final Gedcom gedcom;
+
+    /**
+     * The index of each string in the string table
+     */
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+
+    /**
+     * The string table, in order
+     */
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * The index of each class in the class table
+     */
+    private final Map<Class<?>, Integer> classIndex = new HashMap<>();
+
+    /**
+     * The class table, in order
+     */
+    private final List<ClassLayout> classes = new ArrayList<>();
+
+    /**
+     * The index of each root-level record in the record table
+     */
+    private final Map<Object, Integer> recordIndex = new IdentityHashMap<>();
+
+    /**
+     * The record table, in order
+     */
+    private final List<HasXref> records = new ArrayList<>();
+
+    /**
+     * The model elements enclosing the one being written, outermost first
+     */
+    private final List<Object> enclosing = new ArrayList<>();
+
+    /**
+     * Constructor
+     * 
+     * @param gedcom
+     *            the gedcom to write. Required.
+     * @throws IllegalArgumentException
+     *             if gedcom is null
+     */
+    public SnapshotWriter(Gedcom gedcom) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is a required argument");
+        }
+        this.gedcom = gedcom;
+    }
+
+    /**
+     * Write the snapshot to a stream. The stream is not closed.
+     * 
+     * @param out
+     *            the stream to write to
+     * @throws IOException
+     *             if the snapshot can't be written to the stream
+     * @throws GedcomWriterException
+     *             if the gedcom contains a value that can't go into a snapshot
+     */
+    public void write(OutputStream out) throws IOException, GedcomWriterException {
+        clear();
+        try {
+            addRecords();
+            Bytes body = new Bytes();
+            int[] offsets = new int[records.size()];
+            writeFields(body, gedcom);
+            for (int r = 0; r < records.size(); r++) {
+                offsets[r] = body.size();
+                writeFields(body, records.get(r));
+            }
+            Bytes tables = new Bytes();
+            writeTables(tables, offsets);
+            tables.writeFixed(body.size());
+            tables.writeTo(out);
+            body.writeTo(out);
+            out.flush();
+        } finally {
+            clear();
+        }
+    }
+
+    /**
+     * Write the snapshot to a file
+     * 
+     * @param filename
+     *            the name of the file to write
+     * @throws IOException
+     *             if the file can't be written
+     * @throws GedcomWriterException
+     *             if the gedcom contains a value that can't go into a snapshot
+     */
+    public void write(String filename) throws IOException, GedcomWriterException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filename))) {
+            write(out);
+        }
+    }
+
+    /**
+     * Add a record to the record table, unless it's null or already there
+     * 
+     * @param rec
+     *            the record
+     */
+    private void addRecord(HasXref rec) {
+        if (rec != null && !recordIndex.containsKey(rec)) {
+            recordIndex.put(rec, records.size());
+            records.add(rec);
+            indexOf(rec.getClass());
+        }
+    }
+
+    /**
+     * Fill the record table with the root-level records of the gedcom
+     */
+    private void addRecords() {
+        indexOf(Gedcom.class);
+        addRecord(gedcom.getSubmission());
+        for (Map<String, ? extends HasXref> recordMap : Arrays.<Map<String, ? extends HasXref>> asList(gedcom.getFamilies(),
+                gedcom.getIndividuals(), gedcom.getMultimedia(), gedcom.getNotes(), gedcom.getRepositories(), gedcom.getSources(),
+                gedcom.getSubmitters())) {
+            for (HasXref rec : recordMap.values()) {
+                addRecord(rec);
+            }
+        }
+    }
+
+    /**
+     * Forget everything about the last snapshot written
+     */
+    private void clear() {
+        stringIndex.clear();
+        strings.clear();
+        classIndex.clear();
+        classes.clear();
+        recordIndex.clear();
+        records.clear();
+        enclosing.clear();
+    }
+
+    /**
+     * Get the index of a class in the class table, adding it if needed
+     * 
+     * @param type
+     *            the class
+     * @return the index of the class in the class table
+     */
+    private int indexOf(Class<?> type) {
+        Integer result = classIndex.get(type);
+        if (result == null) {
+            ClassLayout layout = ClassLayout.of(type);
+            result = classes.size();
+            classIndex.put(type, result);
+            classes.add(layout);
+            indexOf(type.getName());
+            for (Field f : layout.getFields()) {
+                indexOf(f.getName());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the index of a string in the string table, adding it if needed
+     * 
+     * @param s
+     *            the string
+     * @return the index of the string in the string table
+     */
+    private int indexOf(String s) {
+        Integer result = stringIndex.get(s);
+        if (result == null) {
+            result = strings.size();
+            stringIndex.put(s, result);
+            strings.add(s);
+        }
+        return result;
+    }
+
+    /**
+     * Write the fields of an object, in the order given by its class's layout - a bitmap of which fields are non-null, one bit per
+     * field and least significant bit first, followed by the values of the non-null fields
+     * 
+     * @param out
+     *            where to write
+     * @param object
+     *            the object
+     * @throws GedcomWriterException
+     *             if a field holds a value that can't go into a snapshot
+     */
+    private void writeFields(Bytes out, Object object) throws GedcomWriterException {
+        Field[] fields = ClassLayout.of(object.getClass()).getFields();
+        Object[] values = new Object[fields.length];
+        for (int f = 0; f < fields.length; f++) {
+            try {
+                values[f] = fields[f].get(object);
+            } catch (IllegalAccessException e) {
+                throw new GedcomWriterException("Unable to read field " + fields[f].getName() + " of " + object.getClass()
+                        .getName(), e);
+            }
+        }
+        for (int f = 0; f < fields.length; f += 8) {
+            int bits = 0;
+            for (int b = 0; b < 8 && f + b < fields.length; b++) {
+                if (values[f + b] != null) {
+                    bits |= 1 << b;
+                }
+            }
+            out.write(bits);
+        }
+        enclosing.add(object);
+        for (Object value : values) {
+            if (value != null) {
+                writeValue(out, value);
+            }
+        }
+        enclosing.remove(enclosing.size() - 1);
+    }
+
+    /**
+     * Write a model element that isn't a root-level record
+     * 
+     * @param out
+     *            where to write
+     * @param element
+     *            the model element
+     * @throws GedcomWriterException
+     *             if a field holds a value that can't go into a snapshot
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private void writeModelElement(Bytes out, ModelElement element) throws GedcomWriterException {
+        for (int depth = 0; depth < enclosing.size(); depth++) {
+            if (enclosing.get(enclosing.size() - 1 - depth) == element) {
+                out.write(SnapshotFormat.BACKREF);
+                out.writeVarint(depth);
+                return;
+            }
+        }
+        out.write(SnapshotFormat.OBJECT);
+        out.writeVarint(indexOf(element.getClass()));
+        writeFields(out, element);
+    }
+
+    /**
+     * Write the string, class and record tables
+     * 
+     * @param out
+     *            where to write
+     * @param offsets
+     *            the offset of each record in the body
+     */
+    private void writeTables(Bytes out, int[] offsets) {
+        // Every string has to be in the string table before it's written, so intern the xrefs first
+        int[] xrefs = new int[records.size()];
+        for (int r = 0; r < records.size(); r++) {
+            String xref = records.get(r).getXref();
+            xrefs[r] = xref == null ? 0 : indexOf(xref) + 1;
+        }
+
+        out.writeFixed(SnapshotFormat.MAGIC);
+        out.writeFixed(SnapshotFormat.VERSION);
+
+        out.writeVarint(strings.size());
+        for (String s : strings) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            out.writeVarint(utf8.length);
+            out.write(utf8);
+        }
+
+        out.writeVarint(classes.size());
+        for (ClassLayout layout : classes) {
+            out.writeVarint(indexOf(layout.getType().getName()));
+            Field[] fields = layout.getFields();
+            out.writeVarint(fields.length);
+            for (Field f : fields) {
+                out.writeVarint(indexOf(f.getName()));
+            }
+        }
+
+        out.writeVarint(records.size());
+        for (int r = 0; r < records.size(); r++) {
+            out.writeVarint(indexOf(records.get(r).getClass()));
+            out.writeVarint(xrefs[r]);
+        }
+        for (int offset : offsets) {
+            out.writeFixed(offset);
+        }
+    }
+
+    /**
+     * Write a value
+     * 
+     * @param out
+     *            where to write
+     * @param value
+     *            the value
+     * @throws GedcomWriterException
+     *             if the value can't go into a snapshot
+     */
+    @SuppressWarnings({ "PMD.CyclomaticComplexity", "PMD.StdCyclomaticComplexity", "PMD.ModifiedCyclomaticComplexity" })
+    private void writeValue(Bytes out, Object value) throws GedcomWriterException {
+        if (value == null) {
+            out.write(SnapshotFormat.NULL);
+        } else if (value instanceof String) {
+            out.write(SnapshotFormat.STRING);
+            out.writeVarint(indexOf((String) value));
+        } else if (value instanceof ModelElement) {
+            Integer rec = recordIndex.get(value);
+            if (rec == null) {
+                writeModelElement(out, (ModelElement) value);
+            } else {
+                out.write(SnapshotFormat.REF);
+                out.writeVarint(rec);
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.write(SnapshotFormat.LIST);
+            out.writeVarint(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.write(SnapshotFormat.MAP);
+            out.writeVarint(map.size());
+            for (Entry<?, ?> e : map.entrySet()) {
+                writeValue(out, e.getKey());
+                writeValue(out, e.getValue());
+            }
+        } else if (value instanceof Enum) {
+            Enum<?> constant = (Enum<?>) value;
+            out.write(SnapshotFormat.ENUM);
+            out.writeVarint(indexOf(constant.getDeclaringClass()));
+            out.writeVarint(indexOf(constant.name()));
+        } else if (value instanceof Integer) {
+            int i = (Integer) value;
+            out.write(SnapshotFormat.INT);
+            out.writeVarint(i << 1 ^ i >> 31);
+        } else if (value instanceof Boolean) {
+            out.write(((Boolean) value).booleanValue() ? SnapshotFormat.TRUE : SnapshotFormat.FALSE);
+        } else {
+            throw new GedcomWriterException("A " + value.getClass().getName() + " can't be written to a snapshot");
+        }
+    }
+}
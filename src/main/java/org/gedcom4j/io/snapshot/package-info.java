@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+/**
+ * <p>
+ * Classes for saving a parsed {@link org.gedcom4j.model.Gedcom} to a compact binary snapshot, and loading it back, much faster
+ * than parsing the GEDCOM text it came from.
+ * </p>
+ * <p>
+ * A snapshot holds, in order:
+ * </p>
+ * <ol>
+ * <li>a header - a four-byte magic number and a four-byte format version</li>
+ * <li>the string table - every distinct string in the model, once, in UTF-8</li>
+ * <li>the class table - the name of every model class in the snapshot, with the names of the fields written for it</li>
+ * <li>the record table - the class and xref of every root-level record, followed by a four-byte offset for each record, so any
+ * record can be found without reading the others</li>
+ * <li>the body - the {@link org.gedcom4j.model.Gedcom} itself, then the fields of each record</li>
+ * </ol>
+ * <p>
+ * Everything else is stored as varints: strings and classes by their index in the tables, and references to records by their
+ * index in the record table. Only the four-byte values are at fixed positions, so a snapshot can be read straight out of a
+ * memory-mapped {@link java.nio.ByteBuffer}.
+ * </p>
+ * <p>
+ * The package also has {@link org.gedcom4j.io.snapshot.GedcomCheckpoint}, an in-memory, copy-on-write checkpoint that can put a
+ * {@link org.gedcom4j.model.Gedcom} back the way it was, copying only the records that were changed, and
+ * {@link org.gedcom4j.io.snapshot.FrozenGedcom}, a frozen copy of a {@link org.gedcom4j.model.Gedcom} that any number of threads
+ * can read at once without locking.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+package org.gedcom4j.io.snapshot;
@@ -49,6 +49,12 @@ public abstract class AbstractElement implements HasCustomFacts {
      */
     protected List<CustomFact> customFacts = getCustomFacts(Options.isCollectionInitializationEnabled());
 
+    /**
+     * The resolver that fills this item in when it is reached through a cross-reference, if it is a root-level record made as a
+     * placeholder - see {@link RecordResolver}. Not part of the item's data, so not copied, compared or serialized.
+     */
+    transient RecordResolver resolver;
+
     /**
      * Default constructor
      */
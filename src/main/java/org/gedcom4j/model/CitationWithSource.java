@@ -107,8 +107,8 @@ public class CitationWithSource extends AbstractCitation {
         if (other.roleInEvent != null) {
             roleInEvent = new StringWithCustomFacts(other.roleInEvent);
         }
-        if (other.source != null) {
-            source = new Source(other.source);
+        if (other.getSource() != null) {
+            source = new Source(other.getSource());
         }
         if (other.whereInSource != null) {
             whereInSource = new StringWithCustomFacts(other.whereInSource);
@@ -151,11 +151,11 @@ public class CitationWithSource extends AbstractCitation {
         } else if (!roleInEvent.equals(other.roleInEvent)) {
             return false;
         }
-        if (source == null) {
-            if (other.source != null) {
+        if (getSource() == null) {
+            if (other.getSource() != null) {
                 return false;
             }
-        } else if (!source.equals(other.source)) {
+        } else if (!getSource().equals(other.getSource())) {
             return false;
         }
         if (whereInSource == null) {
@@ -215,7 +215,7 @@ public class CitationWithSource extends AbstractCitation {
      * @return the source
      */
     public Source getSource() {
-        return source;
+        return RecordResolver.resolve(source);
     }
 
     /**
@@ -237,7 +237,7 @@ public class CitationWithSource extends AbstractCitation {
         result = prime * result + ((data == null) ? 0 : data.hashCode());
         result = prime * result + ((eventCited == null) ? 0 : eventCited.hashCode());
         result = prime * result + ((roleInEvent == null) ? 0 : roleInEvent.hashCode());
-        result = prime * result + ((source == null) ? 0 : source.hashCode());
+        result = prime * result + ((getSource() == null) ? 0 : getSource().hashCode());
         result = prime * result + ((whereInSource == null) ? 0 : whereInSource.hashCode());
         return result;
     }
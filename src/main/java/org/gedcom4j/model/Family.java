@@ -216,11 +216,43 @@ public class Family extends AbstractNotesElement implements HasCitations, HasXre
     }
 
     /**
-     * {@inheritDoc}
+     * Get a hash code for this record that is consistent with {@link #deepEquals(Object)}, whether or not
+     * {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @return a hash code for the contents of this record
+     * @since 4.0.2
+     */
+    public int contentHash() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + (automatedRecordId == null ? 0 : automatedRecordId.hashCode());
+        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
+        result = prime * result + (children == null ? 0 : children.hashCode());
+        result = prime * result + (citations == null ? 0 : citations.hashCode());
+        result = prime * result + (events == null ? 0 : events.hashCode());
+        result = prime * result + (husband == null ? 0 : husband.hashCode());
+        result = prime * result + (ldsSpouseSealings == null ? 0 : ldsSpouseSealings.hashCode());
+        result = prime * result + (multimedia == null ? 0 : multimedia.hashCode());
+        result = prime * result + (numChildren == null ? 0 : numChildren.hashCode());
+        result = prime * result + (recFileNumber == null ? 0 : recFileNumber.hashCode());
+        result = prime * result + (submitters == null ? 0 : submitters.hashCode());
+        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
+        result = prime * result + (wife == null ? 0 : wife.hashCode());
+        result = prime * result + (xref == null ? 0 : xref.hashCode());
+        result = prime * result + (restrictionNotice == null ? 0 : restrictionNotice.hashCode());
+        return result;
+    }
+
+    /**
+     * Compare this record with another object by content, whether or not {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @param obj
+     *            the object to compare with
+     * @return true if the other object is a {@link Family} with the same contents
+     * @since 4.0.2
      */
     @SuppressWarnings({ "PMD.ExcessiveMethodLength", "PMD.NcssMethodCount" })
-    @Override
-    public boolean equals(Object obj) {
+    public boolean deepEquals(Object obj) {
         if (this == obj) {
             return true;
         }
@@ -336,6 +368,18 @@ public class Family extends AbstractNotesElement implements HasCitations, HasXre
         return true;
     }
 
+    /**
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #deepEquals(Object)}.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.isSameRecord(this, obj);
+        }
+        return deepEquals(obj);
+    }
+
     /**
      * Gets the automated record id.
      *
@@ -574,28 +618,15 @@ public class Family extends AbstractNotesElement implements HasCitations, HasXre
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #contentHash()}.
      */
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = super.hashCode();
-        result = prime * result + (automatedRecordId == null ? 0 : automatedRecordId.hashCode());
-        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
-        result = prime * result + (children == null ? 0 : children.hashCode());
-        result = prime * result + (citations == null ? 0 : citations.hashCode());
-        result = prime * result + (events == null ? 0 : events.hashCode());
-        result = prime * result + (husband == null ? 0 : husband.hashCode());
-        result = prime * result + (ldsSpouseSealings == null ? 0 : ldsSpouseSealings.hashCode());
-        result = prime * result + (multimedia == null ? 0 : multimedia.hashCode());
-        result = prime * result + (numChildren == null ? 0 : numChildren.hashCode());
-        result = prime * result + (recFileNumber == null ? 0 : recFileNumber.hashCode());
-        result = prime * result + (submitters == null ? 0 : submitters.hashCode());
-        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
-        result = prime * result + (wife == null ? 0 : wife.hashCode());
-        result = prime * result + (xref == null ? 0 : xref.hashCode());
-        result = prime * result + (restrictionNotice == null ? 0 : restrictionNotice.hashCode());
-        return result;
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.hashCode(this);
+        }
+        return contentHash();
     }
 
     /**
@@ -89,8 +89,8 @@ public class FamilyChild extends AbstractNotesElement {
         if (other.adoptedBy != null) {
             adoptedBy = other.adoptedBy;
         }
-        if (other.family != null) {
-            family = new Family(other.family, deep);
+        if (other.getFamily() != null) {
+            family = new Family(other.getFamily(), deep);
         }
         if (other.pedigree != null) {
             pedigree = new StringWithCustomFacts(other.pedigree);
@@ -172,7 +172,7 @@ public class FamilyChild extends AbstractNotesElement {
      * @return the family
      */
     public Family getFamily() {
-        return family;
+        return RecordResolver.resolve(family);
     }
 
     /**
@@ -72,7 +72,7 @@ public class FamilyReference extends AbstractElement {
      */
     public FamilyReference(FamilyReference other, boolean deep) {
         super(other);
-        family = new Family(other.family, deep);
+        family = new Family(other.getFamily(), deep);
     }
 
     /**
@@ -87,11 +87,11 @@ public class FamilyReference extends AbstractElement {
             return false;
         }
         FamilyReference other = (FamilyReference) obj;
-        if (family == null) {
-            if (other.family != null) {
+        if (getFamily() == null) {
+            if (other.getFamily() != null) {
                 return false;
             }
-        } else if (!family.equals(other.family)) {
+        } else if (!getFamily().equals(other.getFamily())) {
             return false;
         }
         return true;
@@ -103,7 +103,7 @@ public class FamilyReference extends AbstractElement {
      * @return the family
      */
     public Family getFamily() {
-        return family;
+        return RecordResolver.resolve(family);
     }
 
     /**
@@ -113,7 +113,7 @@ public class FamilyReference extends AbstractElement {
     public int hashCode() {
         final int prime = 31;
         int result = super.hashCode();
-        result = prime * result + ((family == null) ? 0 : family.hashCode());
+        result = prime * result + ((getFamily() == null) ? 0 : getFamily().hashCode());
         return result;
     }
 
@@ -70,8 +70,8 @@ public class FamilySpouse extends AbstractNotesElement {
      */
     public FamilySpouse(FamilySpouse other, boolean deep) {
         super(other);
-        if (other.family != null) {
-            family = new Family(other.family, deep);
+        if (other.getFamily() != null) {
+            family = new Family(other.getFamily(), deep);
         }
     }
 
@@ -117,7 +117,7 @@ public class FamilySpouse extends AbstractNotesElement {
      * @return the family
      */
     public Family getFamily() {
-        return family;
+        return RecordResolver.resolve(family);
     }
 
     /**
@@ -27,7 +27,6 @@
 package org.gedcom4j.model;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -100,7 +99,7 @@ public class Gedcom extends AbstractElement {
      * A map of all the families in the GEDCOM file. The map is keyed on family cross-reference numbers, and the families themselves
      * are in the value set.
      */
-    private final Map<String, Family> families = new HashMap<>();
+    private final Map<String, Family> families;
 
     /**
      * Header information about the GEDCOM
@@ -111,31 +110,31 @@ public class Gedcom extends AbstractElement {
      * A map of all the individuals in the GEDCOM file. The map is keyed on the individual cross-reference numbers and the
      * individuals themselves are in the value set.
      */
-    private final Map<String, Individual> individuals = new HashMap<>(0);
+    private final Map<String, Individual> individuals;
 
     /**
      * A map of all the multimedia items in the GEDCOM file. The map is keyed by the multimedia cross-reference numbers, and the
      * multimedia items themselves (well, the metadata about them for 5.5.1) are in the value set. Remember, GEDCOM 5.5.1 multimedia
      * is not embedded in the GEDCOM, but the GEDCOM contains metadata about the multimedia.
      */
-    private final Map<String, Multimedia> multimedia = new HashMap<>(0);
+    private final Map<String, Multimedia> multimedia;
 
     /**
      * A map of notes. The map is keyed with cross-reference numbers and the notes themselves are the values.
      */
-    private final Map<String, NoteRecord> notes = new HashMap<>(0);
+    private final Map<String, NoteRecord> notes;
 
     /**
      * A map of all the source repositories in the GEDCOM file. The map is keyed on the repository cross-reference numbers, and the
      * repositories themselves are in the value set.
      */
-    private final Map<String, Repository> repositories = new HashMap<>(0);
+    private final Map<String, Repository> repositories;
 
     /**
      * A map of all the sources in the GEDCOM file. The map is keyed on source cross-reference numbers, and the sources themselves
      * are in the value set.
      */
-    private final Map<String, Source> sources = new HashMap<>(0);
+    private final Map<String, Source> sources;
 
     /**
      * Information about the GEDCOM submission. There is only one and it is required, so the xref ID has a default.
@@ -146,16 +145,17 @@ public class Gedcom extends AbstractElement {
      * A map of the submitters in the GEDCOM file. The map is keyed on submitter cross-reference numbers, and the submitters
      * themselves are in the value set
      */
-    private final Map<String, Submitter> submitters = new HashMap<>(0);
+    private final Map<String, Submitter> submitters;
 
     /**
      * The trailer of the file
      */
     private Trailer trailer = new Trailer();
 
-    /** Default constructor */
+    /** Default constructor. The root-level records are kept in {@link XrefMap}s. */
     public Gedcom() {
-        // Default constructor does nothing
+        this(new XrefMap<Family>(), new XrefMap<Individual>(), new XrefMap<Multimedia>(), new XrefMap<NoteRecord>(),
+                new XrefMap<Repository>(), new XrefMap<Source>(), new XrefMap<Submitter>());
     }
 
     /**
@@ -166,6 +166,13 @@ public class Gedcom extends AbstractElement {
      */
     public Gedcom(Gedcom other) {
         super(other);
+        families = new XrefMap<>(other.families.size());
+        individuals = new XrefMap<>(other.individuals.size());
+        multimedia = new XrefMap<>(other.multimedia.size());
+        notes = new XrefMap<>(other.notes.size());
+        repositories = new XrefMap<>(other.repositories.size());
+        sources = new XrefMap<>(other.sources.size());
+        submitters = new XrefMap<>(other.submitters.size());
         for (Family f : other.families.values()) {
             families.put(f.getXref(), new Family(f));
         }
@@ -196,6 +203,43 @@ public class Gedcom extends AbstractElement {
         // All trailers are the same, and it's already initialized
     }
 
+    /**
+     * Constructor for a {@link Gedcom} that keeps its root-level records in the supplied maps rather than in new {@link XrefMap}s -
+     * for example, maps that only load each record when it is asked for. The maps are used as they are, not copied.
+     * 
+     * @param families
+     *            the map of families, keyed by xref. Required.
+     * @param individuals
+     *            the map of individuals, keyed by xref. Required.
+     * @param multimedia
+     *            the map of multimedia items, keyed by xref. Required.
+     * @param notes
+     *            the map of note records, keyed by xref. Required.
+     * @param repositories
+     *            the map of repositories, keyed by xref. Required.
+     * @param sources
+     *            the map of sources, keyed by xref. Required.
+     * @param submitters
+     *            the map of submitters, keyed by xref. Required.
+     * @since 4.0.2
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public Gedcom(Map<String, Family> families, Map<String, Individual> individuals, Map<String, Multimedia> multimedia,
+            Map<String, NoteRecord> notes, Map<String, Repository> repositories, Map<String, Source> sources,
+            Map<String, Submitter> submitters) {
+        if (families == null || individuals == null || multimedia == null || notes == null || repositories == null
+                || sources == null || submitters == null) {
+            throw new IllegalArgumentException("All the maps of records are required");
+        }
+        this.families = families;
+        this.individuals = individuals;
+        this.multimedia = multimedia;
+        this.notes = notes;
+        this.repositories = repositories;
+        this.sources = sources;
+        this.submitters = submitters;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -29,6 +29,7 @@ package org.gedcom4j.model;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -295,11 +296,52 @@ public class Individual extends AbstractAddressableElement implements HasCitatio
     }
 
     /**
-     * {@inheritDoc}
+     * Get a hash code for this record that is consistent with {@link #deepEquals(Object)}, whether or not
+     * {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @return a hash code for the contents of this record
+     * @since 4.0.2
+     */
+    public int contentHash() {
+        final int prime = 31;
+        int result = super.hashCode();
+        if (xref != null) {
+            return prime * result + xref.hashCode();
+        }
+        result = prime * result;
+        result = prime * result + (aliases == null ? 0 : aliases.hashCode());
+        result = prime * result + (ancestorInterest == null ? 0 : ancestorInterest.hashCode());
+        result = prime * result + (ancestralFileNumber == null ? 0 : ancestralFileNumber.hashCode());
+        result = prime * result + (associations == null ? 0 : associations.hashCode());
+        result = prime * result + (attributes == null ? 0 : attributes.hashCode());
+        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
+        result = prime * result + (citations == null ? 0 : citations.hashCode());
+        result = prime * result + (descendantInterest == null ? 0 : descendantInterest.hashCode());
+        result = prime * result + (events == null ? 0 : events.hashCode());
+        result = prime * result + (familiesWhereChild == null ? 0 : familiesWhereChild.hashCode());
+        result = prime * result + (familiesWhereSpouse == null ? 0 : familiesWhereSpouse.hashCode());
+        result = prime * result + (ldsIndividualOrdinances == null ? 0 : ldsIndividualOrdinances.hashCode());
+        result = prime * result + (multimedia == null ? 0 : multimedia.hashCode());
+        result = prime * result + (names == null ? 0 : names.hashCode());
+        result = prime * result + (permanentRecFileNumber == null ? 0 : permanentRecFileNumber.hashCode());
+        result = prime * result + (recIdNumber == null ? 0 : recIdNumber.hashCode());
+        result = prime * result + (restrictionNotice == null ? 0 : restrictionNotice.hashCode());
+        result = prime * result + (sex == null ? 0 : sex.hashCode());
+        result = prime * result + (submitters == null ? 0 : submitters.hashCode());
+        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
+        return result;
+    }
+
+    /**
+     * Compare this record with another object by content, whether or not {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @param obj
+     *            the object to compare with
+     * @return true if the other object is an {@link Individual} with the same contents
+     * @since 4.0.2
      */
-    @Override
     @SuppressWarnings({ "PMD.NcssMethodCount", "PMD.ExcessiveMethodLength", "checkstyle:methodlength" })
-    public boolean equals(Object obj) {
+    public boolean deepEquals(Object obj) {
         if (this == obj) {
             return true;
         }
@@ -461,6 +503,18 @@ public class Individual extends AbstractAddressableElement implements HasCitatio
         return true;
     }
 
+    /**
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #deepEquals(Object)}.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.isSameRecord(this, obj);
+        }
+        return deepEquals(obj);
+    }
+
     /**
      * Gets the aliases.
      *
@@ -508,14 +562,15 @@ public class Individual extends AbstractAddressableElement implements HasCitatio
     }
 
     /**
-     * Gets the ancestors.
+     * Gets the ancestors. The family tree is walked keeping track of the individuals seen by identity, so that their (deep) hash
+     * codes are worked out only once each, when the result is built.
      *
      * @return the ancestors
      */
     public Set<Individual> getAncestors() {
-        Set<Individual> result = new HashSet<>();
+        Set<Individual> result = newIdentitySet();
         addGenerationOfAncestors(result);
-        return result;
+        return new HashSet<>(result);
     }
 
     /**
@@ -650,14 +705,15 @@ public class Individual extends AbstractAddressableElement implements HasCitatio
     }
 
     /**
-     * Gets the descendants.
+     * Gets the descendants. The family tree is walked keeping track of the individuals seen by identity, so that their (deep) hash
+     * codes are worked out only once each, when the result is built.
      *
      * @return the descendants
      */
     public Set<Individual> getDescendants() {
-        Set<Individual> result = new HashSet<>();
+        Set<Individual> result = newIdentitySet();
         addGenerationOfDescendants(result);
-        return result;
+        return new HashSet<>(result);
     }
 
     /**
@@ -975,37 +1031,15 @@ public class Individual extends AbstractAddressableElement implements HasCitatio
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #contentHash()}.
      */
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = super.hashCode();
-        if (xref != null) {
-            return prime * result + xref.hashCode();
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.hashCode(this);
         }
-        result = prime * result;
-        result = prime * result + (aliases == null ? 0 : aliases.hashCode());
-        result = prime * result + (ancestorInterest == null ? 0 : ancestorInterest.hashCode());
-        result = prime * result + (ancestralFileNumber == null ? 0 : ancestralFileNumber.hashCode());
-        result = prime * result + (associations == null ? 0 : associations.hashCode());
-        result = prime * result + (attributes == null ? 0 : attributes.hashCode());
-        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
-        result = prime * result + (citations == null ? 0 : citations.hashCode());
-        result = prime * result + (descendantInterest == null ? 0 : descendantInterest.hashCode());
-        result = prime * result + (events == null ? 0 : events.hashCode());
-        result = prime * result + (familiesWhereChild == null ? 0 : familiesWhereChild.hashCode());
-        result = prime * result + (familiesWhereSpouse == null ? 0 : familiesWhereSpouse.hashCode());
-        result = prime * result + (ldsIndividualOrdinances == null ? 0 : ldsIndividualOrdinances.hashCode());
-        result = prime * result + (multimedia == null ? 0 : multimedia.hashCode());
-        result = prime * result + (names == null ? 0 : names.hashCode());
-        result = prime * result + (permanentRecFileNumber == null ? 0 : permanentRecFileNumber.hashCode());
-        result = prime * result + (recIdNumber == null ? 0 : recIdNumber.hashCode());
-        result = prime * result + (restrictionNotice == null ? 0 : restrictionNotice.hashCode());
-        result = prime * result + (sex == null ? 0 : sex.hashCode());
-        result = prime * result + (submitters == null ? 0 : submitters.hashCode());
-        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
-        return result;
+        return contentHash();
     }
 
     /**
@@ -1214,7 +1248,7 @@ public class Individual extends AbstractAddressableElement implements HasCitatio
      * @return the people in another generation of ancestors, to be added to the running list
      */
     private Set<Individual> addGenerationOfAncestors(Set<Individual> seenSoFar) {
-        Set<Individual> result = new HashSet<>();
+        Set<Individual> result = newIdentitySet();
         if (familiesWhereChild != null) {
             for (FamilyChild f : familiesWhereChild) {
                 if (f == null) {
@@ -1256,7 +1290,7 @@ public class Individual extends AbstractAddressableElement implements HasCitatio
      * @return the people in another generation of ancestors, to be added to the running list
      */
     private Set<Individual> addGenerationOfDescendants(Set<Individual> seenSoFar) {
-        Set<Individual> result = new HashSet<>();
+        Set<Individual> result = newIdentitySet();
         if (familiesWhereSpouse != null) {
             for (FamilySpouse f : familiesWhereSpouse) {
                 if (f.getFamily().getChildren() != null) {
@@ -1282,4 +1316,13 @@ public class Individual extends AbstractAddressableElement implements HasCitatio
         return result;
     }
 
+    /**
+     * Make a set of individuals that tells them apart by identity
+     * 
+     * @return a new, empty set of individuals that tells them apart by identity
+     */
+    private Set<Individual> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<Individual, Boolean>());
+    }
+
 }
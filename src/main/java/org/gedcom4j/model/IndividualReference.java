@@ -73,7 +73,7 @@ public class IndividualReference extends AbstractElement {
      */
     public IndividualReference(IndividualReference other, boolean deep) {
         super(other);
-        individual = new Individual(other.individual, deep);
+        individual = new Individual(other.getIndividual(), deep);
     }
 
     /**
@@ -91,11 +91,11 @@ public class IndividualReference extends AbstractElement {
             return false;
         }
         IndividualReference other = (IndividualReference) obj;
-        if (individual == null) {
-            if (other.individual != null) {
+        if (getIndividual() == null) {
+            if (other.getIndividual() != null) {
                 return false;
             }
-        } else if (!individual.equals(other.individual)) {
+        } else if (!getIndividual().equals(other.getIndividual())) {
             return false;
         }
         return true;
@@ -107,7 +107,7 @@ public class IndividualReference extends AbstractElement {
      * @return the individual
      */
     public Individual getIndividual() {
-        return individual;
+        return RecordResolver.resolve(individual);
     }
 
     /**
@@ -117,7 +117,7 @@ public class IndividualReference extends AbstractElement {
     public int hashCode() {
         final int prime = 31;
         int result = super.hashCode();
-        result = prime * result + ((individual == null) ? 0 : individual.hashCode());
+        result = prime * result + ((getIndividual() == null) ? 0 : getIndividual().hashCode());
         return result;
     }
 
@@ -166,10 +166,37 @@ public class Multimedia extends AbstractNotesElement implements HasCitations, Ha
     }
 
     /**
-     * {@inheritDoc}
+     * Get a hash code for this record that is consistent with {@link #deepEquals(Object)}, whether or not
+     * {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @return a hash code for the contents of this record
+     * @since 4.0.2
      */
-    @Override
-    public boolean equals(Object obj) {
+    public int contentHash() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + (blob == null ? 0 : blob.hashCode());
+        result = prime * result + (embeddedMediaFormat == null ? 0 : embeddedMediaFormat.hashCode());
+        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
+        result = prime * result + (citations == null ? 0 : citations.hashCode());
+        result = prime * result + (continuedObject == null ? 0 : continuedObject.hashCode());
+        result = prime * result + (fileReferences == null ? 0 : fileReferences.hashCode());
+        result = prime * result + (recIdNumber == null ? 0 : recIdNumber.hashCode());
+        result = prime * result + (embeddedTitle == null ? 0 : embeddedTitle.hashCode());
+        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
+        result = prime * result + (xref == null ? 0 : xref.hashCode());
+        return result;
+    }
+
+    /**
+     * Compare this record with another object by content, whether or not {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @param obj
+     *            the object to compare with
+     * @return true if the other object is a {@link Multimedia} with the same contents
+     * @since 4.0.2
+     */
+    public boolean deepEquals(Object obj) {
         if (this == obj) {
             return true;
         }
@@ -253,6 +280,18 @@ public class Multimedia extends AbstractNotesElement implements HasCitations, Ha
         return true;
     }
 
+    /**
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #deepEquals(Object)}.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.isSameRecord(this, obj);
+        }
+        return deepEquals(obj);
+    }
+
     /**
      * Gets the blob.
      *
@@ -404,23 +443,15 @@ public class Multimedia extends AbstractNotesElement implements HasCitations, Ha
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #contentHash()}.
      */
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = super.hashCode();
-        result = prime * result + (blob == null ? 0 : blob.hashCode());
-        result = prime * result + (embeddedMediaFormat == null ? 0 : embeddedMediaFormat.hashCode());
-        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
-        result = prime * result + (citations == null ? 0 : citations.hashCode());
-        result = prime * result + (continuedObject == null ? 0 : continuedObject.hashCode());
-        result = prime * result + (fileReferences == null ? 0 : fileReferences.hashCode());
-        result = prime * result + (recIdNumber == null ? 0 : recIdNumber.hashCode());
-        result = prime * result + (embeddedTitle == null ? 0 : embeddedTitle.hashCode());
-        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
-        result = prime * result + (xref == null ? 0 : xref.hashCode());
-        return result;
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.hashCode(this);
+        }
+        return contentHash();
     }
 
     /**
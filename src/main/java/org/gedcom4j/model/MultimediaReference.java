@@ -69,8 +69,8 @@ public class MultimediaReference extends AbstractElement {
      */
     public MultimediaReference(MultimediaReference other) {
         super(other);
-        if (other.multimedia != null) {
-            multimedia = new Multimedia(other.multimedia);
+        if (other.getMultimedia() != null) {
+            multimedia = new Multimedia(other.getMultimedia());
         }
     }
 
@@ -89,11 +89,11 @@ public class MultimediaReference extends AbstractElement {
             return false;
         }
         MultimediaReference other = (MultimediaReference) obj;
-        if (multimedia == null) {
-            if (other.multimedia != null) {
+        if (getMultimedia() == null) {
+            if (other.getMultimedia() != null) {
                 return false;
             }
-        } else if (!multimedia.equals(other.multimedia)) {
+        } else if (!getMultimedia().equals(other.getMultimedia())) {
             return false;
         }
         return true;
@@ -105,7 +105,7 @@ public class MultimediaReference extends AbstractElement {
      * @return the multimedia
      */
     public Multimedia getMultimedia() {
-        return multimedia;
+        return RecordResolver.resolve(multimedia);
     }
 
     /**
@@ -115,7 +115,7 @@ public class MultimediaReference extends AbstractElement {
     public int hashCode() {
         final int prime = 31;
         int result = super.hashCode();
-        result = prime * result + ((multimedia == null) ? 0 : multimedia.hashCode());
+        result = prime * result + ((getMultimedia() == null) ? 0 : getMultimedia().hashCode());
         return result;
     }
 
@@ -71,8 +71,8 @@ public class NoteStructure extends AbstractElement {
         if (other.lines != null) {
             lines = new ArrayList<>(other.lines);
         }
-        if (other.noteReference != null) {
-            noteReference = new NoteRecord(other.noteReference);
+        if (other.getNoteReference() != null) {
+            noteReference = new NoteRecord(other.getNoteReference());
         }
     }
 
@@ -98,11 +98,11 @@ public class NoteStructure extends AbstractElement {
         } else if (!lines.equals(other.lines)) {
             return false;
         }
-        if (noteReference == null) {
-            if (other.noteReference != null) {
+        if (getNoteReference() == null) {
+            if (other.getNoteReference() != null) {
                 return false;
             }
-        } else if (!noteReference.equals(other.noteReference)) {
+        } else if (!getNoteReference().equals(other.getNoteReference())) {
             return false;
         }
         return true;
@@ -141,7 +141,7 @@ public class NoteStructure extends AbstractElement {
      * @return the noteReference
      */
     public NoteRecord getNoteReference() {
-        return noteReference;
+        return RecordResolver.resolve(noteReference);
     }
 
     /**
@@ -152,7 +152,7 @@ public class NoteStructure extends AbstractElement {
         final int prime = 31;
         int result = super.hashCode();
         result = prime * result + ((lines == null) ? 0 : lines.hashCode());
-        result = prime * result + ((noteReference == null) ? 0 : noteReference.hashCode());
+        result = prime * result + ((getNoteReference() == null) ? 0 : getNoteReference().hashCode());
         return result;
     }
 
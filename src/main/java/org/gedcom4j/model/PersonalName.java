@@ -435,7 +435,7 @@ public class PersonalName extends AbstractNotesElement implements HasCitations {
      *            the new given name
      */
     public void setGivenName(String givenName) {
-        if (this.givenName == null) {
+        if (this.givenName == null || this.givenName.isShared()) {
             this.givenName = new StringWithCustomFacts(givenName);
         } else {
             this.givenName.setValue(givenName);
@@ -459,7 +459,7 @@ public class PersonalName extends AbstractNotesElement implements HasCitations {
      *            the new nickname
      */
     public void setNickname(String nickname) {
-        if (this.nickname == null) {
+        if (this.nickname == null || this.nickname.isShared()) {
             this.nickname = new StringWithCustomFacts(nickname);
         } else {
             this.nickname.setValue(nickname);
@@ -483,7 +483,7 @@ public class PersonalName extends AbstractNotesElement implements HasCitations {
      *            the new prefix
      */
     public void setPrefix(String prefix) {
-        if (this.prefix == null) {
+        if (this.prefix == null || this.prefix.isShared()) {
             this.prefix = new StringWithCustomFacts(prefix);
         } else {
             this.prefix.setValue(prefix);
@@ -507,7 +507,7 @@ public class PersonalName extends AbstractNotesElement implements HasCitations {
      *            the new suffix
      */
     public void setSuffix(String suffix) {
-        if (this.suffix == null) {
+        if (this.suffix == null || this.suffix.isShared()) {
             this.suffix = new StringWithCustomFacts(suffix);
         } else {
             this.suffix.setValue(suffix);
@@ -531,7 +531,7 @@ public class PersonalName extends AbstractNotesElement implements HasCitations {
      *            the new surname
      */
     public void setSurname(String surname) {
-        if (this.surname == null) {
+        if (this.surname == null || this.surname.isShared()) {
             this.surname = new StringWithCustomFacts(surname);
         } else {
             this.surname.setValue(surname);
@@ -555,7 +555,7 @@ public class PersonalName extends AbstractNotesElement implements HasCitations {
      *            the new surname prefix
      */
     public void setSurnamePrefix(String surnamePrefix) {
-        if (this.surnamePrefix == null) {
+        if (this.surnamePrefix == null || this.surnamePrefix.isShared()) {
             this.surnamePrefix = new StringWithCustomFacts(surnamePrefix);
         } else {
             this.surnamePrefix.setValue(surnamePrefix);
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model;
+
+/**
+ * Equality and hashing of root-level records by record identity, used by their {@link Object#equals(Object)} and
+ * {@link Object#hashCode()} methods when {@link org.gedcom4j.Options#isRecordIdentityEnabled()} is turned on.
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class RecordIdentity {
+
+    /**
+     * Private constructor prevents instantiation and subclassing.
+     */
+    private RecordIdentity() {
+        // Do nothing
+    }
+
+    /**
+     * Get the hash code of a record by record identity - the hash code of its xref, or its identity hash code if it has no xref
+     * 
+     * @param record
+     *            the record
+     * @return the hash code of the record
+     */
+    static int hashCode(HasXref record) {
+        String xref = record.getXref();
+        return xref == null ? System.identityHashCode(record) : xref.hashCode();
+    }
+
+    /**
+     * Is an object the same record as another - the very same object, or an object of the same class with the same non-null xref?
+     * 
+     * @param record
+     *            the record
+     * @param obj
+     *            the object to compare with
+     * @return true if the object is the same record
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    static boolean isSameRecord(HasXref record, Object obj) {
+        if (record == obj) {
+            return true;
+        }
+        if (obj == null || record.getClass() != obj.getClass()) {
+            return false;
+        }
+        String xref = record.getXref();
+        return xref != null && xref.equals(((HasXref) obj).getXref());
+    }
+}
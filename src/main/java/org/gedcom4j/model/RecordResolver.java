@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model;
+
+/**
+ * <p>
+ * Something that fills in root-level records that were made as empty placeholders and are only loaded when they are needed - such
+ * as the records of a {@link Gedcom} loaded with {@link org.gedcom4j.parser.GedcomParser#setLazyLoadingEnabled(boolean)} turned
+ * on.
+ * </p>
+ * <p>
+ * Every getter that follows a cross-reference from one item to a root-level record (for example
+ * {@link IndividualReference#getIndividual()} or {@link FamilyChild#getFamily()}) passes the record through
+ * {@link #resolve(HasXref)}, so a placeholder is filled in before the caller sees it. Each placeholder is marked with the resolver
+ * that made it, so only the records a resolver is responsible for are ever passed to it; for any other record, which is every
+ * record unless something is being loaded lazily, this costs one read of a field.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public abstract class RecordResolver {
+
+    /**
+     * Fill in a record, if it is a placeholder that was marked by a resolver
+     * 
+     * @param <T>
+     *            the type of record
+     * @param record
+     *            the record. Optional.
+     * @return the record that was passed in, filled in if it was a placeholder
+     */
+    public static <T extends HasXref> T resolve(T record) {
+        if (record instanceof AbstractElement) {
+            RecordResolver resolver = ((AbstractElement) record).resolver;
+            if (resolver != null) {
+                resolver.fill(record);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Mark a record as one this resolver is responsible for, so that it is passed to {@link #fill(HasXref)} whenever it is passed
+     * to {@link #resolve(HasXref)}. The record must be marked before anything else can see it.
+     * 
+     * @param record
+     *            the record to mark. Required.
+     */
+    protected final void attach(HasXref record) {
+        if (record instanceof AbstractElement) {
+            ((AbstractElement) record).resolver = this;
+        }
+    }
+
+    /**
+     * Fill in a record that this resolver is responsible for, if it still needs filling in
+     * 
+     * @param record
+     *            the record, which is never null and was marked with {@link #attach(HasXref)}
+     */
+    protected abstract void fill(HasXref record);
+}
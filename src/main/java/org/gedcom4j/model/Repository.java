@@ -100,10 +100,32 @@ public class Repository extends AbstractAddressableElement implements HasXref {
     }
 
     /**
-     * {@inheritDoc}
+     * Get a hash code for this record that is consistent with {@link #deepEquals(Object)}, whether or not
+     * {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @return a hash code for the contents of this record
+     * @since 4.0.2
      */
-    @Override
-    public boolean equals(Object obj) {
+    public int contentHash() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
+        result = prime * result + (name == null ? 0 : name.hashCode());
+        result = prime * result + (recIdNumber == null ? 0 : recIdNumber.hashCode());
+        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
+        result = prime * result + (xref == null ? 0 : xref.hashCode());
+        return result;
+    }
+
+    /**
+     * Compare this record with another object by content, whether or not {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @param obj
+     *            the object to compare with
+     * @return true if the other object is a {@link Repository} with the same contents
+     * @since 4.0.2
+     */
+    public boolean deepEquals(Object obj) {
         if (this == obj) {
             return true;
         }
@@ -152,6 +174,18 @@ public class Repository extends AbstractAddressableElement implements HasXref {
         return true;
     }
 
+    /**
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #deepEquals(Object)}.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.isSameRecord(this, obj);
+        }
+        return deepEquals(obj);
+    }
+
     /**
      * Gets the change date.
      *
@@ -213,18 +247,15 @@ public class Repository extends AbstractAddressableElement implements HasXref {
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #contentHash()}.
      */
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = super.hashCode();
-        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
-        result = prime * result + (name == null ? 0 : name.hashCode());
-        result = prime * result + (recIdNumber == null ? 0 : recIdNumber.hashCode());
-        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
-        result = prime * result + (xref == null ? 0 : xref.hashCode());
-        return result;
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.hashCode(this);
+        }
+        return contentHash();
     }
 
     /**
@@ -173,11 +173,40 @@ public class Source extends AbstractNotesElement implements HasXref {
     }
 
     /**
-     * {@inheritDoc}
+     * Get a hash code for this record that is consistent with {@link #deepEquals(Object)}, whether or not
+     * {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @return a hash code for the contents of this record
+     * @since 4.0.2
+     */
+    public int contentHash() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
+        result = prime * result + (data == null ? 0 : data.hashCode());
+        result = prime * result + (multimedia == null ? 0 : multimedia.hashCode());
+        result = prime * result + (originatorsAuthors == null ? 0 : originatorsAuthors.hashCode());
+        result = prime * result + (publicationFacts == null ? 0 : publicationFacts.hashCode());
+        result = prime * result + (recIdNumber == null ? 0 : recIdNumber.hashCode());
+        result = prime * result + (repositoryCitation == null ? 0 : repositoryCitation.hashCode());
+        result = prime * result + (sourceFiledBy == null ? 0 : sourceFiledBy.hashCode());
+        result = prime * result + (sourceText == null ? 0 : sourceText.hashCode());
+        result = prime * result + (title == null ? 0 : title.hashCode());
+        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
+        result = prime * result + (xref == null ? 0 : xref.hashCode());
+        return result;
+    }
+
+    /**
+     * Compare this record with another object by content, whether or not {@link Options#isRecordIdentityEnabled()} is turned on
+     * 
+     * @param obj
+     *            the object to compare with
+     * @return true if the other object is a {@link Source} with the same contents
+     * @since 4.0.2
      */
     @SuppressWarnings("PMD.ExcessiveMethodLength")
-    @Override
-    public boolean equals(Object obj) {
+    public boolean deepEquals(Object obj) {
         if (this == obj) {
             return true;
         }
@@ -272,6 +301,18 @@ public class Source extends AbstractNotesElement implements HasXref {
         return true;
     }
 
+    /**
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #deepEquals(Object)}.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.isSameRecord(this, obj);
+        }
+        return deepEquals(obj);
+    }
+
     /**
      * Gets the change date.
      *
@@ -410,25 +451,15 @@ public class Source extends AbstractNotesElement implements HasXref {
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc} By record identity if {@link Options#isRecordIdentityEnabled()} is turned on, otherwise the same as
+     * {@link #contentHash()}.
      */
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = super.hashCode();
-        result = prime * result + (changeDate == null ? 0 : changeDate.hashCode());
-        result = prime * result + (data == null ? 0 : data.hashCode());
-        result = prime * result + (multimedia == null ? 0 : multimedia.hashCode());
-        result = prime * result + (originatorsAuthors == null ? 0 : originatorsAuthors.hashCode());
-        result = prime * result + (publicationFacts == null ? 0 : publicationFacts.hashCode());
-        result = prime * result + (recIdNumber == null ? 0 : recIdNumber.hashCode());
-        result = prime * result + (repositoryCitation == null ? 0 : repositoryCitation.hashCode());
-        result = prime * result + (sourceFiledBy == null ? 0 : sourceFiledBy.hashCode());
-        result = prime * result + (sourceText == null ? 0 : sourceText.hashCode());
-        result = prime * result + (title == null ? 0 : title.hashCode());
-        result = prime * result + (userReferences == null ? 0 : userReferences.hashCode());
-        result = prime * result + (xref == null ? 0 : xref.hashCode());
-        return result;
+        if (Options.isRecordIdentityEnabled()) {
+            return RecordIdentity.hashCode(this);
+        }
+        return contentHash();
     }
 
     /**
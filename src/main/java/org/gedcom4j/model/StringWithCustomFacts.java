@@ -26,8 +26,20 @@
  */
 package org.gedcom4j.model;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
+ * <p>
  * Represents a string value from a tag, and allows for user-defined child facts(tags)
+ * </p>
+ * <p>
+ * Most values have no custom facts, and many are repeated over and over (sexes, dates, name parts), so the parser can give many
+ * model objects the same <i>shared</i> instance (see {@link #newSharedInstance(String)}) rather than one each, when
+ * {@link org.gedcom4j.parser.GedcomParser#setValueSharingEnabled(boolean)} is turned on. A shared instance cannot be changed, and
+ * the getters of the fields that can hold one return it as it is. The setters that take a plain string replace a shared instance
+ * rather than changing it; to change its custom facts, set a copy of its own from {@link #unshared(StringWithCustomFacts)}.
+ * </p>
  * 
  * @author frizbog
  */
@@ -43,6 +55,11 @@ public class StringWithCustomFacts extends AbstractElement {
      */
     String value;
 
+    /**
+     * Is this a shared instance, which cannot be changed?
+     */
+    private boolean shared;
+
     /**
      * Default constructor
      */
@@ -71,6 +88,38 @@ public class StringWithCustomFacts extends AbstractElement {
         value = other.value;
     }
 
+    /**
+     * Get a new shared instance, with a value and no custom facts, that can be given to any number of model objects rather than
+     * each having its own. It cannot be changed.
+     * 
+     * @param value
+     *            the value
+     * @return the new shared instance
+     * @since 4.0.2
+     */
+    public static StringWithCustomFacts newSharedInstance(String value) {
+        StringWithCustomFacts result = new StringWithCustomFacts(value);
+        result.shared = true;
+        if (result.customFacts != null) {
+            // Collection initialization is turned on, so keep the empty list from being added to
+            result.customFacts = Collections.emptyList();
+        }
+        return result;
+    }
+
+    /**
+     * Get an instance that is not shared, and so can be changed: a copy of the one supplied if it is shared, otherwise the one
+     * supplied
+     * 
+     * @param s
+     *            the instance. Optional.
+     * @return the instance supplied, or a copy of it that is not shared; null if null was supplied
+     * @since 4.0.2
+     */
+    public static StringWithCustomFacts unshared(StringWithCustomFacts s) {
+        return s == null || !s.shared ? s : new StringWithCustomFacts(s);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -96,6 +145,20 @@ public class StringWithCustomFacts extends AbstractElement {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws UnsupportedOperationException
+     *             if this is a shared instance and the collection would have to be initialized
+     */
+    @Override
+    public List<CustomFact> getCustomFacts(boolean initializeIfNeeded) {
+        if (shared && initializeIfNeeded && customFacts == null) {
+            throw new UnsupportedOperationException("A shared StringWithCustomFacts cannot be given custom facts");
+        }
+        return super.getCustomFacts(initializeIfNeeded);
+    }
+
     /**
      * Gets the value.
      *
@@ -116,6 +179,16 @@ public class StringWithCustomFacts extends AbstractElement {
         return result;
     }
 
+    /**
+     * Is this a shared instance, which cannot be changed? See {@link #newSharedInstance(String)}.
+     * 
+     * @return true if this is a shared instance
+     * @since 4.0.2
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
     /**
      * Sets the value.
      *
@@ -123,6 +196,9 @@ public class StringWithCustomFacts extends AbstractElement {
      *            the new value
      */
     public void setValue(String value) {
+        if (shared) {
+            throw new UnsupportedOperationException("A shared StringWithCustomFacts cannot be changed");
+        }
         this.value = value;
     }
 
@@ -115,8 +115,8 @@ public class Submission extends AbstractElement implements HasXref {
         if (other.recIdNumber != null) {
             recIdNumber = new StringWithCustomFacts(other.recIdNumber);
         }
-        if (other.submitter != null) {
-            submitter = new Submitter(other.submitter);
+        if (other.getSubmitter() != null) {
+            submitter = new Submitter(other.getSubmitter());
         }
         if (other.templeCode != null) {
             templeCode = new StringWithCustomFacts(other.templeCode);
@@ -175,11 +175,11 @@ public class Submission extends AbstractElement implements HasXref {
         } else if (!recIdNumber.equals(other.recIdNumber)) {
             return false;
         }
-        if (submitter == null) {
-            if (other.submitter != null) {
+        if (getSubmitter() == null) {
+            if (other.getSubmitter() != null) {
                 return false;
             }
-        } else if (!submitter.equals(other.submitter)) {
+        } else if (!getSubmitter().equals(other.getSubmitter())) {
             return false;
         }
         if (templeCode == null) {
@@ -250,7 +250,7 @@ public class Submission extends AbstractElement implements HasXref {
      * @return the submitter
      */
     public Submitter getSubmitter() {
-        return submitter;
+        return RecordResolver.resolve(submitter);
     }
 
     /**
@@ -284,7 +284,7 @@ public class Submission extends AbstractElement implements HasXref {
         result = prime * result + (nameOfFamilyFile == null ? 0 : nameOfFamilyFile.hashCode());
         result = prime * result + (ordinanceProcessFlag == null ? 0 : ordinanceProcessFlag.hashCode());
         result = prime * result + (recIdNumber == null ? 0 : recIdNumber.hashCode());
-        result = prime * result + (submitter == null ? 0 : submitter.hashCode());
+        result = prime * result + (getSubmitter() == null ? 0 : getSubmitter().hashCode());
         result = prime * result + (templeCode == null ? 0 : templeCode.hashCode());
         result = prime * result + (xref == null ? 0 : xref.hashCode());
         return result;
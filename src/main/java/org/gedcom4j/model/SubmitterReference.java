@@ -69,8 +69,8 @@ public class SubmitterReference extends AbstractElement {
      */
     public SubmitterReference(SubmitterReference other) {
         super(other);
-        if (other.submitter != null) {
-            submitter = new Submitter(other.submitter);
+        if (other.getSubmitter() != null) {
+            submitter = new Submitter(other.getSubmitter());
         }
     }
 
@@ -89,11 +89,11 @@ public class SubmitterReference extends AbstractElement {
             return false;
         }
         SubmitterReference other = (SubmitterReference) obj;
-        if (submitter == null) {
-            if (other.submitter != null) {
+        if (getSubmitter() == null) {
+            if (other.getSubmitter() != null) {
                 return false;
             }
-        } else if (!submitter.equals(other.submitter)) {
+        } else if (!getSubmitter().equals(other.getSubmitter())) {
             return false;
         }
         return true;
@@ -105,7 +105,7 @@ public class SubmitterReference extends AbstractElement {
      * @return the submitter
      */
     public Submitter getSubmitter() {
-        return submitter;
+        return RecordResolver.resolve(submitter);
     }
 
     /**
@@ -115,7 +115,7 @@ public class SubmitterReference extends AbstractElement {
     public int hashCode() {
         final int prime = 31;
         int result = super.hashCode();
-        result = prime * result + ((submitter == null) ? 0 : submitter.hashCode());
+        result = prime * result + ((getSubmitter() == null) ? 0 : getSubmitter().hashCode());
         return result;
     }
 
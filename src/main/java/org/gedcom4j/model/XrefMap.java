@@ -0,0 +1,820 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * A map of root-level records keyed by xref, laid out to take less heap than a {@link java.util.HashMap} for the numbered xrefs
+ * most genealogy programs write, such as <code>@I123@</code>. This is the kind of map a {@link Gedcom} made with its default
+ * constructor keeps its records in.
+ * </p>
+ * <p>
+ * The first numbered xref put in the map fixes the letters before the number - the prefix. Records whose xrefs have that prefix
+ * and a number not too far past the ones already there are kept in an array indexed by the number, with no entry object and no
+ * key string; their keys are made again as they are asked for. Every other key, including numbers with leading zeros and xrefs
+ * with other prefixes, goes in an open-addressing hash table of keys and values. Null keys and null values are allowed, as in a
+ * {@link java.util.HashMap}.
+ * </p>
+ * <p>
+ * Entries come out in the order of their numbers, then the other keys in no particular order. The entry set's iterator supports
+ * {@link Iterator#remove()}, and fails fast if the map is otherwise changed while iterating. The entries it hands out hold the
+ * value as it was when the entry was reached; {@link Map.Entry#setValue(Object)} writes through to the map. Not thread-safe,
+ * though reading from more than one thread at once is safe while nothing changes the map.
+ * </p>
+ * 
+ * @param <V>
+ *            the type of record
+ * @author frizbog
+ * @since 4.0.2
+ */
+public final class XrefMap<V> extends AbstractMap<String, V> implements Serializable {
+
+    /**
+     * An entry in the map, as seen through its entry set
+     */
+    private final class XrefEntry extends SimpleEntry<String, V> {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = -3529413317640553212L;
+
+        /**
+         * Constructor
+         * 
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         */
+        XrefEntry(String key, V value) {
+            super(key, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V setValue(V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * Goes through the entries: the numbered ones, then those in the hash table, then the one with the null key
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+
+        /**
+         * The position of the next entry: an index into the array of numbered records, then the hash table after that, then the
+         * null key after that
+         */
+        private int next;
+
+        /**
+         * The position of the entry last returned, or -1 if there is none to remove
+         */
+        private int last = -1;
+
+        /**
+         * The modification count the map should have
+         */
+        private int expectedModCount = modCount;
+
+        /**
+         * Constructor
+         */
+        EntryIterator() {
+            next = advance(0);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return next < positionCount();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Map.Entry<String, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            return new XrefEntry(keyAt(last), unmask(valueAt(last)));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * Find the position of the next entry
+         * 
+         * @param from
+         *            the position to start looking at
+         * @return the position of the next entry, or the number of positions if there are no more
+         */
+        private int advance(int from) {
+            int p = from;
+            while (p < positionCount() && valueAt(p) == null) {
+                p++;
+            }
+            return p;
+        }
+    }
+
+    /**
+     * Serial Version UID
+     */
+    private static final long serialVersionUID = 6132207948916364270L;
+
+    /**
+     * Stands for a null value in the arrays, where null means there is no entry
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * Marks a slot in the hash table whose entry was removed, so that looking for keys further along still works
+     */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * An array with nothing in it
+     */
+    private static final Object[] NONE = new Object[0];
+
+    /**
+     * The smallest array of numbered records to make
+     */
+    private static final int MIN_NUMBERED = 16;
+
+    /**
+     * The smallest hash table to make
+     */
+    private static final int MIN_TABLE = 8;
+
+    /**
+     * The most digits a number can have to be kept in the array of numbered records
+     */
+    private static final int MAX_DIGITS = 9;
+
+    /**
+     * The letters between the leading @ and the number of the numbered records, or null if no numbered xref has been put yet
+     */
+    private transient String prefix;
+
+    /**
+     * The numbered records, indexed by number
+     */
+    private transient Object[] numbered = NONE;
+
+    /**
+     * The number of numbered records
+     */
+    private transient int numberedCount;
+
+    /**
+     * The keys of the hash table
+     */
+    private transient Object[] keys = NONE;
+
+    /**
+     * The values of the hash table
+     */
+    private transient Object[] values = NONE;
+
+    /**
+     * The number of entries in the hash table
+     */
+    private transient int tableCount;
+
+    /**
+     * The number of slots in the hash table that are in use or marked {@link #REMOVED}
+     */
+    private transient int tableUsed;
+
+    /**
+     * The value for the null key, or null if there is none
+     */
+    private transient Object nullKeyValue;
+
+    /**
+     * The number of entries expected, to size the arrays when they are first made
+     */
+    private transient int expectedSize;
+
+    /**
+     * The number of times the entries have been added or removed
+     */
+    private transient int modCount;
+
+    /**
+     * Default constructor
+     */
+    public XrefMap() {
+        // Arrays are made as they are needed
+    }
+
+    /**
+     * Constructor, for a map expected to hold a number of entries
+     * 
+     * @param expectedSize
+     *            the number of entries expected
+     */
+    public XrefMap(int expectedSize) {
+        ensureCapacity(expectedSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        prefix = null;
+        numbered = NONE;
+        numberedCount = 0;
+        keys = NONE;
+        values = NONE;
+        tableCount = 0;
+        tableUsed = 0;
+        nullKeyValue = null;
+        modCount++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return lookup(key) != null;
+    }
+
+    /**
+     * Make sure the map has room for a number of entries without growing. Since which storage the keys need isn't known until
+     * they are put, only storage not yet made is sized by this - so it is best called while the map is still empty, for example
+     * with a count of records found by looking through the file first.
+     * 
+     * @param size
+     *            the number of entries expected
+     */
+    public void ensureCapacity(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size cannot be negative");
+        }
+        expectedSize = Math.max(expectedSize, size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void clear() {
+                XrefMap.this.clear();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int size() {
+                return XrefMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        return unmask(lookup(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(String key, V value) {
+        Object masked = value == null ? NULL_VALUE : value;
+        Object old;
+        if (key == null) {
+            old = nullKeyValue;
+            nullKeyValue = masked;
+        } else {
+            int n = numberFor(key, false);
+            int slot = n < 0 ? findSlot(key) : -1;
+            if (slot >= 0) {
+                // Replace the value where it is, never growing the arrays, so that an iterator going through them is not upset
+                old = values[slot];
+                values[slot] = masked;
+            } else {
+                if (n < 0 || numbered[n] == null) {
+                    n = numberFor(key, true);
+                }
+                if (n >= 0) {
+                    old = numbered[n];
+                    numbered[n] = masked;
+                    if (old == null) {
+                        numberedCount++;
+                    }
+                } else {
+                    old = tablePut(key, masked);
+                }
+            }
+        }
+        if (old == null) {
+            modCount++;
+        }
+        return unmask(old);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        Object old;
+        if (key == null) {
+            old = nullKeyValue;
+            nullKeyValue = null;
+        } else if (!(key instanceof String)) {
+            return null;
+        } else {
+            int n = numberFor((String) key, false);
+            if (n >= 0) {
+                old = numbered[n];
+                numbered[n] = null;
+                if (old != null) {
+                    numberedCount--;
+                }
+            } else {
+                int slot = findSlot(key);
+                old = slot < 0 ? null : removeSlot(slot);
+            }
+        }
+        if (old != null) {
+            modCount++;
+        }
+        return unmask(old);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return numberedCount + tableCount + (nullKeyValue == null ? 0 : 1);
+    }
+
+    /**
+     * Find where the digits before the trailing @ of an xref start
+     * 
+     * @param key
+     *            the xref, which is at least three characters long
+     * @return the index of the first of the digits, or of the trailing @ if there are none
+     */
+    private static int digitsStart(String key) {
+        int start = key.length() - 1;
+        while (start > 1 && key.charAt(start - 1) >= '0' && key.charAt(start - 1) <= '9') {
+            start--;
+        }
+        return start;
+    }
+
+    /**
+     * Parse the number out of an xref like <code>@I123@</code>
+     * 
+     * @param key
+     *            the xref
+     * @return the number, or -1 if the xref is not an @, some letters, a number without leading zeros of no more than
+     *         {@link #MAX_DIGITS} digits, and an @
+     */
+    private static int parseNumber(String key) {
+        int end = key.length() - 1;
+        if (end < 2 || key.charAt(0) != '@' || key.charAt(end) != '@') {
+            return -1;
+        }
+        int start = digitsStart(key);
+        int digits = end - start;
+        if (digits == 0 || digits > MAX_DIGITS || digits > 1 && key.charAt(start) == '0') {
+            return -1;
+        }
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            n = n * 10 + key.charAt(i) - '0';
+        }
+        return n;
+    }
+
+    /**
+     * Spread the bits of a hash code, so that keys differing only in the high bits don't all land in the same place
+     * 
+     * @param h
+     *            the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int h) {
+        return h ^ h >>> 16;
+    }
+
+    /**
+     * Get the smallest power of two hash table that holds a number of entries no more than two-thirds full
+     * 
+     * @param count
+     *            the number of entries
+     * @return the size of the table
+     */
+    private static int tableSizeFor(int count) {
+        int size = MIN_TABLE;
+        while (size * 2 / 3 < count) {
+            size *= 2;
+        }
+        return size;
+    }
+
+    /**
+     * Find the slot in the hash table for a key
+     * 
+     * @param key
+     *            the key
+     * @return the slot holding the key, or -1 if it isn't in the table
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private int findSlot(Object key) {
+        if (tableCount == 0) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int i = spread(key.hashCode()) & mask;
+        while (keys[i] != null) {
+            if (keys[i] != REMOVED && keys[i].equals(key)) {
+                return i;
+            }
+            i = i + 1 & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Grow the array of numbered records to hold a number, moving any entries in the hash table that then belong in it
+     * 
+     * @param n
+     *            the number
+     */
+    private void growNumbered(int n) {
+        int length = Math.max(Math.max(MIN_NUMBERED, expectedSize + 1), numbered.length * 2);
+        while (length <= n) {
+            length *= 2;
+        }
+        Object[] grown = new Object[length];
+        System.arraycopy(numbered, 0, grown, 0, numbered.length);
+        numbered = grown;
+        for (int i = 0; i < keys.length && tableCount > 0; i++) {
+            if (keys[i] instanceof String) {
+                String key = (String) keys[i];
+                int m = numberOf(key);
+                if (m >= 0 && m < length) {
+                    numbered[m] = values[i];
+                    numberedCount++;
+                    removeSlot(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the key at a position of the entry iterator
+     * 
+     * @param position
+     *            the position
+     * @return the key
+     */
+    private String keyAt(int position) {
+        if (position < numbered.length) {
+            return new StringBuilder(prefix.length() + 12).append('@').append(prefix).append(position).append('@').toString();
+        }
+        int slot = position - numbered.length;
+        return slot < keys.length ? (String) keys[slot] : null;
+    }
+
+    /**
+     * Look up the stored value for a key
+     * 
+     * @param key
+     *            the key
+     * @return the stored value - {@link #NULL_VALUE} for null - or null if the key isn't in the map
+     */
+    private Object lookup(Object key) {
+        if (key == null) {
+            return nullKeyValue;
+        }
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int n = numberFor((String) key, false);
+        if (n >= 0) {
+            return numbered[n];
+        }
+        int slot = findSlot(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    /**
+     * Parse the number out of an xref with the prefix of the numbered records
+     * 
+     * @param key
+     *            the xref
+     * @return the number, or -1 if the xref is not an @, the prefix, a number without leading zeros of no more than
+     *         {@link #MAX_DIGITS} digits, and an @
+     */
+    private int numberOf(String key) {
+        int start = prefix.length() + 1;
+        int end = key.length() - 1;
+        if (end <= start || key.charAt(0) != '@' || key.charAt(end) != '@' || !key.startsWith(prefix, 1)) {
+            return -1;
+        }
+        if (end - start > MAX_DIGITS || end - start > 1 && key.charAt(start) == '0') {
+            return -1;
+        }
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            n = n * 10 + c - '0';
+        }
+        return n;
+    }
+
+    /**
+     * Get the index in the array of numbered records where a key belongs, if it belongs there
+     * 
+     * @param key
+     *            the key
+     * @param adding
+     *            true if the key is about to be added, in which case the prefix is fixed if it isn't already, and the array is
+     *            grown if the number is not too far past the numbered records already there
+     * @return the index in the array of numbered records, or -1 if the key belongs in the hash table
+     */
+    private int numberFor(String key, boolean adding) {
+        if (prefix == null) {
+            if (!adding || parseNumber(key) < 0) {
+                return -1;
+            }
+            prefix = key.substring(1, digitsStart(key));
+        }
+        int n = numberOf(key);
+        if (n < 0) {
+            return -1;
+        }
+        if (n < numbered.length) {
+            return n;
+        }
+        if (adding && n < Math.max(Math.max(MIN_NUMBERED, expectedSize + 1), 4 * (numberedCount + 1))) {
+            growNumbered(n);
+            return n;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the number of positions the entry iterator goes through
+     * 
+     * @return the number of positions
+     */
+    private int positionCount() {
+        return numbered.length + keys.length + 1;
+    }
+
+    /**
+     * Read the map back from a stream
+     * 
+     * @param in
+     *            the stream
+     * @throws IOException
+     *             if the stream can't be read
+     * @throws ClassNotFoundException
+     *             if the class of a record can't be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        numbered = NONE;
+        keys = NONE;
+        values = NONE;
+        int size = in.readInt();
+        ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            put((String) in.readObject(), (V) in.readObject());
+        }
+    }
+
+    /**
+     * Remove the entry at a position of the entry iterator
+     * 
+     * @param position
+     *            the position
+     */
+    private void removeAt(int position) {
+        if (position < numbered.length) {
+            numbered[position] = null;
+            numberedCount--;
+        } else if (position - numbered.length < keys.length) {
+            removeSlot(position - numbered.length);
+        } else {
+            nullKeyValue = null;
+        }
+        modCount++;
+    }
+
+    /**
+     * Remove the entry in a slot of the hash table, marking the slot {@link #REMOVED}
+     * 
+     * @param slot
+     *            the slot
+     * @return the value that was in the slot
+     */
+    private Object removeSlot(int slot) {
+        Object old = values[slot];
+        keys[slot] = REMOVED;
+        values[slot] = null;
+        tableCount--;
+        return old;
+    }
+
+    /**
+     * Make the hash table over, big enough for its entries and one more, dropping the slots marked {@link #REMOVED}. The first
+     * table made is sized for the expected number of entries, unless there are numbered records already.
+     */
+    private void rehash() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int size = tableSizeFor(Math.max(tableCount + 1, tableUsed == 0 && numberedCount == 0 ? expectedSize : 0));
+        keys = new Object[size];
+        values = new Object[size];
+        tableUsed = tableCount;
+        int mask = size - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] instanceof String) {
+                int j = spread(oldKeys[i].hashCode()) & mask;
+                while (keys[j] != null) {
+                    j = j + 1 & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Put an entry in the hash table
+     * 
+     * @param key
+     *            the key
+     * @param masked
+     *            the value to store
+     * @return the value stored for the key before, or null if there was none
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private Object tablePut(String key, Object masked) {
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            Object old = values[slot];
+            values[slot] = masked;
+            return old;
+        }
+        if ((tableUsed + 1) * 3 > keys.length * 2) {
+            rehash();
+        }
+        int mask = keys.length - 1;
+        int i = spread(key.hashCode()) & mask;
+        while (keys[i] != null && keys[i] != REMOVED) {
+            i = i + 1 & mask;
+        }
+        if (keys[i] == null) {
+            tableUsed++;
+        }
+        keys[i] = key;
+        values[i] = masked;
+        tableCount++;
+        return null;
+    }
+
+    /**
+     * Turn a stored value into the value to hand out
+     * 
+     * @param stored
+     *            the stored value
+     * @return the value, with {@link #NULL_VALUE} turned back into null
+     */
+    @SuppressWarnings({ "unchecked", "PMD.CompareObjectsWithEquals" })
+    private V unmask(Object stored) {
+        return stored == NULL_VALUE ? null : (V) stored;
+    }
+
+    /**
+     * Get the value stored at a position of the entry iterator
+     * 
+     * @param position
+     *            the position
+     * @return the stored value, or null if there is no entry there
+     */
+    private Object valueAt(int position) {
+        if (position < numbered.length) {
+            return numbered[position];
+        }
+        int slot = position - numbered.length;
+        return slot < keys.length ? values[slot] : nullKeyValue;
+    }
+
+    /**
+     * Write the map to a stream
+     * 
+     * @param out
+     *            the stream
+     * @throws IOException
+     *             if the stream can't be written
+     * @serialData the number of entries, then the key and value of each entry
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for (Map.Entry<String, V> e : entrySet()) {
+            out.writeObject(e.getKey());
+            out.writeObject(e.getValue());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model.journal;
+
+import java.util.EventObject;
+
+import org.gedcom4j.model.HasXref;
+
+/**
+ * A change to a root-level record, as noted in a {@link GedcomJournal}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class ChangeEvent extends EventObject {
+
+    /**
+     * Serial version uid
+     */
+    private static final long serialVersionUID = -3524128405718293162L;
+
+    /**
+     * The kind of change
+     */
+    private final ChangeType changeType;
+
+    /**
+     * The record that changed
+     */
+    private final transient HasXref record;
+
+    /**
+     * The xref the record had in the {@link org.gedcom4j.model.Gedcom} when the change was noted
+     */
+    private final String xref;
+
+    /**
+     * The version of the journal this change brought it to
+     */
+    private final long version;
+
+    /**
+     * Constructor
+     * 
+     * @param source
+     *            the journal the change was noted in
+     * @param changeType
+     *            the kind of change
+     * @param record
+     *            the record that changed
+     * @param xref
+     *            the xref the record had in the {@link org.gedcom4j.model.Gedcom} when the change was noted
+     * @param version
+     *            the version of the journal this change brought it to
+     */
+    public ChangeEvent(GedcomJournal source, ChangeType changeType, HasXref record, String xref, long version) {
+        super(source);
+        this.changeType = changeType;
+        this.record = record;
+        this.xref = xref;
+        this.version = version;
+    }
+
+    /**
+     * Get the kind of change
+     * 
+     * @return the kind of change
+     */
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    /**
+     * Get the record that changed. For a removed record, this is the record as it is now, no longer in the
+     * {@link org.gedcom4j.model.Gedcom}.
+     * 
+     * @return the record that changed
+     */
+    public HasXref getRecord() {
+        return record;
+    }
+
+    /**
+     * Get the version of the journal this change brought it to
+     * 
+     * @return the version of the journal this change brought it to
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the xref the record had in the {@link org.gedcom4j.model.Gedcom} when the change was noted - its key in the map of
+     * records it was added to or removed from
+     * 
+     * @return the xref the record had when the change was noted
+     */
+    public String getXref() {
+        return xref;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(64);
+        builder.append("ChangeEvent [changeType=");
+        builder.append(changeType);
+        builder.append(", xref=");
+        builder.append(xref);
+        builder.append(", version=");
+        builder.append(version);
+        builder.append("]");
+        return builder.toString();
+    }
+}
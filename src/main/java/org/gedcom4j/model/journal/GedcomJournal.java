@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model.journal;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasXref;
+
+/**
+ * <p>
+ * A journal of the changes made to the root-level records of a {@link Gedcom} - records added, removed and changed - each of which
+ * moves the journal on to a new, higher version. Whatever is built from the {@link Gedcom} can note the version it is up to date
+ * with, and later ask for just the changes since then with {@link #getChangesSince(long)}, or be told about each change as it is
+ * noted by registering a {@link ChangeListener}. The journal also keeps a dirty flag for each record added or changed, until
+ * {@link #clearDirty()} is called.
+ * </p>
+ * <p>
+ * The model cannot tell when it is changed, so changes are noted in two ways:
+ * </p>
+ * <ul>
+ * <li>Records added to and removed from the {@link Gedcom}'s maps are found by {@link #scan()}, which compares the maps with how
+ * they were at the last scan (or when the journal was made). A record put in place of another with the same xref counts as the
+ * old one being removed and the new one added.</li>
+ * <li>Changes to the contents of a record - its names, events, and so on - are noted by calling {@link #modified(HasXref)} with
+ * the record.</li>
+ * </ul>
+ * <p>
+ * Nothing is tracked for a {@link Gedcom} without a journal, so changes cost nothing extra when they are not being tracked. Not
+ * thread-safe.
+ * </p>
+ * <p>
+ * The journal keeps each map's records as they were at the last scan, and compares them with the records in the map by identity,
+ * so it has to get every record from every map. For a {@link Gedcom} loaded with
+ * {@link org.gedcom4j.parser.GedcomParser#setLazyLoadingEnabled(boolean)} turned on, that means making a journal parses every
+ * record, and the journal then holds on to all of them - the memory lazy loading would have saved is spent after all. A journal
+ * is best kept for a {@link Gedcom} that is loaded in full anyway.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public final class GedcomJournal {
+
+    /**
+     * The records in one of the {@link Gedcom}'s maps at the last scan
+     */
+    private static final class KnownRecords {
+
+        /**
+         * The {@link Gedcom}'s map
+         */
+        private final Map<String, ? extends HasXref> live;
+
+        /**
+         * The records that were in it at the last scan
+         */
+        private Map<String, HasXref> known;
+
+        /**
+         * Constructor
+         * 
+         * @param live
+         *            the {@link Gedcom}'s map
+         */
+        KnownRecords(Map<String, ? extends HasXref> live) {
+            this.live = live;
+            known = new HashMap<>(live);
+        }
+
+        /**
+         * Has the map changed since the last scan?
+         * 
+         * @return true if records have been added to or removed from the map since the last scan
+         */
+        @SuppressWarnings("PMD.CompareObjectsWithEquals")
+        boolean isChanged() {
+            if (live.size() != known.size()) {
+                return true;
+            }
+            for (Entry<String, ? extends HasXref> e : live.entrySet()) {
+                if (known.get(e.getKey()) != e.getValue()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The {@link Gedcom}
+     */
+    private final Gedcom gedcom;
+
+    /**
+     * The records in each of the {@link Gedcom}'s maps at the last scan
+     */
+    private final List<KnownRecords> knownRecords = new ArrayList<>(7);
+
+    /**
+     * The changes noted and not yet discarded, oldest first
+     */
+    private final List<ChangeEvent> changes = new ArrayList<>();
+
+    /**
+     * The records added or changed since the dirty flags were last cleared
+     */
+    private final Set<HasXref> dirty = Collections.newSetFromMap(new IdentityHashMap<HasXref, Boolean>());
+
+    /**
+     * The listeners to tell about each change
+     */
+    private final List<WeakReference<ChangeListener>> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The current version - the number of changes noted so far
+     */
+    private long version;
+
+    /**
+     * The version of the oldest change not yet discarded is one more than this
+     */
+    private long discardedVersion;
+
+    /**
+     * Constructor. Starts a journal of the changes to the {@link Gedcom} from now on, at version 0. Parses every record of a
+     * lazily-loaded {@link Gedcom}, and holds on to them all - see the class description.
+     * 
+     * @param gedcom
+     *            the {@link Gedcom}. Required.
+     */
+    public GedcomJournal(Gedcom gedcom) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is required");
+        }
+        this.gedcom = gedcom;
+        knownRecords.add(new KnownRecords(gedcom.getFamilies()));
+        knownRecords.add(new KnownRecords(gedcom.getIndividuals()));
+        knownRecords.add(new KnownRecords(gedcom.getMultimedia()));
+        knownRecords.add(new KnownRecords(gedcom.getNotes()));
+        knownRecords.add(new KnownRecords(gedcom.getRepositories()));
+        knownRecords.add(new KnownRecords(gedcom.getSources()));
+        knownRecords.add(new KnownRecords(gedcom.getSubmitters()));
+    }
+
+    /**
+     * Clear the dirty flags of all the records
+     */
+    public void clearDirty() {
+        dirty.clear();
+    }
+
+    /**
+     * Discard the changes up to and including a version, which are no longer needed, to save memory. They can no longer be asked
+     * for with {@link #getChangesSince(long)}.
+     * 
+     * @param upToVersion
+     *            the version up to which the changes are to be discarded
+     */
+    public void discardChanges(long upToVersion) {
+        if (upToVersion <= discardedVersion) {
+            return;
+        }
+        long newDiscardedVersion = Math.min(upToVersion, version);
+        changes.subList(0, (int) (newDiscardedVersion - discardedVersion)).clear();
+        discardedVersion = newDiscardedVersion;
+    }
+
+    /**
+     * Get the changes noted since a version
+     * 
+     * @param sinceVersion
+     *            the version that the changes are wanted since - for example, the version that something built from the
+     *            {@link Gedcom} was last brought up to date with
+     * @return the changes that moved the journal on from that version to the current version, oldest first. Empty if there have
+     *         been none.
+     * @throws IllegalArgumentException
+     *             if some of those changes have been discarded, or the version is after the current version
+     */
+    public List<ChangeEvent> getChangesSince(long sinceVersion) {
+        if (sinceVersion < discardedVersion) {
+            throw new IllegalArgumentException("The changes since version " + sinceVersion + " have been discarded, up to version "
+                    + discardedVersion);
+        }
+        if (sinceVersion > version) {
+            throw new IllegalArgumentException("Version " + sinceVersion + " is after the current version " + version);
+        }
+        return Collections.unmodifiableList(new ArrayList<>(changes.subList((int) (sinceVersion - discardedVersion), changes
+                .size())));
+    }
+
+    /**
+     * Get the records added or changed since the dirty flags were last cleared, and still in the {@link Gedcom} when last noted
+     * 
+     * @return the dirty records, in no particular order
+     */
+    public Set<HasXref> getDirtyRecords() {
+        Set<HasXref> result = Collections.newSetFromMap(new IdentityHashMap<HasXref, Boolean>());
+        result.addAll(dirty);
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Get the {@link Gedcom} this is a journal of
+     * 
+     * @return the {@link Gedcom} this is a journal of
+     */
+    public Gedcom getGedcom() {
+        return gedcom;
+    }
+
+    /**
+     * Get the current version - the number of changes noted so far, so it only ever goes up
+     * 
+     * @return the current version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Is a record dirty - added or changed since the dirty flags were last cleared?
+     * 
+     * @param record
+     *            the record
+     * @return true if the record is dirty
+     */
+    public boolean isDirty(HasXref record) {
+        return dirty.contains(record);
+    }
+
+    /**
+     * Note that the contents of a record have been changed
+     * 
+     * @param record
+     *            the root-level record that was changed. To note a change to something inside a record, such as a name or an
+     *            event, pass the record. Required.
+     * @return the new version
+     */
+    public long modified(HasXref record) {
+        if (record == null) {
+            throw new IllegalArgumentException("record is required");
+        }
+        note(ChangeType.MODIFIED, record, record.getXref());
+        return version;
+    }
+
+    /**
+     * Register a listener to be told about each change as it is noted
+     * 
+     * @param listener
+     *            the listener. Held with a weak reference, so it is forgotten once nothing else refers to it.
+     */
+    public void registerChangeListener(ChangeListener listener) {
+        changeListeners.add(new WeakReference<>(listener));
+    }
+
+    /**
+     * Note the records added to or removed from the {@link Gedcom}'s maps since the last scan, or since the journal was made. Goes
+     * through every record in the maps, so takes time in proportion to the number of records.
+     * 
+     * @return the new version
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    public long scan() {
+        for (KnownRecords kr : knownRecords) {
+            if (!kr.isChanged()) {
+                continue;
+            }
+            for (Entry<String, HasXref> e : kr.known.entrySet()) {
+                if (kr.live.get(e.getKey()) != e.getValue()) {
+                    note(ChangeType.REMOVED, e.getValue(), e.getKey());
+                }
+            }
+            for (Entry<String, ? extends HasXref> e : kr.live.entrySet()) {
+                if (kr.known.get(e.getKey()) != e.getValue()) {
+                    note(ChangeType.ADDED, e.getValue(), e.getKey());
+                }
+            }
+            kr.known = new HashMap<>(kr.live);
+        }
+        return version;
+    }
+
+    /**
+     * Unregister a listener, so it is no longer told about changes
+     * 
+     * @param listener
+     *            the listener
+     */
+    public void unregisterChangeListener(ChangeListener listener) {
+        for (WeakReference<ChangeListener> ref : changeListeners) {
+            ChangeListener l = ref.get();
+            if (l == null || l == listener) { // NOPMD - deliberately using ==
+                changeListeners.remove(ref);
+            }
+        }
+    }
+
+    /**
+     * Note a change, moving on to the next version, and tell the listeners about it
+     * 
+     * @param changeType
+     *            the kind of change
+     * @param record
+     *            the record that changed
+     * @param xref
+     *            the xref the record has in the {@link Gedcom}
+     */
+    private void note(ChangeType changeType, HasXref record, String xref) {
+        version++;
+        ChangeEvent e = new ChangeEvent(this, changeType, record, xref, version);
+        changes.add(e);
+        if (changeType == ChangeType.REMOVED) {
+            dirty.remove(record);
+        } else {
+            dirty.add(record);
+        }
+        for (WeakReference<ChangeListener> ref : changeListeners) {
+            ChangeListener l = ref.get();
+            if (l == null) {
+                changeListeners.remove(ref);
+            } else {
+                l.changeNotification(e);
+            }
+        }
+    }
+}
@@ -308,6 +308,23 @@ abstract class AbstractParser<T> {
         }
     }
 
+    /**
+     * Helper method to take a string tree and all its children and load them into a StringWithCustomFacts object, the same as
+     * {@link #parseStringWithCustomFacts(StringTree)}, but giving a shared instance when there are no custom facts and
+     * {@link GedcomParser#setValueSharingEnabled(boolean)} is turned on, for values that are repeated over and over
+     * 
+     * @param ch
+     *            the string tree
+     * @return the constructed {@link StringWithCustomFacts}, which is a shared one if the string tree has no children and value
+     *         sharing is turned on
+     */
+    protected StringWithCustomFacts parseSharedStringWithCustomFacts(StringTree ch) {
+        if (ch.getChildren() == null || ch.getChildren().isEmpty()) {
+            return gedcomParser.getSharedValue(ch.getValue());
+        }
+        return parseStringWithCustomFacts(ch);
+    }
+
     /**
      * Helper method to take a string tree and all its children and load them into a StringWithCustomFacts object
      * 
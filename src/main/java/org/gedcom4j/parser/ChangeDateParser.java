@@ -61,12 +61,13 @@ class ChangeDateParser extends AbstractParser<ChangeDate> {
         if (stringTree.getChildren() != null) {
             for (StringTree ch : stringTree.getChildren()) {
                 if (Tag.DATE.equalsText(ch.getTag())) {
-                    loadInto.setDate(new StringWithCustomFacts(ch.getValue()));
+                    loadInto.setDate(gedcomParser.getSharedValue(ch.getValue()));
                     if (ch.getChildren() != null) {
                         for (StringTree gch : ch.getChildren()) {
                             if ("TIME".equals(gch.getTag())) {
-                                loadInto.setTime(parseStringWithCustomFacts(gch));
+                                loadInto.setTime(parseSharedStringWithCustomFacts(gch));
                             } else {
+                                loadInto.setDate(StringWithCustomFacts.unshared(loadInto.getDate()));
                                 unknownTag(gch, loadInto.getDate());
                             }
                         }
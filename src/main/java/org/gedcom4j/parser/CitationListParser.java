@@ -88,7 +88,7 @@ class CitationListParser extends AbstractParser<List<AbstractCitation>> {
         if (data.getChildren() != null) {
             for (StringTree ch : data.getChildren()) {
                 if (Tag.DATE.equalsText(ch.getTag())) {
-                    d.setEntryDate(parseStringWithCustomFacts(ch));
+                    d.setEntryDate(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.TEXT.equalsText(ch.getTag())) {
                     MultiStringWithCustomFacts ms = new MultiStringWithCustomFacts();
                     d.getSourceText(true).add(ms);
@@ -159,7 +159,7 @@ class CitationListParser extends AbstractParser<List<AbstractCitation>> {
         if (sour.getChildren() != null) {
             for (StringTree ch : sour.getChildren()) {
                 if (Tag.PAGE.equalsText(ch.getTag())) {
-                    cws.setWhereInSource(parseStringWithCustomFacts(ch));
+                    cws.setWhereInSource(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.EVENT.equalsText(ch.getTag())) {
                     cws.setEventCited(new StringWithCustomFacts(ch.getValue()));
                     if (ch.getChildren() != null) {
@@ -69,7 +69,7 @@ class FamilyEventParser extends AbstractEventParser<FamilyEvent> {
                 if (Tag.TYPE.equalsText(ch.getTag())) {
                     loadInto.setSubType(parseStringWithCustomFacts(ch));
                 } else if (Tag.DATE.equalsText(ch.getTag())) {
-                    loadInto.setDate(parseStringWithCustomFacts(ch));
+                    loadInto.setDate(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.PLACE.equalsText(ch.getTag())) {
                     Place place = new Place();
                     loadInto.setPlace(place);
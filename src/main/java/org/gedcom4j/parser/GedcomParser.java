@@ -31,7 +31,9 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.gedcom4j.exception.GedcomParserException;
@@ -48,10 +50,12 @@ import org.gedcom4j.model.NoteRecord;
 import org.gedcom4j.model.Repository;
 import org.gedcom4j.model.Source;
 import org.gedcom4j.model.StringTree;
+import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.Submission;
 import org.gedcom4j.model.SubmissionReference;
 import org.gedcom4j.model.Submitter;
 import org.gedcom4j.model.Trailer;
+import org.gedcom4j.model.XrefMap;
 import org.gedcom4j.parser.event.ParseProgressEvent;
 import org.gedcom4j.parser.event.ParseProgressListener;
 
@@ -102,9 +106,15 @@ import org.gedcom4j.parser.event.ParseProgressListener;
 public class GedcomParser extends AbstractParser<Gedcom> {
 
     /**
-     * The things that went wrong while parsing the gedcom file
+     * The most shared values kept for reuse at once. When there are more, they are all let go and collection starts again, so files
+     * with many distinct values don't cost more than they save.
      */
-    private final List<String> errors = new ArrayList<>();
+    private static final int MAX_SHARED_VALUES = 10000;
+
+    /**
+     * The things that went wrong while parsing the gedcom file. Each load has a list of its own.
+     */
+    private List<String> errors;
 
     /**
      * The content of the gedcom file
@@ -129,9 +139,9 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     private boolean strictLineBreaks = true;
 
     /**
-     * The warnings issued during the parsing of the gedcom file
+     * The warnings issued during the parsing of the gedcom file. Each load has a list of its own.
      */
-    private final List<String> warnings = new ArrayList<>();
+    private List<String> warnings;
 
     /**
      * Is the load/parse process being cancelled
@@ -173,6 +183,35 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      */
     private boolean insideCustomTag;
 
+    /**
+     * Should root-level records be loaded lazily - indexed when the file is read, and parsed when they are first needed?
+     */
+    private boolean lazyLoadingEnabled;
+
+    /**
+     * Should a file loaded by name be looked through first to count its records, so that the maps they go in can be made the right
+     * size to begin with?
+     */
+    private boolean recordPrescanEnabled;
+
+    /**
+     * The number of root-level records of each type, keyed by tag, found by looking through the file about to be loaded; null if
+     * it wasn't looked through
+     */
+    private Map<String, Integer> expectedRecordCounts;
+
+    /**
+     * Shared values without custom facts, keyed by value, for the model objects of this load to have in common. See
+     * {@link StringWithCustomFacts#newSharedInstance(String)}. Each load has a pool of its own, which goes on being used, by the
+     * parser of its {@link LazyRecordLoader}, for the records it loads lazily.
+     */
+    private Map<String, StringWithCustomFacts> sharedValues;
+
+    /**
+     * Should repeated values without custom facts be given shared instances, which cannot be changed?
+     */
+    private boolean valueSharingEnabled;
+
     /**
      * Default constructor
      */
@@ -181,6 +220,31 @@ public class GedcomParser extends AbstractParser<Gedcom> {
          * This is the root level parser, so there are no parent or other root nodes to hook up to (yet)
          */
         super(null, null, null);
+        errors = new ArrayList<>();
+        warnings = new ArrayList<>();
+        sharedValues = new HashMap<>();
+    }
+
+    /**
+     * Constructor for a parser that parses the records of a lazily-loaded {@link Gedcom} as they are needed, with the same
+     * settings as the parser that loaded it, and adding to the errors and warnings of that load - not those of any later load by
+     * the same parser
+     * 
+     * @param loader
+     *            the parser that loaded the {@link Gedcom}
+     * @param gedcom
+     *            the lazily-loaded {@link Gedcom} to parse records into
+     */
+    GedcomParser(GedcomParser loader, Gedcom gedcom) {
+        super(null, null, null);
+        errors = loader.errors;
+        warnings = loader.warnings;
+        sharedValues = loader.sharedValues;
+        strictCustomTags = loader.strictCustomTags;
+        ignoreCustomTags = loader.ignoreCustomTags;
+        strictLineBreaks = loader.strictLineBreaks;
+        valueSharingEnabled = loader.valueSharingEnabled;
+        this.gedcom = gedcom;
     }
 
     /**
@@ -191,7 +255,7 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     }
 
     /**
-     * Get the errors
+     * Get the errors of the most recent load. Each load has a list of its own, so the list of an earlier load is left as it was.
      * 
      * @return the errors
      */
@@ -245,7 +309,7 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     }
 
     /**
-     * Get the warnings
+     * Get the warnings of the most recent load. Each load has a list of its own, so the list of an earlier load is left as it was.
      * 
      * @return the warnings
      */
@@ -271,6 +335,26 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return ignoreCustomTags;
     }
 
+    /**
+     * Are root-level records loaded lazily? See {@link #setLazyLoadingEnabled(boolean)}.
+     * 
+     * @return true if root-level records are loaded lazily
+     * @since 4.0.2
+     */
+    public boolean isLazyLoadingEnabled() {
+        return lazyLoadingEnabled;
+    }
+
+    /**
+     * Is a file loaded by name looked through first to count its records? See {@link #setRecordPrescanEnabled(boolean)}.
+     * 
+     * @return true if a file loaded by name is looked through first to count its records
+     * @since 4.0.2
+     */
+    public boolean isRecordPrescanEnabled() {
+        return recordPrescanEnabled;
+    }
+
     /**
      * Get the strictCustomTags
      * 
@@ -289,6 +373,16 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return strictLineBreaks;
     }
 
+    /**
+     * Are repeated values without custom facts given shared instances? See {@link #setValueSharingEnabled(boolean)}.
+     * 
+     * @return true if repeated values without custom facts are given shared instances
+     * @since 4.0.2
+     */
+    public boolean isValueSharingEnabled() {
+        return valueSharingEnabled;
+    }
+
     /**
      * Read data from an {@link java.io.InputStream} and construct a {@link StringTree} object from its contents
      * 
@@ -302,26 +396,46 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     public void load(BufferedInputStream bytes) throws IOException, GedcomParserException {
         // Reset counters and stuff
         gedcom = new Gedcom();
+        if (expectedRecordCounts != null) {
+            presizeRecordMaps(expectedRecordCounts);
+            expectedRecordCounts = null;
+        }
         lineNum = 0;
-        errors.clear();
-        warnings.clear();
+        errors = new ArrayList<>();
+        warnings = new ArrayList<>();
+        sharedValues = new HashMap<>();
         cancelled = false;
 
         if (cancelled) {
             throw new ParserCancelledException("File load/parse cancelled");
         }
+        LazyRecordLoader lazyRecords = null;
+        if (lazyLoadingEnabled) {
+            lazyRecords = new LazyRecordLoader(this);
+            gedcom = lazyRecords.getGedcom();
+        }
         GedcomFileReader gfr = new GedcomFileReader(this, bytes);
         stringTreeBuilder = new StringTreeBuilder(this);
+        boolean deferring = false;
         String line = gfr.nextLine();
         while (line != null) {
 
             if (line.charAt(0) == '0') {
                 // We've hit the start of the next root node
                 parseAndLoadPreviousStringTree();
+                if (lazyRecords != null) {
+                    // Index records to be loaded lazily, and keep the line numbers of the rest right
+                    deferring = lazyRecords.startRecord(line, lineNum + 1);
+                    stringTreeBuilder = new StringTreeBuilder(this);
+                }
             }
 
             lineNum++;
-            stringTreeBuilder.appendLine(line);
+            if (deferring) {
+                lazyRecords.appendLine(line);
+            } else {
+                stringTreeBuilder.appendLine(line);
+            }
             line = gfr.nextLine();
             if (cancelled) {
                 throw new ParserCancelledException("File load/parse is cancelled");
@@ -332,10 +446,14 @@ public class GedcomParser extends AbstractParser<Gedcom> {
 
         }
         parseAndLoadPreviousStringTree();
+        if (lazyRecords != null) {
+            lazyRecords.finish();
+        }
     }
 
     /**
-     * Load a gedcom file with the supplied name
+     * Load a gedcom file with the supplied name. If {@link #isRecordPrescanEnabled()}, the file is looked through first to count
+     * its records.
      * 
      * @param filename
      *            the name of the file to load
@@ -345,7 +463,9 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      *             if the file cannot be parsed
      */
     public void load(String filename) throws IOException, GedcomParserException {
-
+        if (recordPrescanEnabled && !lazyLoadingEnabled) {
+            expectedRecordCounts = RecordPrescan.countRecords(filename);
+        }
         try (FileInputStream fis = new FileInputStream(filename); BufferedInputStream bis = new BufferedInputStream(fis);) {
             load(bis);
         }
@@ -403,6 +523,41 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.ignoreCustomTags = ignoreCustomTags;
     }
 
+    /**
+     * <p>
+     * Set whether root-level records are loaded lazily. When they are, {@link #load(BufferedInputStream)} parses the header,
+     * submission and trailer as usual, but only indexes the individuals, families, sources, repositories, notes, multimedia and
+     * submitters - noting where each one's lines are - rather than parsing them. The maps of those records in the resulting
+     * {@link Gedcom} are backed by the index, and each record is parsed, by the same parsers as usual, the first time it is asked
+     * for. This suits files with very many records where only a few of them are used.
+     * </p>
+     * <p>
+     * Records refer to each other transparently: a record reached through a reference (such as
+     * {@link org.gedcom4j.model.FamilyChild#getFamily()}) is parsed when the getter is called. Once a record has been parsed it is
+     * kept in memory, so it is always the same object and changes made to it are never lost; records that are never asked for are
+     * never parsed and take up no more memory than their lines. Checking the keys or size of the maps never parses any records.
+     * Records that are referred to but missing from the file are added to the maps when a record that refers to them is parsed,
+     * rather than when the file is loaded. Anything that goes through every record - such as a
+     * {@link org.gedcom4j.model.journal.GedcomJournal}, which parses them all as soon as it is made - parses every record, and the
+     * memory saved is spent after all.
+     * </p>
+     * <p>
+     * Problems found when a record is parsed are added at that time to the errors and warnings of the load that read the file -
+     * the lists that {@link #getErrors()} and {@link #getWarnings()} returned after it - even if this parser has loaded another file
+     * since. A record whose lines are so malformed that it cannot be parsed at all causes an {@link IllegalStateException} when it
+     * is asked for. Since records are parsed as they are needed, the maps of a lazily-loaded {@link Gedcom}, and the errors and
+     * warnings of the load, are safe to use from more than one thread only when something else prevents them being changed at the
+     * same time.
+     * </p>
+     * 
+     * @param lazyLoadingEnabled
+     *            true if root-level records are to be loaded lazily
+     * @since 4.0.2
+     */
+    public void setLazyLoadingEnabled(boolean lazyLoadingEnabled) {
+        this.lazyLoadingEnabled = lazyLoadingEnabled;
+    }
+
     /**
      * Set the parse notification rate (the number of items that get parsed between each notification, if listening)
      * 
@@ -430,6 +585,26 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.readNotificationRate = readNotificationRate;
     }
 
+    /**
+     * <p>
+     * Set whether a file loaded by name with {@link #load(String)} is looked through first to count its root-level records of
+     * each type, so that the maps of the {@link Gedcom} can be made big enough for them to begin with rather than growing as the
+     * file is parsed. The look through only reads the start of each line, but it does read the whole file a second time, so it
+     * pays off for very large files. Takes effect on the next load.
+     * </p>
+     * <p>
+     * Files read from a stream with {@link #load(BufferedInputStream)}, and files loaded with
+     * {@link #setLazyLoadingEnabled(boolean)} turned on, are not looked through first.
+     * </p>
+     * 
+     * @param recordPrescanEnabled
+     *            true if a file loaded by name is to be looked through first to count its records
+     * @since 4.0.2
+     */
+    public void setRecordPrescanEnabled(boolean recordPrescanEnabled) {
+        this.recordPrescanEnabled = recordPrescanEnabled;
+    }
+
     /**
      * Set the strictCustomTags
      * 
@@ -450,6 +625,44 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.strictLineBreaks = strictLineBreaks;
     }
 
+    /**
+     * <p>
+     * Set whether repeated values without custom facts - sexes, event, ordinance and change dates, change times, citation entry
+     * dates, where-in-source and the parts of personal names - are given shared instances, so that model objects with the same
+     * value have the same {@link StringWithCustomFacts} rather than one each. This saves memory on large files. Off by default.
+     * </p>
+     * <p>
+     * A shared instance cannot be changed (see {@link StringWithCustomFacts#newSharedInstance(String)}), and the getters return it
+     * as it is. So when this is turned on, these getters can return read-only values:
+     * </p>
+     * <ul>
+     * <li>{@link org.gedcom4j.model.Individual#getSex()}</li>
+     * <li>{@link org.gedcom4j.model.AbstractEvent#getDate()}, for individual events, individual attributes and family events</li>
+     * <li>{@link org.gedcom4j.model.AbstractLdsOrdinance#getDate()}, for individual ordinances and spouse sealings</li>
+     * <li>{@link org.gedcom4j.model.ChangeDate#getDate()} and {@link org.gedcom4j.model.ChangeDate#getTime()}</li>
+     * <li>{@link org.gedcom4j.model.CitationData#getEntryDate()}</li>
+     * <li>{@link org.gedcom4j.model.CitationWithSource#getWhereInSource()}</li>
+     * <li><code>getGivenName()</code>, <code>getNickname()</code>, <code>getPrefix()</code>, <code>getSuffix()</code>,
+     * <code>getSurname()</code> and <code>getSurnamePrefix()</code> of {@link org.gedcom4j.model.PersonalName} and
+     * {@link org.gedcom4j.model.PersonalNameVariation}</li>
+     * </ul>
+     * <p>
+     * Calling {@link StringWithCustomFacts#setValue(String)} on a value they return, or <code>getCustomFacts(true)</code> when it
+     * has no custom facts, throws an {@link UnsupportedOperationException}; {@link StringWithCustomFacts#isShared()} tells whether
+     * it would. To change one of these values, use the setter of the model object that holds it, which replaces the shared instance
+     * rather than changing it, or set a copy of its own from {@link StringWithCustomFacts#unshared(StringWithCustomFacts)}. Code
+     * that changes these values in place through the getters has to be changed before turning this on. Reading the values never
+     * changes the model, so a loaded {@link Gedcom} can still be read from more than one thread at once.
+     * </p>
+     * 
+     * @param valueSharingEnabled
+     *            true if repeated values without custom facts are to be given shared instances
+     * @since 4.0.2
+     */
+    public void setValueSharingEnabled(boolean valueSharingEnabled) {
+        this.valueSharingEnabled = valueSharingEnabled;
+    }
+
     /**
      * Unregister a observer (listener) to be informed about progress and completion.
      * 
@@ -497,6 +710,29 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return lineNum;
     }
 
+    /**
+     * Get a shared instance with the supplied value, the same one each time while it is kept for reuse - or a new instance of its
+     * own, if {@link #setValueSharingEnabled(boolean)} is turned off
+     * 
+     * @param value
+     *            the value
+     * @return an instance with the supplied value and no custom facts, which is shared if value sharing is turned on
+     */
+    StringWithCustomFacts getSharedValue(String value) {
+        if (!valueSharingEnabled) {
+            return new StringWithCustomFacts(value);
+        }
+        StringWithCustomFacts result = sharedValues.get(value);
+        if (result == null) {
+            if (sharedValues.size() >= MAX_SHARED_VALUES) {
+                sharedValues.clear();
+            }
+            result = StringWithCustomFacts.newSharedInstance(value);
+            sharedValues.put(value, result);
+        }
+        return result;
+    }
+
     /**
      * Are we currently inside a custom tag?
      * 
@@ -506,6 +742,36 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return insideCustomTag;
     }
 
+    /**
+     * Parse a root-level record whose lines were set aside by a lazy load, and load it into the {@link Gedcom}
+     * 
+     * @param text
+     *            the lines set aside by the lazy load, each followed by a newline
+     * @param start
+     *            where the record's first line starts in the text
+     * @param end
+     *            where the record's lines end in the text
+     * @param firstLineNum
+     *            the line number of the record's first line in the file
+     * @throws GedcomParserException
+     *             if the record cannot be parsed
+     */
+    void loadDeferredRecord(CharSequence text, int start, int end, int firstLineNum) throws GedcomParserException {
+        lineNum = firstLineNum - 1;
+        stringTreeBuilder = new StringTreeBuilder(this);
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (text.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            lineNum++;
+            stringTreeBuilder.appendLine(text.subSequence(lineStart, lineEnd).toString());
+            lineStart = lineEnd + 1;
+        }
+        parseAndLoadPreviousStringTree();
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -527,6 +793,20 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.insideCustomTag = insideCustomTag;
     }
 
+    /**
+     * Make a map of records big enough for the records expected, if it is an {@link XrefMap}
+     * 
+     * @param records
+     *            the map of records
+     * @param count
+     *            the number of records expected, or null if none were found
+     */
+    private static void presizeRecordMap(Map<String, ?> records, Integer count) {
+        if (count != null && records instanceof XrefMap) {
+            ((XrefMap<?>) records).ensureCapacity(count);
+        }
+    }
+
     /**
      * Load a single root-level item
      * 
@@ -629,4 +909,20 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         }
     }
 
+    /**
+     * Make the maps of records of the new {@link Gedcom} big enough for the records expected
+     * 
+     * @param counts
+     *            the number of root-level records of each type, keyed by tag
+     */
+    private void presizeRecordMaps(Map<String, Integer> counts) {
+        presizeRecordMap(gedcom.getFamilies(), counts.get(Tag.FAMILY.tagText));
+        presizeRecordMap(gedcom.getIndividuals(), counts.get(Tag.INDIVIDUAL.tagText));
+        presizeRecordMap(gedcom.getMultimedia(), counts.get(Tag.OBJECT_MULTIMEDIA.tagText));
+        presizeRecordMap(gedcom.getNotes(), counts.get(Tag.NOTE.tagText));
+        presizeRecordMap(gedcom.getRepositories(), counts.get(Tag.REPOSITORY.tagText));
+        presizeRecordMap(gedcom.getSources(), counts.get(Tag.SOURCE.tagText));
+        presizeRecordMap(gedcom.getSubmitters(), counts.get(Tag.SUBMITTER.tagText));
+    }
+
 }
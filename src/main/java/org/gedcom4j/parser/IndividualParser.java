@@ -82,7 +82,7 @@ class IndividualParser extends AbstractParser<Individual> {
                     loadInto.getNames(true).add(pn);
                     new PersonalNameParser(gedcomParser, ch, pn).parse();
                 } else if (Tag.SEX.equalsText(ch.getTag())) {
-                    loadInto.setSex(parseStringWithCustomFacts(ch));
+                    loadInto.setSex(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.ADDRESS.equalsText(ch.getTag())) {
                     Address address = new Address();
                     loadInto.setAddress(address);
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.RecordResolver;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.Submitter;
+
+/**
+ * <p>
+ * Loads the root-level records of a {@link Gedcom} lazily, for {@link GedcomParser#setLazyLoadingEnabled(boolean)}. While the file
+ * is read, the lines of each individual, family, source, repository, note, multimedia and submitter record are set aside, as read
+ * (and decoded) from the file, and indexed by the record's xref in a {@link LazyRecordMap}. When a record is first needed, its
+ * lines are parsed by a {@link GedcomParser} with the same settings as the one that read the file, through the same
+ * {@link GedcomParser#loadDeferredRecord(CharSequence, int, int, int)} path as every other root-level item.
+ * </p>
+ * <p>
+ * The index records where each record's lines are in the decoded text rather than in the file itself, because the file's bytes
+ * can be in encodings (such as ANSEL or UTF-16) that cannot be decoded from an arbitrary offset. Records that other records refer
+ * to are filled in when they are reached through a getter, as this is the {@link RecordResolver} of every record made while its
+ * records are parsed.
+ * </p>
+ * <p>
+ * All the maps of one lazily-loaded {@link Gedcom} synchronize on the same instance of this class.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class LazyRecordLoader extends RecordResolver {
+
+    /**
+     * Where the lines of a record are, in the lines set aside
+     */
+    static final class RecordLocation {
+
+        /**
+         * Where the record's first line starts
+         */
+        private final int start;
+
+        /**
+         * The line number of the record's first line in the file
+         */
+        private final int firstLineNum;
+
+        /**
+         * Where the record's lines end
+         */
+        private int end;
+
+        /**
+         * Where the lines of another record with the same xref are, if the file has more than one
+         */
+        private RecordLocation next;
+
+        /**
+         * Constructor
+         * 
+         * @param start
+         *            where the record's first line starts
+         * @param firstLineNum
+         *            the line number of the record's first line in the file
+         */
+        RecordLocation(int start, int firstLineNum) {
+            this.start = start;
+            this.firstLineNum = firstLineNum;
+        }
+
+        /**
+         * Add the location of another record with the same xref, to be loaded after this one
+         * 
+         * @param other
+         *            the location of the other record
+         */
+        void append(RecordLocation other) {
+            RecordLocation last = this;
+            while (last.next != null) {
+                last = last.next;
+            }
+            last.next = other;
+        }
+    }
+
+    /**
+     * The lines of the records to be loaded lazily, each followed by a newline
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * The families
+     */
+    private final LazyRecordMap<Family> families = new LazyRecordMap<>(this, Family.class);
+
+    /**
+     * The individuals
+     */
+    private final LazyRecordMap<Individual> individuals = new LazyRecordMap<>(this, Individual.class);
+
+    /**
+     * The multimedia items
+     */
+    private final LazyRecordMap<Multimedia> multimedia = new LazyRecordMap<>(this, Multimedia.class);
+
+    /**
+     * The note records
+     */
+    private final LazyRecordMap<NoteRecord> notes = new LazyRecordMap<>(this, NoteRecord.class);
+
+    /**
+     * The repositories
+     */
+    private final LazyRecordMap<Repository> repositories = new LazyRecordMap<>(this, Repository.class);
+
+    /**
+     * The sources
+     */
+    private final LazyRecordMap<Source> sources = new LazyRecordMap<>(this, Source.class);
+
+    /**
+     * The submitters
+     */
+    private final LazyRecordMap<Submitter> submitters = new LazyRecordMap<>(this, Submitter.class);
+
+    /**
+     * All the maps
+     */
+    private final List<LazyRecordMap<?>> maps = new ArrayList<>(7);
+
+    /**
+     * The {@link Gedcom} being loaded
+     */
+    private final Gedcom gedcom;
+
+    /**
+     * The parser for the records, as they are needed
+     */
+    private final GedcomParser recordParser;
+
+    /**
+     * The records made while records are being parsed, held strongly until the parsing is done so they cannot be garbage collected
+     * before they are used
+     */
+    private final List<HasXref> pinned = new ArrayList<>();
+
+    /**
+     * The location of the record whose lines are being set aside, if any
+     */
+    private RecordLocation current;
+
+    /**
+     * Are records being parsed (or is the file still being read), so records asked for should be returned as they are, rather
+     * than parsed?
+     */
+    private boolean resolving = true;
+
+    /**
+     * Constructor
+     * 
+     * @param loader
+     *            the parser reading the file
+     */
+    LazyRecordLoader(GedcomParser loader) {
+        maps.add(families);
+        maps.add(individuals);
+        maps.add(multimedia);
+        maps.add(notes);
+        maps.add(repositories);
+        maps.add(sources);
+        maps.add(submitters);
+        gedcom = new Gedcom(families, individuals, multimedia, notes, repositories, sources, submitters);
+        recordParser = new GedcomParser(loader, gedcom);
+    }
+
+    /**
+     * Set aside a line of the record being indexed
+     * 
+     * @param line
+     *            the line
+     */
+    void appendLine(String line) {
+        text.append(line).append('\n');
+    }
+
+    /**
+     * Finish reading the file, after which records are parsed when they are needed
+     */
+    void finish() {
+        endRecord();
+        text.trimToSize();
+        resolving = false;
+    }
+
+    /**
+     * Get the {@link Gedcom} being loaded
+     * 
+     * @return the {@link Gedcom} being loaded
+     */
+    Gedcom getGedcom() {
+        return gedcom;
+    }
+
+    /**
+     * Are records being parsed (or is the file still being read), so records asked for should be returned as they are, rather
+     * than parsed?
+     * 
+     * @return true if records asked for should be returned as they are
+     */
+    boolean isResolving() {
+        return resolving;
+    }
+
+    /**
+     * Parse the lines of a record (and of any other records with the same xref) into the {@link Gedcom}
+     * 
+     * @param location
+     *            where the record's lines are
+     * @throws IllegalStateException
+     *             if the record cannot be parsed
+     */
+    void parse(RecordLocation location) {
+        resolving = true;
+        RecordLocation loc = location;
+        try {
+            while (loc != null) {
+                recordParser.loadDeferredRecord(text, loc.start, loc.end, loc.firstLineNum);
+                loc = loc.next;
+            }
+        } catch (GedcomParserException e) {
+            throw new IllegalStateException("Unable to load the record at line " + loc.firstLineNum, e);
+        } finally {
+            resolving = false;
+        }
+    }
+
+    /**
+     * Hold a record made while records are being parsed strongly, until {@link #unpinAll()}, and mark it as one of this loader's
+     * records, so it is filled in when it is reached through a getter
+     * 
+     * @param record
+     *            the record
+     */
+    void pin(HasXref record) {
+        pinned.add(record);
+        attach(record);
+    }
+
+    /**
+     * Start a new root-level item while reading the file, and set its lines aside if it is a record to be loaded lazily
+     * 
+     * @param line
+     *            the item's first line
+     * @param lineNum
+     *            the line number of the item's first line
+     * @return true if the item is a record to be loaded lazily, so its lines are to be set aside with {@link #appendLine(String)};
+     *         false if it is to be parsed now
+     */
+    boolean startRecord(String line, int lineNum) {
+        endRecord();
+        if (line.length() < 3 || line.charAt(1) != ' ' || line.charAt(2) != '@') {
+            return false;
+        }
+        LinePieces lp;
+        try {
+            lp = new LinePieces(line, lineNum);
+        } catch (GedcomParserException e) {
+            // Leave the item to be parsed now, which reports the problem
+            return false;
+        }
+        LazyRecordMap<?> map = getMap(lp.tag);
+        if (lp.id == null || map == null) {
+            return false;
+        }
+        current = new RecordLocation(text.length(), lineNum);
+        map.index(lp.id, current);
+        return true;
+    }
+
+    /**
+     * Stop holding the records made while records were being parsed strongly
+     */
+    void unpinAll() {
+        pinned.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected synchronized void fill(HasXref record) {
+        for (LazyRecordMap<?> map : maps) {
+            if (map.fill(record)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finish setting aside the lines of the current record, if any
+     */
+    private void endRecord() {
+        if (current != null) {
+            current.end = text.length();
+            current = null;
+        }
+    }
+
+    /**
+     * Get the map for records with a tag
+     * 
+     * @param tag
+     *            the tag
+     * @return the map for records with the tag, or null if records with the tag are not loaded lazily
+     */
+    private LazyRecordMap<?> getMap(String tag) {
+        if (Tag.INDIVIDUAL.equalsText(tag)) {
+            return individuals;
+        } else if (Tag.FAMILY.equalsText(tag)) {
+            return families;
+        } else if (Tag.SOURCE.equalsText(tag)) {
+            return sources;
+        } else if (Tag.NOTE.equalsText(tag)) {
+            return notes;
+        } else if (Tag.REPOSITORY.equalsText(tag)) {
+            return repositories;
+        } else if (Tag.OBJECT_MULTIMEDIA.equalsText(tag)) {
+            return multimedia;
+        } else if (Tag.SUBMITTER.equalsText(tag)) {
+            return submitters;
+        }
+        return null;
+    }
+}
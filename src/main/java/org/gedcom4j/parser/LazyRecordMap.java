@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.parser.LazyRecordLoader.RecordLocation;
+
+/**
+ * <p>
+ * A map of root-level records, keyed by xref, whose records are parsed the first time they are asked for - see
+ * {@link LazyRecordLoader}. Each key is either indexed to the lines of a record not yet parsed, or holds a record that was not in
+ * the file (such as a placeholder for a record that was referred to but is missing, or a record put in the map afterwards).
+ * </p>
+ * <p>
+ * Once a record's lines have been parsed, the record is held strongly, so it is always the same object and changes made to it are
+ * never lost. Only a record made while records are being parsed - a placeholder for a record referred to before its own lines
+ * have been parsed - is held weakly, until its lines are parsed, as nothing outside the map can have seen it except through a
+ * getter that fills it in. The key set and size of the map come from the index alone, without parsing anything; iterating over
+ * the entries parses each record as its value is asked for.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ * @param <T>
+ *            the type of record
+ */
+final class LazyRecordMap<T extends HasXref> extends AbstractMap<String, T> {
+
+    /**
+     * An entry in the map, as seen through its entry set
+     */
+    private final class RecordEntry implements Map.Entry<String, T> {
+
+        /**
+         * The key
+         */
+        private final String key;
+
+        /**
+         * The slot for the key
+         */
+        private final Slot<T> slot;
+
+        /**
+         * Constructor
+         * 
+         * @param key
+         *            the key
+         * @param slot
+         *            the slot for the key
+         */
+        RecordEntry(String key, Slot<T> slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            T value = getValue();
+            return key.equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public T getValue() {
+            synchronized (loader) {
+                return load(slot);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            T value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public T setValue(T value) {
+            return put(key, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    /**
+     * What the map holds for a key
+     * 
+     * @param <T>
+     *            the type of record
+     */
+    private static final class Slot<T> {
+
+        /**
+         * Where the lines of the record are, or null if it was not in the file
+         */
+        private RecordLocation location;
+
+        /**
+         * The record, once it is held strongly - because its lines have been parsed, or it was not in the file
+         */
+        private T held;
+
+        /**
+         * The record, while it is held weakly - because it was made while records were being parsed, and its lines have not been
+         * parsed yet
+         */
+        private WeakReference<T> live;
+
+        /**
+         * Has the record been parsed from its lines?
+         */
+        private boolean parsed;
+    }
+
+    /**
+     * An iterator over the map, going through the slots as they were when it was made - as parsing records can add placeholders
+     * for records they refer to - and removing a slot from the map when asked to
+     * 
+     * @param <E>
+     *            the type of thing iterated over
+     */
+    private abstract class SlotIterator<E> implements Iterator<E> {
+
+        /**
+         * The slots, as they were when the iterator was made
+         */
+        private final Iterator<Map.Entry<String, Slot<T>>> snapshot;
+
+        /**
+         * The slot most recently returned
+         */
+        private Map.Entry<String, Slot<T>> last;
+
+        /**
+         * Constructor
+         */
+        SlotIterator() {
+            synchronized (loader) {
+                List<Map.Entry<String, Slot<T>>> entries = new ArrayList<>(slots.entrySet());
+                snapshot = entries.iterator();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return snapshot.hasNext();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public E next() {
+            last = snapshot.next();
+            return next(last);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("PMD.CompareObjectsWithEquals")
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            synchronized (loader) {
+                if (slots.get(last.getKey()) == last.getValue()) {
+                    slots.remove(last.getKey());
+                }
+            }
+            last = null;
+        }
+
+        /**
+         * Get what to return for a slot
+         * 
+         * @param e
+         *            the slot and its key
+         * @return what to return for the slot
+         */
+        abstract E next(Map.Entry<String, Slot<T>> e);
+    }
+
+    /**
+     * The loader, whose instance is also what the map synchronizes on
+     */
+    private final LazyRecordLoader loader;
+
+    /**
+     * The type of record
+     */
+    private final Class<T> type;
+
+    /**
+     * The slots, keyed by xref, in the order the records appear in the file
+     */
+    private final Map<String, Slot<T>> slots = new LinkedHashMap<>();
+
+    /**
+     * Constructor
+     * 
+     * @param loader
+     *            the loader
+     * @param type
+     *            the type of record
+     */
+    LazyRecordMap(LazyRecordLoader loader, Class<T> type) {
+        this.loader = loader;
+        this.type = type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        synchronized (loader) {
+            slots.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        synchronized (loader) {
+            return slots.containsKey(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<String, T>> entrySet() {
+        return new AbstractSet<Map.Entry<String, T>>() {
+            @Override
+            public Iterator<Map.Entry<String, T>> iterator() {
+                return new SlotIterator<Map.Entry<String, T>>() {
+                    @Override
+                    Map.Entry<String, T> next(Map.Entry<String, Slot<T>> e) {
+                        return new RecordEntry(e.getKey(), e.getValue());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return LazyRecordMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(Object key) {
+        synchronized (loader) {
+            Slot<T> slot = slots.get(key);
+            return slot == null ? null : load(slot);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new SlotIterator<String>() {
+                    @Override
+                    String next(Map.Entry<String, Slot<T>> e) {
+                        return e.getKey();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return LazyRecordMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * While records are being parsed, a record put for a key indexed to lines in the file is the object the lines are being parsed
+     * into (or a placeholder for it, when another record refers to it), so it is kept as that key's record rather than replacing
+     * the lines.
+     * </p>
+     */
+    @Override
+    public T put(String key, T value) {
+        synchronized (loader) {
+            Slot<T> slot = slots.get(key);
+            T previous = null;
+            if (slot == null) {
+                slot = new Slot<>();
+                slots.put(key, slot);
+            } else {
+                previous = load(slot);
+            }
+            if (loader.isResolving() && slot.location != null) {
+                loader.pin(value);
+                slot.live = new WeakReference<>(value);
+                slot.parsed = false;
+            } else {
+                slot.location = null;
+                slot.held = value;
+                slot.live = null;
+                slot.parsed = true;
+            }
+            return previous;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T remove(Object key) {
+        synchronized (loader) {
+            Slot<T> slot = slots.get(key);
+            if (slot == null) {
+                return null;
+            }
+            T previous = load(slot);
+            slots.remove(key);
+            return previous;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        synchronized (loader) {
+            return slots.size();
+        }
+    }
+
+    /**
+     * Fill in a record, if it is a placeholder in this map whose lines have not been parsed yet
+     * 
+     * @param record
+     *            the record
+     * @return true if the record belongs to this map
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    boolean fill(HasXref record) {
+        if (!type.isInstance(record)) {
+            return false;
+        }
+        Slot<T> slot = slots.get(record.getXref());
+        if (slot == null || getRecord(slot) != record) {
+            return false;
+        }
+        load(slot);
+        return true;
+    }
+
+    /**
+     * Index a key to the lines of a record in the file
+     * 
+     * @param key
+     *            the key - the record's xref
+     * @param location
+     *            where the record's lines are
+     */
+    void index(String key, RecordLocation location) {
+        Slot<T> slot = slots.get(key);
+        if (slot == null) {
+            slot = new Slot<>();
+            slots.put(key, slot);
+        }
+        if (slot.location == null) {
+            slot.location = location;
+        } else {
+            slot.location.append(location);
+        }
+        slot.parsed = false;
+    }
+
+    /**
+     * Get the record for a slot, if there is one in memory, without parsing anything
+     * 
+     * @param slot
+     *            the slot
+     * @return the record, or null if there is none in memory
+     */
+    private T getRecord(Slot<T> slot) {
+        if (slot.held != null) {
+            return slot.held;
+        }
+        return slot.live == null ? null : slot.live.get();
+    }
+
+    /**
+     * Get the record for a slot, parsing its lines first if that is needed (and records are not being parsed already), and holding
+     * it strongly from then on
+     * 
+     * @param slot
+     *            the slot
+     * @return the record
+     */
+    private T load(Slot<T> slot) {
+        T record = getRecord(slot);
+        if (record != null && slot.parsed || slot.location == null || loader.isResolving()) {
+            return record;
+        }
+        try {
+            loader.parse(slot.location);
+            slot.parsed = true;
+            slot.held = getRecord(slot);
+            slot.live = null;
+        } finally {
+            loader.unpinAll();
+        }
+        return slot.held;
+    }
+}
@@ -59,7 +59,7 @@ class LdsSpouseSealingParser extends AbstractParser<LdsSpouseSealing> {
         if (stringTree.getChildren() != null) {
             for (StringTree ch : stringTree.getChildren()) {
                 if (Tag.DATE.equalsText(ch.getTag())) {
-                    loadInto.setDate(parseStringWithCustomFacts(ch));
+                    loadInto.setDate(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.PLACE.equalsText(ch.getTag())) {
                     loadInto.setPlace(parseStringWithCustomFacts(ch));
                 } else if (Tag.STATUS.equalsText(ch.getTag())) {
@@ -60,17 +60,17 @@ class PersonalNameParser extends AbstractParser<PersonalName> {
         if (stringTree.getChildren() != null) {
             for (StringTree ch : stringTree.getChildren()) {
                 if (Tag.NAME_PREFIX.equalsText(ch.getTag())) {
-                    loadInto.setPrefix(parseStringWithCustomFacts(ch));
+                    loadInto.setPrefix(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.GIVEN_NAME.equalsText(ch.getTag())) {
-                    loadInto.setGivenName(parseStringWithCustomFacts(ch));
+                    loadInto.setGivenName(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.NICKNAME.equalsText(ch.getTag())) {
-                    loadInto.setNickname(parseStringWithCustomFacts(ch));
+                    loadInto.setNickname(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.SURNAME_PREFIX.equalsText(ch.getTag())) {
-                    loadInto.setSurnamePrefix(parseStringWithCustomFacts(ch));
+                    loadInto.setSurnamePrefix(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.SURNAME.equalsText(ch.getTag())) {
-                    loadInto.setSurname(parseStringWithCustomFacts(ch));
+                    loadInto.setSurname(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.NAME_SUFFIX.equalsText(ch.getTag())) {
-                    loadInto.setSuffix(parseStringWithCustomFacts(ch));
+                    loadInto.setSuffix(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.SOURCE.equalsText(ch.getTag())) {
                     List<AbstractCitation> citations = loadInto.getCitations(true);
                     new CitationListParser(gedcomParser, ch, citations).parse();
@@ -108,17 +108,17 @@ class PersonalNameParser extends AbstractParser<PersonalName> {
         if (romnOrPhon.getChildren() != null) {
             for (StringTree ch : romnOrPhon.getChildren()) {
                 if (Tag.NAME_PREFIX.equalsText(ch.getTag())) {
-                    pnv.setPrefix(parseStringWithCustomFacts(ch));
+                    pnv.setPrefix(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.GIVEN_NAME.equalsText(ch.getTag())) {
-                    pnv.setGivenName(parseStringWithCustomFacts(ch));
+                    pnv.setGivenName(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.NICKNAME.equalsText(ch.getTag())) {
-                    pnv.setNickname(parseStringWithCustomFacts(ch));
+                    pnv.setNickname(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.SURNAME_PREFIX.equalsText(ch.getTag())) {
-                    pnv.setSurnamePrefix(parseStringWithCustomFacts(ch));
+                    pnv.setSurnamePrefix(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.SURNAME.equalsText(ch.getTag())) {
-                    pnv.setSurname(parseStringWithCustomFacts(ch));
+                    pnv.setSurname(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.NAME_SUFFIX.equalsText(ch.getTag())) {
-                    pnv.setSuffix(parseStringWithCustomFacts(ch));
+                    pnv.setSuffix(parseSharedStringWithCustomFacts(ch));
                 } else if (Tag.SOURCE.equalsText(ch.getTag())) {
                     List<AbstractCitation> citations = pnv.getCitations(true);
                     new CitationListParser(gedcomParser, ch, citations).parse();
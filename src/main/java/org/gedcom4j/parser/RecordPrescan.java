@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A quick look through a GEDCOM file, before it is parsed, to count its root-level records of each type, so that the maps they are
+ * loaded into can be made the right size to begin with. Only the start of each line is looked at, as bytes, so a file in an
+ * encoding that doesn't keep ASCII characters as single bytes, such as UTF-16, just comes out with no records.
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class RecordPrescan {
+
+    /**
+     * The most bytes at the start of a line to look at - enough for the level, an xref of the longest length the standard allows,
+     * and a tag
+     */
+    private static final int LINE_START = 40;
+
+    /**
+     * The number of bytes to read at a time
+     */
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Constructor. Private because this is a class of static methods.
+     */
+    private RecordPrescan() {
+        super();
+    }
+
+    /**
+     * Count the root-level records of each type in a file
+     * 
+     * @param filename
+     *            the name of the file
+     * @return the number of root-level records with xrefs, keyed by tag
+     * @throws IOException
+     *             if the file can't be read
+     */
+    static Map<String, Integer> countRecords(String filename) throws IOException {
+        Map<String, Integer> result = new HashMap<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] line = new byte[LINE_START];
+        int length = 0;
+        try (InputStream in = new FileInputStream(filename)) {
+            int read = in.read(buffer);
+            while (read > 0) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n' || b == '\r') {
+                        countLine(line, length, result);
+                        length = 0;
+                    } else if (length < LINE_START) {
+                        line[length++] = b;
+                    }
+                }
+                read = in.read(buffer);
+            }
+        }
+        countLine(line, length, result);
+        return result;
+    }
+
+    /**
+     * Count the start of a line if it is a root-level record with an xref, such as <code>0 @I1@ INDI</code>
+     * 
+     * @param line
+     *            the start of the line
+     * @param length
+     *            the number of bytes of the line there are
+     * @param counts
+     *            the counts of records, keyed by tag
+     */
+    private static void countLine(byte[] line, int length, Map<String, Integer> counts) {
+        int i = skipSpaces(line, length, 0);
+        if (i >= length || line[i] != '0') {
+            return;
+        }
+        i = skipSpaces(line, length, i + 1);
+        if (i >= length || line[i] != '@') {
+            return;
+        }
+        i++;
+        while (i < length && line[i] != '@') {
+            i++;
+        }
+        int tagStart = skipSpaces(line, length, i + 1);
+        int tagEnd = tagStart;
+        while (tagEnd < length && line[tagEnd] != ' ' && line[tagEnd] != '\t') {
+            tagEnd++;
+        }
+        if (tagStart < tagEnd && i < length) {
+            String tag = new String(line, tagStart, tagEnd - tagStart, StandardCharsets.US_ASCII);
+            Integer count = counts.get(tag);
+            counts.put(tag, count == null ? 1 : count + 1);
+        }
+    }
+
+    /**
+     * Skip over spaces and tabs
+     * 
+     * @param line
+     *            the start of the line
+     * @param length
+     *            the number of bytes of the line there are
+     * @param from
+     *            where to start
+     * @return where the next byte that isn't a space or tab is, or the length if there is none
+     */
+    private static int skipSpaces(byte[] line, int length, int from) {
+        int i = from;
+        while (i < length && (line[i] == ' ' || line[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+}
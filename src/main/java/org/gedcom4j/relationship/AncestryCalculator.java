@@ -26,7 +26,9 @@
  */
 package org.gedcom4j.relationship;
 
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 import org.gedcom4j.model.Family;
@@ -62,16 +64,51 @@ public class AncestryCalculator {
      */
     private Set<Individual> targetList;
 
+    /**
+     * The family graph to calculate extended ancestry in, or null to walk the model objects directly
+     */
+    private final FamilyGraph graph;
+
+    /**
+     * Default constructor. Ancestry is calculated by walking the model objects.
+     */
+    public AncestryCalculator() {
+        graph = null;
+    }
+
+    /**
+     * Constructor that calculates extended ancestry in a {@link FamilyGraph} instead of walking the model objects. Individuals who
+     * are not in the graph are handled by walking the model objects as usual.
+     * 
+     * @param graph
+     *            the family graph. Required.
+     * @throws IllegalArgumentException
+     *             if graph is null
+     */
+    public AncestryCalculator(FamilyGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is a required argument");
+        }
+        this.graph = graph;
+    }
+
     /**
      * Get the "extended ancestry" of an individual. This is defined (for this method's purposes) as the individual's parents (and
      * step-parents), recursively. Will not include the individual themselves.
      * 
      * @param individual
      *            the individual whose extended ancestry is desired
-     * @return the set of all ancestors for the individual, and all their spouses
+     * @return the set of all ancestors for the individual, and all their spouses. Individuals are told apart by identity, not by
+     *         their contents.
      */
     public Set<Individual> getExtendedAncestry(Individual individual) {
-        Set<Individual> result = new HashSet<>();
+        if (graph != null) {
+            int id = graph.getIndividualId(individual);
+            if (id != FamilyGraph.NONE) {
+                return graph.asSet(getExtendedAncestry(id));
+            }
+        }
+        Set<Individual> result = newIdentitySet();
 
         addIndividualAndFamilies(result, individual);
         result.remove(individual);
@@ -103,10 +140,10 @@ public class AncestryCalculator {
      *            individual 1
      * @param individual2
      *            individual 2
-     * @return the set of lowest common ancestors
+     * @return the set of lowest common ancestors. Individuals are told apart by identity, not by their contents.
      */
     public Set<Individual> getLowestCommonAncestors(Individual individual1, Individual individual2) {
-        Set<Individual> result = new HashSet<>();
+        Set<Individual> result = newIdentitySet();
 
         // Initialize the first iteration of using the lowest-common-ancestor process
         initializeLcaSearch(individual1);
@@ -300,7 +337,7 @@ public class AncestryCalculator {
                     addedAnyCommonAncestors = true;
                 } else if (!checkedAlready.contains(spouse) && spouse.getFamiliesWhereChild() != null && !spouse
                         .getFamiliesWhereChild().isEmpty()) {
-                    Set<Individual> s = new HashSet<>();
+                    Set<Individual> s = newIdentitySet();
                     addNearestCommonAncestorsToSet(spouse, s, level + 1);
                     addToResultSet(set, s);
                 }
@@ -308,6 +345,50 @@ public class AncestryCalculator {
         }
     }
 
+    /**
+     * Get the extended ancestry of an individual in the family graph - the same people as
+     * {@link #addIndividualAndFamilies(Set, Individual)} would find, without the individual themselves
+     * 
+     * @param id
+     *            the id of the individual in the graph
+     * @return the ids of the individual's extended ancestry
+     */
+    private BitSet getExtendedAncestry(int id) {
+        BitSet result = new BitSet(graph.getIndividualCount());
+        int[] stack = new int[graph.getIndividualCount() + 1];
+        int top = 0;
+        result.set(id);
+        stack[top++] = id;
+        while (top > 0) {
+            int v = stack[--top];
+            for (int k = graph.familyWhereChildOffsets[v]; k < graph.familyWhereChildOffsets[v + 1]; k++) {
+                int f = graph.familiesWhereChild[k];
+                for (int side = 0; side < 2; side++) {
+                    int parent = side == 0 ? graph.husbands[f] : graph.wives[f];
+                    int[] otherSpouses = side == 0 ? graph.wives : graph.husbands;
+                    if (parent == FamilyGraph.NONE) {
+                        continue;
+                    }
+                    // The parent, and everyone the parent was married to
+                    for (int j = graph.familyWhereSpouseOffsets[parent]; j < graph.familyWhereSpouseOffsets[parent + 1]; j++) {
+                        int g = graph.familiesWhereSpouse[j];
+                        int spouse = otherSpouses[g];
+                        if (spouse != FamilyGraph.NONE && !result.get(spouse)) {
+                            result.set(spouse);
+                            stack[top++] = spouse;
+                        }
+                    }
+                    if (!result.get(parent)) {
+                        result.set(parent);
+                        stack[top++] = parent;
+                    }
+                }
+            }
+        }
+        result.clear(id);
+        return result;
+    }
+
     /**
      * Get the spouse of an individual in a family
      * 
@@ -336,7 +417,16 @@ public class AncestryCalculator {
      */
     private void initializeLcaSearch(Individual individual1) {
         targetList = getExtendedAncestry(individual1);
-        checkedAlready = new HashSet<>();
+        checkedAlready = newIdentitySet();
         addedAnyCommonAncestors = false;
     }
+
+    /**
+     * Create an empty set of individuals that tells them apart by identity, which is much cheaper than comparing their contents
+     * 
+     * @return an empty set of individuals
+     */
+    private Set<Individual> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<Individual, Boolean>());
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.relationship;
+
+import org.gedcom4j.model.Individual;
+
+/**
+ * An ancestor shared by two individuals, and how many generations back the ancestor is from each of them. Either individual can be
+ * the common ancestor, in which case the number of generations from that individual is zero.
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class CommonAncestor {
+
+    /**
+     * The common ancestor
+     */
+    private final Individual ancestor;
+
+    /**
+     * How many generations back the ancestor is from the first individual
+     */
+    private final int generationsFrom1;
+
+    /**
+     * How many generations back the ancestor is from the second individual
+     */
+    private final int generationsFrom2;
+
+    /**
+     * Constructor
+     * 
+     * @param ancestor
+     *            the common ancestor
+     * @param generationsFrom1
+     *            how many generations back the ancestor is from the first individual
+     * @param generationsFrom2
+     *            how many generations back the ancestor is from the second individual
+     */
+    CommonAncestor(Individual ancestor, int generationsFrom1, int generationsFrom2) {
+        this.ancestor = ancestor;
+        this.generationsFrom1 = generationsFrom1;
+        this.generationsFrom2 = generationsFrom2;
+    }
+
+    /**
+     * Get the common ancestor
+     * 
+     * @return the common ancestor
+     */
+    public Individual getAncestor() {
+        return ancestor;
+    }
+
+    /**
+     * Get how many generations back the ancestor is from the first individual
+     * 
+     * @return how many generations back the ancestor is from the first individual - 0 if the first individual is the ancestor, 1
+     *         for a parent, and so on
+     */
+    public int getGenerationsFrom1() {
+        return generationsFrom1;
+    }
+
+    /**
+     * Get how many generations back the ancestor is from the second individual
+     * 
+     * @return how many generations back the ancestor is from the second individual - 0 if the second individual is the ancestor, 1
+     *         for a parent, and so on
+     */
+    public int getGenerationsFrom2() {
+        return generationsFrom2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return ancestor + " (" + generationsFrom1 + "/" + generationsFrom2 + " generations)";
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.relationship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.Individual;
+
+/**
+ * <p>
+ * Finds the ancestors two individuals have in common, and how many generations back each one is from each of them, in a single
+ * pass. Each individual's ancestry is walked once, nearest generations first, recording the smallest number of generations to
+ * each ancestor. The two records are then intersected. This replaces finding the common ancestors with
+ * {@link AncestryCalculator#getLowestCommonAncestors(Individual, Individual)} and then counting the generations to each with
+ * {@link GenerationCounter}, which walks the tree again for every candidate.
+ * </p>
+ * <p>
+ * Ancestors are the parents of an individual (in every family he or she is a child in), their parents, and so on. Each individual
+ * counts as his or her own ancestor at zero generations, so if one individual is an ancestor of the other, he or she is one of
+ * the common ancestors. Individuals are compared by identity.
+ * </p>
+ * <p>
+ * Instances keep scratch space between calls, so are not thread-safe; use one per thread.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class CommonAncestorCalculator {
+
+    /**
+     * Orders common ancestors nearest first: by the total number of generations to both individuals, then by the number of
+     * generations from the first individual
+     */
+    private static final Comparator<CommonAncestor> NEAREST_FIRST = new Comparator<CommonAncestor>() {
+        @Override
+        public int compare(CommonAncestor o1, CommonAncestor o2) {
+            int total1 = o1.getGenerationsFrom1() + o1.getGenerationsFrom2();
+            int total2 = o2.getGenerationsFrom1() + o2.getGenerationsFrom2();
+            if (total1 != total2) {
+                return total1 < total2 ? -1 : 1;
+            }
+            return Integer.compare(o1.getGenerationsFrom1(), o2.getGenerationsFrom1());
+        }
+    };
+
+    /**
+     * The ids given to each individual reached in the current calculation. Keyed by identity.
+     */
+    private final Map<Individual, Integer> ids = new IdentityHashMap<>();
+
+    /**
+     * The individuals reached in the current calculation, indexed by id
+     */
+    private final List<Individual> people = new ArrayList<>();
+
+    /**
+     * The number of generations back from each of the two individuals that each person reached is, indexed by id. -1 if the
+     * person is not an ancestor of that individual.
+     */
+    private final int[][] generations = new int[2][16];
+
+    /**
+     * Get all the ancestors two individuals have in common, nearest first. The nearest are those the fewest generations back from
+     * the two individuals in total.
+     * 
+     * @param individual1
+     *            the first individual. Required.
+     * @param individual2
+     *            the second individual. Required.
+     * @return the common ancestors, with the number of generations back from each individual, nearest first. Empty if the
+     *         individuals have no ancestors in common.
+     * @throws IllegalArgumentException
+     *             if either individual is null
+     */
+    public List<CommonAncestor> getCommonAncestors(Individual individual1, Individual individual2) {
+        if (individual1 == null || individual2 == null) {
+            throw new IllegalArgumentException("individual1 and individual2 are required arguments");
+        }
+        try {
+            walkAncestors(0, individual1);
+            walkAncestors(1, individual2);
+            List<CommonAncestor> result = new ArrayList<>();
+            for (int id = 0; id < people.size(); id++) {
+                if (generations[0][id] >= 0 && generations[1][id] >= 0) {
+                    result.add(new CommonAncestor(people.get(id), generations[0][id], generations[1][id]));
+                }
+            }
+            Collections.sort(result, NEAREST_FIRST);
+            return result;
+        } finally {
+            ids.clear();
+            people.clear();
+        }
+    }
+
+    /**
+     * Get the lowest common ancestors of two individuals - the common ancestors who are not an ancestor of any other common
+     * ancestor. For a pair of first cousins, for example, these are their shared grandparents, but not their grandparents'
+     * parents. If one individual is an ancestor of the other, he or she is the only lowest common ancestor.
+     * 
+     * @param individual1
+     *            the first individual. Required.
+     * @param individual2
+     *            the second individual. Required.
+     * @return the lowest common ancestors, with the number of generations back from each individual, nearest first. Empty if the
+     *         individuals have no ancestors in common.
+     * @throws IllegalArgumentException
+     *             if either individual is null
+     */
+    public List<CommonAncestor> getLowestCommonAncestors(Individual individual1, Individual individual2) {
+        List<CommonAncestor> common = getCommonAncestors(individual1, individual2);
+        if (common.size() < 2) {
+            return common;
+        }
+        // Everyone above a common ancestor is a common ancestor too, and not a lowest one
+        Map<Individual, Boolean> above = new IdentityHashMap<>();
+        List<Individual> toVisit = new ArrayList<>();
+        for (CommonAncestor ca : common) {
+            addParents(toVisit, ca.getAncestor());
+        }
+        while (!toVisit.isEmpty()) {
+            Individual i = toVisit.remove(toVisit.size() - 1);
+            if (above.put(i, Boolean.TRUE) == null) {
+                addParents(toVisit, i);
+            }
+        }
+        List<CommonAncestor> result = new ArrayList<>();
+        for (CommonAncestor ca : common) {
+            if (!above.containsKey(ca.getAncestor())) {
+                result.add(ca);
+            }
+        }
+        if (result.isEmpty()) {
+            // Every common ancestor is above another, so the ancestry is circular. Settle for the nearest.
+            int total = common.get(0).getGenerationsFrom1() + common.get(0).getGenerationsFrom2();
+            for (CommonAncestor ca : common) {
+                if (ca.getGenerationsFrom1() + ca.getGenerationsFrom2() == total) {
+                    result.add(ca);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add the parents of an individual to a list
+     * 
+     * @param list
+     *            the list
+     * @param individual
+     *            the individual
+     */
+    private void addParents(List<Individual> list, Individual individual) {
+        if (individual.getFamiliesWhereChild() == null) {
+            return;
+        }
+        for (FamilyChild fc : individual.getFamiliesWhereChild()) {
+            Family f = fc == null ? null : fc.getFamily();
+            if (f == null) {
+                continue;
+            }
+            if (f.getHusband() != null && f.getHusband().getIndividual() != null) {
+                list.add(f.getHusband().getIndividual());
+            }
+            if (f.getWife() != null && f.getWife().getIndividual() != null) {
+                list.add(f.getWife().getIndividual());
+            }
+        }
+    }
+
+    /**
+     * Get the id of an individual, giving the next one out if he or she doesn't have one yet
+     * 
+     * @param individual
+     *            the individual
+     * @return the id of the individual
+     */
+    private int getId(Individual individual) {
+        Integer result = ids.get(individual);
+        if (result != null) {
+            return result;
+        }
+        int id = people.size();
+        ids.put(individual, id);
+        people.add(individual);
+        if (id == generations[0].length) {
+            for (int side = 0; side < 2; side++) {
+                generations[side] = Arrays.copyOf(generations[side], id * 2);
+            }
+        }
+        generations[0][id] = -1;
+        generations[1][id] = -1;
+        return id;
+    }
+
+    /**
+     * Walk up through the ancestors of an individual, nearest generations first, recording how many generations back each one is
+     * 
+     * @param side
+     *            0 for the first individual, 1 for the second
+     * @param individual
+     *            the individual
+     */
+    private void walkAncestors(int side, Individual individual) {
+        int start = getId(individual);
+        generations[side][start] = 0;
+        IntList queue = new IntList();
+        queue.add(start);
+        List<Individual> parents = new ArrayList<>();
+        for (int head = 0; head < queue.size; head++) {
+            int v = queue.values[head];
+            parents.clear();
+            addParents(parents, people.get(v));
+            for (Individual p : parents) {
+                int id = getId(p);
+                int[] gens = generations[side];
+                if (gens[id] < 0) {
+                    gens[id] = gens[v] + 1;
+                    queue.add(id);
+                }
+            }
+        }
+    }
+}
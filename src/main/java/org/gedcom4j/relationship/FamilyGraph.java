@@ -0,0 +1,795 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.relationship;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
+
+/**
+ * <p>
+ * A snapshot of the family network in a {@link Gedcom}, laid out for fast traversal. Every individual and family is assigned a
+ * dense integer id (0 to count-1), and the parent, child, and spouse links between them are stored in compressed sparse row
+ * arrays. Algorithms that walk the tree can then work with ints and {@link BitSet}s instead of following
+ * <code>Individual &rarr; FamilyChild &rarr; Family &rarr; IndividualReference &rarr; Individual</code> chains and keeping
+ * <code>HashSet&lt;Individual&gt;</code>s of who they have visited, which is slow because {@link Individual#hashCode()} and
+ * {@link Individual#equals(Object)} are deep.
+ * </p>
+ * <p>
+ * The graph contains every individual and family in the gedcom, plus any individuals and families reachable from them through
+ * family links that are missing from the gedcom's maps. The links are read once, when the graph is constructed; changes made to
+ * the model afterwards are not reflected, so build a new graph after editing family links.
+ * </p>
+ * <p>
+ * The links follow the same rules as the rest of the model: an individual's parents are the husbands and wives of the families the
+ * individual is a child in, an individual's children are the children of the families he or she is a spouse in, and an
+ * individual's spouses are the other spouse in each of the families he or she is a spouse in.
+ * </p>
+ * <p>
+ * {@link RelationshipCalculator}, {@link AncestryCalculator} and {@link GenerationCounter} can each be made with a graph, to search
+ * it rather than the model objects. Making a graph reads the whole tree, so it pays off when the graph is searched many times.
+ * </p>
+ * <p>
+ * Instances are immutable once constructed and may be shared between threads.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+@SuppressWarnings({ "PMD.TooManyMethods", "PMD.GodClass" })
+public class FamilyGraph {
+
+    /**
+     * A read-only set of individuals backed by a {@link BitSet} of ids in a graph
+     */
+    private final class IndividualBitSet extends AbstractSet<Individual> {
+
+        /**
+         * The ids of the individuals in the set
+         */
+        private final BitSet members;
+
+        /**
+         * The number of individuals in the set
+         */
+        private final int size;
+
+        /**
+         * Constructor
+         * 
+         * @param members
+         *            the ids of the individuals in the set
+         */
+        IndividualBitSet(BitSet members) {
+            this.members = members;
+            size = members.cardinality();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean contains(Object o) {
+            Integer id = individualIds.get(o);
+            return id != null && members.get(id);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<Individual> iterator() {
+            return new Iterator<Individual>() {
+                /**
+                 * The id of the next individual to return
+                 */
+                private int next = members.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Individual next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    Individual result = individuals[next];
+                    next = members.nextSetBit(next + 1);
+                    return result;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Family graph sets are read-only");
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * The id returned when there is no such individual or family
+     */
+    public static final int NONE = -1;
+
+    /**
+     * The individuals in the graph, indexed by id
+     */
+    private final Individual[] individuals;
+
+    /**
+     * The families in the graph, indexed by id
+     */
+    private final Family[] families;
+
+    /**
+     * The id of each individual in the graph. Keyed by identity.
+     */
+    private final Map<Individual, Integer> individualIds = new IdentityHashMap<>();
+
+    /**
+     * The id of each family in the graph. Keyed by identity.
+     */
+    private final Map<Family, Integer> familyIds = new IdentityHashMap<>();
+
+    /**
+     * Offsets into {@link #parents} for each individual; the parents of individual <code>i</code> are at
+     * <code>parentOffsets[i]</code> up to (but not including) <code>parentOffsets[i + 1]</code>
+     */
+    final int[] parentOffsets;
+
+    /**
+     * The ids of the parents of each individual, in the order the families and husband/wife appear in the model
+     */
+    final int[] parents;
+
+    /**
+     * Offsets into {@link #children} for each individual
+     */
+    final int[] childOffsets;
+
+    /**
+     * The ids of the children of each individual
+     */
+    final int[] children;
+
+    /**
+     * Offsets into {@link #spouses} for each individual
+     */
+    final int[] spouseOffsets;
+
+    /**
+     * The ids of the spouses of each individual
+     */
+    final int[] spouses;
+
+    /**
+     * Offsets into {@link #familiesWhereChild} for each individual
+     */
+    final int[] familyWhereChildOffsets;
+
+    /**
+     * The ids of the families each individual is a child in
+     */
+    final int[] familiesWhereChild;
+
+    /**
+     * Offsets into {@link #familiesWhereSpouse} for each individual
+     */
+    final int[] familyWhereSpouseOffsets;
+
+    /**
+     * The ids of the families each individual is a spouse in
+     */
+    final int[] familiesWhereSpouse;
+
+    /**
+     * The id of the husband of each family, or {@link #NONE}
+     */
+    final int[] husbands;
+
+    /**
+     * The id of the wife of each family, or {@link #NONE}
+     */
+    final int[] wives;
+
+    /**
+     * Offsets into {@link #familyChildren} for each family
+     */
+    final int[] familyChildOffsets;
+
+    /**
+     * The ids of the children in each family
+     */
+    final int[] familyChildren;
+
+    /**
+     * Build a graph of the family network in a gedcom.
+     * 
+     * @param gedcom
+     *            the gedcom. Required.
+     * @throws IllegalArgumentException
+     *             if gedcom is null
+     */
+    @SuppressWarnings("PMD.ConstructorCallsOverridableMethod")
+    public FamilyGraph(Gedcom gedcom) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is a required argument");
+        }
+        List<Individual> inds = new ArrayList<>(gedcom.getIndividuals().size());
+        List<Family> fams = new ArrayList<>(gedcom.getFamilies().size());
+        for (Individual i : gedcom.getIndividuals().values()) {
+            addIndividual(inds, i);
+        }
+        for (Family f : gedcom.getFamilies().values()) {
+            addFamily(fams, f);
+        }
+        discoverLinkedRecords(inds, fams);
+        individuals = inds.toArray(new Individual[inds.size()]);
+        families = fams.toArray(new Family[fams.size()]);
+
+        // Families and their members
+        husbands = new int[families.length];
+        wives = new int[families.length];
+        familyChildOffsets = new int[families.length + 1];
+        IntList list = new IntList();
+        for (int f = 0; f < families.length; f++) {
+            Family family = families[f];
+            husbands[f] = idOf(family.getHusband());
+            wives[f] = idOf(family.getWife());
+            if (family.getChildren() != null) {
+                for (IndividualReference c : family.getChildren()) {
+                    int child = idOf(c);
+                    if (child != NONE) {
+                        list.add(child);
+                    }
+                }
+            }
+            familyChildOffsets[f + 1] = list.size;
+        }
+        familyChildren = list.toArray();
+
+        // Families each individual is a child or spouse in
+        familyWhereChildOffsets = new int[individuals.length + 1];
+        list = new IntList();
+        for (int i = 0; i < individuals.length; i++) {
+            if (individuals[i].getFamiliesWhereChild() != null) {
+                for (FamilyChild fc : individuals[i].getFamiliesWhereChild()) {
+                    if (fc != null && fc.getFamily() != null) {
+                        list.add(familyIds.get(fc.getFamily()));
+                    }
+                }
+            }
+            familyWhereChildOffsets[i + 1] = list.size;
+        }
+        familiesWhereChild = list.toArray();
+
+        familyWhereSpouseOffsets = new int[individuals.length + 1];
+        list = new IntList();
+        for (int i = 0; i < individuals.length; i++) {
+            if (individuals[i].getFamiliesWhereSpouse() != null) {
+                for (FamilySpouse fs : individuals[i].getFamiliesWhereSpouse()) {
+                    if (fs != null && fs.getFamily() != null) {
+                        list.add(familyIds.get(fs.getFamily()));
+                    }
+                }
+            }
+            familyWhereSpouseOffsets[i + 1] = list.size;
+        }
+        familiesWhereSpouse = list.toArray();
+
+        // Derived individual-to-individual links
+        parentOffsets = new int[individuals.length + 1];
+        list = new IntList();
+        for (int i = 0; i < individuals.length; i++) {
+            for (int k = familyWhereChildOffsets[i]; k < familyWhereChildOffsets[i + 1]; k++) {
+                int f = familiesWhereChild[k];
+                if (husbands[f] != NONE) {
+                    list.add(husbands[f]);
+                }
+                if (wives[f] != NONE) {
+                    list.add(wives[f]);
+                }
+            }
+            parentOffsets[i + 1] = list.size;
+        }
+        parents = list.toArray();
+
+        childOffsets = new int[individuals.length + 1];
+        list = new IntList();
+        for (int i = 0; i < individuals.length; i++) {
+            for (int k = familyWhereSpouseOffsets[i]; k < familyWhereSpouseOffsets[i + 1]; k++) {
+                int f = familiesWhereSpouse[k];
+                for (int c = familyChildOffsets[f]; c < familyChildOffsets[f + 1]; c++) {
+                    list.add(familyChildren[c]);
+                }
+            }
+            childOffsets[i + 1] = list.size;
+        }
+        children = list.toArray();
+
+        spouseOffsets = new int[individuals.length + 1];
+        list = new IntList();
+        for (int i = 0; i < individuals.length; i++) {
+            for (int k = familyWhereSpouseOffsets[i]; k < familyWhereSpouseOffsets[i + 1]; k++) {
+                int f = familiesWhereSpouse[k];
+                if (husbands[f] == i && wives[f] != NONE) {
+                    list.add(wives[f]);
+                } else if (wives[f] == i && husbands[f] != NONE) {
+                    list.add(husbands[f]);
+                }
+            }
+            spouseOffsets[i + 1] = list.size;
+        }
+        spouses = list.toArray();
+    }
+
+    /**
+     * Get a read-only view of the individuals whose ids are set in a {@link BitSet}. The view reads the bit set as it is when the
+     * view is created, so the bit set should not be changed afterwards.
+     * 
+     * @param ids
+     *            the ids of the individuals. Required.
+     * @return a read-only set of the individuals
+     * @throws IllegalArgumentException
+     *             if ids is null
+     */
+    public Set<Individual> asSet(BitSet ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("ids is a required argument");
+        }
+        return new IndividualBitSet(ids);
+    }
+
+    /**
+     * Get the ids of the ancestors of an individual - the parents of the individual, their parents, and so on. The individual is
+     * only included if there is a circular relationship in the data.
+     * 
+     * @param id
+     *            the id of the individual
+     * @return the ids of the ancestors of the individual
+     */
+    public BitSet getAncestors(int id) {
+        return getClosure(id, parentOffsets, parents);
+    }
+
+    /**
+     * Get a child of an individual
+     * 
+     * @param id
+     *            the id of the individual
+     * @param index
+     *            which of the individual's children (0 to {@link #getChildCount(int)}-1)
+     * @return the id of the child
+     */
+    public int getChild(int id, int index) {
+        return children[childOffsets[id] + index];
+    }
+
+    /**
+     * Get the number of children an individual has, across all the families he or she is a spouse in
+     * 
+     * @param id
+     *            the id of the individual
+     * @return the number of children
+     */
+    public int getChildCount(int id) {
+        return childOffsets[id + 1] - childOffsets[id];
+    }
+
+    /**
+     * Get the ids of the descendants of an individual - the children of the individual, their children, and so on. The individual
+     * is only included if there is a circular relationship in the data.
+     * 
+     * @param id
+     *            the id of the individual
+     * @return the ids of the descendants of the individual
+     */
+    public BitSet getDescendants(int id) {
+        return getClosure(id, childOffsets, children);
+    }
+
+    /**
+     * Get a family by id
+     * 
+     * @param id
+     *            the id of the family
+     * @return the family
+     */
+    public Family getFamily(int id) {
+        return families[id];
+    }
+
+    /**
+     * Get a child in a family
+     * 
+     * @param familyId
+     *            the id of the family
+     * @param index
+     *            which of the family's children (0 to {@link #getFamilyChildCount(int)}-1)
+     * @return the id of the child
+     */
+    public int getFamilyChild(int familyId, int index) {
+        return familyChildren[familyChildOffsets[familyId] + index];
+    }
+
+    /**
+     * Get the number of children in a family
+     * 
+     * @param familyId
+     *            the id of the family
+     * @return the number of children in the family
+     */
+    public int getFamilyChildCount(int familyId) {
+        return familyChildOffsets[familyId + 1] - familyChildOffsets[familyId];
+    }
+
+    /**
+     * Get the number of families in the graph
+     * 
+     * @return the number of families in the graph
+     */
+    public int getFamilyCount() {
+        return families.length;
+    }
+
+    /**
+     * Get the id of a family
+     * 
+     * @param family
+     *            the family
+     * @return the id of the family, or {@link #NONE} if the family is not in the graph
+     */
+    public int getFamilyId(Family family) {
+        Integer result = familyIds.get(family);
+        return result == null ? NONE : result;
+    }
+
+    /**
+     * Get one of the families an individual is a child in
+     * 
+     * @param id
+     *            the id of the individual
+     * @param index
+     *            which of the families (0 to {@link #getFamilyWhereChildCount(int)}-1)
+     * @return the id of the family
+     */
+    public int getFamilyWhereChild(int id, int index) {
+        return familiesWhereChild[familyWhereChildOffsets[id] + index];
+    }
+
+    /**
+     * Get the number of families an individual is a child in
+     * 
+     * @param id
+     *            the id of the individual
+     * @return the number of families the individual is a child in
+     */
+    public int getFamilyWhereChildCount(int id) {
+        return familyWhereChildOffsets[id + 1] - familyWhereChildOffsets[id];
+    }
+
+    /**
+     * Get one of the families an individual is a spouse in
+     * 
+     * @param id
+     *            the id of the individual
+     * @param index
+     *            which of the families (0 to {@link #getFamilyWhereSpouseCount(int)}-1)
+     * @return the id of the family
+     */
+    public int getFamilyWhereSpouse(int id, int index) {
+        return familiesWhereSpouse[familyWhereSpouseOffsets[id] + index];
+    }
+
+    /**
+     * Get the number of families an individual is a spouse in
+     * 
+     * @param id
+     *            the id of the individual
+     * @return the number of families the individual is a spouse in
+     */
+    public int getFamilyWhereSpouseCount(int id) {
+        return familyWhereSpouseOffsets[id + 1] - familyWhereSpouseOffsets[id];
+    }
+
+    /**
+     * Get the number of generations between an individual and one of his or her ancestors, going the shortest way up the tree.
+     * 
+     * @param descendant
+     *            the id of the descendant
+     * @param ancestor
+     *            the id of the ancestor
+     * @return the number of generations separating the two; 0 if they are the same individual, 1 if the ancestor is a parent, and
+     *         so on. Returns -1 if <code>ancestor</code> is not an ancestor of <code>descendant</code>.
+     */
+    public int getGenerationCount(int descendant, int ancestor) {
+        if (descendant == ancestor) {
+            return 0;
+        }
+        BitSet visited = new BitSet(individuals.length);
+        int[] queue = new int[individuals.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = descendant;
+        visited.set(descendant);
+        int generation = 0;
+        while (head < tail) {
+            generation++;
+            int end = tail;
+            while (head < end) {
+                int v = queue[head++];
+                for (int k = parentOffsets[v]; k < parentOffsets[v + 1]; k++) {
+                    int p = parents[k];
+                    if (p == ancestor) {
+                        return generation;
+                    }
+                    if (!visited.get(p)) {
+                        visited.set(p);
+                        queue[tail++] = p;
+                    }
+                }
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Get the husband in a family
+     * 
+     * @param familyId
+     *            the id of the family
+     * @return the id of the husband, or {@link #NONE} if the family has no husband
+     */
+    public int getHusband(int familyId) {
+        return husbands[familyId];
+    }
+
+    /**
+     * Get an individual by id
+     * 
+     * @param id
+     *            the id of the individual
+     * @return the individual
+     */
+    public Individual getIndividual(int id) {
+        return individuals[id];
+    }
+
+    /**
+     * Get the number of individuals in the graph
+     * 
+     * @return the number of individuals in the graph
+     */
+    public int getIndividualCount() {
+        return individuals.length;
+    }
+
+    /**
+     * Get the id of an individual
+     * 
+     * @param individual
+     *            the individual
+     * @return the id of the individual, or {@link #NONE} if the individual is not in the graph
+     */
+    public int getIndividualId(Individual individual) {
+        Integer result = individualIds.get(individual);
+        return result == null ? NONE : result;
+    }
+
+    /**
+     * Get a parent of an individual
+     * 
+     * @param id
+     *            the id of the individual
+     * @param index
+     *            which of the individual's parents (0 to {@link #getParentCount(int)}-1)
+     * @return the id of the parent
+     */
+    public int getParent(int id, int index) {
+        return parents[parentOffsets[id] + index];
+    }
+
+    /**
+     * Get the number of parents an individual has, across all the families he or she is a child in
+     * 
+     * @param id
+     *            the id of the individual
+     * @return the number of parents
+     */
+    public int getParentCount(int id) {
+        return parentOffsets[id + 1] - parentOffsets[id];
+    }
+
+    /**
+     * Get a spouse of an individual
+     * 
+     * @param id
+     *            the id of the individual
+     * @param index
+     *            which of the individual's spouses (0 to {@link #getSpouseCount(int)}-1)
+     * @return the id of the spouse
+     */
+    public int getSpouse(int id, int index) {
+        return spouses[spouseOffsets[id] + index];
+    }
+
+    /**
+     * Get the number of spouses an individual has
+     * 
+     * @param id
+     *            the id of the individual
+     * @return the number of spouses
+     */
+    public int getSpouseCount(int id) {
+        return spouseOffsets[id + 1] - spouseOffsets[id];
+    }
+
+    /**
+     * Get the wife in a family
+     * 
+     * @param familyId
+     *            the id of the family
+     * @return the id of the wife, or {@link #NONE} if the family has no wife
+     */
+    public int getWife(int familyId) {
+        return wives[familyId];
+    }
+
+    /**
+     * Add a family to the list being built, if it is not null and not already there
+     * 
+     * @param fams
+     *            the list of families being built
+     * @param family
+     *            the family
+     */
+    private void addFamily(List<Family> fams, Family family) {
+        if (family != null && !familyIds.containsKey(family)) {
+            familyIds.put(family, fams.size());
+            fams.add(family);
+        }
+    }
+
+    /**
+     * Add an individual to the list being built, if it is not null and not already there
+     * 
+     * @param inds
+     *            the list of individuals being built
+     * @param individual
+     *            the individual
+     */
+    private void addIndividual(List<Individual> inds, Individual individual) {
+        if (individual != null && !individualIds.containsKey(individual)) {
+            individualIds.put(individual, inds.size());
+            inds.add(individual);
+        }
+    }
+
+    /**
+     * Add any individuals and families that are linked to from the ones already in the lists, but are not in the lists themselves
+     * 
+     * @param inds
+     *            the list of individuals being built
+     * @param fams
+     *            the list of families being built
+     */
+    private void discoverLinkedRecords(List<Individual> inds, List<Family> fams) {
+        int nextIndividual = 0;
+        int nextFamily = 0;
+        while (nextIndividual < inds.size() || nextFamily < fams.size()) {
+            while (nextIndividual < inds.size()) {
+                Individual i = inds.get(nextIndividual++);
+                if (i.getFamiliesWhereChild() != null) {
+                    for (FamilyChild fc : i.getFamiliesWhereChild()) {
+                        addFamily(fams, fc == null ? null : fc.getFamily());
+                    }
+                }
+                if (i.getFamiliesWhereSpouse() != null) {
+                    for (FamilySpouse fs : i.getFamiliesWhereSpouse()) {
+                        addFamily(fams, fs == null ? null : fs.getFamily());
+                    }
+                }
+            }
+            while (nextFamily < fams.size()) {
+                Family f = fams.get(nextFamily++);
+                addIndividual(inds, f.getHusband() == null ? null : f.getHusband().getIndividual());
+                addIndividual(inds, f.getWife() == null ? null : f.getWife().getIndividual());
+                if (f.getChildren() != null) {
+                    for (IndividualReference c : f.getChildren()) {
+                        addIndividual(inds, c == null ? null : c.getIndividual());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the ids of everyone reachable from an individual through one kind of link
+     * 
+     * @param id
+     *            the id of the individual
+     * @param offsets
+     *            the offsets into the link array
+     * @param links
+     *            the link array
+     * @return the ids of everyone reachable from the individual
+     */
+    private BitSet getClosure(int id, int[] offsets, int[] links) {
+        BitSet result = new BitSet(individuals.length);
+        int[] stack = new int[individuals.length + 1];
+        int top = 0;
+        stack[top++] = id;
+        while (top > 0) {
+            int v = stack[--top];
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = links[k];
+                if (!result.get(w)) {
+                    result.set(w);
+                    stack[top++] = w;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the id of a referenced individual
+     * 
+     * @param ref
+     *            the reference. Optional.
+     * @return the id of the referenced individual, or {@link #NONE} if there is no reference or it does not point to anyone
+     */
+    private int idOf(IndividualReference ref) {
+        if (ref == null || ref.getIndividual() == null) {
+            return NONE;
+        }
+        return individualIds.get(ref.getIndividual());
+    }
+}
@@ -0,0 +1,784 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.relationship;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
+
+/**
+ * The links between individuals and families that a search of the family network follows, with each individual and family known
+ * by an int id. The links are read either from a {@link FamilyGraph}, or from the model objects themselves, a person or family at
+ * a time as the search reaches them - so a search that only goes a little way never looks at the rest of the tree. Either way,
+ * the links are the same as {@link FamilyGraph} describes. Deliberately package-private.
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+abstract class FamilyLinks {
+
+    /**
+     * Links read from a {@link FamilyGraph}
+     */
+    private static final class GraphLinks extends FamilyLinks {
+
+        /**
+         * The graph
+         */
+        private final FamilyGraph graph;
+
+        /**
+         * Constructor
+         * 
+         * @param graph
+         *            the graph
+         */
+        GraphLinks(FamilyGraph graph) {
+            this.graph = graph;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getChild(int family, int index) {
+            return graph.familyChildren[graph.familyChildOffsets[family] + index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getChildCount(int family) {
+            return graph.familyChildOffsets[family + 1] - graph.familyChildOffsets[family];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getFamilyWhereChild(int person, int index) {
+            return graph.familiesWhereChild[graph.familyWhereChildOffsets[person] + index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getFamilyWhereChildCount(int person) {
+            return graph.familyWhereChildOffsets[person + 1] - graph.familyWhereChildOffsets[person];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getFamilyWhereSpouse(int person, int index) {
+            return graph.familiesWhereSpouse[graph.familyWhereSpouseOffsets[person] + index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getFamilyWhereSpouseCount(int person) {
+            return graph.familyWhereSpouseOffsets[person + 1] - graph.familyWhereSpouseOffsets[person];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getHusband(int family) {
+            return graph.husbands[family];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Individual getIndividual(int person) {
+            return graph.getIndividual(person);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getIndividualId(Individual individual) {
+            return graph.getIndividualId(individual);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getWife(int family) {
+            return graph.wives[family];
+        }
+    }
+
+    /**
+     * Links read from the model objects as they are asked for. Ids are handed out in the order individuals and families are first
+     * reached.
+     */
+    private static final class ModelLinks extends FamilyLinks {
+
+        /**
+         * The id of each individual reached so far. Keyed by identity.
+         */
+        private final Map<Individual, Integer> individualIds = new IdentityHashMap<>();
+
+        /**
+         * The id of each family reached so far. Keyed by identity.
+         */
+        private final Map<Family, Integer> familyIds = new IdentityHashMap<>();
+
+        /**
+         * The individuals reached so far, indexed by id
+         */
+        private Individual[] individuals = new Individual[16];
+
+        /**
+         * The ids of the families each individual is a child in, indexed by the individual's id. Null until first asked for.
+         */
+        private int[][] familiesWhereChild = new int[16][];
+
+        /**
+         * The ids of the families each individual is a spouse in, indexed by the individual's id. Null until first asked for.
+         */
+        private int[][] familiesWhereSpouse = new int[16][];
+
+        /**
+         * The number of individuals reached so far
+         */
+        private int individualCount;
+
+        /**
+         * The families reached so far, indexed by id
+         */
+        private Family[] families = new Family[16];
+
+        /**
+         * The ids of the members of each family - husband, wife, then the children - indexed by the family's id. Null until first
+         * asked for.
+         */
+        private int[][] members = new int[16][];
+
+        /**
+         * The number of families reached so far
+         */
+        private int familyCount;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void clear() {
+            individualIds.clear();
+            familyIds.clear();
+            Arrays.fill(individuals, 0, individualCount, null);
+            Arrays.fill(familiesWhereChild, 0, individualCount, null);
+            Arrays.fill(familiesWhereSpouse, 0, individualCount, null);
+            individualCount = 0;
+            Arrays.fill(families, 0, familyCount, null);
+            Arrays.fill(members, 0, familyCount, null);
+            familyCount = 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getChild(int family, int index) {
+            return getMembers(family)[2 + index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getChildCount(int family) {
+            return getMembers(family).length - 2;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getFamilyWhereChild(int person, int index) {
+            return getFamiliesWhereChild(person)[index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getFamilyWhereChildCount(int person) {
+            return getFamiliesWhereChild(person).length;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getFamilyWhereSpouse(int person, int index) {
+            return getFamiliesWhereSpouse(person)[index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getFamilyWhereSpouseCount(int person) {
+            return getFamiliesWhereSpouse(person).length;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getHusband(int family) {
+            return getMembers(family)[0];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Individual getIndividual(int person) {
+            return individuals[person];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getIndividualId(Individual individual) {
+            if (individual == null) {
+                return FamilyGraph.NONE;
+            }
+            Integer result = individualIds.get(individual);
+            if (result == null) {
+                result = individualCount++;
+                individualIds.put(individual, result);
+                if (result == individuals.length) {
+                    individuals = Arrays.copyOf(individuals, result * 2);
+                    familiesWhereChild = Arrays.copyOf(familiesWhereChild, result * 2);
+                    familiesWhereSpouse = Arrays.copyOf(familiesWhereSpouse, result * 2);
+                }
+                individuals[result] = individual;
+            }
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getWife(int family) {
+            return getMembers(family)[1];
+        }
+
+        /**
+         * {@inheritDoc} Checked on the model objects themselves, so that the families and family members looked at along the way
+         * need not be handed ids.
+         */
+        @Override
+        boolean isLinkedBothWays(int person) {
+            Individual individual = individuals[person];
+            if (individual.getFamiliesWhereChild() != null) {
+                for (FamilyChild fc : individual.getFamiliesWhereChild()) {
+                    Family family = fc == null ? null : fc.getFamily();
+                    if (family != null && (!isChildIn(individual, family) || !linksBack(family))) {
+                        return false;
+                    }
+                }
+            }
+            if (individual.getFamiliesWhereSpouse() != null) {
+                for (FamilySpouse fs : individual.getFamiliesWhereSpouse()) {
+                    Family family = fs == null ? null : fs.getFamily();
+                    if (family != null && (!refersTo(family.getHusband(), individual) && !refersTo(family.getWife(), individual)
+                            || !linksBack(family))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Is the person listed as one of the children of a family?
+         * 
+         * @param person
+         *            the person
+         * @param family
+         *            the family
+         * @return true if the family lists the person among its children
+         */
+        private static boolean isChildIn(Individual person, Family family) {
+            if (family.getChildren() != null) {
+                for (IndividualReference c : family.getChildren()) {
+                    if (refersTo(c, person)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Does a person have a FAMC pointing to a family?
+         * 
+         * @param person
+         *            the person. Optional.
+         * @param family
+         *            the family
+         * @return true if the person is absent or has a FAMC for the family
+         */
+        private static boolean linksAsChild(Individual person, Family family) {
+            if (person == null) {
+                return true;
+            }
+            if (person.getFamiliesWhereChild() != null) {
+                for (FamilyChild fc : person.getFamiliesWhereChild()) {
+                    if (fc != null && fc.getFamily() == family) { // NOPMD - deliberately using ==
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Does a person have a FAMS pointing to a family?
+         * 
+         * @param person
+         *            the person. Optional.
+         * @param family
+         *            the family
+         * @return true if the person is absent or has a FAMS for the family
+         */
+        private static boolean linksAsSpouse(Individual person, Family family) {
+            if (person == null) {
+                return true;
+            }
+            if (person.getFamiliesWhereSpouse() != null) {
+                for (FamilySpouse fs : person.getFamiliesWhereSpouse()) {
+                    if (fs != null && fs.getFamily() == family) { // NOPMD - deliberately using ==
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Does everyone a family lists as a husband, wife, or child link back to the family?
+         * 
+         * @param family
+         *            the family
+         * @return true if every member the family lists has a FAMS or FAMC (as appropriate) pointing back to it
+         */
+        private static boolean linksBack(Family family) {
+            if (family.getHusband() != null && !linksAsSpouse(family.getHusband().getIndividual(), family)) {
+                return false;
+            }
+            if (family.getWife() != null && !linksAsSpouse(family.getWife().getIndividual(), family)) {
+                return false;
+            }
+            if (family.getChildren() != null) {
+                for (IndividualReference c : family.getChildren()) {
+                    if (c != null && !linksAsChild(c.getIndividual(), family)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Does a reference point to a particular person?
+         * 
+         * @param ref
+         *            the reference. Optional.
+         * @param person
+         *            the person
+         * @return true if the reference points to that very person
+         */
+        private static boolean refersTo(IndividualReference ref, Individual person) {
+            return ref != null && ref.getIndividual() == person; // NOPMD - deliberately using ==
+        }
+
+        /**
+         * Get the ids of the families an individual is a child in
+         * 
+         * @param person
+         *            the id of the individual
+         * @return the ids of the families
+         */
+        private int[] getFamiliesWhereChild(int person) {
+            int[] result = familiesWhereChild[person];
+            if (result == null) {
+                IntList list = new IntList();
+                List<FamilyChild> fcs = individuals[person].getFamiliesWhereChild();
+                if (fcs != null) {
+                    for (FamilyChild fc : fcs) {
+                        if (fc != null && fc.getFamily() != null) {
+                            list.add(getFamilyId(fc.getFamily()));
+                        }
+                    }
+                }
+                result = list.toArray();
+                familiesWhereChild[person] = result;
+            }
+            return result;
+        }
+
+        /**
+         * Get the ids of the families an individual is a spouse in
+         * 
+         * @param person
+         *            the id of the individual
+         * @return the ids of the families
+         */
+        private int[] getFamiliesWhereSpouse(int person) {
+            int[] result = familiesWhereSpouse[person];
+            if (result == null) {
+                IntList list = new IntList();
+                List<FamilySpouse> fss = individuals[person].getFamiliesWhereSpouse();
+                if (fss != null) {
+                    for (FamilySpouse fs : fss) {
+                        if (fs != null && fs.getFamily() != null) {
+                            list.add(getFamilyId(fs.getFamily()));
+                        }
+                    }
+                }
+                result = list.toArray();
+                familiesWhereSpouse[person] = result;
+            }
+            return result;
+        }
+
+        /**
+         * Get the id of a family, handing it one if it hasn't been reached before
+         * 
+         * @param family
+         *            the family
+         * @return the id of the family
+         */
+        private int getFamilyId(Family family) {
+            Integer result = familyIds.get(family);
+            if (result == null) {
+                result = familyCount++;
+                familyIds.put(family, result);
+                if (result == families.length) {
+                    families = Arrays.copyOf(families, result * 2);
+                    members = Arrays.copyOf(members, result * 2);
+                }
+                families[result] = family;
+            }
+            return result;
+        }
+
+        /**
+         * Get the ids of the members of a family
+         * 
+         * @param family
+         *            the id of the family
+         * @return the ids of the husband, the wife, then the children. The husband and wife are {@link FamilyGraph#NONE} if the
+         *         family has none.
+         */
+        private int[] getMembers(int family) {
+            int[] result = members[family];
+            if (result == null) {
+                Family f = families[family];
+                IntList list = new IntList();
+                list.add(getId(f.getHusband()));
+                list.add(getId(f.getWife()));
+                if (f.getChildren() != null) {
+                    for (IndividualReference c : f.getChildren()) {
+                        int child = getId(c);
+                        if (child != FamilyGraph.NONE) {
+                            list.add(child);
+                        }
+                    }
+                }
+                result = list.toArray();
+                members[family] = result;
+            }
+            return result;
+        }
+
+        /**
+         * Get the id of the individual a reference points to
+         * 
+         * @param ref
+         *            the reference. Optional.
+         * @return the id of the individual, or {@link FamilyGraph#NONE} if there is no reference or it points to no one
+         */
+        private int getId(IndividualReference ref) {
+            return ref == null ? FamilyGraph.NONE : getIndividualId(ref.getIndividual());
+        }
+    }
+
+    /**
+     * Get the links in a family graph
+     * 
+     * @param graph
+     *            the graph
+     * @return the links in the graph
+     */
+    static FamilyLinks inGraph(FamilyGraph graph) {
+        return new GraphLinks(graph);
+    }
+
+    /**
+     * Get links that are read from the model objects as they are asked for. The links are read only once, so should be cleared or
+     * thrown away before the model is changed.
+     * 
+     * @return links that are read from the model objects
+     */
+    static FamilyLinks inModel() {
+        return new ModelLinks();
+    }
+
+    /**
+     * Forget the links read so far, and the ids handed out, so that they are read afresh from the model objects the next time they
+     * are asked for. Links that come from a family graph are never read afresh, so there is nothing to forget.
+     */
+    void clear() {
+        // Nothing to forget
+    }
+
+    /**
+     * Get a child in a family
+     * 
+     * @param family
+     *            the id of the family
+     * @param index
+     *            which of the family's children (0 to {@link #getChildCount(int)}-1)
+     * @return the id of the child
+     */
+    abstract int getChild(int family, int index);
+
+    /**
+     * Get the number of children in a family
+     * 
+     * @param family
+     *            the id of the family
+     * @return the number of children in the family
+     */
+    abstract int getChildCount(int family);
+
+    /**
+     * Get one of the families an individual is a child in
+     * 
+     * @param person
+     *            the id of the individual
+     * @param index
+     *            which of the families (0 to {@link #getFamilyWhereChildCount(int)}-1)
+     * @return the id of the family
+     */
+    abstract int getFamilyWhereChild(int person, int index);
+
+    /**
+     * Get the number of families an individual is a child in
+     * 
+     * @param person
+     *            the id of the individual
+     * @return the number of families the individual is a child in
+     */
+    abstract int getFamilyWhereChildCount(int person);
+
+    /**
+     * Get one of the families an individual is a spouse in
+     * 
+     * @param person
+     *            the id of the individual
+     * @param index
+     *            which of the families (0 to {@link #getFamilyWhereSpouseCount(int)}-1)
+     * @return the id of the family
+     */
+    abstract int getFamilyWhereSpouse(int person, int index);
+
+    /**
+     * Get the number of families an individual is a spouse in
+     * 
+     * @param person
+     *            the id of the individual
+     * @return the number of families the individual is a spouse in
+     */
+    abstract int getFamilyWhereSpouseCount(int person);
+
+    /**
+     * Get the husband in a family
+     * 
+     * @param family
+     *            the id of the family
+     * @return the id of the husband, or {@link FamilyGraph#NONE} if the family has none
+     */
+    abstract int getHusband(int family);
+
+    /**
+     * Get an individual by id
+     * 
+     * @param person
+     *            the id of the individual
+     * @return the individual
+     */
+    abstract Individual getIndividual(int person);
+
+    /**
+     * Get the id of an individual
+     * 
+     * @param individual
+     *            the individual
+     * @return the id of the individual, or {@link FamilyGraph#NONE} if the individual is not among the links
+     */
+    abstract int getIndividualId(Individual individual);
+
+    /**
+     * Get the wife in a family
+     * 
+     * @param family
+     *            the id of the family
+     * @return the id of the wife, or {@link FamilyGraph#NONE} if the family has none
+     */
+    abstract int getWife(int family);
+
+    /**
+     * Are the links between an individual and each of his or her families, and between those families and everyone they list,
+     * recorded on both sides - a CHIL for each FAMC, a FAMS for each HUSB and WIFE, and so on?
+     * 
+     * @param person
+     *            the id of the individual
+     * @return true if all those links are recorded on both sides
+     */
+    boolean isLinkedBothWays(int person) {
+        for (int k = 0; k < getFamilyWhereChildCount(person); k++) {
+            int family = getFamilyWhereChild(person, k);
+            if (!hasChild(family, person) || !linksBack(family)) {
+                return false;
+            }
+        }
+        for (int k = 0; k < getFamilyWhereSpouseCount(person); k++) {
+            int family = getFamilyWhereSpouse(person, k);
+            boolean listed = getHusband(family) == person || getWife(family) == person;
+            if (!listed || !linksBack(family)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Does a family list an individual as one of its children?
+     * 
+     * @param family
+     *            the id of the family
+     * @param person
+     *            the id of the individual
+     * @return true if the family lists the individual among its children
+     */
+    private boolean hasChild(int family, int person) {
+        for (int k = 0; k < getChildCount(family); k++) {
+            if (getChild(family, k) == person) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Does an individual list a family among the families he or she is a child in?
+     * 
+     * @param person
+     *            the id of the individual, or {@link FamilyGraph#NONE}
+     * @param family
+     *            the id of the family
+     * @return true if there is no individual, or the individual lists the family
+     */
+    private boolean isChildIn(int person, int family) {
+        if (person == FamilyGraph.NONE) {
+            return true;
+        }
+        for (int k = 0; k < getFamilyWhereChildCount(person); k++) {
+            if (getFamilyWhereChild(person, k) == family) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Does an individual list a family among the families he or she is a spouse in?
+     * 
+     * @param person
+     *            the id of the individual, or {@link FamilyGraph#NONE}
+     * @param family
+     *            the id of the family
+     * @return true if there is no individual, or the individual lists the family
+     */
+    private boolean isSpouseIn(int person, int family) {
+        if (person == FamilyGraph.NONE) {
+            return true;
+        }
+        for (int k = 0; k < getFamilyWhereSpouseCount(person); k++) {
+            if (getFamilyWhereSpouse(person, k) == family) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Does everyone a family lists as a husband, wife, or child link back to the family?
+     * 
+     * @param family
+     *            the id of the family
+     * @return true if every member the family lists has a FAMS or FAMC (as appropriate) pointing back to it
+     */
+    private boolean linksBack(int family) {
+        if (!isSpouseIn(getHusband(family), family) || !isSpouseIn(getWife(family), family)) {
+            return false;
+        }
+        for (int c = 0; c < getChildCount(family); c++) {
+            if (!isChildIn(getChild(family, c), family)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
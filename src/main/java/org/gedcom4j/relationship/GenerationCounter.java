@@ -26,8 +26,8 @@
  */
 package org.gedcom4j.relationship;
 
-import org.gedcom4j.model.Family;
-import org.gedcom4j.model.FamilyChild;
+import java.util.BitSet;
+
 import org.gedcom4j.model.Individual;
 
 /**
@@ -37,25 +37,64 @@ import org.gedcom4j.model.Individual;
  */
 public class GenerationCounter {
 
+    /**
+     * The family graph to count generations in, or null to walk the model objects directly
+     */
+    private final FamilyGraph graph;
+
+    /**
+     * Default constructor. Generations are counted by walking the model objects.
+     */
+    public GenerationCounter() {
+        graph = null;
+    }
+
+    /**
+     * Constructor that counts generations in a {@link FamilyGraph} instead of walking the model objects. This is much faster for
+     * repeated queries against a large tree. Generations between individuals who are not both in the graph are counted by walking
+     * the model objects as usual. The counts are the same either way, as long as the model hasn't been changed since the graph was
+     * made.
+     * 
+     * @param graph
+     *            the family graph. Required.
+     * @throws IllegalArgumentException
+     *             if graph is null
+     */
+    public GenerationCounter(FamilyGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is a required argument");
+        }
+        this.graph = graph;
+    }
+
     /**
      * <p>
      * Get the number of generations you need to go through to find the provided ancestor. This is defined (for this method's
      * purposes) as the individual's parents (and step-parents), recursively.
      * </p>
      * <p>
-     * This is the public, root level method. It recursively calls {@link #getGenCount(Individual, Individual, int)} which is for
-     * internal use only.
+     * When the ancestor can be reached along more than one line - as happens when cousins marry - the count is along the shortest
+     * line, whether generations are counted in a {@link FamilyGraph} or by walking the model objects.
      * </p>
      * 
      * @param descendant
      *            the individual whose extended ancestry is desired
      * @param lookingFor
      *            the ancestor we are looking for
-     * @return the number of generations separating the individual from the person we are looking for. Returns -1 if the person we
-     *         are looking for is not an ancestor (or spouse of an ancestor) of the individual.
+     * @return the number of generations separating the individual from the person we are looking for
+     * @throws IllegalArgumentException
+     *             if the person we are looking for is not an ancestor of the individual
      */
     public int getGenerationCount(Individual descendant, Individual lookingFor) {
-        int result = getGenCount(descendant, lookingFor, 0);
+        int result;
+        int d = graph == null ? FamilyGraph.NONE : graph.getIndividualId(descendant);
+        int a = graph == null ? FamilyGraph.NONE : graph.getIndividualId(lookingFor);
+        if (d != FamilyGraph.NONE && a != FamilyGraph.NONE) {
+            result = graph.getGenerationCount(d, a);
+        } else {
+            FamilyLinks links = FamilyLinks.inModel();
+            result = getGenCount(links, links.getIndividualId(descendant), links.getIndividualId(lookingFor));
+        }
         if (result < 0) {
             throw new IllegalArgumentException("Ancestor/descendant relationship not found for " + lookingFor.getXref() + " and "
                     + descendant.getXref());
@@ -64,66 +103,50 @@ public class GenerationCounter {
     }
 
     /**
-     * <p>
-     * Get the number of generations you need to go through to find the provided ancestor. This is defined (for this method's
-     * purposes) as the individual's parents (and step-parents), recursively.
-     * </p>
-     * <p>
-     * This is the private recursive method for internal use only.
-     * </p>
+     * Count the generations between a descendant and an ancestor by working up the tree a generation at a time from the
+     * descendant, reading the links from the model objects, so that the shortest line to the ancestor is found first - the same
+     * way {@link FamilyGraph#getGenerationCount(int, int)} counts them
      * 
+     * @param links
+     *            the links read from the model objects
      * @param descendant
-     *            the individual whose ancestors we are checking
-     * @param lookingFor
-     *            the ancestor we are looking for
-     * @param gens
-     *            the number of generations we've gone up so far
-     * @return the number of generations we've gone up so far
+     *            the id of the descendant
+     * @param ancestor
+     *            the id of the ancestor
+     * @return the number of generations along the shortest line from the descendant to the ancestor, or -1 if the ancestor is not
+     *         an ancestor of the descendant
      */
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts")
-    private int getGenCount(Individual descendant, Individual lookingFor, int gens) {
-
-        if (descendant.equals(lookingFor)) {
-            return gens;
+    private static int getGenCount(FamilyLinks links, int descendant, int ancestor) {
+        if (descendant == ancestor) {
+            return 0;
         }
-
-        // Check all the parents (including stepparents)
-        if (descendant.getFamiliesWhereChild() != null) {
-            for (FamilyChild fc : descendant.getFamiliesWhereChild()) {
-                Family f = fc.getFamily();
-
-                // Is the father who we're looking for?
-                if (f.getHusband() != null && lookingFor.equals(f.getHusband().getIndividual())) {
-                    return gens + 1;
-                }
-
-                // Is the mother who we're looking for?
-                if (f.getWife() != null && lookingFor.equals(f.getWife().getIndividual())) {
-                    return gens + 1;
-                }
-            }
-        }
-
-        // None of the parents and step-parents were the person we were looking for. Time to recurse and check each of THEIR
-        // parents.
-        if (descendant.getFamiliesWhereChild() != null) {
-            for (FamilyChild fc : descendant.getFamiliesWhereChild()) {
-                Family f = fc.getFamily();
-                if (f.getHusband() != null && f.getHusband().getIndividual() != null) {
-                    int j = getGenCount(f.getHusband().getIndividual(), lookingFor, 0);
-                    if (j > -1) {
-                        return gens + j + 1;
-                    }
-                }
-                if (f.getWife() != null && f.getWife().getIndividual() != null) {
-                    int k = getGenCount(f.getWife().getIndividual(), lookingFor, 0);
-                    if (k > -1) {
-                        return gens + k + 1;
+        BitSet visited = new BitSet();
+        visited.set(descendant);
+        IntList frontier = new IntList();
+        frontier.add(descendant);
+        int generation = 0;
+        while (frontier.size > 0) {
+            generation++;
+            IntList next = new IntList();
+            for (int i = 0; i < frontier.size; i++) {
+                int person = frontier.values[i];
+                for (int k = 0; k < links.getFamilyWhereChildCount(person); k++) {
+                    int family = links.getFamilyWhereChild(person, k);
+                    for (int side = 0; side < 2; side++) {
+                        int parent = side == 0 ? links.getHusband(family) : links.getWife(family);
+                        if (parent == ancestor) {
+                            return generation;
+                        }
+                        if (parent != FamilyGraph.NONE && !visited.get(parent)) {
+                            visited.set(parent);
+                            next.add(parent);
+                        }
                     }
                 }
             }
+            frontier = next;
         }
-        return gens - 1;
+        return -1;
     }
 
 }
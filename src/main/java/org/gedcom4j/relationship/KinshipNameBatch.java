@@ -0,0 +1,703 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.relationship;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.gedcom4j.model.Individual;
+
+/**
+ * <p>
+ * Works out the relationship names between one reference individual and many others in a {@link FamilyGraph}, for
+ * {@link KinshipNameCalculator}. The reference individual's ancestors (and those of his or her spouses) are found once, along with
+ * how many generations back each one is. Each target then needs only one walk up through his or her own ancestors to find the
+ * nearest ancestor they share with the reference individual.
+ * </p>
+ * <p>
+ * The names are looked up in the same order, and with the same resource bundle keys, as
+ * {@link KinshipNameCalculator#getRelationshipName(Individual, Individual)}, and the nearest common ancestor is chosen the same
+ * way as {@link CommonAncestorCalculator} does.
+ * </p>
+ * <p>
+ * Everything computed for a reference individual is read-only once built, so targets can be worked on in parallel as long as each
+ * thread has its own {@link Walker}.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class KinshipNameBatch {
+
+    /**
+     * Everything about a reference individual that is needed to name his or her relationship to others
+     */
+    final class Reference {
+
+        /**
+         * The id of the reference individual
+         */
+        final int id;
+
+        /**
+         * The ids of the reference individual's spouses
+         */
+        final int[] spouses;
+
+        /**
+         * For the reference individual (at index 0) and each of his or her spouses (at index 1 and up), the ids of their
+         * ancestors, sorted
+         */
+        final int[][] ancestorIds;
+
+        /**
+         * For the reference individual (at index 0) and each of his or her spouses (at index 1 and up), the number of generations
+         * back each of the ancestors in {@link #ancestorIds} is
+         */
+        final int[][] ancestorGenerations;
+
+        /**
+         * Constructor
+         * 
+         * @param id
+         *            the id of the reference individual
+         * @param walker
+         *            the walker to find the ancestors with
+         */
+        Reference(int id, Walker walker) {
+            this.id = id;
+            spouses = getSpouses(id);
+            ancestorIds = new int[spouses.length + 1][];
+            ancestorGenerations = new int[spouses.length + 1][];
+            for (int s = 0; s <= spouses.length; s++) {
+                int person = s == 0 ? id : spouses[s - 1];
+                walker.walkUp(person);
+                // Sort the ancestors by id, carrying the generation along in the low half of a long
+                long[] packed = new long[walker.size - 1];
+                for (int k = 1; k < walker.size; k++) {
+                    int ancestor = walker.queue[k];
+                    packed[k - 1] = (long) ancestor << 32 | walker.generation[ancestor];
+                }
+                Arrays.sort(packed);
+                ancestorIds[s] = new int[packed.length];
+                ancestorGenerations[s] = new int[packed.length];
+                for (int k = 0; k < packed.length; k++) {
+                    ancestorIds[s][k] = (int) (packed[k] >>> 32);
+                    ancestorGenerations[s][k] = (int) packed[k];
+                }
+            }
+        }
+
+        /**
+         * Get the number of generations back an ancestor is from the reference individual or one of his or her spouses
+         * 
+         * @param side
+         *            0 for the reference individual, 1 and up for his or her spouses
+         * @param ancestor
+         *            the id of the possible ancestor
+         * @return the number of generations back the ancestor is, or -1 if he or she isn't an ancestor
+         */
+        int getGenerations(int side, int ancestor) {
+            int k = Arrays.binarySearch(ancestorIds[side], ancestor);
+            return k < 0 ? -1 : ancestorGenerations[side][k];
+        }
+    }
+
+    /**
+     * Scratch space for walking up (or out) through the graph from one individual. Not thread-safe - each thread needs its own.
+     */
+    final class Walker {
+
+        /**
+         * The walk number in which each individual was last reached
+         */
+        private final int[] reached;
+
+        /**
+         * The number of the current walk
+         */
+        private int walk;
+
+        /**
+         * The individual the current walk started from, or {@link FamilyGraph#NONE}
+         */
+        private int start = FamilyGraph.NONE;
+
+        /**
+         * The individuals reached in the current walk, in the order they were reached. The starting individual is first.
+         */
+        final int[] queue;
+
+        /**
+         * The number of individuals reached in the current walk
+         */
+        int size;
+
+        /**
+         * How many steps from the start each individual reached in the current walk is
+         */
+        final int[] generation;
+
+        /**
+         * Constructor
+         */
+        Walker() {
+            reached = new int[graph.getIndividualCount()];
+            queue = new int[graph.getIndividualCount()];
+            generation = new int[graph.getIndividualCount()];
+        }
+
+        /**
+         * Get how many steps an individual is from the start of the current walk
+         * 
+         * @param id
+         *            the id of the individual
+         * @return how many steps the individual is from the start, or -1 if not reached
+         */
+        int getGeneration(int id) {
+            return reached[id] == walk ? generation[id] : -1;
+        }
+
+        /**
+         * Walk out from an individual through parents, children, and spouses, up to a given number of steps
+         * 
+         * @param id
+         *            the id of the individual
+         * @param radius
+         *            the most steps to take
+         */
+        void walkOut(int id, int radius) {
+            begin(id);
+            for (int head = 0; head < size; head++) {
+                int v = queue[head];
+                if (generation[v] < radius) {
+                    visitAll(v, graph.parentOffsets, graph.parents);
+                    visitAll(v, graph.childOffsets, graph.children);
+                    visitAll(v, graph.spouseOffsets, graph.spouses);
+                }
+            }
+            start = FamilyGraph.NONE;
+        }
+
+        /**
+         * Walk up through the ancestors of an individual, nearest generations first. Does nothing if the last walk was up from
+         * the same individual.
+         * 
+         * @param id
+         *            the id of the individual
+         */
+        void walkUp(int id) {
+            if (start == id) {
+                return;
+            }
+            begin(id);
+            for (int head = 0; head < size; head++) {
+                visitAll(queue[head], graph.parentOffsets, graph.parents);
+            }
+            start = id;
+        }
+
+        /**
+         * Start a new walk
+         * 
+         * @param id
+         *            the id of the individual to start from
+         */
+        private void begin(int id) {
+            walk++;
+            if (walk == 0) {
+                // Wrapped around - forget everything so old walks can't be mistaken for this one
+                Arrays.fill(reached, 0);
+                walk = 1;
+            }
+            size = 0;
+            reached[id] = walk;
+            generation[id] = 0;
+            queue[size++] = id;
+        }
+
+        /**
+         * Reach everyone linked to an individual, if they haven't been reached yet in this walk
+         * 
+         * @param v
+         *            the id of the individual
+         * @param offsets
+         *            the offsets into the links
+         * @param links
+         *            the links
+         */
+        private void visitAll(int v, int[] offsets, int[] links) {
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = links[k];
+                if (reached[w] != walk) {
+                    reached[w] = walk;
+                    generation[w] = generation[v] + 1;
+                    queue[size++] = w;
+                }
+            }
+        }
+    }
+
+    /**
+     * Names the relationships of each of a range of individuals to everyone within a given number of steps of them
+     */
+    private final class NameNeighbourhoods extends RecursiveAction {
+
+        /**
+         * Serial version uid
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The most steps away a target can be
+         */
+        private final int radius;
+
+        /**
+         * Where to put the ids of each individual's targets, indexed by individual id
+         */
+        private final int[][] targets;
+
+        /**
+         * Where to put the names, indexed by individual id and parallel to {@link #targets}
+         */
+        private final String[][] names;
+
+        /**
+         * The first individual in the range
+         */
+        private final int from;
+
+        /**
+         * One past the last individual in the range
+         */
+        private final int to;
+
+        /**
+         * Constructor
+         * 
+         * @param radius
+         *            the most steps away a target can be
+         * @param targets
+         *            where to put the ids of each individual's targets
+         * @param names
+         *            where to put the names
+         * @param from
+         *            the first individual in the range
+         * @param to
+         *            one past the last individual in the range
+         */
+        NameNeighbourhoods(int radius, int[][] targets, String[][] names, int from, int to) {
+            this.radius = radius;
+            this.targets = targets;
+            this.names = names;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= Math.max(MIN_REFERENCES_PER_TASK, targets.length / (getPool().getParallelism() * 4))) {
+                Walker walker = new Walker();
+                for (int id = from; id < to; id++) {
+                    nameNeighbourhood(id, radius, targets, names, walker);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new NameNeighbourhoods(radius, targets, names, from, middle), new NameNeighbourhoods(radius, targets, names,
+                    middle, to));
+        }
+    }
+
+    /**
+     * Names the relationships of a range of targets to a reference individual
+     */
+    private final class NameTargets extends RecursiveAction {
+
+        /**
+         * Serial version uid
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The reference individual
+         */
+        private final transient Reference reference;
+
+        /**
+         * The ids of the targets
+         */
+        private final int[] targets;
+
+        /**
+         * Where to put the names - parallel to {@link #targets}
+         */
+        private final String[] names;
+
+        /**
+         * The first target in the range
+         */
+        private final int from;
+
+        /**
+         * One past the last target in the range
+         */
+        private final int to;
+
+        /**
+         * Constructor
+         * 
+         * @param reference
+         *            the reference individual
+         * @param targets
+         *            the ids of the targets
+         * @param names
+         *            where to put the names
+         * @param from
+         *            the first target in the range
+         * @param to
+         *            one past the last target in the range
+         */
+        NameTargets(Reference reference, int[] targets, String[] names, int from, int to) {
+            this.reference = reference;
+            this.targets = targets;
+            this.names = names;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= Math.max(MIN_TARGETS_PER_TASK, targets.length / (getPool().getParallelism() * 4))) {
+                Walker walker = new Walker();
+                for (int t = from; t < to; t++) {
+                    names[t] = getRelationshipName(reference, targets[t], walker);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new NameTargets(reference, targets, names, from, middle), new NameTargets(reference, targets, names, middle,
+                    to));
+        }
+    }
+
+    /**
+     * The fewest reference individuals worth handing to a separate task
+     */
+    private static final int MIN_REFERENCES_PER_TASK = 8;
+
+    /**
+     * The fewest targets worth handing to a separate task
+     */
+    private static final int MIN_TARGETS_PER_TASK = 64;
+
+    /**
+     * The calculator, for sex codes
+     */
+    private final KinshipNameCalculator calculator;
+
+    /**
+     * The bundle of relationship names
+     */
+    private final ResourceBundle bundle;
+
+    /**
+     * The family graph
+     */
+    final FamilyGraph graph;
+
+    /**
+     * The rewording rules from the bundle, each a pair of the text to replace and its replacement, in the order of their numbers
+     */
+    private final List<String[]> rewordings;
+
+    /**
+     * Constructor
+     * 
+     * @param calculator
+     *            the calculator, for sex codes
+     * @param bundle
+     *            the bundle of relationship names
+     * @param graph
+     *            the family graph
+     */
+    KinshipNameBatch(KinshipNameCalculator calculator, ResourceBundle bundle, FamilyGraph graph) {
+        this.calculator = calculator;
+        this.bundle = bundle;
+        this.graph = graph;
+        rewordings = calculator.getRewordings();
+    }
+
+    /**
+     * Get the name of the relationship between a reference individual and a target
+     * 
+     * @param reference
+     *            the reference individual
+     * @param target
+     *            the id of the target
+     * @param walker
+     *            scratch space for walking the graph
+     * @return the name of the relationship, or null if none could be determined
+     */
+    String getRelationshipName(Reference reference, int target, Walker walker) {
+        // First try straight blood relationship
+        String result = lookupRelationshipName(reference, 0, target, false, walker);
+        if (result != null) {
+            return reword(result);
+        }
+        // Now try if the target is a spouse of a blood relative
+        int[] targetSpouses = getSpouses(target);
+        for (int spouse : targetSpouses) {
+            result = lookupRelationshipName(reference, 0, spouse, true, walker);
+            if (result != null) {
+                return reword(result);
+            }
+        }
+        // Now try if any of the reference individual's spouses are related to the target
+        String sexCode = calculator.getSexCode(graph.getIndividual(reference.id));
+        for (int s = 1; s <= reference.spouses.length; s++) {
+            result = lookupRelationshipName(reference, s, target, false, walker);
+            if (result != null) {
+                return reword(spouseOf(sexCode, result));
+            }
+        }
+        // Now try if any of the reference individual's spouses are related to the target's spouses
+        for (int s = 1; s <= reference.spouses.length; s++) {
+            for (int spouse : targetSpouses) {
+                result = lookupRelationshipName(reference, s, spouse, true, walker);
+                if (result != null) {
+                    return reword(spouseOf(sexCode, result));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Name the relationships of many targets to one reference individual
+     * 
+     * @param reference
+     *            the id of the reference individual
+     * @param targets
+     *            the ids of the targets
+     * @param pool
+     *            the pool to name the targets in parallel on. Optional - if null, the targets are named on the calling thread.
+     * @return the names, parallel to <code>targets</code>. Null where no name could be determined.
+     */
+    String[] getRelationshipNames(int reference, int[] targets, ForkJoinPool pool) {
+        String[] result = new String[targets.length];
+        if (pool == null) {
+            Walker walker = new Walker();
+            Reference r = new Reference(reference, walker);
+            for (int t = 0; t < targets.length; t++) {
+                result[t] = getRelationshipName(r, targets[t], walker);
+            }
+        } else {
+            pool.invoke(new NameTargets(new Reference(reference, new Walker()), targets, result, 0, targets.length));
+        }
+        return result;
+    }
+
+    /**
+     * Name the relationships of every individual in the graph to everyone within a given number of steps of them
+     * 
+     * @param radius
+     *            the most steps (to a parent, child, or spouse) away a target can be
+     * @param pool
+     *            the pool to work in parallel on. Optional - if null, the work is done on the calling thread.
+     * @param targets
+     *            where to put the ids of each individual's targets, indexed by individual id
+     * @param names
+     *            where to put the names, indexed by individual id and parallel to <code>targets</code>. Null where no name could be
+     *            determined.
+     */
+    void getRelationshipNamesWithin(int radius, ForkJoinPool pool, int[][] targets, String[][] names) {
+        if (pool == null) {
+            Walker walker = new Walker();
+            for (int id = 0; id < targets.length; id++) {
+                nameNeighbourhood(id, radius, targets, names, walker);
+            }
+        } else {
+            pool.invoke(new NameNeighbourhoods(radius, targets, names, 0, targets.length));
+        }
+    }
+
+    /**
+     * Get the ids of an individual's spouses
+     * 
+     * @param id
+     *            the id of the individual
+     * @return the ids of the individual's spouses
+     */
+    int[] getSpouses(int id) {
+        return Arrays.copyOfRange(graph.spouses, graph.spouseOffsets[id], graph.spouseOffsets[id + 1]);
+    }
+
+    /**
+     * Look up a relationship name in the bundle
+     * 
+     * @param key
+     *            the key
+     * @return the name, or null if the bundle doesn't have one - for example, if the individuals are too many generations apart
+     */
+    private String getName(String key) {
+        return bundle.containsKey(key) ? bundle.getString(key) : null;
+    }
+
+    /**
+     * Build a resource bundle lookup key and fetch the name of the relationship between the reference individual (or one of his or
+     * her spouses) and another individual
+     * 
+     * @param reference
+     *            the reference individual
+     * @param side
+     *            0 for the reference individual, 1 and up for his or her spouses
+     * @param other
+     *            the id of the other individual
+     * @param otherIsSpouse
+     *            the other individual is a spouse of a blood relative
+     * @param walker
+     *            scratch space for walking the graph
+     * @return the name of the relationship between the two individuals, or null if the individuals do not share a common ancestor
+     *         and/or no suitable name could be determined.
+     */
+    private String lookupRelationshipName(Reference reference, int side, int other, boolean otherIsSpouse, Walker walker) {
+        int person = side == 0 ? reference.id : reference.spouses[side - 1];
+        String otherSexCode = calculator.getSexCode(graph.getIndividual(other));
+        if (person == other) {
+            return getName("relationship.0.0." + otherSexCode);
+        }
+
+        int gensFromPerson;
+        int gensFromOther;
+        walker.walkUp(other);
+        int g = reference.getGenerations(side, other);
+        if (g >= 0) {
+            // The other individual is an ancestor
+            gensFromPerson = g;
+            gensFromOther = 0;
+        } else if (walker.getGeneration(person) >= 0) {
+            // The other individual is a descendant
+            gensFromPerson = 0;
+            gensFromOther = walker.getGeneration(person);
+        } else {
+            for (int k = graph.spouseOffsets[other]; k < graph.spouseOffsets[other + 1]; k++) {
+                if (graph.spouses[k] == person) {
+                    return getName("relationship.0.0." + otherSexCode + ".spouse");
+                }
+            }
+            // Find the nearest common ancestor - the fewest generations back in total, then from the reference side - the same
+            // one CommonAncestorCalculator puts first
+            gensFromPerson = -1;
+            gensFromOther = -1;
+            for (int k = 1; k < walker.size; k++) {
+                int ancestor = walker.queue[k];
+                int up = walker.generation[ancestor];
+                if (gensFromPerson >= 0 && up > gensFromPerson + gensFromOther) {
+                    // Everyone from here on is too far back from the other individual alone
+                    break;
+                }
+                g = reference.getGenerations(side, ancestor);
+                if (g >= 0 && (gensFromPerson < 0 || g + up < gensFromPerson + gensFromOther || g + up == gensFromPerson
+                        + gensFromOther && g < gensFromPerson)) {
+                    gensFromPerson = g;
+                    gensFromOther = up;
+                }
+            }
+            if (gensFromPerson < 0) {
+                return null;
+            }
+        }
+        return getName("relationship." + gensFromPerson + "." + gensFromOther + "." + otherSexCode + (otherIsSpouse ? ".spouse"
+                : ""));
+    }
+
+    /**
+     * Name the relationships of one individual to everyone within a given number of steps of them
+     * 
+     * @param id
+     *            the id of the individual
+     * @param radius
+     *            the most steps away a target can be
+     * @param targets
+     *            where to put the ids of each individual's targets, indexed by individual id
+     * @param names
+     *            where to put the names, indexed by individual id and parallel to <code>targets</code>
+     * @param walker
+     *            scratch space for walking the graph
+     */
+    private void nameNeighbourhood(int id, int radius, int[][] targets, String[][] names, Walker walker) {
+        walker.walkOut(id, radius);
+        int[] t = Arrays.copyOfRange(walker.queue, 1, walker.size);
+        Reference reference = new Reference(id, walker);
+        String[] n = new String[t.length];
+        for (int k = 0; k < t.length; k++) {
+            n[k] = getRelationshipName(reference, t[k], walker);
+        }
+        targets[id] = t;
+        names[id] = n;
+    }
+
+    /**
+     * Reword a name according to the rules in the bundle
+     * 
+     * @param s
+     *            the name
+     * @return the reworded name
+     */
+    private String reword(String s) {
+        String result = s;
+        for (String[] terms : rewordings) {
+            result = result.replace(terms[0], terms[1]);
+        }
+        return result;
+    }
+
+    /**
+     * Turn the name of a relationship to a spouse into the name of the relationship to the reference individual
+     * 
+     * @param sexCode
+     *            the sex code of the reference individual
+     * @param name
+     *            the name of the relationship to the spouse
+     * @return the name of the relationship to the reference individual
+     */
+    private String spouseOf(String sexCode, String name) {
+        return (bundle.getString("spouse.prefix." + sexCode) + " " + name + " " + bundle.getString("spouse.suffix." + sexCode))
+                .trim();
+    }
+}
@@ -26,14 +26,23 @@
  */
 package org.gedcom4j.relationship;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 
 import org.gedcom4j.model.Family;
 import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
 import org.gedcom4j.model.Individual;
 
 /**
@@ -48,16 +57,33 @@ public class KinshipNameCalculator {
      */
     private static final String DEFAULT_BUNDLE_PROPERTIES_NAME = "gedcom4j_relationship_names";
 
+    /**
+     * The prefix of the keys of rewording rules in the bundle
+     */
+    private static final String REWORDING_PREFIX = "rewording.";
+
     /**
      * The bundle that gets loaded
      */
     private final ResourceBundle bundle;
 
+    /**
+     * The rewording rules from the bundle, each a pair of the text to replace and its replacement, in the order of their numbers
+     */
+    private final List<String[]> rewordings;
+
+    /**
+     * The index of ancestors to use when looking up relationships. Optional. If not set, every lookup walks the ancestry of both
+     * individuals, so that changes to the family links between calls are always seen.
+     */
+    private PedigreeIndex pedigreeIndex;
+
     /**
      * Default constructor.
      */
     public KinshipNameCalculator() {
         bundle = ResourceBundle.getBundle(DEFAULT_BUNDLE_PROPERTIES_NAME);
+        rewordings = getRewordings(bundle);
     }
 
     /**
@@ -68,6 +94,7 @@ public class KinshipNameCalculator {
      */
     public KinshipNameCalculator(Locale locale) {
         bundle = ResourceBundle.getBundle(DEFAULT_BUNDLE_PROPERTIES_NAME, locale);
+        rewordings = getRewordings(bundle);
     }
 
     /**
@@ -78,6 +105,7 @@ public class KinshipNameCalculator {
      */
     public KinshipNameCalculator(String bundlePropertiesName) {
         bundle = ResourceBundle.getBundle(bundlePropertiesName);
+        rewordings = getRewordings(bundle);
     }
 
     /**
@@ -90,6 +118,16 @@ public class KinshipNameCalculator {
      */
     public KinshipNameCalculator(String bundlePropertiesName, Locale locale) {
         bundle = ResourceBundle.getBundle(bundlePropertiesName, locale);
+        rewordings = getRewordings(bundle);
+    }
+
+    /**
+     * Get the index of ancestors used when looking up relationships
+     * 
+     * @return the index of ancestors used when looking up relationships. Null if every lookup walks the ancestry afresh.
+     */
+    public PedigreeIndex getPedigreeIndex() {
+        return pedigreeIndex;
     }
 
     /**
@@ -140,6 +178,119 @@ public class KinshipNameCalculator {
         return null;
     }
 
+    /**
+     * Get the names of the relationships between one individual and everyone else in a gedcom. This is much faster than calling
+     * {@link #getRelationshipName(Individual, Individual)} for each person - see
+     * {@link #getRelationshipNames(FamilyGraph, Individual, Collection, ForkJoinPool)}.
+     * 
+     * @param gedcom
+     *            the gedcom. Required.
+     * @param reference
+     *            the individual everyone's relationship is to. Required, and must be in the gedcom.
+     * @return the name of each individual's relationship to the reference individual, keyed by identity. Individuals with no
+     *         relationship name are left out.
+     * @throws IllegalArgumentException
+     *             if either argument is null, or the reference individual isn't in the gedcom
+     */
+    public Map<Individual, String> getRelationshipNames(Gedcom gedcom, Individual reference) {
+        FamilyGraph graph = new FamilyGraph(gedcom);
+        BitSet everyone = new BitSet(graph.getIndividualCount());
+        everyone.set(0, graph.getIndividualCount());
+        return getRelationshipNames(graph, reference, graph.asSet(everyone), null);
+    }
+
+    /**
+     * <p>
+     * Get the names of the relationships between one individual and many others. The reference individual's ancestors, and how
+     * many generations back each one is, are worked out once; each target then only needs a single walk up through his or her own
+     * ancestors. The names are the same as {@link #getRelationshipName(Individual, Individual)} gives, except that a relationship
+     * too distant to have a name in the resource bundle is left out rather than causing an exception.
+     * </p>
+     * <p>
+     * The targets can be worked on in parallel by supplying a {@link ForkJoinPool}.
+     * </p>
+     * 
+     * @param graph
+     *            the family graph the individuals are in. Required.
+     * @param reference
+     *            the individual everyone's relationship is to. Required, and must be in the graph.
+     * @param targets
+     *            the individuals whose relationships to the reference individual are wanted. Required. Individuals not in the
+     *            graph are left out.
+     * @param pool
+     *            the pool to work on the targets in parallel on. Optional - if null, the targets are worked on in the calling
+     *            thread.
+     * @return the name of each target's relationship to the reference individual, keyed by identity. Targets with no relationship
+     *         name are left out.
+     * @throws IllegalArgumentException
+     *             if a required argument is null, or the reference individual isn't in the graph
+     */
+    public Map<Individual, String> getRelationshipNames(FamilyGraph graph, Individual reference, Collection<Individual> targets,
+            ForkJoinPool pool) {
+        if (graph == null || targets == null) {
+            throw new IllegalArgumentException("graph and targets are required arguments");
+        }
+        int referenceId = graph.getIndividualId(reference);
+        if (referenceId == FamilyGraph.NONE) {
+            throw new IllegalArgumentException("The reference individual must be in the family graph");
+        }
+        IntList ids = new IntList();
+        for (Individual t : targets) {
+            int id = graph.getIndividualId(t);
+            if (id != FamilyGraph.NONE) {
+                ids.add(id);
+            }
+        }
+        int[] targetIds = ids.toArray();
+        String[] names = new KinshipNameBatch(this, bundle, graph).getRelationshipNames(referenceId, targetIds, pool);
+        Map<Individual, String> result = new IdentityHashMap<>(targetIds.length);
+        for (int t = 0; t < targetIds.length; t++) {
+            if (names[t] != null) {
+                result.put(graph.getIndividual(targetIds[t]), names[t]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the names of the relationships between every individual in a family graph and everyone within a given number of steps
+     * (to a parent, child, or spouse) of them. Each name is worked out as in
+     * {@link #getRelationshipNames(FamilyGraph, Individual, Collection, ForkJoinPool)}.
+     * 
+     * @param graph
+     *            the family graph. Required.
+     * @param radius
+     *            the most steps apart two individuals can be to be included. Must not be negative.
+     * @param pool
+     *            the pool to work in parallel on. Optional - if null, the work is done in the calling thread.
+     * @return for each individual, keyed by identity, the name of the relationship of each individual nearby to him or her, also
+     *         keyed by identity. Individuals with no relationship name are left out of the inner maps.
+     * @throws IllegalArgumentException
+     *             if graph is null or radius is negative
+     */
+    public Map<Individual, Map<Individual, String>> getRelationshipNamesWithin(FamilyGraph graph, int radius, ForkJoinPool pool) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is a required argument");
+        }
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative");
+        }
+        int[][] targets = new int[graph.getIndividualCount()][];
+        String[][] names = new String[graph.getIndividualCount()][];
+        new KinshipNameBatch(this, bundle, graph).getRelationshipNamesWithin(radius, pool, targets, names);
+        Map<Individual, Map<Individual, String>> result = new IdentityHashMap<>(targets.length);
+        for (int id = 0; id < targets.length; id++) {
+            Map<Individual, String> m = new IdentityHashMap<>();
+            for (int t = 0; t < targets[id].length; t++) {
+                if (names[id][t] != null) {
+                    m.put(graph.getIndividual(targets[id][t]), names[id][t]);
+                }
+            }
+            result.put(graph.getIndividual(id), m);
+        }
+        return result;
+    }
+
     /**
      * Get a single character code for the individual's sex. Defaults to 'u', but could be 'm' or 'f' (case-sensitive).
      * 
@@ -156,6 +307,62 @@ public class KinshipNameCalculator {
         return individual2Sex;
     }
 
+    /**
+     * Set the index of ancestors to use when looking up relationships. The names still come from a
+     * {@link CommonAncestorCalculator}, but the ancestry the index has already computed lets many lookups against the same gedcom
+     * skip that walk for pairs who have no ancestor in common; the caller is then responsible for invalidating the index if the
+     * family links change.
+     * 
+     * @param pedigreeIndex
+     *            the index to use. Null to walk the ancestry afresh for each lookup.
+     */
+    public void setPedigreeIndex(PedigreeIndex pedigreeIndex) {
+        this.pedigreeIndex = pedigreeIndex;
+    }
+
+    /**
+     * Get the rewording rules from the bundle
+     * 
+     * @return the rewording rules, each a pair of the text to replace and its replacement, in the order of their numbers
+     */
+    List<String[]> getRewordings() {
+        return rewordings;
+    }
+
+    /**
+     * Read the rewording rules from a bundle. Rewordings are applied one after another, so a later rule can rely on an earlier one
+     * having been applied; they are put in the order of the numbers after <code>rewording.</code> rather than the bundle's own
+     * (unspecified) key order. Any rule not numbered comes after the numbered ones, in key order.
+     * 
+     * @param bundle
+     *            the bundle
+     * @return the rewording rules, each a pair of the text to replace and its replacement
+     */
+    private static List<String[]> getRewordings(ResourceBundle bundle) {
+        Map<Long, String> numbered = new TreeMap<>();
+        Map<String, String> others = new TreeMap<>();
+        Enumeration<String> keys = bundle.getKeys();
+        while (keys.hasMoreElements()) {
+            String k = keys.nextElement();
+            if (!k.startsWith(REWORDING_PREFIX)) {
+                continue;
+            }
+            try {
+                numbered.put(Long.valueOf(k.substring(REWORDING_PREFIX.length())), k);
+            } catch (NumberFormatException e) {
+                others.put(k, k);
+            }
+        }
+        List<String[]> result = new ArrayList<>(numbered.size() + others.size());
+        for (String k : numbered.values()) {
+            result.add(bundle.getString(k).split("\\|"));
+        }
+        for (String k : others.values()) {
+            result.add(bundle.getString(k).split("\\|"));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
     /**
      * Get the spouses of the supplied individual
      * 
@@ -163,18 +370,19 @@ public class KinshipNameCalculator {
      *            the individual
      * @return a set of all the individual's spouses
      */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
     private Set<Individual> getSpousesOf(Individual individual) {
-        Set<Individual> result = new HashSet<>();
+        Set<Individual> result = Collections.newSetFromMap(new IdentityHashMap<Individual, Boolean>());
         if (individual.getFamiliesWhereSpouse() != null) {
             for (FamilySpouse fams : individual.getFamiliesWhereSpouse()) {
                 Family f = fams.getFamily();
                 if (f == null) {
                     continue;
                 }
-                if (f.getHusband() != null && individual.equals(f.getHusband().getIndividual()) && f.getWife() != null && f
-                        .getWife().getIndividual() != null) {
+                if (f.getHusband() != null && individual == f.getHusband().getIndividual() && f.getWife() != null && f.getWife()
+                        .getIndividual() != null) {
                     result.add(f.getWife().getIndividual());
-                } else if (f.getWife() != null && individual.equals(f.getWife().getIndividual()) && f.getHusband() != null && f
+                } else if (f.getWife() != null && individual == f.getWife().getIndividual() && f.getHusband() != null && f
                         .getHusband().getIndividual() != null) {
                     result.add(f.getHusband().getIndividual());
                 }
@@ -196,62 +404,56 @@ public class KinshipNameCalculator {
      *         and/or no suitable name could be determined.
      */
     private String lookupRelationshipName(Individual individual1, Individual individual2, boolean individual2IsSpouse) {
-        if (individual1.equals(individual2)) {
+        if (individual1 == individual2) { // NOPMD - deliberately using ==
             return bundle.getString("relationship.0.0." + getSexCode(individual2));
         }
 
-        // Need to find the nearest common ancestor(s) of the two people.
-        Set<Individual> nca = new HashSet<>();
-        Set<Individual> spousesOfIndividual2 = getSpousesOf(individual2);
-
-        // See if either individual is an ancestor or spouse of each other before looking for a third person
-        if (individual1.getAncestors().contains(individual2)) {
-            nca.add(individual2);
-        } else if (individual2.getAncestors().contains(individual1)) {
-            nca.add(individual1);
-        } else if (spousesOfIndividual2.contains(individual1)) {
-            return bundle.getString("relationship.0.0." + getSexCode(individual2) + ".spouse");
-        } else {
-            // Find a nearest common ancestor.
-            nca.addAll(new AncestryCalculator().getLowestCommonAncestors(individual1, individual2));
-        }
-
-        // Last check - if no nearest common ancestor, can't do anything
-        if (nca.isEmpty()) {
+        // If the index already knows they have no ancestors in common, only a marriage can relate them
+        if (pedigreeIndex != null && !pedigreeIndex.haveCommonAncestor(individual1, individual2)) {
+            if (getSpousesOf(individual2).contains(individual1)) {
+                return bundle.getString("relationship.0.0." + getSexCode(individual2) + ".spouse");
+            }
             return null;
         }
 
-        for (Individual commonAncestor : nca) {
-            // Build up the property key
-            int gensFrom1toNca;
-            try {
-                gensFrom1toNca = new GenerationCounter().getGenerationCount(individual1, commonAncestor);
-            } catch (@SuppressWarnings("unused") IllegalArgumentException e) {
-                continue;
+        // Find the common ancestors of the two people, with the number of generations back from each, all at once
+        List<CommonAncestor> common = new CommonAncestorCalculator().getCommonAncestors(individual1, individual2);
+
+        // See if either individual is an ancestor or spouse of each other before looking for a third person
+        CommonAncestor nca = null;
+        for (CommonAncestor ca : common) {
+            if (ca.getAncestor() == individual2) { // NOPMD - deliberately using ==
+                nca = ca;
             }
-            int gensFrom2toNca;
-            try {
-                gensFrom2toNca = new GenerationCounter().getGenerationCount(individual2, commonAncestor);
-            } catch (@SuppressWarnings("unused") IllegalArgumentException e) {
-                continue;
+        }
+        for (int i = 0; nca == null && i < common.size(); i++) {
+            if (common.get(i).getAncestor() == individual1) { // NOPMD - deliberately using ==
+                nca = common.get(i);
             }
-
-            StringBuilder propertyName = new StringBuilder("relationship.");
-            propertyName.append(gensFrom1toNca);
-            propertyName.append(".");
-            propertyName.append(gensFrom2toNca);
-            propertyName.append(".");
-            propertyName.append(getSexCode(individual2));
-            if (individual2IsSpouse) {
-                // individual 2 is a spouse of a blood relative, not a blood relative themselves
-                propertyName.append(".spouse");
+        }
+        if (nca == null) {
+            if (getSpousesOf(individual2).contains(individual1)) {
+                return bundle.getString("relationship.0.0." + getSexCode(individual2) + ".spouse");
             }
-            String result = bundle.getString(propertyName.toString());
-            if (result != null) {
-                return result;
+            // Last check - if no nearest common ancestor, can't do anything
+            if (common.isEmpty()) {
+                return null;
             }
+            nca = common.get(0);
         }
-        return null;
+
+        // Build up the property key
+        StringBuilder propertyName = new StringBuilder("relationship.");
+        propertyName.append(nca.getGenerationsFrom1());
+        propertyName.append(".");
+        propertyName.append(nca.getGenerationsFrom2());
+        propertyName.append(".");
+        propertyName.append(getSexCode(individual2));
+        if (individual2IsSpouse) {
+            // individual 2 is a spouse of a blood relative, not a blood relative themselves
+            propertyName.append(".spouse");
+        }
+        return bundle.getString(propertyName.toString());
     }
 
     /**
@@ -263,13 +465,7 @@ public class KinshipNameCalculator {
      */
     private String reword(String s) {
         String result = s;
-        Enumeration<String> keys = bundle.getKeys();
-        while (keys.hasMoreElements()) {
-            String k = keys.nextElement();
-            if (!k.startsWith("rewording.")) {
-                continue;
-            }
-            String[] terms = bundle.getString(k).split("\\|");
+        for (String[] terms : rewordings) {
             result = result.replace(terms[0], terms[1]);
         }
         return result;
@@ -0,0 +1,805 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.relationship;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
+
+/**
+ * <p>
+ * An index of the ancestors and descendants of the individuals in a {@link Gedcom}, computed once and reused across calls.
+ * {@link Individual#getAncestors()} and {@link Individual#getDescendants()} walk the whole pedigree on every call, which gets
+ * expensive when something needs the ancestry of every individual in a file (validation, for example). This class computes each
+ * individual's ancestors (or descendants) at most once, building it from the already-computed sets of his or her parents (or
+ * children), and keeps the result until it is invalidated.
+ * </p>
+ * <p>
+ * Ancestors are found the same way as {@link Individual#getAncestors()} finds them, through the husbands and wives of the families
+ * an individual is a child in. Descendants are found through the children of the families an individual is a spouse in; unlike
+ * {@link Individual#getDescendants()}, which leaves out descendants who are not themselves a spouse in some family, every child is
+ * included. An individual only appears in his or her own ancestors (or descendants) when there is a circular relationship in the
+ * data.
+ * </p>
+ * <p>
+ * The index does not watch the model for changes. If the family links of an individual or family are changed after the index has
+ * been used, call {@link #invalidate(Individual)} or {@link #invalidate(Family)} so that the affected entries - and only those -
+ * are recomputed. {@link #invalidateAll()} throws everything away.
+ * </p>
+ * <p>
+ * The public methods of this class, and of the sets it returns, synchronize on the index, so one index can be shared by several
+ * threads.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public class PedigreeIndex {
+
+    /**
+     * The transitive closure of individuals in one direction - up (ancestors) or down (descendants). Closures are computed with an
+     * iterative version of Tarjan's strongly-connected-components algorithm, so that each individual's closure is built from the
+     * finished closures of its immediate relatives and circular relationships in the data are handled correctly. The same pass can
+     * be made without building any closures, just to find the circular relationships.
+     */
+    private final class Closure {
+
+        /**
+         * True if this is the closure over parents (ancestors), false if over children (descendants)
+         */
+        private final boolean upward;
+
+        /**
+         * The ids of the immediate relatives of each individual (parents or children), as read from the model. Null entries have
+         * not been read yet.
+         */
+        private int[][] links = new int[0][];
+
+        /**
+         * For each individual, the ids of the individuals whose immediate relatives include that individual. Used to find what to
+         * throw away on invalidation.
+         */
+        private IntList[] reverseLinks = new IntList[0];
+
+        /**
+         * The sorted ids of all the individuals reachable from each individual. Null entries have not been computed yet.
+         * Individuals in the same circular relationship share the same array.
+         */
+        private int[][] closures = new int[0][];
+
+        /**
+         * For each individual in a circular relationship, the sorted ids of everyone in it; for everyone else,
+         * {@link PedigreeIndex#NOT_CIRCULAR}. Individuals in the same circular relationship share the same array. Null entries have
+         * not been computed yet.
+         */
+        private int[][] components = new int[0][];
+
+        /**
+         * Tarjan visitation index for each individual; zero means not yet visited in the current computation
+         */
+        private int[] visitIndex = new int[0];
+
+        /**
+         * Tarjan low-link value for each individual
+         */
+        private int[] lowLink = new int[0];
+
+        /**
+         * Whether each individual is on the Tarjan component stack
+         */
+        private boolean[] onStack = new boolean[0];
+
+        /**
+         * Constructor
+         * 
+         * @param upward
+         *            true for ancestors, false for descendants
+         */
+        Closure(boolean upward) {
+            this.upward = upward;
+        }
+
+        /**
+         * Get the closure for an individual, computing it (and the closures of everyone reachable from the individual) if needed
+         * 
+         * @param start
+         *            the id of the individual
+         * @return the sorted ids of the individuals reachable from the individual
+         */
+        int[] get(int start) {
+            ensureCapacity(people.size());
+            if (closures[start] == null) {
+                visit(start, true);
+            }
+            return closures[start];
+        }
+
+        /**
+         * Get the circular relationship an individual is part of, finding it (and the circular relationships of everyone reachable
+         * from the individual) if needed, without computing any closures
+         * 
+         * @param start
+         *            the id of the individual
+         * @return the sorted ids of the individuals in the circular relationship, or {@link PedigreeIndex#NOT_CIRCULAR}
+         */
+        int[] getComponent(int start) {
+            ensureCapacity(people.size());
+            if (components[start] == null) {
+                visit(start, false);
+            }
+            return components[start];
+        }
+
+        /**
+         * Throw away the closure of an individual, the closures of everyone whose closure includes that individual, and the
+         * individual's immediate relatives as read from the model
+         * 
+         * @param id
+         *            the id of the individual
+         */
+        void invalidate(int id) {
+            if (id >= links.length) {
+                return;
+            }
+            // Everyone who can reach this individual has this individual in their closure
+            IntList toVisit = new IntList();
+            toVisit.add(id);
+            boolean[] seen = new boolean[links.length];
+            seen[id] = true;
+            while (toVisit.size > 0) {
+                int n = toVisit.values[--toVisit.size];
+                closures[n] = null;
+                components[n] = null;
+                if (reverseLinks[n] != null) {
+                    for (int i = 0; i < reverseLinks[n].size; i++) {
+                        int r = reverseLinks[n].values[i];
+                        if (!seen[r]) {
+                            seen[r] = true;
+                            toVisit.add(r);
+                        }
+                    }
+                }
+            }
+            if (links[id] != null) {
+                for (int l : links[id]) {
+                    reverseLinks[l].remove(id);
+                }
+                links[id] = null;
+            }
+        }
+
+        /**
+         * Throw away everything
+         */
+        void invalidateAll() {
+            links = new int[0][];
+            reverseLinks = new IntList[0];
+            closures = new int[0][];
+            components = new int[0][];
+        }
+
+        /**
+         * Make sure the per-individual arrays can hold the given number of individuals
+         * 
+         * @param capacity
+         *            the number of individuals
+         */
+        private void ensureCapacity(int capacity) {
+            if (closures.length >= capacity) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, closures.length * 2);
+            links = Arrays.copyOf(links, newCapacity);
+            reverseLinks = Arrays.copyOf(reverseLinks, newCapacity);
+            closures = Arrays.copyOf(closures, newCapacity);
+            components = Arrays.copyOf(components, newCapacity);
+            visitIndex = Arrays.copyOf(visitIndex, newCapacity);
+            lowLink = Arrays.copyOf(lowLink, newCapacity);
+            onStack = Arrays.copyOf(onStack, newCapacity);
+        }
+
+        /**
+         * Pop a finished strongly-connected component off the component stack, record whether it is a circular relationship, and
+         * compute the closure shared by its members if asked to
+         * 
+         * @param root
+         *            the root of the component
+         * @param componentStack
+         *            the component stack
+         * @param withClosures
+         *            true to compute the closure of the component
+         */
+        private void finishComponent(int root, IntList componentStack, boolean withClosures) {
+            IntList members = new IntList();
+            int m;
+            do {
+                m = componentStack.values[--componentStack.size];
+                onStack[m] = false;
+                members.add(m);
+            } while (m != root);
+
+            boolean circular = members.size > 1;
+            for (int l : links[root]) {
+                circular |= l == root;
+            }
+            int[] component = circular ? sortedUnique(members) : NOT_CIRCULAR;
+            for (int i = 0; i < members.size; i++) {
+                components[members.values[i]] = component;
+            }
+            if (!withClosures) {
+                return;
+            }
+
+            IntList result = new IntList();
+            for (int i = 0; i < members.size; i++) {
+                for (int l : links[members.values[i]]) {
+                    if (members.contains(l)) {
+                        continue;
+                    }
+                    result.add(l);
+                    for (int c : closures[l]) {
+                        result.add(c);
+                    }
+                }
+            }
+            if (circular) {
+                for (int i = 0; i < members.size; i++) {
+                    result.add(members.values[i]);
+                }
+            }
+            int[] closure = sortedUnique(result);
+            for (int i = 0; i < members.size; i++) {
+                closures[members.values[i]] = closure;
+            }
+        }
+
+        /**
+         * Get the ids of the immediate relatives (parents or children) of an individual, reading them from the model the first
+         * time
+         * 
+         * @param id
+         *            the id of the individual
+         * @return the ids of the immediate relatives
+         */
+        private int[] getLinks(int id) {
+            if (links[id] != null) {
+                return links[id];
+            }
+            IntList result = new IntList();
+            Individual individual = people.get(id);
+            if (upward) {
+                if (individual.getFamiliesWhereChild() != null) {
+                    for (FamilyChild fc : individual.getFamiliesWhereChild()) {
+                        if (fc == null || fc.getFamily() == null) {
+                            continue;
+                        }
+                        Family f = fc.getFamily();
+                        addFamilyReader(f, id);
+                        addLink(result, f.getHusband());
+                        addLink(result, f.getWife());
+                    }
+                }
+            } else if (individual.getFamiliesWhereSpouse() != null) {
+                for (FamilySpouse fs : individual.getFamiliesWhereSpouse()) {
+                    if (fs == null || fs.getFamily() == null) {
+                        continue;
+                    }
+                    Family f = fs.getFamily();
+                    addFamilyReader(f, id);
+                    if (f.getChildren() != null) {
+                        for (IndividualReference c : f.getChildren()) {
+                            addLink(result, c);
+                        }
+                    }
+                }
+            }
+            int[] l = result.toArray();
+            ensureCapacity(people.size());
+            for (int r : l) {
+                if (reverseLinks[r] == null) {
+                    reverseLinks[r] = new IntList();
+                }
+                reverseLinks[r].add(id);
+            }
+            links[id] = l;
+            return l;
+        }
+
+        /**
+         * Make an iterative Tarjan pass from an individual, finishing the strongly-connected components of everyone reachable from
+         * the individual who is not finished already
+         * 
+         * @param start
+         *            the id of the individual
+         * @param withClosures
+         *            true to compute the closures of the components as well, false to find only the components
+         */
+        @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts")
+        private void visit(int start, boolean withClosures) {
+            IntList visited = new IntList();
+            IntList componentStack = new IntList();
+            IntList callNodes = new IntList();
+            IntList callEdges = new IntList();
+            int counter = 0;
+
+            visitIndex[start] = ++counter;
+            lowLink[start] = counter;
+            onStack[start] = true;
+            visited.add(start);
+            componentStack.add(start);
+            callNodes.add(start);
+            callEdges.add(0);
+
+            while (callNodes.size > 0) {
+                int top = callNodes.size - 1;
+                int v = callNodes.values[top];
+                int[] adjacent = getLinks(v);
+                int edge = callEdges.values[top];
+                if (edge < adjacent.length) {
+                    callEdges.values[top] = edge + 1;
+                    int w = adjacent[edge];
+                    ensureCapacity(people.size());
+                    if (withClosures ? closures[w] != null : components[w] != null) {
+                        // Already finished, possibly in an earlier computation
+                        continue;
+                    }
+                    if (visitIndex[w] == 0) {
+                        visitIndex[w] = ++counter;
+                        lowLink[w] = counter;
+                        onStack[w] = true;
+                        visited.add(w);
+                        componentStack.add(w);
+                        callNodes.add(w);
+                        callEdges.add(0);
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], visitIndex[w]);
+                    }
+                } else {
+                    callNodes.size--;
+                    callEdges.size--;
+                    if (callNodes.size > 0) {
+                        int caller = callNodes.values[callNodes.size - 1];
+                        lowLink[caller] = Math.min(lowLink[caller], lowLink[v]);
+                    }
+                    if (lowLink[v] == visitIndex[v]) {
+                        finishComponent(v, componentStack, withClosures);
+                    }
+                }
+            }
+
+            // Reset the per-computation state so it can be reused without reallocation
+            for (int i = 0; i < visited.size; i++) {
+                int n = visited.values[i];
+                visitIndex[n] = 0;
+                lowLink[n] = 0;
+            }
+        }
+
+        /**
+         * Add the id of a referenced individual to a list, if there is one
+         * 
+         * @param list
+         *            the list to add to
+         * @param ref
+         *            the reference to an individual. Optional.
+         */
+        private void addLink(IntList list, IndividualReference ref) {
+            if (ref != null && ref.getIndividual() != null) {
+                list.add(idOf(ref.getIndividual()));
+            }
+        }
+    }
+
+    /**
+     * A read-only set of individuals backed by a sorted array of ids
+     */
+    private final class IndividualSet extends AbstractSet<Individual> {
+
+        /**
+         * The sorted ids of the individuals in the set
+         */
+        private final int[] members;
+
+        /**
+         * Constructor
+         * 
+         * @param members
+         *            the sorted ids of the individuals in the set
+         */
+        IndividualSet(int[] members) {
+            this.members = members;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean contains(Object o) {
+            synchronized (PedigreeIndex.this) {
+                Integer id = ids.get(o);
+                return id != null && Arrays.binarySearch(members, id) >= 0;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<Individual> iterator() {
+            return new Iterator<Individual>() {
+                /**
+                 * Position of the iterator
+                 */
+                private int position;
+
+                @Override
+                public boolean hasNext() {
+                    return position < members.length;
+                }
+
+                @Override
+                public Individual next() {
+                    if (position >= members.length) {
+                        throw new NoSuchElementException();
+                    }
+                    synchronized (PedigreeIndex.this) {
+                        return people.get(members[position++]);
+                    }
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Pedigree index sets are read-only");
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return members.length;
+        }
+    }
+
+    /**
+     * The members of the circular relationship an individual is part of, when it is not part of one
+     */
+    private static final int[] NOT_CIRCULAR = new int[0];
+
+    /**
+     * The id assigned to each individual known to the index. Keyed by identity, since the same individual is always the same
+     * instance and deep {@link Individual#hashCode()} calls are expensive.
+     */
+    private final Map<Individual, Integer> ids = new IdentityHashMap<>();
+
+    /**
+     * The individuals known to the index, indexed by id
+     */
+    private final List<Individual> people = new ArrayList<>();
+
+    /**
+     * For each family, the ids of the individuals whose immediate relatives were read through that family
+     */
+    private final Map<Family, IntList> familyReaders = new IdentityHashMap<>();
+
+    /**
+     * The closure over parents
+     */
+    private final Closure ancestry = new Closure(true);
+
+    /**
+     * The closure over children
+     */
+    private final Closure descendancy = new Closure(false);
+
+    /**
+     * Default constructor. Individuals are added to the index as they are encountered.
+     */
+    public PedigreeIndex() {
+        // Individuals get added as they are encountered
+    }
+
+    /**
+     * Constructor for an index over the individuals in a {@link Gedcom}. Individuals reachable through family links but not in the
+     * gedcom are added as they are encountered.
+     * 
+     * @param gedcom
+     *            the gedcom whose individuals are to be indexed. Required.
+     * @throws IllegalArgumentException
+     *             if gedcom is null
+     */
+    public PedigreeIndex(Gedcom gedcom) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is a required argument");
+        }
+        for (Individual i : gedcom.getIndividuals().values()) {
+            if (i != null) {
+                idOf(i);
+            }
+        }
+    }
+
+    /**
+     * Get the ancestors of an individual. See {@link Individual#getAncestors()}.
+     * 
+     * @param individual
+     *            the individual. Required.
+     * @return a read-only set of the individual's ancestors
+     * @throws IllegalArgumentException
+     *             if individual is null
+     */
+    public synchronized Set<Individual> getAncestors(Individual individual) {
+        return new IndividualSet(ancestry.get(requiredIdOf(individual)));
+    }
+
+    /**
+     * Get the individuals in the same circular relationship as an individual - everyone who is both an ancestor and a descendant of
+     * the individual, and the individual itself - or an empty set if the individual is not his or her own ancestor. Finding these
+     * does not require anyone's ancestors, so asking for every individual in turn takes time in proportion to the number of
+     * individuals and parent links.
+     * 
+     * @param individual
+     *            the individual. Required.
+     * @return a read-only set of the individuals in the same circular relationship as the individual
+     * @throws IllegalArgumentException
+     *             if individual is null
+     */
+    public synchronized Set<Individual> getCircularRelationship(Individual individual) {
+        return new IndividualSet(ancestry.getComponent(requiredIdOf(individual)));
+    }
+
+    /**
+     * Get the descendants of an individual - the children of the families the individual is a spouse in, recursively.
+     * 
+     * @param individual
+     *            the individual. Required.
+     * @return a read-only set of the individual's descendants
+     * @throws IllegalArgumentException
+     *             if individual is null
+     */
+    public synchronized Set<Individual> getDescendants(Individual individual) {
+        return new IndividualSet(descendancy.get(requiredIdOf(individual)));
+    }
+
+    /**
+     * Throw away everything the index has computed about a family and everyone whose ancestors or descendants were found through it.
+     * Call this after changing the husband, wife, or children of the family.
+     * 
+     * @param family
+     *            the family whose links have changed. Required.
+     * @throws IllegalArgumentException
+     *             if family is null
+     */
+    public synchronized void invalidate(Family family) {
+        if (family == null) {
+            throw new IllegalArgumentException("family is a required argument");
+        }
+        IntList readers = familyReaders.remove(family);
+        if (readers != null) {
+            for (int id : readers.toArray()) {
+                invalidate(id);
+            }
+        }
+        invalidateIfKnown(family.getHusband());
+        invalidateIfKnown(family.getWife());
+        if (family.getChildren() != null) {
+            for (IndividualReference c : family.getChildren()) {
+                invalidateIfKnown(c);
+            }
+        }
+    }
+
+    /**
+     * Throw away everything the index has computed about an individual, and the ancestors and descendants of everyone whose
+     * ancestors or descendants included that individual. Call this after changing the families the individual is a child or spouse
+     * in.
+     * 
+     * @param individual
+     *            the individual whose links have changed. Required.
+     * @throws IllegalArgumentException
+     *             if individual is null
+     */
+    public synchronized void invalidate(Individual individual) {
+        if (individual == null) {
+            throw new IllegalArgumentException("individual is a required argument");
+        }
+        Integer id = ids.get(individual);
+        if (id != null) {
+            invalidate(id);
+        }
+    }
+
+    /**
+     * Throw away everything the index has computed.
+     */
+    public synchronized void invalidateAll() {
+        ancestry.invalidateAll();
+        descendancy.invalidateAll();
+        familyReaders.clear();
+    }
+
+    /**
+     * Is one individual an ancestor of another? Equivalent to, but much cheaper than,
+     * <code>individual.getAncestors().contains(possibleAncestor)</code>.
+     * 
+     * @param possibleAncestor
+     *            the individual who might be an ancestor. Required.
+     * @param individual
+     *            the individual whose ancestors are checked. Required.
+     * @return true if <code>possibleAncestor</code> is one of the ancestors of <code>individual</code>
+     * @throws IllegalArgumentException
+     *             if either argument is null
+     */
+    public synchronized boolean isAncestor(Individual possibleAncestor, Individual individual) {
+        int a = requiredIdOf(possibleAncestor);
+        return Arrays.binarySearch(ancestry.get(requiredIdOf(individual)), a) >= 0;
+    }
+
+    /**
+     * Do two individuals have an ancestor in common, counting each individual as one of his or her own ancestors? The two closures
+     * are already sorted, so this is a single merge of them.
+     * 
+     * @param individual1
+     *            the first individual. Required.
+     * @param individual2
+     *            the second individual. Required.
+     * @return true if the individuals are the same, one is an ancestor of the other, or they share an ancestor
+     * @throws IllegalArgumentException
+     *             if either argument is null
+     */
+    synchronized boolean haveCommonAncestor(Individual individual1, Individual individual2) {
+        int id1 = requiredIdOf(individual1);
+        int id2 = requiredIdOf(individual2);
+        int[] a1 = ancestry.get(id1);
+        int[] a2 = ancestry.get(id2);
+        if (id1 == id2 || Arrays.binarySearch(a1, id2) >= 0 || Arrays.binarySearch(a2, id1) >= 0) {
+            return true;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < a1.length && j < a2.length) {
+            if (a1[i] == a2[j]) {
+                return true;
+            } else if (a1[i] < a2[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Record that an individual's immediate relatives were read through a family
+     * 
+     * @param family
+     *            the family
+     * @param id
+     *            the id of the individual
+     */
+    private void addFamilyReader(Family family, int id) {
+        IntList readers = familyReaders.get(family);
+        if (readers == null) {
+            readers = new IntList();
+            familyReaders.put(family, readers);
+        }
+        if (!readers.contains(id)) {
+            readers.add(id);
+        }
+    }
+
+    /**
+     * Get the id of an individual, assigning one if the individual has not been seen before
+     * 
+     * @param individual
+     *            the individual
+     * @return the id of the individual
+     */
+    private int idOf(Individual individual) {
+        Integer id = ids.get(individual);
+        if (id == null) {
+            id = people.size();
+            ids.put(individual, id);
+            people.add(individual);
+        }
+        return id;
+    }
+
+    /**
+     * Throw away both closures for an individual
+     * 
+     * @param id
+     *            the id of the individual
+     */
+    private void invalidate(int id) {
+        ancestry.invalidate(id);
+        descendancy.invalidate(id);
+    }
+
+    /**
+     * Invalidate a referenced individual, if the index knows about them
+     * 
+     * @param ref
+     *            the reference. Optional.
+     */
+    private void invalidateIfKnown(IndividualReference ref) {
+        if (ref != null && ref.getIndividual() != null) {
+            invalidate(ref.getIndividual());
+        }
+    }
+
+    /**
+     * Get the id of a required individual
+     * 
+     * @param individual
+     *            the individual
+     * @return the id of the individual
+     * @throws IllegalArgumentException
+     *             if individual is null
+     */
+    private int requiredIdOf(Individual individual) {
+        if (individual == null) {
+            throw new IllegalArgumentException("individual is a required argument");
+        }
+        return idOf(individual);
+    }
+
+    /**
+     * Sort and remove duplicates from the values in a list
+     * 
+     * @param list
+     *            the list
+     * @return a sorted array of the distinct values in the list
+     */
+    private static int[] sortedUnique(IntList list) {
+        int[] a = list.toArray();
+        Arrays.sort(a);
+        int n = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (i == 0 || a[i] != a[i - 1]) {
+                a[n++] = a[i];
+            }
+        }
+        return n == a.length ? a : Arrays.copyOf(a, n);
+    }
+}
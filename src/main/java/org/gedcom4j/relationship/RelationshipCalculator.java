@@ -35,16 +35,12 @@ import static org.gedcom4j.relationship.RelationshipName.SON;
 import static org.gedcom4j.relationship.RelationshipName.WIFE;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
-import org.gedcom4j.model.Family;
-import org.gedcom4j.model.FamilyChild;
-import org.gedcom4j.model.FamilySpouse;
 import org.gedcom4j.model.Individual;
-import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.StringWithCustomFacts;
 
 /**
@@ -70,12 +66,63 @@ import org.gedcom4j.model.StringWithCustomFacts;
  * Ultimately, how the relationship is described is a presentation-layer concern, and as gedcom4j is a library with no presentation
  * layer, the descriptions are left to the consumer of the library.
  * </p>
+ * <p>
+ * A calculator made with a {@link FamilyGraph} searches the graph; one made with the default constructor reads the links between
+ * people and families from the model objects as the search reaches them. Either way the search works with the int ids of the
+ * people it reaches. Making a graph takes time in proportion to the size of the whole tree, while a single search usually only
+ * reaches the people near the two individuals, so a graph is worth making when it will be searched many times.
+ * </p>
  * 
  * @author frizbog1
  */
 @SuppressWarnings("PMD.GodClass")
 public class RelationshipCalculator {
 
+    /**
+     * The steps that can be taken from a person to his or her immediate relatives
+     */
+    private static final class Steps {
+
+        /**
+         * The ids of the relatives, in the same order as {@link #relationships}
+         */
+        private final IntList relatives = new IntList();
+
+        /**
+         * The steps to each relative
+         */
+        private final List<SimpleRelationship> relationships = new ArrayList<>();
+
+        /**
+         * Add a step
+         * 
+         * @param relative
+         *            the id of the relative the step goes to
+         * @param step
+         *            the step
+         */
+        void add(int relative, SimpleRelationship step) {
+            relatives.add(relative);
+            relationships.add(step);
+        }
+    }
+
+    /**
+     * The links to search when they come from a family graph, or null if they are read from the model objects
+     */
+    private final FamilyLinks graphLinks;
+
+    /**
+     * The links read from the model objects, kept from one calculation to the next so that their storage can be reused, but cleared
+     * after each one
+     */
+    private final FamilyLinks modelLinks = FamilyLinks.inModel();
+
+    /**
+     * The links being searched in the current calculation
+     */
+    private FamilyLinks links;
+
     /**
      * The person we are starting from
      */
@@ -86,21 +133,88 @@ public class RelationshipCalculator {
      */
     private Individual targetIndividual;
 
+    /**
+     * The id of the person we are starting from
+     */
+    private int start;
+
+    /**
+     * The id of the person we are looking for
+     */
+    private int target;
+
     /**
      * The list of relationships we've found that matched
      */
     private List<Relationship> relationshipsFound;
 
     /**
-     * The current chain of relationships between individuals we're considering as we traverse the tree. Stated differently, how did
-     * we get from individual 1 to the person we're currently working with as we recurse?
+     * The steps that can be taken from each person we've looked at, in the order the old depth-first search took them, indexed by
+     * id. Null for anyone we haven't looked at in the current calculation.
+     */
+    private Steps[] steps = new Steps[16];
+
+    /**
+     * How many steps each person we've reached searching forward is from the starting individual, indexed by id. -1 for anyone not
+     * reached.
+     */
+    private int[] fromStart = newDistances(16);
+
+    /**
+     * How many steps each person we've reached searching backward is from the target individual, indexed by id. -1 for anyone not
+     * reached.
+     */
+    private int[] toTarget = newDistances(16);
+
+    /**
+     * The ids whose entries in {@link #steps}, {@link #fromStart} and {@link #toTarget} have been set in the current calculation,
+     * so that only they need to be cleared afterwards
+     */
+    private final IntList touched = new IntList();
+
+    /**
+     * How many steps out from the starting individual the forward search has gone. {@link #fromStart} is complete up to this
+     * distance.
+     */
+    private int forwardDepth;
+
+    /**
+     * How many steps back from the target individual the backward search has gone. {@link #toTarget} is complete up to this
+     * distance.
+     */
+    private int backwardDepth;
+
+    /**
+     * Whether either search has come across a link between a person and a family that is only recorded on one side - a FAMC with no
+     * matching CHIL, a CHIL with no matching FAMC, and so on. The backward search can't see such links from the person they point
+     * to, so once one turns up the calculation carries on searching forward only.
      */
-    private List<SimpleRelationship> currentChain;
+    private boolean oneSided;
 
     /**
-     * People we have looked at already
+     * Default constructor. The links between people and families are read from the model objects as the search reaches them.
      */
-    private Set<Individual> lookedAt = new HashSet<>();
+    public RelationshipCalculator() {
+        graphLinks = null;
+    }
+
+    /**
+     * Constructor that searches a {@link FamilyGraph} instead of reading the links from the model objects. Relationships between
+     * individuals who are not both in the graph are calculated from the model objects as usual. The relationships found are the
+     * same either way, as long as the model hasn't been changed since the graph was made.
+     * 
+     * @param graph
+     *            the family graph. Required.
+     * @throws IllegalArgumentException
+     *             if graph is null
+     * @since 4.0.2
+     */
+    public RelationshipCalculator(FamilyGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is a required argument");
+        }
+        graphLinks = FamilyLinks.inGraph(graph);
+    }
 
     /**
      * <p>
@@ -110,6 +224,17 @@ public class RelationshipCalculator {
      * result set, <code>relationshipsFound</code>.
      * </p>
      * <p>
+     * The chains are found with a breadth-first search that works outward from both individuals at once, always extending the
+     * smaller of the two frontiers, and stops as soon as they meet. Only the chains of that shortest length are then enumerated.
+     * The search is iterative, so it cannot overflow the stack on a long line of descent. If the calculator was made with a
+     * {@link FamilyGraph} that does not contain both individuals, the links are read from the model objects instead.
+     * </p>
+     * <p>
+     * Searching backward relies on links between people and families being recorded on both sides. If either search reaches
+     * someone with a one-sided link (as is common in hand-edited files), or if the two searches never meet, the calculation
+     * carries on searching forward only, following links from whichever side records them, as searches before 4.0.2 did.
+     * </p>
+     * <p>
      * Typical usage would be to instantiate a <code>RelationshipCalculator</code> object, call this method with the two people of
      * interest, and then check the <code>relationshipsFound</code> collection to find the most direct relationship(s) between the
      * individuals. If that collection is empty, either the people are not related or the two individuals are the same person.
@@ -133,14 +258,9 @@ public class RelationshipCalculator {
         // We are looking for the second individual;
         targetIndividual = individual2;
 
-        // We currently have taken no steps away from individual 1
-        currentChain = new ArrayList<>();
-
-        lookedAt = new HashSet<>();
-
-        // Start with individual 1 and recurse
-        if (individual1 != individual2) { // NOPMD - Deliberately comparing with !=
-            examine(individual1);
+        // Search outward from both individuals until we find the shortest chains between them
+        if (individual1 != null && individual2 != null && individual1 != individual2) { // NOPMD - Deliberately comparing with !=
+            findShortestChains();
         }
 
         if (simplified) {
@@ -189,6 +309,67 @@ public class RelationshipCalculator {
         return relationshipsFound;
     }
 
+    /**
+     * Get how far a person is from one end of the search
+     * 
+     * @param distances
+     *            the distances from that end
+     * @param person
+     *            the id of the person
+     * @return the number of steps the person is from that end, or -1 if the search from that end hasn't reached the person
+     */
+    private static int getDistance(int[] distances, int person) {
+        return person < distances.length ? distances[person] : -1;
+    }
+
+    /**
+     * Make an array of distances, with nobody reached
+     * 
+     * @param length
+     *            the length of the array
+     * @return the array, filled with -1
+     */
+    private static int[] newDistances(int length) {
+        int[] result = new int[length];
+        Arrays.fill(result, -1);
+        return result;
+    }
+
+    /**
+     * Record someone as one step further back from the target, if they haven't been reached already and they can take a step to
+     * the person we're working back from
+     * 
+     * @param nextFrontier
+     *            the people first reached at this distance from the target
+     * @param candidate
+     *            the id of the person who might be a step back from <code>person</code>, or {@link FamilyGraph#NONE}
+     * @param person
+     *            the id of the person we're working back from
+     */
+    private void addPredecessor(IntList nextFrontier, int candidate, int person) {
+        if (candidate == FamilyGraph.NONE || getDistance(toTarget, candidate) >= 0) {
+            return;
+        }
+        if (getSteps(candidate).relatives.contains(person)) {
+            setToTarget(candidate, backwardDepth);
+            nextFrontier.add(candidate);
+            checkLinks(candidate);
+        }
+    }
+
+    /**
+     * Check that the links between a person and each of his or her families, and between those families and everyone they list,
+     * are recorded on both sides, and note it in {@link #oneSided} if they aren't
+     * 
+     * @param person
+     *            the id of the person just reached by one of the searches
+     */
+    private void checkLinks(int person) {
+        if (!oneSided && !links.isLinkedBothWays(person)) {
+            oneSided = true;
+        }
+    }
+
     /**
      * <p>
      * Collapse down two steps in a chain to a simpler form of it (for example, the son of a father is a brother).
@@ -235,204 +416,187 @@ public class RelationshipCalculator {
     }
 
     /**
-     * Check if the person being examined is the target person. If not, start looking through everyone that person is related to.
+     * Walk every chain of the shortest length from the starting individual to the target, adding each one to the results. Only
+     * people who are the right distance from both ends are stepped onto, so the walk stays on the shortest chains.
      * 
-     * @param personBeingExamined
-     *            the person who is currently being examined
+     * @param shortest
+     *            the length of the shortest chain
      */
-    private void examine(Individual personBeingExamined) {
-        if (personBeingExamined == null) {
-            return;
-        }
-        if (lookedAt.contains(personBeingExamined)) {
-            // prevent wasting time checking the same people over and over
-            return;
-        }
-        /*
-         * Here I am deliberately using == and not equals(). Rationale: 1) In a given gedcom, there won't be two individuals who are
-         * exactly equal without being the same instance...the XREF's would ensure this. 2) Doing an equals() compare is a deep
-         * compare, including all its subcollections (notes, etc.), which aren't really what we're trying to do. We aren't looking
-         * for someone who evaluates the same as the person - we are looking FOR that exact person. == is a better fit.
-         */
-        if (personBeingExamined == targetIndividual) { // NOPMD - deliberate use of ==
-            /*
-             * We've found our target, so make a Relationship object out of the current chain and add it to our result set.
-             */
-            Relationship r = new Relationship(startingIndividual, targetIndividual, currentChain);
-            relationshipsFound.add(r);
-        } else {
-            lookedAt.add(personBeingExamined);
-            /* Not our target, so check relatives, starting with parents */
-            if (personBeingExamined.getFamiliesWhereChild() != null) {
-                for (FamilyChild fc : personBeingExamined.getFamiliesWhereChild()) {
-                    Family family = fc.getFamily();
-                    if (!lookedAt.contains((family.getHusband() == null ? null : family.getHusband().getIndividual()))) {
-                        examineFather(personBeingExamined, (family.getHusband() == null ? null
-                                : family.getHusband().getIndividual()));
-                    }
-                    if (!lookedAt.contains((family.getWife() == null ? null : family.getWife().getIndividual()))) {
-                        examineMother(personBeingExamined, (family.getWife() == null ? null : family.getWife().getIndividual()));
-                    }
-                }
-            }
-            /* Next check spouses */
-            if (personBeingExamined.getFamiliesWhereSpouse() != null) {
-                for (FamilySpouse fs : personBeingExamined.getFamiliesWhereSpouse()) {
-                    Family family = fs.getFamily();
-                    Individual h = family.getHusband() == null ? null : family.getHusband().getIndividual();
-                    if (h == personBeingExamined) { // NOPMD - deliberately using ==
-                        if (lookedAt.contains((family.getWife() == null ? null : family.getWife().getIndividual()))) {
-                            continue;
-                        }
-                        examineWife(personBeingExamined, fs);
+    private void collectChains(int shortest) {
+        List<SimpleRelationship> currentChain = new ArrayList<>(shortest);
+        int[] path = new int[shortest];
+        int[] nextStep = new int[shortest];
+        path[0] = start;
+        int position = 0;
+        while (position >= 0) {
+            Steps candidates = getSteps(path[position]);
+            if (nextStep[position] < candidates.relatives.size) {
+                int relative = candidates.relatives.values[nextStep[position]];
+                SimpleRelationship step = candidates.relationships.get(nextStep[position]++);
+                if (isOnShortestChain(relative, position + 1, shortest)) {
+                    currentChain.add(step);
+                    if (position + 1 == shortest) {
+                        relationshipsFound.add(new Relationship(startingIndividual, targetIndividual, currentChain));
+                        currentChain.remove(position);
                     } else {
-                        Individual w = family.getWife() == null ? null : family.getWife().getIndividual();
-                        if (w == personBeingExamined) { // NOPMD - deliberately using ==
-                            if (lookedAt.contains((family.getHusband() == null ? null : family.getHusband().getIndividual()))) {
-                                continue;
-                            }
-                            examineHusband(personBeingExamined, fs);
-                        }
-                    }
-                    /* and check the children */
-                    if (family.getChildren() != null) {
-                        for (IndividualReference c : family.getChildren()) {
-                            if (lookedAt.contains(c.getIndividual())) {
-                                continue;
-                            }
-                            Individual h2 = family.getHusband() == null ? null : family.getHusband().getIndividual();
-                            if (h2 == personBeingExamined) { // NOPMD - deliberately using ==
-                                examineChild(personBeingExamined, c.getIndividual(), FATHER);
-                            } else {
-                                Individual w2 = family.getWife() == null ? null : family.getWife().getIndividual();
-                                if (w2 == personBeingExamined) { // NOPMD - deliberately using ==
-                                    examineChild(personBeingExamined, c.getIndividual(), MOTHER);
-                                }
-                            }
-                        }
+                        position++;
+                        path[position] = relative;
+                        nextStep[position] = 0;
                     }
                 }
+            } else {
+                position--;
+                if (position >= 0) {
+                    currentChain.remove(position);
+                }
             }
         }
     }
 
     /**
-     * Examine the child of a person
+     * Make sure there is room in {@link #steps}, {@link #fromStart} and {@link #toTarget} for a person
      * 
-     * @param personBeingExamined
-     *            the parent, who
-     * @param child
-     *            the child
-     * @param reverseRelationship
-     *            the relationship from the child to the parent
+     * @param person
+     *            the id of the person
      */
-    private void examineChild(Individual personBeingExamined, Individual child, RelationshipName reverseRelationship) {
-        SimpleRelationship r = new SimpleRelationship();
-        r.setIndividual1(personBeingExamined);
-        r.setIndividual2(child);
-        if (child.getSex() == null) {
-            r.setName(CHILD);
-        } else if ("M".equals(child.getSex().getValue())) {
-            r.setName(SON);
-        } else if ("F".equals(child.getSex().getValue())) {
-            r.setName(DAUGHTER);
-        } else {
-            r.setName(CHILD);
+    private void ensureCapacity(int person) {
+        if (person < steps.length) {
+            return;
         }
-        r.setReverseName(reverseRelationship);
-        currentChain.add(r);
-        examine(r.getIndividual2());
-        currentChain.remove(currentChain.size() - 1);
+        int length = Math.max(person + 1, steps.length * 2);
+        steps = Arrays.copyOf(steps, length);
+        int oldLength = fromStart.length;
+        fromStart = Arrays.copyOf(fromStart, length);
+        Arrays.fill(fromStart, oldLength, length, -1);
+        toTarget = Arrays.copyOf(toTarget, length);
+        Arrays.fill(toTarget, oldLength, length, -1);
     }
 
     /**
-     * Examine the father
+     * Take the backward search one step further from the target individual
      * 
-     * @param personBeingExamined
-     *            the person whose parents are being examined
-     * @param father
-     *            the father
-     */
-    private void examineFather(Individual personBeingExamined, Individual father) {
-        SimpleRelationship r = new SimpleRelationship();
-        r.setIndividual1(personBeingExamined);
-        r.setIndividual2(father);
-        if (personBeingExamined.getSex() == null) {
-            r.setReverseName(CHILD);
-        } else if ("M".equals(personBeingExamined.getSex().getValue())) {
-            r.setReverseName(SON);
-        } else if ("F".equals(personBeingExamined.getSex().getValue())) {
-            r.setReverseName(DAUGHTER);
-        } else {
-            r.setReverseName(CHILD);
+     * @param frontier
+     *            the ids of the people furthest back from the target so far
+     * @return the ids of the people first reached one step further back
+     */
+    private IntList expandBackward(IntList frontier) {
+        backwardDepth++;
+        IntList result = new IntList();
+        for (int i = 0; i < frontier.size; i++) {
+            int person = frontier.values[i];
+            // Anyone who can take a step to this person is one of his or her relatives
+            for (int k = 0; k < links.getFamilyWhereChildCount(person); k++) {
+                int family = links.getFamilyWhereChild(person, k);
+                addPredecessor(result, links.getHusband(family), person);
+                addPredecessor(result, links.getWife(family), person);
+            }
+            for (int k = 0; k < links.getFamilyWhereSpouseCount(person); k++) {
+                int family = links.getFamilyWhereSpouse(person, k);
+                addPredecessor(result, links.getHusband(family), person);
+                addPredecessor(result, links.getWife(family), person);
+                for (int c = 0; c < links.getChildCount(family); c++) {
+                    addPredecessor(result, links.getChild(family, c), person);
+                }
+            }
         }
-        r.setName(FATHER);
-        currentChain.add(r);
-        examine(r.getIndividual2());
-        currentChain.remove(currentChain.size() - 1);
+        return result;
     }
 
     /**
-     * Examine the wife of the person being examined
+     * Take the forward search one step further from the starting individual
      * 
-     * @param personBeingExamined
-     *            the person being examined
-     * @param fs
-     *            the {@link FamilySpouse} record to which the personBeingExamined is the husband
-     */
-    private void examineHusband(Individual personBeingExamined, FamilySpouse fs) {
-        SimpleRelationship r = new SimpleRelationship();
-        r.setIndividual1(personBeingExamined);
-        r.setIndividual2(fs.getFamily().getHusband() == null ? null : fs.getFamily().getHusband().getIndividual());
-        r.setName(HUSBAND);
-        currentChain.add(r);
-        examine(r.getIndividual2());
-        currentChain.remove(currentChain.size() - 1);
+     * @param frontier
+     *            the ids of the people furthest from the starting individual so far
+     * @return the ids of the people first reached one step further out
+     */
+    private IntList expandForward(IntList frontier) {
+        forwardDepth++;
+        IntList result = new IntList();
+        for (int i = 0; i < frontier.size; i++) {
+            IntList relatives = getSteps(frontier.values[i]).relatives;
+            for (int k = 0; k < relatives.size; k++) {
+                int relative = relatives.values[k];
+                if (getDistance(fromStart, relative) < 0) {
+                    setFromStart(relative, forwardDepth);
+                    result.add(relative);
+                    checkLinks(relative);
+                }
+            }
+        }
+        return result;
     }
 
     /**
-     * Examine the mother
-     * 
-     * @param personBeingExamined
-     *            the person whose parents are being examined
-     * @param mother
-     *            the mother
-     */
-    private void examineMother(Individual personBeingExamined, Individual mother) {
-        SimpleRelationship r = new SimpleRelationship();
-        r.setIndividual1(personBeingExamined);
-        r.setIndividual2(mother);
-        if (personBeingExamined.getSex() == null) {
-            r.setName(CHILD);
-        } else if ("M".equals(personBeingExamined.getSex().getValue())) {
-            r.setReverseName(SON);
-        } else if ("F".equals(personBeingExamined.getSex().getValue())) {
-            r.setReverseName(DAUGHTER);
-        } else {
-            r.setReverseName(CHILD);
+     * Search outward from the starting and target individuals at the same time until the searches meet, then add every chain of
+     * that shortest length to the results. If a one-sided link turns up, or the searches don't meet, the forward search carries on
+     * alone until it reaches the target or runs out of people.
+     */
+    private void findShortestChains() {
+        links = graphLinks;
+        if (links == null || links.getIndividualId(startingIndividual) == FamilyGraph.NONE || links.getIndividualId(
+                targetIndividual) == FamilyGraph.NONE) {
+            links = modelLinks;
+        }
+        start = links.getIndividualId(startingIndividual);
+        target = links.getIndividualId(targetIndividual);
+        forwardDepth = 0;
+        backwardDepth = 0;
+        oneSided = false;
+        try {
+            setFromStart(start, 0);
+            setToTarget(target, 0);
+            checkLinks(start);
+            checkLinks(target);
+            IntList forwardFrontier = new IntList();
+            forwardFrontier.add(start);
+            IntList backwardFrontier = new IntList();
+            backwardFrontier.add(target);
+            int shortest = -1;
+            while (shortest < 0 && !oneSided && forwardFrontier.size > 0 && backwardFrontier.size > 0) {
+                // Always grow the smaller frontier - that's what keeps the search from touching most of the tree
+                if (forwardFrontier.size <= backwardFrontier.size) {
+                    forwardFrontier = expandForward(forwardFrontier);
+                    shortest = meet(forwardFrontier, forwardDepth, toTarget);
+                } else {
+                    backwardFrontier = expandBackward(backwardFrontier);
+                    shortest = meet(backwardFrontier, backwardDepth, fromStart);
+                }
+            }
+            if (oneSided || shortest < 0) {
+                shortest = searchForwardOnly(forwardFrontier);
+            }
+            if (shortest > 0) {
+                collectChains(shortest);
+            }
+        } finally {
+            for (int i = 0; i < touched.size; i++) {
+                int person = touched.values[i];
+                steps[person] = null;
+                fromStart[person] = -1;
+                toTarget[person] = -1;
+            }
+            touched.size = 0;
+            links.clear();
+            links = null;
         }
-        r.setName(MOTHER);
-        currentChain.add(r);
-        examine(r.getIndividual2());
-        currentChain.remove(currentChain.size() - 1);
     }
 
     /**
-     * Examine the wife of the person being examined
+     * Get the relationship name for someone as a child - son, daughter, or just child if their sex isn't known
      * 
-     * @param personBeingExamined
-     *            the person being examined
-     * @param fs
-     *            the {@link FamilySpouse} record to which the personBeingExamined is the husband
-     */
-    private void examineWife(Individual personBeingExamined, FamilySpouse fs) {
-        SimpleRelationship r = new SimpleRelationship();
-        r.setIndividual1(personBeingExamined);
-        r.setIndividual2(fs.getFamily().getWife() == null ? null : fs.getFamily().getWife().getIndividual());
-        r.setName(WIFE);
-        currentChain.add(r);
-        examine(r.getIndividual2());
-        currentChain.remove(currentChain.size() - 1);
+     * @param child
+     *            the child
+     * @return the relationship name for the child
+     */
+    private RelationshipName getChildName(Individual child) {
+        if (child.getSex() == null) {
+            return CHILD;
+        } else if ("M".equals(child.getSex().getValue())) {
+            return SON;
+        } else if ("F".equals(child.getSex().getValue())) {
+            return DAUGHTER;
+        }
+        return CHILD;
     }
 
     /**
@@ -459,6 +623,175 @@ public class RelationshipCalculator {
         return relationship.reverseForUnknown;
     }
 
+    /**
+     * Get the steps that can be taken from a person to his or her immediate relatives: parents first, then spouses, then children
+     * 
+     * @param person
+     *            the id of the person
+     * @return the steps from that person to each of his or her immediate relatives
+     */
+    private Steps getSteps(int person) {
+        ensureCapacity(person);
+        Steps result = steps[person];
+        if (result != null) {
+            return result;
+        }
+        result = new Steps();
+        Individual individual = links.getIndividual(person);
+        for (int k = 0; k < links.getFamilyWhereChildCount(person); k++) {
+            int family = links.getFamilyWhereChild(person, k);
+            int father = links.getHusband(family);
+            if (father != FamilyGraph.NONE) {
+                result.add(father, newStep(individual, links.getIndividual(father), FATHER, getChildName(individual)));
+            }
+            int mother = links.getWife(family);
+            if (mother != FamilyGraph.NONE) {
+                result.add(mother, newStep(individual, links.getIndividual(mother), MOTHER, getChildName(individual)));
+            }
+        }
+        for (int k = 0; k < links.getFamilyWhereSpouseCount(person); k++) {
+            int family = links.getFamilyWhereSpouse(person, k);
+            int h = links.getHusband(family);
+            int w = links.getWife(family);
+            RelationshipName asParent;
+            if (h == person) {
+                asParent = FATHER;
+                if (w != FamilyGraph.NONE) {
+                    result.add(w, newStep(individual, links.getIndividual(w), WIFE, null));
+                }
+            } else if (w == person) {
+                asParent = MOTHER;
+                if (h != FamilyGraph.NONE) {
+                    result.add(h, newStep(individual, links.getIndividual(h), HUSBAND, null));
+                }
+            } else {
+                continue;
+            }
+            for (int c = 0; c < links.getChildCount(family); c++) {
+                Individual child = links.getIndividual(links.getChild(family, c));
+                result.add(links.getChild(family, c), newStep(individual, child, getChildName(child), asParent));
+            }
+        }
+        steps[person] = result;
+        touched.add(person);
+        return result;
+    }
+
+    /**
+     * Is a person the right distance from both ends to be at a given position in a shortest chain? Distances are only checked
+     * where the search on that side went far enough to know them.
+     * 
+     * @param person
+     *            the id of the person
+     * @param position
+     *            the position in the chain - the number of steps from the starting individual
+     * @param shortest
+     *            the length of the shortest chain
+     * @return true if the person could be at that position in a shortest chain
+     */
+    private boolean isOnShortestChain(int person, int position, int shortest) {
+        if (position <= forwardDepth && getDistance(fromStart, person) != position) {
+            return false;
+        }
+        int remaining = shortest - position;
+        return remaining > backwardDepth || getDistance(toTarget, person) == remaining;
+    }
+
+    /**
+     * See whether the people just reached by one search have already been reached by the other
+     * 
+     * @param frontier
+     *            the ids of the people just reached
+     * @param depth
+     *            how far the people just reached are from their end
+     * @param other
+     *            the distances found by the other search
+     * @return the length of the shortest chain through the people just reached, or -1 if the searches haven't met
+     */
+    private int meet(IntList frontier, int depth, int[] other) {
+        int result = -1;
+        for (int i = 0; i < frontier.size; i++) {
+            int d = getDistance(other, frontier.values[i]);
+            if (d >= 0 && (result < 0 || depth + d < result)) {
+                result = depth + d;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Make a step from one person to another
+     * 
+     * @param from
+     *            the person the step is from
+     * @param to
+     *            the person the step is to
+     * @param name
+     *            what <code>to</code> is to <code>from</code>
+     * @param reverseName
+     *            what <code>from</code> is to <code>to</code>. Optional.
+     * @return the step
+     */
+    private SimpleRelationship newStep(Individual from, Individual to, RelationshipName name, RelationshipName reverseName) {
+        SimpleRelationship result = new SimpleRelationship();
+        result.setIndividual1(from);
+        result.setIndividual2(to);
+        result.setName(name);
+        result.setReverseName(reverseName);
+        return result;
+    }
+
+    /**
+     * Carry the forward search on by itself, from where it got to, until it reaches the target individual or runs out of people.
+     * The backward search's results are set aside, so chains are collected on the forward distances alone.
+     * 
+     * @param frontier
+     *            the ids of the people furthest from the starting individual so far
+     * @return the length of the shortest chain, or -1 if the target individual can't be reached
+     */
+    private int searchForwardOnly(IntList frontier) {
+        for (int i = 0; i < touched.size; i++) {
+            toTarget[touched.values[i]] = -1;
+        }
+        setToTarget(target, 0);
+        backwardDepth = 0;
+        IntList f = frontier;
+        int result = getDistance(fromStart, target);
+        while (result < 0 && f.size > 0) {
+            f = expandForward(f);
+            result = getDistance(fromStart, target);
+        }
+        return result;
+    }
+
+    /**
+     * Record how far a person is from the starting individual
+     * 
+     * @param person
+     *            the id of the person
+     * @param distance
+     *            the number of steps the person is from the starting individual
+     */
+    private void setFromStart(int person, int distance) {
+        ensureCapacity(person);
+        fromStart[person] = distance;
+        touched.add(person);
+    }
+
+    /**
+     * Record how far a person is from the target individual
+     * 
+     * @param person
+     *            the id of the person
+     * @param distance
+     *            the number of steps the person is from the target individual
+     */
+    private void setToTarget(int person, int distance) {
+        ensureCapacity(person);
+        toTarget[person] = distance;
+        touched.add(person);
+    }
+
     /**
      * Go through pairs of steps in the chain, seeing if they can be collapsed. Only basic, immediate family relationships are
      * collapsed (like, "my father's son" is "my brother").
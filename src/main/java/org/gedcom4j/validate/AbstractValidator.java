@@ -27,10 +27,7 @@
 package org.gedcom4j.validate;
 
 import java.io.Serializable;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
@@ -54,7 +51,6 @@ import org.gedcom4j.model.MultiStringWithCustomFacts;
 import org.gedcom4j.model.StringWithCustomFacts;
 import org.gedcom4j.model.UserReference;
 import org.gedcom4j.model.enumerations.IndividualEventType;
-import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.validate.Validator.Finding;
 
@@ -103,6 +99,30 @@ abstract class AbstractValidator implements Serializable {
         validator = v;
     }
 
+    /**
+     * Add an item to a list unless that very same object is already in it. Items are told apart by identity rather than by
+     * {@link Object#equals(Object)}, which for records compares their entire contents, and the lists this is used for (the
+     * individuals related to a single finding) are short enough that a linear scan beats hashing.
+     *
+     * @param <T>
+     *            the type of item
+     * @param items
+     *            the list to add to
+     * @param item
+     *            the item to add
+     * @return true if the item was added, false if it was already in the list
+     * @since 4.0.2
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    protected static <T> boolean addIfAbsent(List<T> items, T item) {
+        for (T existing : items) {
+            if (existing == item) {
+                return false;
+            }
+        }
+        return items.add(item);
+    }
+
     /**
      * Check an object that has an alternate xref field (i.e., contains an xref but isn't named "xref")
      * 
@@ -537,13 +557,7 @@ abstract class AbstractValidator implements Serializable {
      * @return the value of the named field
      */
     protected Object get(Object object, String fieldName) {
-        Method getter = getGetter(object, fieldName);
-        try {
-            return getter.invoke(object);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new ValidationException("Unable to invoke getter method for field '" + fieldName + "' on object of type " + object
-                    .getClass().getName(), e);
-        }
+        return ModelAccessors.get(object, fieldName);
     }
 
     /**
@@ -561,11 +575,10 @@ abstract class AbstractValidator implements Serializable {
         }
         IndividualEvent result = null;
         List<IndividualEvent> eventsOfType = i.getEventsOfType(type);
-        DateParser dp = new DateParser();
         Date earliestSoFar = new Date(Long.MAX_VALUE);
         for (IndividualEvent e : eventsOfType) {
             if (e.getDate() != null && e.getDate().getValue() != null) {
-                Date d = dp.parse(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
+                Date d = parseDate(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
                 if (d != null && d.before(earliestSoFar)) {
                     result = e;
                     earliestSoFar = d;
@@ -590,11 +603,10 @@ abstract class AbstractValidator implements Serializable {
         }
         IndividualEvent result = null;
         List<IndividualEvent> eventsOfType = i.getEventsOfType(type);
-        DateParser dp = new DateParser();
         Date latestSoFar = new Date(Long.MIN_VALUE);
         for (IndividualEvent e : eventsOfType) {
             if (e.getDate() != null && e.getDate().getValue() != null) {
-                Date d = dp.parse(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
+                Date d = parseDate(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
                 if (d != null && d.after(latestSoFar)) {
                     result = e;
                     latestSoFar = d;
@@ -657,22 +669,14 @@ abstract class AbstractValidator implements Serializable {
     }
 
     /**
-     * Make a copy of the model element (using reflection)
+     * Make a copy of the model element (using its copy constructor)
      * 
      * @param modelElement
      *            the object to copy
      * @return a copy of the object
      */
     protected ModelElement makeCopy(ModelElement modelElement) {
-        ModelElement before;
-        try {
-            Constructor<ModelElement> copyConstructor = getCopyConstructor(modelElement);
-            before = copyConstructor.newInstance(modelElement);
-        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new ValidationException("Unable to invoke copy constructor on object of class " + modelElement.getClass()
-                    .getName(), e);
-        }
-        return before;
+        return ModelAccessors.copy(modelElement);
     }
 
     /**
@@ -708,8 +712,7 @@ abstract class AbstractValidator implements Serializable {
         if (!isSpecified(dateToValidate)) {
             return;
         }
-        DateParser dp = new DateParser();
-        if (dp.parse(dateToValidate) == null) {
+        if (parseDate(dateToValidate, ImpreciseDatePreference.PRECISE) == null) {
             validator.newFinding(modelElement, Severity.ERROR, ProblemCode.INVALID_DATE, dateFieldName);
         }
     }
@@ -897,6 +900,20 @@ abstract class AbstractValidator implements Serializable {
      */
     protected abstract void validate();
 
+    /**
+     * Parse a date string. While the gedcom is being validated, each date string is parsed only once, but each call gets a date of
+     * its own, which it is free to change.
+     * 
+     * @param dateString
+     *            the date string
+     * @param pref
+     *            the preference for handling an imprecise date
+     * @return the date, if one can be derived from the string
+     */
+    protected Date parseDate(String dateString, ImpreciseDatePreference pref) {
+        return validator.parseDate(dateString, pref);
+    }
+
     /**
      * Check the xref on an object
      * 
@@ -915,50 +932,4 @@ abstract class AbstractValidator implements Serializable {
         }
     }
 
-    /**
-     * Get the copy constructor on a ModelElement
-     * 
-     * @param modelElement
-     *            the object
-     * @return the copy constructor, if one can be found
-     */
-    @SuppressWarnings("unchecked")
-    private Constructor<ModelElement> getCopyConstructor(ModelElement modelElement) {
-        Constructor<ModelElement> result;
-        try {
-            result = (Constructor<ModelElement>) modelElement.getClass().getConstructor(modelElement.getClass());
-        } catch (NoSuchMethodException | SecurityException | IllegalArgumentException e) {
-            throw new ValidationException("Unable to find copy constructor on object of class " + modelElement.getClass().getName(),
-                    e);
-        }
-        return result;
-    }
-
-    /**
-     * Get the getter for a field whose name is supplied for a given object
-     * 
-     * @param object
-     *            the object that has the named field you want a getter for
-     * @param fieldName
-     *            the name of the field you want to get
-     * @return the getter method
-     */
-    @SuppressWarnings("PMD.PreserveStackTrace")
-    private Method getGetter(Object object, String fieldName) {
-        Method result = null;
-        try {
-            String getterName = "get" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
-            result = object.getClass().getMethod(getterName);
-        } catch (@SuppressWarnings("unused") NoSuchMethodException | SecurityException ignored) {
-            try {
-                String getterName = "is" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
-                result = object.getClass().getMethod(getterName);
-            } catch (NoSuchMethodException | SecurityException e1) {
-                throw new ValidationException("Unable to find getter method for field '" + fieldName + "' on object of type "
-                        + object.getClass().getName(), e1);
-            }
-        }
-        return result;
-    }
-
 }
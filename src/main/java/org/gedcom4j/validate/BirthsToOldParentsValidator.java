@@ -33,7 +33,6 @@ import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.enumerations.IndividualEventType;
-import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.validate.Validator.Finding;
 
@@ -42,7 +41,7 @@ import org.gedcom4j.validate.Validator.Finding;
  * 
  * @author frizbog
  */
-public class BirthsToOldParentsValidator extends AbstractValidator {
+public class BirthsToOldParentsValidator extends AbstractValidator implements FamilyRule {
 
     /**
      * Serial Version UID
@@ -68,88 +67,96 @@ public class BirthsToOldParentsValidator extends AbstractValidator {
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-        DateParser dp = new DateParser();
-        for (Family f : getValidator().getGedcom().getFamilies().values()) {
-            // No kids? Not interested
-            if (f == null || f.getChildren() == null || f.getChildren().isEmpty()) {
-                continue;
-            }
+    public void checkFamily(Family f) {
+        // No kids? Not interested
+        if (f.getChildren() == null || f.getChildren().isEmpty()) {
+            return;
+        }
 
-            Individual husband = (f.getHusband() == null ? null : f.getHusband().getIndividual());
-            IndividualEvent husbandLatestBirth = getLatestEventOfType(husband, IndividualEventType.BIRTH);
-            Date husbandLatestBirthDate = null;
-            if (husbandLatestBirth != null) {
-                husbandLatestBirthDate = dp.parse(husbandLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
-            }
-            IndividualEvent husbandEarliestDeath = getEarliestEventOfType(husband, IndividualEventType.DEATH);
-            Date husbandEarliestDeathDate = null;
-            if (husbandEarliestDeath != null) {
-                husbandEarliestDeathDate = dp.parse(husbandEarliestDeath.getDate().getValue(),
-                        ImpreciseDatePreference.FAVOR_EARLIEST);
-            }
+        Individual husband = (f.getHusband() == null ? null : f.getHusband().getIndividual());
+        IndividualEvent husbandLatestBirth = getLatestEventOfType(husband, IndividualEventType.BIRTH);
+        Date husbandLatestBirthDate = null;
+        if (husbandLatestBirth != null) {
+            husbandLatestBirthDate = parseDate(husbandLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
+        }
+        IndividualEvent husbandEarliestDeath = getEarliestEventOfType(husband, IndividualEventType.DEATH);
+        Date husbandEarliestDeathDate = null;
+        if (husbandEarliestDeath != null) {
+            husbandEarliestDeathDate = parseDate(husbandEarliestDeath.getDate().getValue(),
+                    ImpreciseDatePreference.FAVOR_EARLIEST);
+        }
 
-            Individual wife = (f.getWife() == null ? null : f.getWife().getIndividual());
-            IndividualEvent wifeLatestBirth = getLatestEventOfType(wife, IndividualEventType.BIRTH);
-            Date wifeLatestBirthDate = null;
-            if (wifeLatestBirth != null) {
-                wifeLatestBirthDate = dp.parse(wifeLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
-            }
-            IndividualEvent wifeEarliestDeath = getEarliestEventOfType(wife, IndividualEventType.DEATH);
-            Date wifeEarliestDeathDate = null;
-            if (wifeEarliestDeath != null) {
-                wifeEarliestDeathDate = dp.parse(wifeEarliestDeath.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
-            }
+        Individual wife = (f.getWife() == null ? null : f.getWife().getIndividual());
+        IndividualEvent wifeLatestBirth = getLatestEventOfType(wife, IndividualEventType.BIRTH);
+        Date wifeLatestBirthDate = null;
+        if (wifeLatestBirth != null) {
+            wifeLatestBirthDate = parseDate(wifeLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
+        }
+        IndividualEvent wifeEarliestDeath = getEarliestEventOfType(wife, IndividualEventType.DEATH);
+        Date wifeEarliestDeathDate = null;
+        if (wifeEarliestDeath != null) {
+            wifeEarliestDeathDate = parseDate(wifeEarliestDeath.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
+        }
+
+        // Neither parent has a birth date? Can't calculate, so skip
+        if (husbandLatestBirthDate == null && wifeLatestBirthDate == null) {
+            return;
+        }
 
-            // Neither parent has a birth date? Can't calculate, so skip
-            if (husbandLatestBirthDate == null && wifeLatestBirthDate == null) {
+        for (IndividualReference kidRef : f.getChildren()) {
+            Individual kid = (kidRef == null ? null : kidRef.getIndividual());
+            IndividualEvent kidEarliestBirth = getEarliestEventOfType(kid, IndividualEventType.BIRTH);
+            if (kidEarliestBirth == null) {
                 continue;
             }
+            Date kidEarliestBirthDate = parseDate(kidEarliestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
 
-            for (IndividualReference kidRef : f.getChildren()) {
-                Individual kid = (kidRef == null ? null : kidRef.getIndividual());
-                IndividualEvent kidEarliestBirth = getEarliestEventOfType(kid, IndividualEventType.BIRTH);
-                if (kidEarliestBirth == null) {
-                    continue;
-                }
-                Date kidEarliestBirthDate = dp.parse(kidEarliestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
-
-                if (wifeLatestBirthDate != null) {
-                    long momMillisDiff = kidEarliestBirthDate.getTime() - wifeLatestBirthDate.getTime();
-                    if (momMillisDiff >= MILLIS_IN_SIXTY_YEARS) {
-                        if (wifeEarliestDeathDate != null && wifeEarliestDeathDate.before(kidEarliestBirthDate)) {
-                            Finding newFinding = newFinding(kidEarliestBirth, Severity.WARNING,
-                                    ProblemCode.MOTHER_MAY_HAVE_BEEN_DECEASED, "date");
-                            newFinding.getRelatedItems(true).add(kid);
-                            newFinding.getRelatedItems().add(wife);
-                        } else {
-                            Finding newFinding = newFinding(kidEarliestBirth, Severity.WARNING,
-                                    ProblemCode.MOTHER_WAS_SIXTY_OR_OLDER, "date");
-                            newFinding.getRelatedItems(true).add(kid);
-                            newFinding.getRelatedItems().add(wife);
-                        }
+            if (wifeLatestBirthDate != null) {
+                long momMillisDiff = kidEarliestBirthDate.getTime() - wifeLatestBirthDate.getTime();
+                if (momMillisDiff >= MILLIS_IN_SIXTY_YEARS) {
+                    if (wifeEarliestDeathDate != null && wifeEarliestDeathDate.before(kidEarliestBirthDate)) {
+                        Finding newFinding = newFinding(kidEarliestBirth, Severity.WARNING,
+                                ProblemCode.MOTHER_MAY_HAVE_BEEN_DECEASED, "date");
+                        newFinding.getRelatedItems(true).add(kid);
+                        newFinding.getRelatedItems().add(wife);
+                    } else {
+                        Finding newFinding = newFinding(kidEarliestBirth, Severity.WARNING,
+                                ProblemCode.MOTHER_WAS_SIXTY_OR_OLDER, "date");
+                        newFinding.getRelatedItems(true).add(kid);
+                        newFinding.getRelatedItems().add(wife);
                     }
                 }
-                if (husbandLatestBirth != null && husbandLatestBirthDate != null) {
-                    long dadMillisDiff = kidEarliestBirthDate.getTime() - husbandLatestBirthDate.getTime();
-                    if (dadMillisDiff >= MILLIS_IN_SIXTY_YEARS) {
-                        if (husbandEarliestDeathDate != null && husbandEarliestDeathDate.before(kidEarliestBirthDate)) {
-                            Finding newFinding = newFinding(kidEarliestBirth, Severity.WARNING,
-                                    ProblemCode.FATHER_MAY_HAVE_BEEN_DECEASED, "date");
-                            newFinding.getRelatedItems(true).add(kid);
-                            newFinding.getRelatedItems().add(husband);
-                        } else {
-                            Finding newFinding = newFinding(kidEarliestBirth, Severity.WARNING,
-                                    ProblemCode.FATHER_WAS_SIXTY_OR_OLDER, "date");
-                            newFinding.getRelatedItems(true).add(kid);
-                            newFinding.getRelatedItems().add(husband);
-                        }
+            }
+            if (husbandLatestBirth != null && husbandLatestBirthDate != null) {
+                long dadMillisDiff = kidEarliestBirthDate.getTime() - husbandLatestBirthDate.getTime();
+                if (dadMillisDiff >= MILLIS_IN_SIXTY_YEARS) {
+                    if (husbandEarliestDeathDate != null && husbandEarliestDeathDate.before(kidEarliestBirthDate)) {
+                        Finding newFinding = newFinding(kidEarliestBirth, Severity.WARNING,
+                                ProblemCode.FATHER_MAY_HAVE_BEEN_DECEASED, "date");
+                        newFinding.getRelatedItems(true).add(kid);
+                        newFinding.getRelatedItems().add(husband);
+                    } else {
+                        Finding newFinding = newFinding(kidEarliestBirth, Severity.WARNING,
+                                ProblemCode.FATHER_WAS_SIXTY_OR_OLDER, "date");
+                        newFinding.getRelatedItems(true).add(kid);
+                        newFinding.getRelatedItems().add(husband);
                     }
                 }
             }
-
         }
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Family f : getValidator().getFamiliesToCheck()) {
+            if (f != null) {
+                checkFamily(f);
+            }
+        }
+    }
+
 }
@@ -31,15 +31,15 @@ import java.util.Date;
 import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.IndividualEventType;
-import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
+import org.gedcom4j.relationship.PedigreeIndex;
 
 /**
  * Validator that finds people with birthdates earlier than their ancestors.
  * 
  * @author frizbog
  */
-public class BornBeforeAncestorsValidator extends AbstractValidator {
+public class BornBeforeAncestorsValidator extends AbstractValidator implements IndividualRule {
 
     /**
      * Serial Version UID
@@ -60,29 +60,39 @@ public class BornBeforeAncestorsValidator extends AbstractValidator {
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-        DateParser dp = new DateParser();
-        for (Individual i : getValidator().getGedcom().getIndividuals().values()) {
-            IndividualEvent ib = getEarliestEventOfType(i, IndividualEventType.BIRTH);
-            if (ib == null || ib.getDate() == null || ib.getDate().getValue() == null) {
+    public void checkIndividual(Individual i) {
+        PedigreeIndex pedigree = getValidator().getPedigreeIndex();
+        IndividualEvent ib = getEarliestEventOfType(i, IndividualEventType.BIRTH);
+        if (ib == null || ib.getDate() == null || ib.getDate().getValue() == null) {
+            return;
+        }
+        Date ibd = parseDate(ib.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
+        if (ibd == null) {
+            return;
+        }
+        for (Individual a : pedigree.getAncestors(i)) {
+            if (a == i) { // NOPMD - deliberate checking if same individual
                 continue;
             }
-            Date ibd = dp.parse(ib.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
-            if (ibd == null) {
+            IndividualEvent ab = getLatestEventOfType(a, IndividualEventType.BIRTH);
+            if (ab == null || ab.getDate() == null || ab.getDate().getValue() == null) {
                 continue;
             }
-            for (Individual a : i.getAncestors()) {
-                if (a == i) { // NOPMD - deliberate checking if same individual
-                    continue;
-                }
-                IndividualEvent ab = getLatestEventOfType(a, IndividualEventType.BIRTH);
-                if (ab == null || ab.getDate() == null || ab.getDate().getValue() == null) {
-                    continue;
-                }
-                Date abd = dp.parse(ab.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
-                if (abd != null && abd.after(ibd)) {
-                    newFinding(i, Severity.WARNING, ProblemCode.DESCENDANT_BORN_BEFORE_ANCESTOR, null).getRelatedItems(true).add(a);
-                }
+            Date abd = parseDate(ab.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
+            if (abd != null && abd.after(ibd)) {
+                newFinding(i, Severity.WARNING, ProblemCode.DESCENDANT_BORN_BEFORE_ANCESTOR, null).getRelatedItems(true).add(a);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Individual i : getValidator().getIndividualsToCheck()) {
+            if (i != null) {
+                checkIndividual(i);
             }
         }
     }
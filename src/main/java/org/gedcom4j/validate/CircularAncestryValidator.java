@@ -26,25 +26,63 @@
  */
 package org.gedcom4j.validate;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
 import org.gedcom4j.model.Family;
 import org.gedcom4j.model.FamilyChild;
 import org.gedcom4j.model.Individual;
-import org.gedcom4j.relationship.Relationship;
-import org.gedcom4j.relationship.RelationshipCalculator;
 import org.gedcom4j.validate.Validator.Finding;
 
 /**
- * Validator that finds circular ancestral relationships
+ * Validator that finds circular ancestral relationships. Each individual whose father or mother is also a descendant is reported,
+ * with everyone else caught up in the same circular relationship, in order of xref, as related items. The circular relationships
+ * are found with {@link org.gedcom4j.relationship.PedigreeIndex#getCircularRelationship(Individual)}, so checking the whole file
+ * takes time in proportion to the number of individuals and parent links.
  * 
  * @author frizbog
  */
-public class CircularAncestryValidator extends AbstractValidator {
+public class CircularAncestryValidator extends AbstractValidator implements IndividualRule {
+
+    /**
+     * Orders individuals by xref, with those that have none last, so that related items come out in the same order however the
+     * circular relationship was found
+     */
+    private static final class XrefComparator implements Comparator<Individual>, Serializable {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = -4383917094637151247L;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compare(Individual i1, Individual i2) {
+            String x1 = i1.getXref();
+            String x2 = i2.getXref();
+            if (x1 == null) {
+                return x2 == null ? 0 : 1;
+            }
+            return x2 == null ? -1 : x1.compareTo(x2);
+        }
+    }
 
     /**
      * Serial Version UID
      */
     private static final long serialVersionUID = 8632496421513471225L;
 
+    /**
+     * Orders the related items of each finding
+     */
+    private static final Comparator<Individual> BY_XREF = new XrefComparator();
+
     /**
      * @param validator
      *            the main {@link Validator} that orchestrates validation, tracks results,etc.
@@ -57,38 +95,60 @@ public class CircularAncestryValidator extends AbstractValidator {
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-        RelationshipCalculator rc = new RelationshipCalculator();
-        for (Individual i : getValidator().getGedcom().getIndividuals().values()) {
-            if (i == null || i.getFamiliesWhereChild() == null) {
-                continue;
+    public void checkIndividual(Individual i) {
+        if (i.getFamiliesWhereChild() == null) {
+            return;
+        }
+        Set<Individual> circle = getValidator().getPedigreeIndex().getCircularRelationship(i);
+        if (circle.isEmpty()) {
+            return;
+        }
+        for (FamilyChild fc : i.getFamiliesWhereChild()) {
+            Family f = fc.getFamily();
+
+            // Check father's side
+            Individual father = (f.getHusband() == null ? null : f.getHusband().getIndividual());
+            if (father != null && circle.contains(father)) {
+                addFinding(i, circle);
             }
-            for (FamilyChild fc : i.getFamiliesWhereChild()) {
-                Family f = fc.getFamily();
 
-                // Check father's side
-                Individual father = (f.getHusband() == null ? null : f.getHusband().getIndividual());
-                if (father != null && father.getAncestors().contains(i)) {
-                    Finding finding = newFinding(i, Severity.ERROR, ProblemCode.CIRCULAR_ANCESTRAL_RELATIONSHIP,
-                            "familiesWhereChild");
-                    rc.calculateRelationships(father, i, false);
-                    for (Relationship r : rc.getRelationshipsFound()) {
-                        finding.getRelatedItems(true).add(r.getIndividual2());
-                    }
-                }
+            // Check mother's side
+            Individual mother = (f.getWife() == null ? null : f.getWife().getIndividual());
+            if (mother != null && circle.contains(mother)) {
+                addFinding(i, circle);
+            }
+        }
+    }
 
-                // Check mother's side
-                Individual mother = (f.getWife() == null ? null : f.getWife().getIndividual());
-                if (mother != null && mother.getAncestors().contains(i)) {
-                    Finding finding = newFinding(i, Severity.ERROR, ProblemCode.CIRCULAR_ANCESTRAL_RELATIONSHIP,
-                            "familiesWhereChild");
-                    rc.calculateRelationships(mother, i, false);
-                    for (Relationship r : rc.getRelationshipsFound()) {
-                        finding.getRelatedItems(true).add(r.getIndividual2());
-                    }
-                }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Individual i : getValidator().getIndividualsToCheck()) {
+            if (i != null) {
+                checkIndividual(i);
             }
+        }
+    }
 
+    /**
+     * Report an individual as being his or her own ancestor
+     * 
+     * @param i
+     *            the individual
+     * @param circle
+     *            everyone in the same circular relationship as the individual, including the individual
+     */
+    private void addFinding(Individual i, Set<Individual> circle) {
+        List<Individual> others = new ArrayList<>(circle.size());
+        for (Individual other : circle) {
+            if (other != i) { // NOPMD - deliberate checking if same individual
+                others.add(other);
+            }
         }
+        Collections.sort(others, BY_XREF);
+        Finding finding = newFinding(i, Severity.ERROR, ProblemCode.CIRCULAR_ANCESTRAL_RELATIONSHIP, "familiesWhereChild");
+        finding.getRelatedItems(true).addAll(others);
     }
 }
@@ -32,7 +32,6 @@ import org.gedcom4j.model.Family;
 import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.IndividualEventType;
-import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 
 /**
@@ -40,7 +39,7 @@ import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
  * 
  * @author frizbog
  */
-public class CouplesWithLargeAgeDifferencesValidator extends AbstractValidator {
+public class CouplesWithLargeAgeDifferencesValidator extends AbstractValidator implements FamilyRule {
 
     /**
      * Serial Version UID
@@ -66,40 +65,47 @@ public class CouplesWithLargeAgeDifferencesValidator extends AbstractValidator {
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-        DateParser dp = new DateParser();
+    public void checkFamily(Family f) {
+        if (f.getHusband() == null || f.getWife() == null) {
+            return;
+        }
 
-        for (Family f : getValidator().getGedcom().getFamilies().values()) {
-            if (f == null || f.getHusband() == null || f.getWife() == null) {
-                continue;
-            }
+        Individual husband = (f.getHusband() == null ? null : f.getHusband().getIndividual());
+        IndividualEvent husbandLatestBirth = getLatestEventOfType(husband, IndividualEventType.BIRTH);
+        Date husbandLatestBirthDate = null;
+        if (husbandLatestBirth != null) {
+            husbandLatestBirthDate = parseDate(husbandLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
+        }
 
-            Individual husband = (f.getHusband() == null ? null : f.getHusband().getIndividual());
-            IndividualEvent husbandLatestBirth = getLatestEventOfType(husband, IndividualEventType.BIRTH);
-            Date husbandLatestBirthDate = null;
-            if (husbandLatestBirth != null) {
-                husbandLatestBirthDate = dp.parse(husbandLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
-            }
+        Individual wife = (f.getWife() == null ? null : f.getWife().getIndividual());
+        IndividualEvent wifeLatestBirth = getLatestEventOfType(wife, IndividualEventType.BIRTH);
+        Date wifeLatestBirthDate = null;
+        if (wifeLatestBirth != null) {
+            wifeLatestBirthDate = parseDate(wifeLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
+        }
 
-            Individual wife = (f.getWife() == null ? null : f.getWife().getIndividual());
-            IndividualEvent wifeLatestBirth = getLatestEventOfType(wife, IndividualEventType.BIRTH);
-            Date wifeLatestBirthDate = null;
-            if (wifeLatestBirth != null) {
-                wifeLatestBirthDate = dp.parse(wifeLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
-            }
+        // Both spouses need a birth date to proceed
+        if ((husbandLatestBirthDate == null || wifeLatestBirthDate == null)) {
+            return;
+        }
 
-            // Both spouses need a birth date to proceed
-            if ((husbandLatestBirthDate == null || wifeLatestBirthDate == null)) {
-                continue;
-            }
+        long diff = Math.abs(husbandLatestBirthDate.getTime() - wifeLatestBirthDate.getTime());
 
-            long diff = Math.abs(husbandLatestBirthDate.getTime() - wifeLatestBirthDate.getTime());
+        if (diff >= MILLIS_IN_FIFTEEN_YEARS) {
+            newFinding(f, Severity.WARNING, ProblemCode.COUPLE_MORE_THAN_FIFTEEN_YEARS_AGE_DIFFERENCE, null);
+        }
+    }
 
-            if (diff >= MILLIS_IN_FIFTEEN_YEARS) {
-                newFinding(f, Severity.WARNING, ProblemCode.COUPLE_MORE_THAN_FIFTEEN_YEARS_AGE_DIFFERENCE, null);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Family f : getValidator().getFamiliesToCheck()) {
+            if (f != null) {
+                checkFamily(f);
             }
         }
-
     }
 
 }
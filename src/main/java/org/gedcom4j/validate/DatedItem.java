@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * An item paired with the date it happened. Lists of these can be grouped into runs of items that happened within a window of
+ * each other by sorting them once and sweeping through them in date order, rather than comparing every item with every other.
+ * 
+ * @param <T>
+ *            the type of item
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class DatedItem<T> implements Comparable<DatedItem<T>> {
+
+    /**
+     * The window within which births are treated as the same birth (twins, triplets, etc.) - 48 hours, in milliseconds
+     */
+    static final long MULTIPLE_BIRTH_WINDOW = 48L * 60 * 60 * 1000;
+
+    /**
+     * The date the item happened
+     */
+    private final Date date;
+
+    /**
+     * The item
+     */
+    private final T item;
+
+    /**
+     * Constructor
+     * 
+     * @param date
+     *            the date the item happened. Required.
+     * @param item
+     *            the item
+     */
+    DatedItem(Date date, T item) {
+        this.date = date;
+        this.item = item;
+    }
+
+    /**
+     * Sort the items by date and group them. The earliest item starts the first group, and every later item less than
+     * <code>window</code> milliseconds after it joins that group. The first item at or beyond the window starts the next group,
+     * and so on. Items with the same date stay in the order they were supplied.
+     * <p>
+     * So the groups don't depend on the order the items are supplied in. This differs from the way the multiple-birth validators
+     * grouped births before 4.0.2, where each birth, in the order the children were listed, joined every existing group within 48
+     * hours of that group's first-listed birth: children born on days 1.5, 0 and 3, listed in that order, used to make one group
+     * of three, but make two groups (days 0 and 1.5, then day 3) here.
+     * </p>
+     * 
+     * @param <T>
+     *            the type of item
+     * @param items
+     *            the items to group. Sorted in place.
+     * @param window
+     *            the width of each group, in milliseconds
+     * @return the groups, in date order, each holding its items in date order. Never null.
+     */
+    static <T> List<List<DatedItem<T>>> groupWithinWindow(List<DatedItem<T>> items, long window) {
+        Collections.sort(items);
+        List<List<DatedItem<T>>> result = new ArrayList<>();
+        List<DatedItem<T>> group = null;
+        long groupStart = 0;
+        for (DatedItem<T> di : items) {
+            long time = di.date.getTime();
+            if (group == null || time - groupStart >= window) {
+                group = new ArrayList<>();
+                result.add(group);
+                groupStart = time;
+            }
+            group.add(di);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo(DatedItem<T> o) {
+        return date.compareTo(o.date);
+    }
+
+    /**
+     * Get the date the item happened
+     * 
+     * @return the date the item happened
+     */
+    public Date getDate() {
+        return date;
+    }
+
+    /**
+     * Get the item
+     * 
+     * @return the item
+     */
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "DatedItem [date=" + date + ", item=" + item + "]";
+    }
+}
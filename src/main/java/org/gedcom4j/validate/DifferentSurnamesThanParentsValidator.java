@@ -26,7 +26,8 @@
  */
 package org.gedcom4j.validate;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -39,7 +40,7 @@ import org.gedcom4j.validate.Validator.Finding;
  * 
  * @author frizbog
  */
-public class DifferentSurnamesThanParentsValidator extends AbstractValidator {
+public class DifferentSurnamesThanParentsValidator extends AbstractValidator implements IndividualRule {
 
     /**
      * Serial Version UID
@@ -60,36 +61,46 @@ public class DifferentSurnamesThanParentsValidator extends AbstractValidator {
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-        for (Individual i : getValidator().getGedcom().getIndividuals().values()) {
-            if (i == null || i.getFamiliesWhereChild() == null || i.getFamiliesWhereChild().isEmpty()) {
-                continue;
-            }
-            Set<String> personSurnames = i.getSurnames();
-            Set<String> allParentSurnames = new TreeSet<>();
-            Set<Individual> parents = new HashSet<>();
-            for (FamilyChild fc : i.getFamiliesWhereChild()) {
-                if (fc.getFamily().getHusband() != null && fc.getFamily().getHusband().getIndividual() != null) {
-                    Individual h = fc.getFamily().getHusband().getIndividual();
-                    parents.add(h);
-                    allParentSurnames.addAll(h.getSurnames());
-                }
-                if (fc.getFamily().getWife() != null && fc.getFamily().getWife().getIndividual() != null) {
-                    Individual w = fc.getFamily().getWife().getIndividual();
-                    parents.add(w);
-                    allParentSurnames.addAll(w.getSurnames());
-                }
+    public void checkIndividual(Individual i) {
+        if (i.getFamiliesWhereChild() == null || i.getFamiliesWhereChild().isEmpty()) {
+            return;
+        }
+        Set<String> personSurnames = i.getSurnames();
+        Set<String> allParentSurnames = new TreeSet<>();
+        List<Individual> parents = new ArrayList<>();
+        for (FamilyChild fc : i.getFamiliesWhereChild()) {
+            if (fc.getFamily().getHusband() != null && fc.getFamily().getHusband().getIndividual() != null) {
+                Individual h = fc.getFamily().getHusband().getIndividual();
+                addIfAbsent(parents, h);
+                allParentSurnames.addAll(h.getSurnames());
             }
-            if (allParentSurnames.isEmpty()) {
-                continue;
+            if (fc.getFamily().getWife() != null && fc.getFamily().getWife().getIndividual() != null) {
+                Individual w = fc.getFamily().getWife().getIndividual();
+                addIfAbsent(parents, w);
+                allParentSurnames.addAll(w.getSurnames());
             }
+        }
+        if (allParentSurnames.isEmpty()) {
+            return;
+        }
 
-            Set<String> commonSurnames = new TreeSet<>(allParentSurnames);
-            commonSurnames.retainAll(personSurnames);
-            if (commonSurnames.isEmpty()) {
-                // Found a problem
-                Finding newFinding = newFinding(i, Severity.WARNING, ProblemCode.SURNAMES_DONT_MATCH_PARENTS, "surnames");
-                newFinding.getRelatedItems(true).addAll(parents);
+        Set<String> commonSurnames = new TreeSet<>(allParentSurnames);
+        commonSurnames.retainAll(personSurnames);
+        if (commonSurnames.isEmpty()) {
+            // Found a problem
+            Finding newFinding = newFinding(i, Severity.WARNING, ProblemCode.SURNAMES_DONT_MATCH_PARENTS, "surnames");
+            newFinding.getRelatedItems(true).addAll(parents);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Individual i : getValidator().getIndividualsToCheck()) {
+            if (i != null) {
+                checkIndividual(i);
             }
         }
     }
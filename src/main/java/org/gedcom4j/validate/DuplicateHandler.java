@@ -26,13 +26,22 @@
  */
 package org.gedcom4j.validate;
 
-import java.util.HashSet;
 import java.util.List;
 
 /**
+ * <p>
  * A class to detect or eliminate duplicate items from a {@link List}, while preserving the order of the List items. Can either
  * count the duplicated items, or can remove them. When removing items and the list contains two or more references to equivalent
  * objects, only the first of these is retained. Assumes that the List of items passed into the constructor is mutable.
+ * </p>
+ * <p>
+ * Model elements have deep {@link Object#hashCode()} and {@link Object#equals(Object)} implementations, so the list is scanned
+ * with each item's hash code worked out only once, and {@link Object#equals(Object)} is only called for items with the same hash
+ * code that are not the very same object. Lists of fewer than two items are not scanned at all. The duplicates found by
+ * {@link #count()} are remembered, so that a call to {@link #remove()} straight afterwards need not scan the list again. The list
+ * is scanned again anyway if it no longer holds the very same items in the same places - if any have been added, removed or
+ * replaced in between - but the items themselves must not be changed in between.
+ * </p>
  * 
  * @author frizbog
  * @param <T>
@@ -45,6 +54,22 @@ class DuplicateHandler<T> {
      */
     private final List<T> items;
 
+    /**
+     * The positions in the list of the duplicates found by the last scan, in ascending order. Only the first
+     * {@link #duplicateCount} entries are used.
+     */
+    private int[] duplicates;
+
+    /**
+     * The number of duplicates found by the last scan
+     */
+    private int duplicateCount;
+
+    /**
+     * The items in the list when it was last scanned, or null if the duplicates found by the last scan can no longer be relied on
+     */
+    private Object[] scanned;
+
     /**
      * Constructor.
      * 
@@ -61,7 +86,20 @@ class DuplicateHandler<T> {
      * @return the number of duplicated items remove
      */
     public int remove() {
-        return process(true);
+        if (items == null) {
+            return 0;
+        }
+        if (!isScanCurrent()) {
+            scan();
+        }
+        int result = duplicateCount;
+        // Remove from the end, so the positions of the duplicates still to be removed don't move
+        for (int d = duplicateCount - 1; d >= 0; d--) {
+            items.remove(duplicates[d]);
+        }
+        duplicateCount = 0;
+        scanned = null;
+        return result;
     }
 
     /**
@@ -70,40 +108,71 @@ class DuplicateHandler<T> {
      * @return the number of duplicated items counted
      */
     int count() {
-        return process(false);
+        if (items == null) {
+            return 0;
+        }
+        scan();
+        return duplicateCount;
     }
 
     /**
-     * Process the list, either counting or eliminating duplicates
-     * 
-     * @param remove
-     *            pass in true if duplicates are to be removed, or false if duplicates are to be merely counted.
+     * Whether the list still holds the very same items, in the same places, as when it was last scanned
      * 
-     * @return the number of duplicated items counted or removed
+     * @return true if the duplicates found by the last scan are still where they were found
      */
-    private int process(boolean remove) {
-        if (items == null || items.isEmpty()) {
-            return 0;
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private boolean isScanCurrent() {
+        if (scanned == null || scanned.length != items.size()) {
+            return false;
         }
-        int result = 0;
-        HashSet<T> unique = new HashSet<>();
         int i = 0;
-        while (i < items.size()) {
-            T item = items.get(i);
-            if (unique.contains(item)) {
-                result++;
-                if (remove) {
-                    items.remove(i);
-                } else {
-                    i++;
+        for (T item : items) {
+            if (item != scanned[i++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scan the list for duplicates, using an open-addressed table of the positions of the distinct items seen so far, keyed by their
+     * hash codes
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private void scan() {
+        Object[] elements = items.toArray();
+        int n = elements.length;
+        duplicateCount = 0;
+        scanned = elements;
+        if (n < 2) {
+            return;
+        }
+        int[] hashes = new int[n];
+        int[] table = new int[Integer.highestOneBit(n * 2 - 1) << 1];
+        int mask = table.length - 1;
+        for (int i = 0; i < n; i++) {
+            Object item = elements[i];
+            int h = item == null ? 0 : item.hashCode();
+            hashes[i] = h;
+            int slot = (h ^ h >>> 16) & mask;
+            boolean duplicate = false;
+            while (table[slot] != 0) {
+                int j = table[slot] - 1;
+                if (hashes[j] == h && (elements[j] == item || item != null && item.equals(elements[j]))) {
+                    duplicate = true;
+                    break;
                 }
+                slot = slot + 1 & mask;
+            }
+            if (duplicate) {
+                if (duplicates == null || duplicates.length < n) {
+                    duplicates = new int[n];
+                }
+                duplicates[duplicateCount++] = i;
             } else {
-                unique.add(item);
-                i++;
+                table[slot] = i + 1;
             }
         }
-
-        return result;
     }
 
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import org.gedcom4j.validate.Validator.Finding;
+
+/**
+ * <p>
+ * Somewhere for a {@link Validator} to send its findings as validation makes them. By default findings go to the validator's
+ * {@link ValidationResults}, which keep them all in memory; a sink set with {@link Validator#setFindingSink(FindingSink)} can
+ * instead write them out, count them, or throw them away, so that validating a file with a great many problems need not hold on to
+ * all of them.
+ * </p>
+ * <p>
+ * Each finding is sent once the check that made it has finished with it, so its related items and repairs are complete. Findings
+ * are sent one at a time, never from two threads at once, and mostly from the thread that called {@link Validator#validate()}, in
+ * the same order they would be added to the results. The exception is the findings of the {@link IndividualRule}s and
+ * {@link FamilyRule}s, which share passes over the records: they are sent after each record, so they need not all be held until the
+ * end, mixed in the order the rules are applied to the records - and, when validating with a pool, from the threads of the pool.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public interface FindingSink {
+
+    /**
+     * Receive a finding
+     * 
+     * @param finding
+     *            the finding. Never null.
+     * @return true if validation should carry on, or false if it should stop as soon as it can, sending no more findings
+     */
+    boolean accept(Finding finding);
+}
@@ -32,25 +32,20 @@ import java.util.List;
 import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.IndividualEventType;
-import org.gedcom4j.parser.DateParser;
+import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 
 /**
  * Validator that checks for birth or death dates in the future
  * 
  * @author frizbog
  */
-public class FutureBirthOrDeathValidator extends AbstractValidator {
+public class FutureBirthOrDeathValidator extends AbstractValidator implements IndividualRule {
 
     /**
      * Serial Version UID
      */
     private static final long serialVersionUID = -8668522986153083890L;
 
-    /**
-     * Date parser
-     */
-    private final DateParser dp = new DateParser();
-
     /**
      * Right now
      */
@@ -71,32 +66,39 @@ public class FutureBirthOrDeathValidator extends AbstractValidator {
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-        for (Individual i : getValidator().getGedcom().getIndividuals().values()) {
-            if (i == null) {
-                continue;
-            }
-            List<IndividualEvent> births = i.getEventsOfType(IndividualEventType.BIRTH);
-            for (IndividualEvent b : births) {
-                if (b.getDate() != null && b.getDate().getValue() != null && !b.getDate().getValue().isEmpty()) {
-                    String dateString = b.getDate().getValue();
-                    Date bd = dp.parse(dateString);
-                    if (bd != null && now.before(bd)) {
-                        newFinding(b, Severity.ERROR, ProblemCode.DATE_IN_FUTURE, "date").getRelatedItems(true).add(i);
-                    }
+    public void checkIndividual(Individual i) {
+        List<IndividualEvent> births = i.getEventsOfType(IndividualEventType.BIRTH);
+        for (IndividualEvent b : births) {
+            if (b.getDate() != null && b.getDate().getValue() != null && !b.getDate().getValue().isEmpty()) {
+                String dateString = b.getDate().getValue();
+                Date bd = parseDate(dateString, ImpreciseDatePreference.PRECISE);
+                if (bd != null && now.before(bd)) {
+                    newFinding(b, Severity.ERROR, ProblemCode.DATE_IN_FUTURE, "date").getRelatedItems(true).add(i);
                 }
             }
-            List<IndividualEvent> deaths = i.getEventsOfType(IndividualEventType.DEATH);
-            for (IndividualEvent d : deaths) {
-                if (d.getDate() != null && d.getDate().getValue() != null && !d.getDate().getValue().isEmpty()) {
-                    String dateString = d.getDate().getValue();
-                    Date dd = dp.parse(dateString);
-                    if (dd != null && now.before(dd)) {
-                        newFinding(d, Severity.ERROR, ProblemCode.DATE_IN_FUTURE, "date").getRelatedItems(true).add(i);
-                    }
+        }
+        List<IndividualEvent> deaths = i.getEventsOfType(IndividualEventType.DEATH);
+        for (IndividualEvent d : deaths) {
+            if (d.getDate() != null && d.getDate().getValue() != null && !d.getDate().getValue().isEmpty()) {
+                String dateString = d.getDate().getValue();
+                Date dd = parseDate(dateString, ImpreciseDatePreference.PRECISE);
+                if (dd != null && now.before(dd)) {
+                    newFinding(d, Severity.ERROR, ProblemCode.DATE_IN_FUTURE, "date").getRelatedItems(true).add(i);
                 }
             }
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Individual i : getValidator().getIndividualsToCheck()) {
+            if (i != null) {
+                checkIndividual(i);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import org.gedcom4j.model.Individual;
+
+/**
+ * <p>
+ * A supplementary validator that checks individuals one at a time.
+ * </p>
+ * <p>
+ * When a supplementary validator registered with the {@link Validator} implements this interface, the {@link Validator} does
+ * not call its {@link AbstractValidator#validate()} method. Instead it makes a single pass over the individuals for all such
+ * validators together, handing each individual to each of them in turn, so the individuals are traversed once however many of
+ * these rules there are. The validator's own {@link AbstractValidator#validate()} method should do no more than call
+ * {@link #checkIndividual(Individual)} for each individual, so that it gives the same findings when used on its own.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public interface IndividualRule {
+
+    /**
+     * Check one individual
+     * 
+     * @param individual
+     *            the individual to check. Never null.
+     */
+    void checkIndividual(Individual individual);
+}
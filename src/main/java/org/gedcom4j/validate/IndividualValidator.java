@@ -75,50 +75,55 @@ class IndividualValidator extends AbstractValidator {
      */
     @Override
     protected void validate() {
-        xrefMustBePresentAndWellFormed(individual);
-        checkUninitializedCollection(individual, "names");
-        List<PersonalName> names = individual.getNames();
-        if (names != null) {
-            checkListOfModelElementsForDups(individual, "names");
-            checkListOfModelElementsForNulls(individual, "names");
-            for (PersonalName pn : names) {
-                if (pn != null) {
-                    new PersonalNameValidator(getValidator(), pn).validate();
+        getValidator().beginRecord(individual);
+        try {
+            xrefMustBePresentAndWellFormed(individual);
+            checkUninitializedCollection(individual, "names");
+            List<PersonalName> names = individual.getNames();
+            if (names != null) {
+                checkListOfModelElementsForDups(individual, "names");
+                checkListOfModelElementsForNulls(individual, "names");
+                for (PersonalName pn : names) {
+                    if (pn != null) {
+                        new PersonalNameValidator(getValidator(), pn).validate();
+                    }
                 }
             }
-        }
-        checkUninitializedCollection(individual, "familiesWhereChild");
-        if (individual.getFamiliesWhereChild() != null) {
-            checkListOfModelElementsForDups(individual, "familiesWhereChild");
-            checkListOfModelElementsForNulls(individual, "familiesWhereChild");
-            for (FamilyChild fc : individual.getFamiliesWhereChild()) {
-                new FamilyChildValidator(getValidator(), fc).validate();
+            checkUninitializedCollection(individual, "familiesWhereChild");
+            if (individual.getFamiliesWhereChild() != null) {
+                checkListOfModelElementsForDups(individual, "familiesWhereChild");
+                checkListOfModelElementsForNulls(individual, "familiesWhereChild");
+                for (FamilyChild fc : individual.getFamiliesWhereChild()) {
+                    new FamilyChildValidator(getValidator(), fc).validate();
+                }
             }
-        }
-        checkUninitializedCollection(individual, "familiesWhereSpouse");
-        if (individual.getFamiliesWhereSpouse() != null) {
-            checkListOfModelElementsForDups(individual, "familiesWhereSpouse");
-            checkListOfModelElementsForNulls(individual, "familiesWhereSpouse");
-            for (FamilySpouse fs : individual.getFamiliesWhereSpouse()) {
-                new FamilySpouseValidator(getValidator(), fs).validate();
+            checkUninitializedCollection(individual, "familiesWhereSpouse");
+            if (individual.getFamiliesWhereSpouse() != null) {
+                checkListOfModelElementsForDups(individual, "familiesWhereSpouse");
+                checkListOfModelElementsForNulls(individual, "familiesWhereSpouse");
+                for (FamilySpouse fs : individual.getFamiliesWhereSpouse()) {
+                    new FamilySpouseValidator(getValidator(), fs).validate();
+                }
             }
+            if (individual.getRestrictionNotice() != null) {
+                mustBeInEnumIfSpecified(RestrictionNoticeType.class, individual, "restrictionNotice");
+            }
+            checkAliases();
+            checkAssociations();
+            checkCitations(individual);
+            checkIndividualAttributes();
+            checkSubmitters();
+            checkIndividualEvents();
+            checkLdsIndividualOrdinances();
+            checkNotes(individual);
+            checkCustomFacts(individual);
+            checkEmails(individual);
+            checkFaxNumbers(individual);
+            checkPhoneNumbers(individual);
+            checkWwwUrls(individual);
+        } finally {
+            getValidator().endRecord();
         }
-        if (individual.getRestrictionNotice() != null) {
-            mustBeInEnumIfSpecified(RestrictionNoticeType.class, individual, "restrictionNotice");
-        }
-        checkAliases();
-        checkAssociations();
-        checkCitations(individual);
-        checkIndividualAttributes();
-        checkSubmitters();
-        checkIndividualEvents();
-        checkLdsIndividualOrdinances();
-        checkNotes(individual);
-        checkCustomFacts(individual);
-        checkEmails(individual);
-        checkFaxNumbers(individual);
-        checkPhoneNumbers(individual);
-        checkWwwUrls(individual);
     }
 
     /**
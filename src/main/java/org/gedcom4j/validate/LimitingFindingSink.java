@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.gedcom4j.validate.Validator.Finding;
+
+/**
+ * A {@link FindingSink} that passes findings on to another sink, up to a limit. Findings beyond the limit for their problem code
+ * are counted but not passed on, and validation is stopped once a given number of errors have been found, since by then the file
+ * is known to be bad and the rest of its problems are seldom of interest.
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class LimitingFindingSink implements FindingSink {
+
+    /**
+     * The sink the findings within the limits are passed on to
+     */
+    private final FindingSink delegate;
+
+    /**
+     * The number of findings received so far for each problem code
+     */
+    private final Map<Integer, Integer> countsByCode = new HashMap<>();
+
+    /**
+     * The number of findings with a severity of {@link Severity#ERROR} received so far
+     */
+    private int errorCount;
+
+    /**
+     * The number of errors after which validation should stop, or zero for no limit
+     */
+    private int maxErrors;
+
+    /**
+     * The most findings to pass on for any one problem code, or zero for no limit
+     */
+    private int maxFindingsPerProblemCode;
+
+    /**
+     * The number of findings received but not passed on because their problem code was over the limit
+     */
+    private int suppressedCount;
+
+    /**
+     * Constructor
+     * 
+     * @param delegate
+     *            the sink to pass the findings within the limits on to. Required.
+     * @throws IllegalArgumentException
+     *             if delegate is null
+     */
+    public LimitingFindingSink(FindingSink delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate is a required argument");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean accept(Finding finding) {
+        boolean carryOn = true;
+        Integer count = countsByCode.get(finding.getProblemCode());
+        count = count == null ? 1 : count + 1;
+        countsByCode.put(finding.getProblemCode(), count);
+        if (maxFindingsPerProblemCode > 0 && count > maxFindingsPerProblemCode) {
+            suppressedCount++;
+        } else {
+            carryOn = delegate.accept(finding);
+        }
+        if (finding.getSeverity() == Severity.ERROR) {
+            errorCount++;
+            if (maxErrors > 0 && errorCount >= maxErrors) {
+                carryOn = false;
+            }
+        }
+        return carryOn;
+    }
+
+    /**
+     * Get the number of findings with a severity of {@link Severity#ERROR} received so far, whether passed on or not
+     * 
+     * @return the number of errors received so far
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Get the number of errors after which validation should stop
+     * 
+     * @return the number of errors after which validation should stop, or zero for no limit
+     */
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * Get the most findings to pass on for any one problem code
+     * 
+     * @return the most findings to pass on for any one problem code, or zero for no limit
+     */
+    public int getMaxFindingsPerProblemCode() {
+        return maxFindingsPerProblemCode;
+    }
+
+    /**
+     * Get the number of findings received for a problem code, whether passed on or not
+     * 
+     * @param problemCode
+     *            the problem code
+     * @return the number of findings received for the problem code
+     */
+    public int getReceivedCount(int problemCode) {
+        Integer count = countsByCode.get(problemCode);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Get the number of findings received but not passed on because there were already as many findings with the same problem code
+     * as allowed
+     * 
+     * @return the number of findings not passed on
+     */
+    public int getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    /**
+     * Set the number of errors after which validation should stop. The error that reaches the limit is still passed on.
+     * 
+     * @param maxErrors
+     *            the number of errors after which validation should stop, or zero for no limit
+     */
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Set the most findings to pass on for any one problem code
+     * 
+     * @param maxFindingsPerProblemCode
+     *            the most findings to pass on for any one problem code, or zero for no limit
+     */
+    public void setMaxFindingsPerProblemCode(int maxFindingsPerProblemCode) {
+        this.maxFindingsPerProblemCode = maxFindingsPerProblemCode;
+    }
+}
@@ -34,7 +34,7 @@ import org.gedcom4j.model.Individual;
  * 
  * @author frizbog
  */
-public class MaleWivesFemaleHusbandsValidator extends AbstractValidator {
+public class MaleWivesFemaleHusbandsValidator extends AbstractValidator implements FamilyRule {
 
     /**
      * Serial Version UID
@@ -52,25 +52,31 @@ public class MaleWivesFemaleHusbandsValidator extends AbstractValidator {
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void checkFamily(Family f) {
+        Individual w = (f.getWife() == null ? null : f.getWife().getIndividual());
+        Individual h = (f.getHusband() == null ? null : f.getHusband().getIndividual());
+        if (w != null && w.getSex() != null && "M".equals(w.getSex().getValue())) {
+            newFinding(f, Severity.WARNING, ProblemCode.WIFE_IS_MALE, "wife");
+        }
+        if (h != null && h.getSex() != null && "F".equals(h.getSex().getValue())) {
+            newFinding(f, Severity.WARNING, ProblemCode.HUSBAND_IS_FEMALE, "husband");
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     protected void validate() {
-        for (Family f : getValidator().getGedcom().getFamilies().values()) {
-            if (f == null) {
-                continue;
-            }
-            Individual w = (f.getWife() == null ? null : f.getWife().getIndividual());
-            Individual h = (f.getHusband() == null ? null : f.getHusband().getIndividual());
-            if (w != null && w.getSex() != null && "M".equals(w.getSex().getValue())) {
-                newFinding(f, Severity.WARNING, ProblemCode.WIFE_IS_MALE, "wife");
-            }
-            if (h != null && h.getSex() != null && "F".equals(h.getSex().getValue())) {
-                newFinding(f, Severity.WARNING, ProblemCode.HUSBAND_IS_FEMALE, "husband");
+        for (Family f : getValidator().getFamiliesToCheck()) {
+            if (f != null) {
+                checkFamily(f);
             }
         }
-
     }
 
 }
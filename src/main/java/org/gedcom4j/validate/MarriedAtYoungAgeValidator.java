@@ -34,7 +34,6 @@ import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.enumerations.FamilyEventType;
 import org.gedcom4j.model.enumerations.IndividualEventType;
-import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.validate.Validator.Finding;
 
@@ -44,7 +43,7 @@ import org.gedcom4j.validate.Validator.Finding;
  * 
  * @author frizbog
  */
-public class MarriedAtYoungAgeValidator extends AbstractValidator {
+public class MarriedAtYoungAgeValidator extends AbstractValidator implements FamilyRule {
 
     /**
      * Serial Version UID
@@ -56,11 +55,6 @@ public class MarriedAtYoungAgeValidator extends AbstractValidator {
      */
     private static final long MILLIS_IN_SIXTEEN_YEARS = (long) (16 * 365.25 * 24 * 60 * 60 * 1000);
 
-    /**
-     * Date parser
-     */
-    private final DateParser dp = new DateParser();
-
     /**
      * Constructor
      * 
@@ -75,31 +69,40 @@ public class MarriedAtYoungAgeValidator extends AbstractValidator {
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-
-        for (Family f : getValidator().getGedcom().getFamilies().values()) {
-            if (f == null || f.getHusband() == null || f.getWife() == null || f.getEvents() == null || f.getEvents().isEmpty()) {
-                continue;
-            }
+    public void checkFamily(Family f) {
+        if (f.getHusband() == null || f.getWife() == null || f.getEvents() == null || f.getEvents().isEmpty()) {
+            return;
+        }
 
-            // Get the earliest possible marriage date
-            FamilyEvent earliestMarriage = null;
-            Date earliestMarriageDate = new Date();
-            for (FamilyEvent e : f.getEvents()) {
-                if (e.getType() == FamilyEventType.MARRIAGE && e.getDate() != null && e.getDate().getValue() != null) {
-                    Date d = dp.parse(e.getDate().getValue());
-                    if (d != null && d.before(earliestMarriageDate)) {
-                        earliestMarriage = e;
-                        earliestMarriageDate = d;
-                    }
+        // Get the earliest possible marriage date
+        FamilyEvent earliestMarriage = null;
+        Date earliestMarriageDate = new Date();
+        for (FamilyEvent e : f.getEvents()) {
+            if (e.getType() == FamilyEventType.MARRIAGE && e.getDate() != null && e.getDate().getValue() != null) {
+                Date d = parseDate(e.getDate().getValue(), ImpreciseDatePreference.PRECISE);
+                if (d != null && d.before(earliestMarriageDate)) {
+                    earliestMarriage = e;
+                    earliestMarriageDate = d;
                 }
             }
-            if (earliestMarriage == null) {
-                continue;
-            }
+        }
+        if (earliestMarriage == null) {
+            return;
+        }
 
-            checkHusband(f, earliestMarriage, earliestMarriageDate);
-            checkWife(f, earliestMarriage, earliestMarriageDate);
+        checkHusband(f, earliestMarriage, earliestMarriageDate);
+        checkWife(f, earliestMarriage, earliestMarriageDate);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Family f : getValidator().getFamiliesToCheck()) {
+            if (f != null) {
+                checkFamily(f);
+            }
         }
     }
 
@@ -119,7 +122,7 @@ public class MarriedAtYoungAgeValidator extends AbstractValidator {
         if (husbandLatestBirth == null) {
             return;
         }
-        Date husbandLatestBirthDate = dp.parse(husbandLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
+        Date husbandLatestBirthDate = parseDate(husbandLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
         if (husbandLatestBirthDate != null) {
             long hDiff = earliestMarriageDate.getTime() - husbandLatestBirthDate.getTime();
             if (hDiff <= MILLIS_IN_SIXTEEN_YEARS) {
@@ -145,7 +148,7 @@ public class MarriedAtYoungAgeValidator extends AbstractValidator {
         if (wifeLatestBirth == null) {
             return;
         }
-        Date wifeLatestBirthDate = dp.parse(wifeLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
+        Date wifeLatestBirthDate = parseDate(wifeLatestBirth.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
         if (wifeLatestBirthDate != null) {
             long wDiff = earliestMarriageDate.getTime() - wifeLatestBirthDate.getTime();
             if (wDiff <= MILLIS_IN_SIXTEEN_YEARS) {
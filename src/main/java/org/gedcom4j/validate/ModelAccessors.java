@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.gedcom4j.exception.ValidationException;
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * <p>
+ * Access to the fields of objects by name, and to the copy constructors of model elements, for the validators.
+ * </p>
+ * <p>
+ * Each getter and copy constructor is looked up by reflection once per class, and kept as a {@link MethodHandle} from then on, so
+ * that checking a field of a record costs a map lookup and a direct call rather than a reflective search. Thread-safe.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class ModelAccessors {
+
+    /**
+     * The type every getter handle is adapted to
+     */
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * The type every copy constructor handle is adapted to
+     */
+    private static final MethodType COPY_CONSTRUCTOR_TYPE = MethodType.methodType(ModelElement.class, ModelElement.class);
+
+    /**
+     * The lookup used to turn reflected methods and constructors into handles
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * The getters found so far for each class, keyed by field name
+     */
+    private static final ClassValue<ConcurrentMap<String, MethodHandle>> GETTERS =
+            new ClassValue<ConcurrentMap<String, MethodHandle>>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected ConcurrentMap<String, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * The copy constructor of each class
+     */
+    private static final ClassValue<MethodHandle> COPY_CONSTRUCTORS = new ClassValue<MethodHandle>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                return LOOKUP.unreflectConstructor(type.getConstructor(type)).asType(COPY_CONSTRUCTOR_TYPE);
+            } catch (NoSuchMethodException | SecurityException | IllegalAccessException e) {
+                throw new ValidationException("Unable to find copy constructor on object of class " + type.getName(), e);
+            }
+        }
+    };
+
+    /**
+     * Private constructor prevents instantiation and subclassing
+     */
+    private ModelAccessors() {
+        // Nothing to do
+    }
+
+    /**
+     * Make a copy of a model element with its copy constructor
+     * 
+     * @param modelElement
+     *            the object to copy
+     * @return a copy of the object
+     * @throws ValidationException
+     *             if the object's class has no public copy constructor, or the copy constructor throws an exception. Errors are
+     *             thrown as they are.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    static ModelElement copy(ModelElement modelElement) {
+        MethodHandle copyConstructor = COPY_CONSTRUCTORS.get(modelElement.getClass());
+        try {
+            return (ModelElement) copyConstructor.invokeExact(modelElement);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ValidationException("Unable to invoke copy constructor on object of class " + modelElement.getClass()
+                    .getName(), e);
+        }
+    }
+
+    /**
+     * Get the value of a field whose name is supplied for a given object, through its <code>get</code> or <code>is</code> method
+     * 
+     * @param object
+     *            the object that has the named field
+     * @param fieldName
+     *            the name of the field you want to get
+     * @return the value of the named field
+     * @throws ValidationException
+     *             if there is no getter for the field, or the getter throws an exception. Errors are thrown as they are.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    static Object get(Object object, String fieldName) {
+        MethodHandle getter = getGetter(object.getClass(), fieldName);
+        try {
+            return getter.invokeExact(object);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ValidationException("Unable to invoke getter method for field '" + fieldName + "' on object of type "
+                    + object.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Get the getter for a named field on a class, finding it the first time it is asked for
+     * 
+     * @param type
+     *            the class that has the named field
+     * @param fieldName
+     *            the name of the field
+     * @return the getter, adapted to take an Object and return an Object
+     */
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private static MethodHandle getGetter(Class<?> type, String fieldName) {
+        ConcurrentMap<String, MethodHandle> getters = GETTERS.get(type);
+        MethodHandle result = getters.get(fieldName);
+        if (result != null) {
+            return result;
+        }
+        String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        Method method;
+        try {
+            method = type.getMethod("get" + capitalized);
+        } catch (@SuppressWarnings("unused") NoSuchMethodException | SecurityException ignored) {
+            try {
+                method = type.getMethod("is" + capitalized);
+            } catch (NoSuchMethodException | SecurityException e1) {
+                throw new ValidationException("Unable to find getter method for field '" + fieldName + "' on object of type "
+                        + type.getName(), e1);
+            }
+        }
+        try {
+            result = LOOKUP.unreflect(method).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new ValidationException("Unable to invoke getter method for field '" + fieldName + "' on object of type " + type
+                    .getName(), e);
+        }
+        MethodHandle existing = getters.putIfAbsent(fieldName, result);
+        return existing == null ? result : existing;
+    }
+
+}
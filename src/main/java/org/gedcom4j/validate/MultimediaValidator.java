@@ -100,11 +100,16 @@ class MultimediaValidator extends AbstractValidator {
      */
     @Override
     protected void validate() {
-        validateCommon();
-        if (v551()) {
-            validate551();
-        } else {
-            validate55();
+        getValidator().beginRecord(mm);
+        try {
+            validateCommon();
+            if (v551()) {
+                validate551();
+            } else {
+                validate55();
+            }
+        } finally {
+            getValidator().endRecord();
         }
     }
 
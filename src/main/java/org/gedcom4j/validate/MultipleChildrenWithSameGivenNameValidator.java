@@ -27,13 +27,12 @@
 package org.gedcom4j.validate;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 import org.gedcom4j.model.Family;
 import org.gedcom4j.model.Individual;
@@ -41,7 +40,6 @@ import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.PersonalName;
 import org.gedcom4j.model.enumerations.IndividualEventType;
-import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.validate.Validator.Finding;
 
@@ -50,7 +48,7 @@ import org.gedcom4j.validate.Validator.Finding;
  * 
  * @author frizbog
  */
-public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidator {
+public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidator implements FamilyRule {
 
     /** A date about 10000 years into the future, to use when there is no date but still want to do comparisons without nulls */
     private static final Date FAR_IN_THE_FUTURE = new Date(10000L * 365 * 24 * 60 * 60 * 1000);
@@ -77,50 +75,71 @@ public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidato
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-        for (Family f : getValidator().getGedcom().getFamilies().values()) {
-            if (f == null || f.getChildren() == null) {
-                continue;
-            }
+    public void checkFamily(Family f) {
+        if (f.getChildren() == null) {
+            return;
+        }
 
-            // Build a map of each first name and all the kids who have that first name
-            Map<String, Set<Individual>> kidsByFirstName = getKidsByGivenName(f);
+        // Build a map of each first name and all the kids who have that first name
+        Map<String, List<Individual>> kidsByFirstName = getKidsByGivenName(f);
 
-            // Check the map for any names with more than one kid in the family who has it
-            for (Entry<String, Set<Individual>> e : kidsByFirstName.entrySet()) {
-                if (e.getValue().size() > 1 && isSpecified(e.getKey())) {
-                    // Multiple kids with the same given name.
+        // Check the map for any names with more than one kid in the family who has it
+        for (Entry<String, List<Individual>> e : kidsByFirstName.entrySet()) {
+            if (e.getValue().size() > 1 && isSpecified(e.getKey())) {
+                // Multiple kids with the same given name.
 
-                    checkOverlappingLifespans(e.getValue(), f);
+                checkOverlappingLifespans(e.getValue(), f);
 
-                }
             }
         }
     }
 
     /**
-     * Check overlapping lifespans - any pair of kids with the same name with overlapping lifespans will be a finding.
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Family f : getValidator().getFamiliesToCheck()) {
+            if (f != null) {
+                checkFamily(f);
+            }
+        }
+    }
+
+    /**
+     * Check overlapping lifespans - any pair of kids with the same name with overlapping lifespans will be a finding. The kids are
+     * sorted by birth date, with each kid's dates worked out only once, and each kid is compared only with the kids born after
+     * them up to the end of their own lifespan, since nobody born later than that can overlap.
      *
      * @param kidsWithSameGivenName
      *            the kids with same given name
      * @param f
      *            the family involved
      */
-    private void checkOverlappingLifespans(Set<Individual> kidsWithSameGivenName, Family f) {
-        List<Individual> peopleWithSameGivenName = new ArrayList<>(kidsWithSameGivenName);
-
-        // Go through the unique pairs in the list
-        for (int m = 0; m < peopleWithSameGivenName.size() - 1; m++) {
-            Individual i1 = peopleWithSameGivenName.get(m);
-
-            Date i1birth = getEarliestBirthDate(i1);
-            Date i1death = getLatestDeathDate(i1);
-
-            for (int n = m + 1; n < peopleWithSameGivenName.size(); n++) {
-                Individual i2 = peopleWithSameGivenName.get(n);
+    private void checkOverlappingLifespans(List<Individual> kidsWithSameGivenName, Family f) {
+        List<DatedItem<Individual>> byBirth = new ArrayList<>(kidsWithSameGivenName.size());
+        for (Individual i : kidsWithSameGivenName) {
+            byBirth.add(new DatedItem<>(getEarliestBirthDate(i), i));
+        }
+        Collections.sort(byBirth);
+        Date[] deaths = new Date[byBirth.size()];
+        for (int m = 0; m < deaths.length; m++) {
+            deaths[m] = getLatestDeathDate(byBirth.get(m).getItem());
+        }
 
-                Date i2birth = getEarliestBirthDate(i2);
-                Date i2death = getLatestDeathDate(i2);
+        // Go through the unique pairs in the list, in birth order
+        for (int m = 0; m < byBirth.size() - 1; m++) {
+            Date i1birth = byBirth.get(m).getDate();
+            Date i1death = deaths[m];
+            Date lastOverlappingBirth = i1death.after(i1birth) ? i1death : i1birth;
+
+            for (int n = m + 1; n < byBirth.size(); n++) {
+                Date i2birth = byBirth.get(n).getDate();
+                if (i2birth.after(lastOverlappingBirth)) {
+                    // Everyone from here on was born after i1 was born and died
+                    break;
+                }
+                Date i2death = deaths[n];
 
                 boolean i1LifeBeforeI2Born = i1birth.before(i2birth) && i1death.before(i2birth);
                 boolean i2LifeBeforeI1Born = i2birth.before(i1birth) && i2death.before(i1birth);
@@ -132,8 +151,8 @@ public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidato
                 // There was overlap, log a finding
                 Finding newFinding = newFinding(f, Severity.WARNING, ProblemCode.MULTIPLE_CHILDREN_WITH_SAME_GIVEN_NAME,
                         "children");
-                newFinding.getRelatedItems(true).add(i1);
-                newFinding.getRelatedItems(true).add(i2);
+                newFinding.getRelatedItems(true).add(byBirth.get(m).getItem());
+                newFinding.getRelatedItems(true).add(byBirth.get(n).getItem());
             }
         }
 
@@ -151,8 +170,7 @@ public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidato
         if (e == null || e.getDate() == null || e.getDate().getValue() == null) {
             return FAR_IN_THE_PAST;
         }
-        DateParser dp = new DateParser();
-        Date d = dp.parse(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
+        Date d = parseDate(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
         if (d == null) {
             return FAR_IN_THE_PAST;
         }
@@ -166,8 +184,8 @@ public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidato
      *            the family
      * @return a map of kids keyed by their given names
      */
-    private Map<String, Set<Individual>> getKidsByGivenName(Family f) {
-        Map<String, Set<Individual>> result = new HashMap<>();
+    private Map<String, List<Individual>> getKidsByGivenName(Family f) {
+        Map<String, List<Individual>> result = new HashMap<>();
         for (IndividualReference kidRef : f.getChildren()) {
             if (kidRef == null) {
                 continue;
@@ -187,12 +205,12 @@ public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidato
                     }
                 }
                 if (isSpecified(gn)) {
-                    Set<Individual> kidsWithThisFirstName = result.get(gn);
+                    List<Individual> kidsWithThisFirstName = result.get(gn);
                     if (kidsWithThisFirstName == null) {
-                        kidsWithThisFirstName = new HashSet<>();
+                        kidsWithThisFirstName = new ArrayList<>();
                         result.put(gn, kidsWithThisFirstName);
                     }
-                    kidsWithThisFirstName.add(kid);
+                    addIfAbsent(kidsWithThisFirstName, kid);
                 }
             }
         }
@@ -214,8 +232,7 @@ public class MultipleChildrenWithSameGivenNameValidator extends AbstractValidato
         if (e == null || e.getDate() == null || e.getDate().getValue() == null) {
             return FAR_IN_THE_FUTURE;
         }
-        DateParser dp = new DateParser();
-        Date d = dp.parse(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
+        Date d = parseDate(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_LATEST);
         if (d == null) {
             return FAR_IN_THE_FUTURE;
         }
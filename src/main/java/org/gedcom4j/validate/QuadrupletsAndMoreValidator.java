@@ -26,19 +26,15 @@
  */
 package org.gedcom4j.validate;
 
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.List;
 
 import org.gedcom4j.model.Family;
 import org.gedcom4j.model.Individual;
 import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.enumerations.IndividualEventType;
-import org.gedcom4j.parser.DateParser;
 import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 
 /**
@@ -46,7 +42,7 @@ import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
  * 
  * @author frizbog
  */
-public class QuadrupletsAndMoreValidator extends AbstractValidator {
+public class QuadrupletsAndMoreValidator extends AbstractValidator implements FamilyRule {
 
     /**
      * Serial Version UID
@@ -67,57 +63,58 @@ public class QuadrupletsAndMoreValidator extends AbstractValidator {
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-        for (Family f : getValidator().getGedcom().getFamilies().values()) {
+    public void checkFamily(Family f) {
+        // If there aren't at least 4 children there's nothing to do with this family
+        if (f.getChildren() == null || f.getChildren().size() < 4) {
+            return;
+        }
 
-            // If there aren't at least 4 children there's nothing to do with this family
-            if (f == null || f.getChildren() == null || f.getChildren().size() < 4) {
+        /*
+         * Sort out the children by their (approximate) birth date. Treat people born within 48h of each other as on the same date
+         * (multiple births)
+         */
+        List<DatedItem<Individual>> births = new ArrayList<>(f.getChildren().size());
+        for (IndividualReference iRef : f.getChildren()) {
+            if (iRef == null) {
                 continue;
             }
-
-            /*
-             * Sort out the children into lists of people, by their (approximate) birth date. Treat people born within 48h of each
-             * other as on the same date (multiple births)
-             */
-            Map<Date, Set<Individual>> births = new HashMap<>();
-            for (IndividualReference iRef : f.getChildren()) {
-                if (iRef == null) {
-                    continue;
-                }
-                Individual i = iRef.getIndividual();
-                Date birthDate = getEarliestBirthDate(i);
-                if (birthDate == null) {
-                    continue;
-                }
-                boolean added = false;
-                for (Entry<Date, Set<Individual>> birth : births.entrySet()) {
-                    Date d = birth.getKey();
-                    // Look for any already existing list within 48h of this birth date
-                    if (Math.abs(d.getTime() - birthDate.getTime()) < 48L * 60 * 60 * 1000) {
-                        birth.getValue().add(i);
-                        added = true;
-                    }
-                }
-                if (!added) {
-                    Set<Individual> birthsOnDate = new HashSet<>();
-                    birthsOnDate.add(i);
-                    births.put(birthDate, birthsOnDate);
-                }
+            Individual i = iRef.getIndividual();
+            Date birthDate = getEarliestBirthDate(i);
+            if (birthDate != null) {
+                births.add(new DatedItem<>(birthDate, i));
             }
+        }
 
-            /* Look through the birth dates and see if any have 4 or more individuals born on those dates */
-            for (Entry<Date, Set<Individual>> e : births.entrySet()) {
-                if (e.getValue().size() >= 4) {
-                    // We got a hit, add to results
-                    newFinding(f, Severity.WARNING, ProblemCode.MORE_THAN_THREE_CHILDREN_BORN_WITHIN_48_HOURS, "children")
-                            .getRelatedItems(true).addAll(e.getValue());
-                }
+        /* Look through the birth dates and see if any have 4 or more individuals born on those dates */
+        for (List<DatedItem<Individual>> group : DatedItem.groupWithinWindow(births, DatedItem.MULTIPLE_BIRTH_WINDOW)) {
+            if (group.size() < 4) {
+                continue;
+            }
+            List<Individual> birthsOnDate = new ArrayList<>();
+            for (DatedItem<Individual> birth : group) {
+                addIfAbsent(birthsOnDate, birth.getItem());
+            }
+            if (birthsOnDate.size() >= 4) {
+                // We got a hit, add to results
+                newFinding(f, Severity.WARNING, ProblemCode.MORE_THAN_THREE_CHILDREN_BORN_WITHIN_48_HOURS, "children")
+                        .getRelatedItems(true).addAll(birthsOnDate);
             }
-
         }
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Family f : getValidator().getFamiliesToCheck()) {
+            if (f != null) {
+                checkFamily(f);
+            }
+        }
+    }
+
     /**
      * Gets the earliest birth date.
      *
@@ -130,8 +127,7 @@ public class QuadrupletsAndMoreValidator extends AbstractValidator {
         if (e == null || e.getDate() == null || e.getDate().getValue() == null) {
             return null;
         }
-        DateParser dp = new DateParser();
-        return dp.parse(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
+        return parseDate(e.getDate().getValue(), ImpreciseDatePreference.FAVOR_EARLIEST);
     }
 
 }
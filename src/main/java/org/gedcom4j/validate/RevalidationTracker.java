@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.validate.Validator.Finding;
+
+/**
+ * <p>
+ * The bookkeeping that lets {@link Validator#revalidate(Collection)} check only what has changed: the findings made by each check
+ * in the last validation, the checks of other records that validated each multimedia and submitter record along the way, and the
+ * supplementary validators that can be limited to the records affected by a change. Deliberately package-private.
+ * </p>
+ * <p>
+ * Checks can be recorded from any thread while the records are being validated; findings are filed from the calling thread once
+ * validation is done.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class RevalidationTracker {
+
+    /**
+     * Findings made outside of validation, by calling
+     * {@link Validator#newFinding(ModelElement, Severity, ProblemCode, String)} directly
+     */
+    private static final UnitKey OTHER_UNIT = new UnitKey(-1, null);
+
+    /**
+     * For each multimedia and submitter record, the checks of other records that validated it along the way
+     */
+    private final Map<ModelElement, List<UnitKey>> dependents = new IdentityHashMap<>();
+
+    /**
+     * The findings made by each check, in the order they were made. Null until the findings of a whole validation are filed.
+     */
+    private Map<UnitKey, List<Finding>> findingsByUnit;
+
+    /**
+     * The supplementary validators that iterate over {@link Validator#getIndividualsToCheck()} or
+     * {@link Validator#getFamiliesToCheck()}, and so can be limited to the records affected by a change
+     */
+    private final Set<Class<?>> scopedValidators = new HashSet<>();
+
+    /**
+     * Record that the check of a record validated another record along the way
+     * 
+     * @param record
+     *            the record validated along the way
+     * @param unit
+     *            the check
+     */
+    void addDependent(ModelElement record, UnitKey unit) {
+        synchronized (dependents) {
+            List<UnitKey> units = dependents.get(record);
+            if (units == null) {
+                units = new ArrayList<>(1);
+                dependents.put(record, units);
+            }
+            if (!units.contains(unit)) {
+                units.add(unit);
+            }
+        }
+    }
+
+    /**
+     * Record that a supplementary validator can be limited to the records affected by a change
+     * 
+     * @param validatorClass
+     *            the class of the supplementary validator
+     */
+    void addScopedValidator(Class<?> validatorClass) {
+        synchronized (scopedValidators) {
+            scopedValidators.add(validatorClass);
+        }
+    }
+
+    /**
+     * Throw away the findings of a check that is about to be made again, keeping its place in the results
+     * 
+     * @param unit
+     *            the check
+     */
+    void clearUnit(UnitKey unit) {
+        List<Finding> unitFindings = findingsByUnit.get(unit);
+        if (unitFindings != null) {
+            unitFindings.clear();
+        }
+    }
+
+    /**
+     * Throw away the findings of every check made by a supplementary validator that is about to be run again, keeping their places
+     * in the results
+     * 
+     * @param validatorClass
+     *            the class of the supplementary validator
+     */
+    void clearUnitsOf(Class<?> validatorClass) {
+        for (Entry<UnitKey, List<Finding>> e : findingsByUnit.entrySet()) {
+            if (validatorClass.equals(e.getKey().getSource())) {
+                e.getValue().clear();
+            }
+        }
+    }
+
+    /**
+     * File findings under the checks that made them. Checks made for the first time come after the others.
+     * 
+     * @param findings
+     *            the findings, in the order they were made
+     */
+    void fileFindings(List<Finding> findings) {
+        if (findingsByUnit == null) {
+            findingsByUnit = new LinkedHashMap<>();
+        }
+        for (Finding f : findings) {
+            UnitKey unit = f.getUnit() == null ? OTHER_UNIT : f.getUnit();
+            List<Finding> unitFindings = findingsByUnit.get(unit);
+            if (unitFindings == null) {
+                unitFindings = new ArrayList<>(1);
+                findingsByUnit.put(unit, unitFindings);
+            }
+            unitFindings.add(f);
+        }
+    }
+
+    /**
+     * Get the checks of other records that validated a record along the way
+     * 
+     * @param record
+     *            the record
+     * @return the checks of other records that validated the record along the way. Empty if there are none.
+     */
+    List<UnitKey> getDependents(ModelElement record) {
+        List<UnitKey> units = dependents.get(record);
+        if (units == null) {
+            return Collections.emptyList();
+        }
+        return units;
+    }
+
+    /**
+     * Get the findings filed so far, check by check
+     * 
+     * @return the findings filed so far, in the order of the checks that made them
+     */
+    List<Finding> getFindings() {
+        List<Finding> result = new ArrayList<>();
+        for (List<Finding> unitFindings : findingsByUnit.values()) {
+            result.addAll(unitFindings);
+        }
+        return result;
+    }
+
+    /**
+     * Have the findings of a whole validation been filed, so that there is something to revalidate?
+     * 
+     * @return true if the findings of a whole validation have been filed
+     */
+    boolean hasFindings() {
+        return findingsByUnit != null;
+    }
+
+    /**
+     * Can a supplementary validator be limited to the records affected by a change?
+     * 
+     * @param validatorClass
+     *            the class of the supplementary validator
+     * @return true if the supplementary validator only iterates over the records it is given to check
+     */
+    boolean isScoped(Class<?> validatorClass) {
+        return scopedValidators.contains(validatorClass);
+    }
+
+    /**
+     * Forget the checks that no longer have any findings, and those of supplementary validators that are no longer registered
+     * 
+     * @param validatorClasses
+     *            the classes of the supplementary validators still registered
+     */
+    void removeStaleUnits(Collection<?> validatorClasses) {
+        Iterator<Entry<UnitKey, List<Finding>>> itr = findingsByUnit.entrySet().iterator();
+        while (itr.hasNext()) {
+            Entry<UnitKey, List<Finding>> e = itr.next();
+            Object source = e.getKey().getSource();
+            if (e.getValue().isEmpty() || source instanceof Class && !validatorClasses.contains(source)) {
+                itr.remove();
+            }
+        }
+    }
+
+}
@@ -26,9 +26,11 @@
  */
 package org.gedcom4j.validate;
 
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -40,7 +42,7 @@ import org.gedcom4j.model.IndividualEvent;
 import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.Place;
 import org.gedcom4j.model.enumerations.IndividualEventType;
-import org.gedcom4j.parser.DateParser;
+import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.validate.Validator.Finding;
 
 /**
@@ -48,7 +50,7 @@ import org.gedcom4j.validate.Validator.Finding;
  * 
  * @author frizbog
  */
-public class SimultaneousBirthsInMultipleLocationsValidator extends AbstractValidator {
+public class SimultaneousBirthsInMultipleLocationsValidator extends AbstractValidator implements FamilyRule {
 
     /**
      * A birthEvent of a specific person
@@ -117,16 +119,15 @@ public class SimultaneousBirthsInMultipleLocationsValidator extends AbstractVali
 
     /**
      * Sort out the children into lists of people, grouping by their (approximate) birth date. Treat people born within 48h of each
-     * other as on the same date (twins, triplets, etc.)
+     * other as on the same date (twins, triplets, etc.). The births are sorted by date and swept once, so each group starts with
+     * the earliest birth not yet grouped and takes in every later birth less than 48h after it.
      * 
      * @param f
      *            the family
-     * @return a Map of Births, keyed (grouped) by approximate birth date
+     * @return a Map of Births, keyed (grouped) by approximate birth date, in date order
      */
     protected Map<Date, Set<Birth>> groupChildrenByBirthDate(Family f) {
-        Map<Date, Set<Birth>> birthsByDate = new HashMap<>();
-        DateParser dp = new DateParser();
-
+        List<DatedItem<Birth>> datedBirths = new ArrayList<>();
         for (IndividualReference iRef : f.getChildren()) {
             if (iRef == null) {
                 continue;
@@ -137,37 +138,24 @@ public class SimultaneousBirthsInMultipleLocationsValidator extends AbstractVali
                 if (birthEvent.getDate() == null) {
                     continue;
                 }
-                Date birthDate = dp.parse(birthEvent.getDate().getValue());
+                Date birthDate = parseDate(birthEvent.getDate().getValue(), ImpreciseDatePreference.PRECISE);
                 if (birthDate == null) {
                     continue;
                 }
+                Birth b = new Birth();
+                b.setBirthEvent(birthEvent);
+                b.setPerson(i);
+                datedBirths.add(new DatedItem<>(birthDate, b));
+            }
+        }
 
-                boolean added = false;
-                for (Entry<Date, Set<Birth>> birthByDate : birthsByDate.entrySet()) {
-                    // Look for any already existing set or people born within 48h of this birthEvent date
-                    Date bd = birthByDate.getKey();
-                    if (Math.abs(bd.getTime() - birthDate.getTime()) < 48L * 60 * 60 * 1000) {
-                        /*
-                         * The existing date in the Map is roughly the same as this birthEvent date, so add this birthEvent to that
-                         * map entry
-                         */
-                        Birth b = new Birth();
-                        b.setBirthEvent(birthEvent);
-                        b.setPerson(i);
-                        birthByDate.getValue().add(b);
-                        added = true;
-                    }
-                }
-                // If we didn't add the birthEvent to any pre-existing map entry, do it now.
-                if (!added) {
-                    Set<Birth> birthsOnDate = new HashSet<>();
-                    Birth b = new Birth();
-                    b.setBirthEvent(birthEvent);
-                    b.setPerson(i);
-                    birthsOnDate.add(b);
-                    birthsByDate.put(birthDate, birthsOnDate);
-                }
+        Map<Date, Set<Birth>> birthsByDate = new LinkedHashMap<>();
+        for (List<DatedItem<Birth>> group : DatedItem.groupWithinWindow(datedBirths, DatedItem.MULTIPLE_BIRTH_WINDOW)) {
+            Set<Birth> birthsOnDate = new LinkedHashSet<>();
+            for (DatedItem<Birth> db : group) {
+                birthsOnDate.add(db.getItem());
             }
+            birthsByDate.put(group.get(0).getDate(), birthsOnDate);
         }
         return birthsByDate;
     }
@@ -176,31 +164,40 @@ public class SimultaneousBirthsInMultipleLocationsValidator extends AbstractVali
      * {@inheritDoc}
      */
     @Override
-    protected void validate() {
-        for (Family f : getValidator().getGedcom().getFamilies().values()) {
+    public void checkFamily(Family f) {
+        // If there aren't at least 2 children there's nothing to do with this family
+        if (f.getChildren() == null || f.getChildren().size() < 2) {
+            return;
+        }
 
-            // If there aren't at least 2 children there's nothing to do with this family
-            if (f == null || f.getChildren() == null || f.getChildren().size() < 2) {
-                continue;
+        // Go through all the consolidated dates of birthEvent
+        for (Entry<Date, Set<Birth>> e : groupChildrenByBirthDate(f).entrySet()) {
+            Set<Birth> birthsOnDate = e.getValue();
+            // See how many places were listed for the births on this date
+            Set<Place> places = new HashSet<>();
+            List<Individual> kids = new ArrayList<>();
+            for (Birth b : birthsOnDate) {
+                places.add(b.getBirthEvent().getPlace());
+                addIfAbsent(kids, b.getPerson());
             }
-
-            // Go through all the consolidated dates of birthEvent
-            for (Entry<Date, Set<Birth>> e : groupChildrenByBirthDate(f).entrySet()) {
-                Set<Birth> birthsOnDate = e.getValue();
-                // See how many places were listed for the births on this date
-                Set<Place> places = new HashSet<>();
-                Set<Individual> kids = new HashSet<>();
-                for (Birth b : birthsOnDate) {
-                    places.add(b.getBirthEvent().getPlace());
-                    kids.add(b.getPerson());
-                }
-                if (places.size() > 1) {
-                    // Found multiple places on this date
-                    Finding vf = newFinding(f, Severity.WARNING, ProblemCode.SIMULTANEOUS_BIRTHS_IN_MULTIPLE_LOCATIONS, "children");
-                    vf.getRelatedItems(true).addAll(kids);
-                }
+            if (places.size() > 1) {
+                // Found multiple places on this date
+                Finding vf = newFinding(f, Severity.WARNING, ProblemCode.SIMULTANEOUS_BIRTHS_IN_MULTIPLE_LOCATIONS, "children");
+                vf.getRelatedItems(true).addAll(kids);
             }
+        }
 
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validate() {
+        for (Family f : getValidator().getFamiliesToCheck()) {
+            if (f != null) {
+                checkFamily(f);
+            }
         }
     }
 
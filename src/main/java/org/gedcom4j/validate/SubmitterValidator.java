@@ -69,15 +69,20 @@ class SubmitterValidator extends AbstractValidator {
      */
     @Override
     protected void validate() {
-        xrefMustBePresentAndWellFormed(submitter);
-        mustHaveValue(submitter, "name");
-        checkLanguagePreferences();
-        mustHaveValueOrBeOmitted(submitter, "recIdNumber");
-        mustHaveValueOrBeOmitted(submitter, "regFileNumber");
-        if (submitter.getAddress() != null) {
-            new AddressValidator(getValidator(), submitter.getAddress()).validate();
+        getValidator().beginRecord(submitter);
+        try {
+            xrefMustBePresentAndWellFormed(submitter);
+            mustHaveValue(submitter, "name");
+            checkLanguagePreferences();
+            mustHaveValueOrBeOmitted(submitter, "recIdNumber");
+            mustHaveValueOrBeOmitted(submitter, "regFileNumber");
+            if (submitter.getAddress() != null) {
+                new AddressValidator(getValidator(), submitter.getAddress()).validate();
+            }
+            new NoteStructureListValidator(getValidator(), submitter).validate();
+        } finally {
+            getValidator().endRecord();
         }
-        new NoteStructureListValidator(getValidator(), submitter).validate();
     }
 
     /**
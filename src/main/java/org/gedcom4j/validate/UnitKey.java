@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import java.util.Collection;
+
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * Identifies one check made during validation - a stage of validation, or a validator, together with the record it was checking -
+ * so that the findings it made can be replaced when it is made again by {@link Validator#revalidate(Collection)}. Deliberately
+ * package-private.
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class UnitKey {
+
+    /**
+     * The stage of validation (an Integer), or the class of supplementary validator
+     */
+    private final Object source;
+
+    /**
+     * The record being checked, if any
+     */
+    private final ModelElement record;
+
+    /**
+     * Constructor
+     * 
+     * @param source
+     *            the stage of validation (an Integer), or the class of supplementary validator
+     * @param record
+     *            the record being checked, if any
+     */
+    UnitKey(Object source, ModelElement record) {
+        this.source = source;
+        this.record = record;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof UnitKey)) {
+            return false;
+        }
+        UnitKey other = (UnitKey) obj;
+        return source.equals(other.source) && record == other.record;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return source.hashCode() * 31 + System.identityHashCode(record);
+    }
+
+    /**
+     * Get the record being checked
+     * 
+     * @return the record being checked, if any
+     */
+    ModelElement getRecord() {
+        return record;
+    }
+
+    /**
+     * Get the stage of validation or the class of supplementary validator
+     * 
+     * @return the stage of validation (an Integer), or the class of supplementary validator
+     */
+    Object getSource() {
+        return source;
+    }
+
+}
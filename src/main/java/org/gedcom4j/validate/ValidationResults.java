@@ -28,7 +28,9 @@ package org.gedcom4j.validate;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -36,11 +38,22 @@ import org.gedcom4j.model.ModelElement;
 import org.gedcom4j.validate.Validator.Finding;
 
 /**
+ * <p>
  * An object containing the results of a validation.
+ * </p>
+ * <p>
+ * Besides the list of all findings, the findings are kept in buckets by the object they concern, by problem code, and by severity,
+ * each in the same order as the list of all findings, so that adding a finding takes constant time and each query takes time in
+ * proportion to what it returns. Findings are bucketed by the identity of the object they concern, since model elements have deep
+ * {@link Object#hashCode()} implementations that are expensive and change when the elements are repaired.
+ * </p>
+ * <p>
+ * These results are the {@link FindingSink} that a {@link Validator} sends its findings to unless it is given another.
+ * </p>
  * 
  * @author frizbog
  */
-public class ValidationResults implements Serializable {
+public class ValidationResults implements Serializable, FindingSink {
 
     /**
      * Serial Version UID
@@ -51,7 +64,27 @@ public class ValidationResults implements Serializable {
     private final List<Finding> allFindings = new ArrayList<>();
 
     /** The findings by object. */
-    private final Map<ModelElement, List<Finding>> findingsByObject = new HashMap<>();
+    private final Map<ModelElement, List<Finding>> findingsByObject = new IdentityHashMap<>();
+
+    /** The findings by problem code. */
+    private final Map<Integer, List<Finding>> findingsByCode = new HashMap<>();
+
+    /** The findings by severity. */
+    private final Map<Severity, List<Finding>> findingsBySeverity = new EnumMap<>(Severity.class);
+
+    /**
+     * Add a validation finding. Always lets validation carry on.
+     * 
+     * @param finding
+     *            the validation finding
+     * @return true
+     * @since 4.0.2
+     */
+    @Override
+    public boolean accept(Finding finding) {
+        add(finding);
+        return true;
+    }
 
     /**
      * Add a validation finding.
@@ -60,13 +93,9 @@ public class ValidationResults implements Serializable {
      *            the validation finding
      */
     public void add(Finding vf) {
+        vf.setResults(this, allFindings.size());
         allFindings.add(vf);
-        List<Finding> list = findingsByObject.get(vf.getItemOfConcern());
-        if (list == null) {
-            list = new ArrayList<>();
-            findingsByObject.put(vf.getItemOfConcern(), list);
-        }
-        list.add(vf);
+        index(vf);
     }
 
     /**
@@ -75,6 +104,8 @@ public class ValidationResults implements Serializable {
     public void clear() {
         allFindings.clear();
         findingsByObject.clear();
+        findingsByCode.clear();
+        findingsBySeverity.clear();
     }
 
     /**
@@ -94,13 +125,11 @@ public class ValidationResults implements Serializable {
      * @return all findings with the provided code
      */
     public List<Finding> getByCode(int problemCode) {
-        List<Finding> result = new ArrayList<>();
-        for (Finding vf : allFindings) {
-            if (vf.getProblemCode() == problemCode) {
-                result.add(vf);
-            }
+        List<Finding> bucket = findingsByCode.get(problemCode);
+        if (bucket == null) {
+            return new ArrayList<>();
         }
-        return result;
+        return new ArrayList<>(bucket);
     }
 
     /**
@@ -133,13 +162,11 @@ public class ValidationResults implements Serializable {
         if (s == null) {
             throw new IllegalArgumentException("Severity is a required argument");
         }
-        List<Finding> result = new ArrayList<>();
-        for (Finding vf : allFindings) {
-            if (vf.getSeverity() == s) {
-                result.add(vf);
-            }
+        List<Finding> bucket = findingsBySeverity.get(s);
+        if (bucket == null) {
+            return new ArrayList<>();
         }
-        return result;
+        return new ArrayList<>(bucket);
     }
 
     /**
@@ -172,4 +199,126 @@ public class ValidationResults implements Serializable {
         builder.append("]");
         return builder.toString();
     }
+
+    /**
+     * Put a finding back in the buckets after its item of concern, problem code or severity has changed. Deliberately
+     * package-private.
+     * 
+     * @param vf
+     *            the finding, which must have been taken out of the buckets with {@link #unindex(Finding)} before changing
+     */
+    void reindex(Finding vf) {
+        if (isCurrent(vf)) {
+            index(vf);
+        }
+    }
+
+    /**
+     * Take a finding out of the buckets before its item of concern, problem code or severity is changed. Deliberately
+     * package-private.
+     * 
+     * @param vf
+     *            the finding about to change
+     */
+    void unindex(Finding vf) {
+        if (isCurrent(vf)) {
+            removeFrom(findingsByObject, vf.getItemOfConcern(), vf);
+            removeFrom(findingsByCode, vf.getProblemCode(), vf);
+            if (vf.getSeverity() != null) {
+                removeFrom(findingsBySeverity, vf.getSeverity(), vf);
+            }
+        }
+    }
+
+    /**
+     * Add a finding to a bucket, keeping the bucket in the same order as {@link #allFindings}
+     * 
+     * @param <K>
+     *            the type of key the buckets are indexed by
+     * @param buckets
+     *            the buckets
+     * @param key
+     *            the key of the bucket to add to
+     * @param vf
+     *            the finding to add
+     */
+    private <K> void addTo(Map<K, List<Finding>> buckets, K key, Finding vf) {
+        List<Finding> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<>(1);
+            buckets.put(key, bucket);
+        }
+        int index = vf.getResultsIndex();
+        if (bucket.isEmpty() || bucket.get(bucket.size() - 1).getResultsIndex() < index) {
+            bucket.add(vf);
+            return;
+        }
+        int low = 0;
+        int high = bucket.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucket.get(mid).getResultsIndex() < index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        bucket.add(low, vf);
+    }
+
+    /**
+     * Add a finding to all the buckets it belongs in
+     * 
+     * @param vf
+     *            the finding
+     */
+    private void index(Finding vf) {
+        addTo(findingsByObject, vf.getItemOfConcern(), vf);
+        addTo(findingsByCode, vf.getProblemCode(), vf);
+        if (vf.getSeverity() != null) {
+            addTo(findingsBySeverity, vf.getSeverity(), vf);
+        }
+    }
+
+    /**
+     * Is the finding still one of these results, at the position it was added at?
+     * 
+     * @param vf
+     *            the finding
+     * @return true if the finding is still one of these results
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private boolean isCurrent(Finding vf) {
+        int index = vf.getResultsIndex();
+        return index < allFindings.size() && allFindings.get(index) == vf;
+    }
+
+    /**
+     * Remove a finding from a bucket
+     * 
+     * @param <K>
+     *            the type of key the buckets are indexed by
+     * @param buckets
+     *            the buckets
+     * @param key
+     *            the key of the bucket to remove from
+     * @param vf
+     *            the finding to remove
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private <K> void removeFrom(Map<K, List<Finding>> buckets, K key, Finding vf) {
+        List<Finding> bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == vf) {
+                bucket.remove(i);
+                break;
+            }
+        }
+        if (bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
 }
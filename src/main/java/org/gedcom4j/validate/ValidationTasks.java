@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.validate.Validator.Finding;
+import org.gedcom4j.validate.Validator.RecordCheck;
+
+/**
+ * <p>
+ * Schedules the checks a {@link Validator} makes, either one after another on the calling thread or as separate tasks in a
+ * {@link ForkJoinPool}. Deliberately package-private.
+ * </p>
+ * <p>
+ * The root-level records of each kind are split into slices that are checked as separate tasks, and the supplementary validators
+ * that are rules are applied together in passes over slices of the individuals and of the families, while each of the other
+ * supplementary validators runs as a task of its own. The findings of each task are kept apart until all the tasks alongside it are
+ * done, and then handed to the validator in the same order as when the checks are made on the calling thread.
+ * </p>
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+final class ValidationTasks {
+
+    /**
+     * A validation task that collects its findings in a buffer of its own, so they can be added to the results in a predictable
+     * order once all the tasks running alongside it are done.
+     */
+    private abstract class BufferedTask extends RecursiveAction {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = 3190265307412960874L;
+
+        /**
+         * The findings made while this task ran, in the order they were made
+         */
+        private final List<Finding> findings = new ArrayList<>();
+
+        /**
+         * Send the findings made by this task to the finding sink
+         */
+        void deliverFindings() {
+            for (Finding f : findings) {
+                validator.deliver(f);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected final void compute() {
+            List<Finding> previous = validator.getFindingBuffer();
+            validator.setFindingBuffer(findings);
+            try {
+                check();
+            } finally {
+                validator.setFindingBuffer(previous);
+            }
+        }
+
+        /**
+         * Do the checks this task is responsible for
+         */
+        protected abstract void check();
+    }
+
+    /**
+     * A task that checks a slice of the entries in one of the maps of root-level records
+     * 
+     * @param <T>
+     *            the type of record
+     */
+    private final class CheckRecords<T extends ModelElement> extends BufferedTask {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = -1856503127349902734L;
+
+        /**
+         * The check to apply to each entry
+         */
+        private final RecordCheck<T> recordCheck;
+
+        /**
+         * The entries to check
+         */
+        private final List<Entry<String, T>> entries;
+
+        /**
+         * The keys of the entries that are to be removed from the map by auto-repair
+         */
+        private final List<String> removedKeys = new ArrayList<>(0);
+
+        /**
+         * Constructor
+         * 
+         * @param recordCheck
+         *            the check to apply to each entry
+         * @param entries
+         *            the entries to check
+         */
+        CheckRecords(RecordCheck<T> recordCheck, List<Entry<String, T>> entries) {
+            this.recordCheck = recordCheck;
+            this.entries = entries;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void check() {
+            for (Entry<String, T> entry : entries) {
+                if (!validator.checkEntry(recordCheck, entry)) {
+                    removedKeys.add(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * A task that runs a list of validation tasks in parallel and waits for them all to finish
+     */
+    private static final class InvokeAll extends RecursiveAction {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = 6409937718390227545L;
+
+        /**
+         * The tasks to run
+         */
+        private final List<? extends RecursiveAction> tasks;
+
+        /**
+         * Constructor
+         * 
+         * @param tasks
+         *            the tasks to run
+         */
+        InvokeAll(List<? extends RecursiveAction> tasks) {
+            this.tasks = tasks;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * A task that makes one pass over a slice of the individuals or of the families, handing each record to every supplementary
+     * validator that is a rule for that kind of record. The findings of each rule are kept apart, so that they can be added to the
+     * results in the order the supplementary validators run in - unless a finding sink other than the results is set, in which case
+     * they are sent to it after each record, and the pass stops as soon as the sink asks for validation to stop.
+     */
+    private final class RuleSweep extends RecursiveAction {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = 4473951268312500587L;
+
+        /**
+         * The classes of the rules, in the order they are applied to each record
+         */
+        private final List<Class<? extends AbstractValidator>> ruleClasses;
+
+        /**
+         * The records to check - all individuals, or all families
+         */
+        private final List<? extends ModelElement> records;
+
+        /**
+         * The findings made by each rule, in the same order as the rule classes
+         */
+        private final List<List<Finding>> findings;
+
+        /**
+         * Constructor
+         * 
+         * @param ruleClasses
+         *            the classes of the rules, in the order they are applied to each record
+         * @param records
+         *            the records to check - all individuals, or all families
+         */
+        RuleSweep(List<Class<? extends AbstractValidator>> ruleClasses, List<? extends ModelElement> records) {
+            this.ruleClasses = ruleClasses;
+            this.records = records;
+            findings = new ArrayList<>(ruleClasses.size());
+            for (int r = 0; r < ruleClasses.size(); r++) {
+                findings.add(new ArrayList<Finding>());
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            sweep();
+        }
+
+        /**
+         * Hand each record in turn to each of the rules
+         */
+        void sweep() {
+            List<AbstractValidator> rules = new ArrayList<>(ruleClasses.size());
+            for (Class<? extends AbstractValidator> ruleClass : ruleClasses) {
+                rules.add(validator.newSupplementaryValidator(ruleClass));
+            }
+            boolean streaming = validator.hasFindingSink();
+            List<Finding> previous = validator.getFindingBuffer();
+            try {
+                for (ModelElement record : records) {
+                    if (validator.isAborted()) {
+                        break;
+                    }
+                    if (record == null) {
+                        continue;
+                    }
+                    for (int r = 0; r < rules.size(); r++) {
+                        validator.setFindingBuffer(findings.get(r));
+                        validator.setCurrentUnit(ruleClasses.get(r), record);
+                        if (record instanceof Individual) {
+                            ((IndividualRule) rules.get(r)).checkIndividual((Individual) record);
+                        } else {
+                            ((FamilyRule) rules.get(r)).checkFamily((Family) record);
+                        }
+                    }
+                    if (streaming) {
+                        for (List<Finding> ruleFindings : findings) {
+                            validator.deliverAll(ruleFindings);
+                            ruleFindings.clear();
+                        }
+                    }
+                }
+            } finally {
+                validator.setFindingBuffer(previous);
+                validator.setCurrentUnit(null, null);
+            }
+        }
+    }
+
+    /**
+     * A task that runs one of the supplementary validators
+     */
+    private final class SupplementaryCheck extends BufferedTask {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = -2459118624505839731L;
+
+        /**
+         * The class of supplementary validator to run
+         */
+        private final Class<? extends AbstractValidator> validatorClass;
+
+        /**
+         * Constructor
+         * 
+         * @param validatorClass
+         *            the class of supplementary validator to run
+         */
+        SupplementaryCheck(Class<? extends AbstractValidator> validatorClass) {
+            this.validatorClass = validatorClass;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void check() {
+            validator.runSupplementaryValidator(validatorClass);
+        }
+    }
+
+    /**
+     * The smallest number of root-level records worth checking in a task of their own when validating in parallel
+     */
+    private static final int MIN_RECORDS_PER_TASK = 32;
+
+    /**
+     * The validator whose checks are scheduled
+     */
+    private final Validator validator;
+
+    /**
+     * The pool to run the tasks in, or null to make the checks one after another on the calling thread
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor
+     * 
+     * @param validator
+     *            the validator whose checks are scheduled
+     * @param pool
+     *            the pool to run the tasks in, or null to make the checks one after another on the calling thread
+     */
+    ValidationTasks(Validator validator, ForkJoinPool pool) {
+        this.validator = validator;
+        this.pool = pool;
+    }
+
+    /**
+     * Check one of the maps of root-level records, removing null entries if auto-repair allows
+     * 
+     * @param <T>
+     *            the type of record
+     * @param recordCheck
+     *            the check to make on each entry
+     */
+    <T extends ModelElement> void checkRecords(RecordCheck<T> recordCheck) {
+        Map<String, T> records = recordCheck.getRecords();
+        if (pool == null) {
+            Iterator<Entry<String, T>> itr = records.entrySet().iterator();
+            while (itr.hasNext() && !validator.isAborted()) {
+                if (!validator.checkEntry(recordCheck, itr.next())) {
+                    itr.remove();
+                }
+                validator.deliverPendingFindings();
+            }
+            return;
+        }
+        List<Entry<String, T>> entries = new ArrayList<>(records.entrySet());
+        if (entries.isEmpty()) {
+            return;
+        }
+        int slices = countSlices(entries.size());
+        List<CheckRecords<T>> tasks = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            tasks.add(new CheckRecords<>(recordCheck, entries.subList(entries.size() * i / slices, entries.size() * (i + 1)
+                    / slices)));
+        }
+        pool.invoke(new InvokeAll(tasks));
+        for (CheckRecords<T> task : tasks) {
+            task.deliverFindings();
+            for (String key : task.removedKeys) {
+                records.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Run the supplementary validators. The rules among them are applied together, in one pass over the individuals and one over
+     * the families; the others are run one by one. Either way, the findings are added to the results in the order the
+     * supplementary validators are registered in.
+     * 
+     * @param individuals
+     *            the individuals the rules are to check
+     * @param families
+     *            the families the rules are to check
+     */
+    @SuppressWarnings("checkstyle:WhitespaceAround")
+    void runSupplementaryValidators(Collection<Individual> individuals, Collection<Family> families) {
+        List<Class<? extends AbstractValidator>> individualRules = new ArrayList<>();
+        List<Class<? extends AbstractValidator>> familyRules = new ArrayList<>();
+        for (Class<? extends AbstractValidator> avc : validator.getSupplementaryValidators()) {
+            if (IndividualRule.class.isAssignableFrom(avc)) {
+                individualRules.add(avc);
+            }
+            if (FamilyRule.class.isAssignableFrom(avc)) {
+                familyRules.add(avc);
+            }
+        }
+        List<RuleSweep> individualSweeps = newRuleSweeps(individualRules, individuals);
+        List<RuleSweep> familySweeps = newRuleSweeps(familyRules, families);
+        Map<Class<? extends AbstractValidator>, SupplementaryCheck> checks = new HashMap<>();
+        if (pool == null) {
+            for (RuleSweep sweep : individualSweeps) {
+                sweep.sweep();
+            }
+            for (RuleSweep sweep : familySweeps) {
+                sweep.sweep();
+            }
+        } else {
+            List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(individualSweeps);
+            tasks.addAll(familySweeps);
+            for (Class<? extends AbstractValidator> avc : validator.getSupplementaryValidators()) {
+                if (!Validator.isRule(avc)) {
+                    SupplementaryCheck check = new SupplementaryCheck(avc);
+                    checks.put(avc, check);
+                    tasks.add(check);
+                }
+            }
+            pool.invoke(new InvokeAll(tasks));
+        }
+        for (Class<? extends AbstractValidator> avc : validator.getSupplementaryValidators()) {
+            if (validator.isAborted()) {
+                break;
+            }
+            int individualRule = individualRules.indexOf(avc);
+            int familyRule = familyRules.indexOf(avc);
+            if (individualRule >= 0) {
+                for (RuleSweep sweep : individualSweeps) {
+                    validator.addFindings(sweep.findings.get(individualRule));
+                }
+            }
+            if (familyRule >= 0) {
+                for (RuleSweep sweep : familySweeps) {
+                    validator.addFindings(sweep.findings.get(familyRule));
+                }
+            }
+            if (individualRule < 0 && familyRule < 0) {
+                if (pool == null) {
+                    validator.runSupplementaryValidator(avc);
+                } else {
+                    checks.get(avc).deliverFindings();
+                }
+            }
+            validator.deliverPendingFindings();
+        }
+    }
+
+    /**
+     * Work out how many tasks to split some records between
+     * 
+     * @param records
+     *            the number of records
+     * @return the number of slices to split the records into - at least one
+     */
+    private int countSlices(int records) {
+        if (pool == null) {
+            return 1;
+        }
+        return Math.max(1, Math.min(pool.getParallelism() * 4, records / MIN_RECORDS_PER_TASK));
+    }
+
+    /**
+     * Make the passes over some records that apply a list of rules to them
+     * 
+     * @param ruleClasses
+     *            the classes of the rules
+     * @param records
+     *            the records - all individuals, or all families
+     * @return one pass over the records if there is no pool, or passes over slices of the records otherwise. Empty if there are
+     *         no rules.
+     */
+    private List<RuleSweep> newRuleSweeps(List<Class<? extends AbstractValidator>> ruleClasses,
+            Collection<? extends ModelElement> records) {
+        if (ruleClasses.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ModelElement> list = new ArrayList<>(records);
+        int slices = countSlices(list.size());
+        List<RuleSweep> result = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            result.add(new RuleSweep(ruleClasses, list.subList(list.size() * i / slices, list.size() * (i + 1) / slices)));
+        }
+        return result;
+    }
+
+}
@@ -31,21 +31,37 @@ import java.io.Serializable;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.gedcom4j.Options;
 import org.gedcom4j.exception.ValidationException;
 import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
 import org.gedcom4j.model.Gedcom;
 import org.gedcom4j.model.GedcomVersion;
+import org.gedcom4j.model.HasXref;
 import org.gedcom4j.model.Header;
 import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.ModelElement;
 import org.gedcom4j.model.Multimedia;
 import org.gedcom4j.model.NoteRecord;
@@ -55,6 +71,9 @@ import org.gedcom4j.model.Submission;
 import org.gedcom4j.model.Submitter;
 import org.gedcom4j.model.Trailer;
 import org.gedcom4j.model.enumerations.SupportedVersion;
+import org.gedcom4j.parser.DateParser;
+import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
+import org.gedcom4j.relationship.PedigreeIndex;
 
 /**
  * <p>
@@ -75,7 +94,19 @@ import org.gedcom4j.model.enumerations.SupportedVersion;
  * validator, implement its {@link AbstractValidator#validate()} method which examines the {@link Gedcom} being validated, and for
  * anything that's problematic found, call {@link AbstractValidator#newFinding(ModelElement, Severity, ProblemCode, String)} from
  * there. When the {@link #validate()} method runs on this class, your validator will be called (along with the others in the
- * collection) and your results will be added to the full set of results.
+ * collection) and your results will be added to the full set of results. A validator that looks at individuals or families one at
+ * a time can implement {@link IndividualRule} or {@link FamilyRule} instead, so that it shares a single pass over those records
+ * with the built-in validators, which all work that way.
+ * </p>
+ * <p>
+ * To write findings out as they are made rather than keeping them all, give the validator a {@link FindingSink} with
+ * {@link #setFindingSink(FindingSink)}; a {@link LimitingFindingSink} can cap how many findings of each kind are kept and stop
+ * validation once enough errors have been found.
+ * </p>
+ * <p>
+ * Large files can be validated in parallel by passing a {@link ForkJoinPool} to {@link #validate(ForkJoinPool)}. When the gedcom
+ * is edited a little at a time, turn on {@link #setRevalidationEnabled(boolean)} and, after each edit, pass the changed records to
+ * {@link #revalidate(Collection)} rather than validating everything again.
  * </p>
  * 
  * @author frizbog
@@ -127,22 +158,36 @@ public class Validator implements Serializable {
          */
         private List<AutoRepair> repairs = Options.isCollectionInitializationEnabled() ? new ArrayList<AutoRepair>(0) : null;
 
+        /**
+         * The results this finding was last added to, which are told when the finding's code, severity or item of concern changes
+         * so they can keep their indexes up to date
+         */
+        private transient ValidationResults results;
+
+        /**
+         * The position of this finding in the list of all findings of {@link #results}
+         */
+        private transient int resultsIndex;
+
+        /**
+         * The check that made this finding, when revalidation is enabled
+         */
+        private transient UnitKey unit;
+
         /** The severity. */
         private Severity severity;
 
         /**
-         * A stack trace of where in the validation framework the finding originated from
+         * A stack trace of where in the validation framework the finding originated from. Only captured when
+         * {@link Validator#isCaptureStackTraces()} is on.
          */
-        private final String stackTrace;
+        private String stackTrace;
 
         /**
          * Default constructor. Deliberately package-private.
          */
         Finding() {
-            Writer result = new StringWriter();
-            PrintWriter printWriter = new PrintWriter(result);
-            new ValidationException().printStackTrace(printWriter);
-            stackTrace = result.toString();
+            // Default constructor does nothing
         }
 
         /**
@@ -251,7 +296,7 @@ public class Validator implements Serializable {
         /**
          * Get the stackTrace
          * 
-         * @return the stackTrace
+         * @return the stackTrace, or null if the finding was made without {@link Validator#isCaptureStackTraces()} turned on
          */
         public String getStackTrace() {
             return stackTrace;
@@ -271,7 +316,9 @@ public class Validator implements Serializable {
             if (problemCode < 1000) {
                 throw new IllegalArgumentException("Values under 1000 are reserved for gedcom4j - received " + problemCode);
             }
+            beforeIndexedChange();
             this.problemCode = problemCode;
+            afterIndexedChange();
         }
 
         /**
@@ -332,6 +379,25 @@ public class Validator implements Serializable {
             return builder.toString();
         }
 
+        /**
+         * Get the position of this finding in the list of all findings of the results it was last added to. Deliberately
+         * package-private.
+         * 
+         * @return the position of this finding in the results it was last added to
+         */
+        int getResultsIndex() {
+            return resultsIndex;
+        }
+
+        /**
+         * Get the check that made this finding. Deliberately package-private.
+         * 
+         * @return the check that made this finding, or null if revalidation was not enabled when it was made
+         */
+        UnitKey getUnit() {
+            return unit;
+        }
+
         /**
          * Set the fieldNameOfConcern. Deliberately package-private. Outside the validation framework, this field should not be
          * changeable.
@@ -351,7 +417,9 @@ public class Validator implements Serializable {
          *            the item of concern
          */
         void setItemOfConcern(ModelElement itemOfConcern) {
+            beforeIndexedChange();
             this.itemOfConcern = itemOfConcern;
+            afterIndexedChange();
         }
 
         /**
@@ -362,7 +430,9 @@ public class Validator implements Serializable {
          *            the problem code enum entry to use for the problem code and description
          */
         void setProblem(ProblemCode pc) {
+            beforeIndexedChange();
             problemCode = pc.getCode();
+            afterIndexedChange();
             problemDescription = pc.getDescription();
         }
 
@@ -387,6 +457,19 @@ public class Validator implements Serializable {
             this.repairs = repairs;
         }
 
+        /**
+         * Record the results this finding is being added to. Deliberately package-private.
+         * 
+         * @param results
+         *            the results the finding is being added to
+         * @param resultsIndex
+         *            the position the finding will have in the list of all findings of those results
+         */
+        void setResults(ValidationResults results, int resultsIndex) {
+            this.results = results;
+            this.resultsIndex = resultsIndex;
+        }
+
         /**
          * Set the severity. Deliberately package-private. Outside the validation framework, this field should not be changeable.
          * 
@@ -399,9 +482,226 @@ public class Validator implements Serializable {
             if (severity == null) {
                 throw new IllegalArgumentException("severity is a required argument.");
             }
+            beforeIndexedChange();
             this.severity = severity;
+            afterIndexedChange();
+        }
+
+        /**
+         * Put this finding back in the indexes of its results after a change to a field they are keyed by
+         */
+        private void afterIndexedChange() {
+            if (results != null) {
+                results.reindex(this);
+            }
+        }
+
+        /**
+         * Take this finding out of the indexes of its results before a change to a field they are keyed by
+         */
+        private void beforeIndexedChange() {
+            if (results != null) {
+                results.unindex(this);
+            }
+        }
+
+    }
+
+    /**
+     * The check of the root-level notes, which reports null entries without removing them, and requires each note to have an xref
+     */
+    private final class NotesCheck extends RecordCheck<NoteRecord> {
+
+        /**
+         * Constructor
+         * 
+         * @param phase
+         *            the position of this check among the stages of validation
+         */
+        NotesCheck(int phase) {
+            super(phase, "notes");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean check(Entry<String, NoteRecord> entry) {
+            if (entry.getValue() == null) {
+                newFinding(gedcom, Severity.ERROR, ProblemCode.LIST_WITH_NULL_VALUE, "notes");
+            } else {
+                validate(entry.getValue());
+            }
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Map<String, NoteRecord> getRecords() {
+            return gedcom.getNotes();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void validate(NoteRecord note) {
+            // Root level notes should have xrefs
+            if (!isSpecified(note.getXref())) {
+                newFinding(note, Severity.ERROR, ProblemCode.MISSING_REQUIRED_VALUE, "xref");
+            }
+            new NoteRecordValidator(Validator.this, note).validate();
+        }
+    }
+
+    /**
+     * The check made on each entry in one of the maps of root-level records. Deliberately package-private.
+     * 
+     * @param <T>
+     *            the type of record
+     */
+    abstract class RecordCheck<T extends ModelElement> {
+
+        /**
+         * The position of this check among the stages of validation, which identifies the findings it made for revalidation
+         */
+        private final int phase;
+
+        /**
+         * The name of the field in the gedcom that holds the records, for findings about null entries
+         */
+        private final String fieldName;
+
+        /**
+         * Constructor
+         * 
+         * @param phase
+         *            the position of this check among the stages of validation
+         * @param fieldName
+         *            the name of the field in the gedcom that holds the records, for findings about null entries
+         */
+        RecordCheck(int phase, String fieldName) {
+            this.phase = phase;
+            this.fieldName = fieldName;
+        }
+
+        /**
+         * Check an entry, validating the record in it if there is one
+         * 
+         * @param entry
+         *            the entry to check
+         * @return false if the entry is a null entry that auto-repair allows to be removed from the map, true otherwise
+         */
+        boolean check(Entry<String, T> entry) {
+            if (entry.getValue() == null || entry.getKey() == null) {
+                Finding vf = newFinding(gedcom, Severity.ERROR, ProblemCode.LIST_WITH_NULL_VALUE, fieldName);
+                if (mayRepair(vf)) {
+                    vf.addRepair(new AutoRepair(null, null));
+                    return false;
+                }
+                return true;
+            }
+            validate(entry.getValue());
+            return true;
+        }
+
+        /**
+         * Find the entry for a record in the map of records this check is for
+         * 
+         * @param record
+         *            the record
+         * @return the entry for the record, or null if the record is not in the map under its xref
+         */
+        @SuppressWarnings("PMD.CompareObjectsWithEquals")
+        Entry<String, T> findEntry(ModelElement record) {
+            if (!(record instanceof HasXref)) {
+                return null;
+            }
+            String xref = ((HasXref) record).getXref();
+            T value = getRecords().get(xref);
+            if (value == null || value != record) {
+                return null;
+            }
+            return new SimpleImmutableEntry<>(xref, value);
+        }
+
+        /**
+         * Get the map of records this check is for
+         * 
+         * @return the map of records this check is for
+         */
+        abstract Map<String, T> getRecords();
+
+        /**
+         * Validate a record
+         * 
+         * @param record
+         *            the record to validate. Never null.
+         */
+        abstract void validate(T record);
+    }
+
+    /**
+     * The records of one kind that a supplementary validator should check. While revalidation is enabled, iterating over them keeps
+     * track of which record each finding was made for.
+     * 
+     * @param <T>
+     *            the type of record
+     */
+    private final class RecordsToCheck<T extends ModelElement> implements Iterable<T> {
+
+        /**
+         * The records
+         */
+        private final Collection<T> records;
+
+        /**
+         * Constructor
+         * 
+         * @param records
+         *            the records
+         */
+        RecordsToCheck(Collection<T> records) {
+            this.records = records;
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<T> iterator() {
+            final Iterator<T> iterator = records.iterator();
+            final UnitKey outer = currentUnit.get();
+            if (outer != null && outer.getSource() instanceof Class) {
+                revalidationTracker.addScopedValidator((Class<?>) outer.getSource());
+            }
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    boolean result = iterator.hasNext();
+                    if (!result) {
+                        currentUnit.set(outer);
+                    }
+                    return result;
+                }
+
+                @Override
+                public T next() {
+                    T record = iterator.next();
+                    if (outer != null) {
+                        currentUnit.set(new UnitKey(outer.getSource(), record));
+                    }
+                    return record;
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
     }
 
     /**
@@ -445,18 +745,128 @@ public class Validator implements Serializable {
         }
     };
 
+    /**
+     * Parses dates for {@link #parseDate(String, ImpreciseDatePreference)}. Holds no state, so it can be shared.
+     */
+    private static final DateParser DATE_PARSER = new DateParser();
+
+    /**
+     * Stands for a date string that cannot be parsed in {@link #parsedDates}, which cannot hold nulls. No date string the date
+     * parser accepts comes anywhere near this instant.
+     */
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * The stage of validation that checks the families
+     */
+    private static final int FAMILIES_PHASE = 2;
+
+    /**
+     * The check of the header
+     */
+    private static final UnitKey HEADER_UNIT = new UnitKey(0, null);
+
+    /**
+     * The check of the submission
+     */
+    private static final UnitKey SUBMISSION_UNIT = new UnitKey(1, null);
+
+    /**
+     * The check of the trailer
+     */
+    private static final UnitKey TRAILER_UNIT = new UnitKey(10, null);
+
     /**
      * The responder that determines whether the validator is to be allowed to auto-repair a finding. Default is the more
      * conservative value of allowing no auto-repairs.
      */
     private AutoRepairResponder autoRepairResponder = AUTO_REPAIR_NONE;
 
+    /**
+     * Whether the finding sink asked for the last validation to stop before it was finished. Volatile, as the passes that apply
+     * rules check it from the threads of the pool.
+     */
+    private transient volatile boolean aborted;
+
+    /**
+     * Whether each finding records a stack trace of where in the validation framework it was made. Off by default, since capturing
+     * the stack trace costs far more, in both time and memory, than the rest of the finding.
+     */
+    private boolean captureStackTraces;
+
+    /**
+     * While validating with revalidation enabled, the check each thread is making. Null otherwise.
+     */
+    private transient ThreadLocal<UnitKey> currentUnit;
+
+    /**
+     * While revalidating, the families that supplementary validators should check. Null when they should check all the families.
+     */
+    private transient List<Family> familyScope;
+
+    /**
+     * While {@link #validate(ForkJoinPool)} is running, the buffer each thread collects its findings in until they are added to the
+     * results. Threads with no buffer add their findings to the results directly.
+     */
+    private transient ThreadLocal<List<Finding>> findingBuffer;
+
+    /**
+     * Where findings go as they are made. Null to add them to {@link #results}.
+     */
+    private transient FindingSink findingSink;
+
     /** The gedcom being validated. */
     private final Gedcom gedcom;
 
+    /**
+     * While {@link #validate(ForkJoinPool)} is running, the record locks each thread holds, innermost on top
+     */
+    private transient ThreadLocal<Deque<ReentrantLock>> heldRecordLocks;
+
+    /**
+     * While revalidating, the individuals that supplementary validators should check. Null when they should check all the
+     * individuals.
+     */
+    private transient List<Individual> individualScope;
+
+    /**
+     * While validating, the dates parsed so far, keyed by date string, for each imprecise date preference. Null otherwise. Kept as
+     * milliseconds rather than as {@link Date}s, which can be changed, so that no validator can spoil a date for the others.
+     */
+    private transient Map<ImpreciseDatePreference, ConcurrentMap<String, Long>> parsedDates;
+
+    /**
+     * While {@link #validate(ForkJoinPool)} is running, the findings made on the calling thread by the check in progress, which are
+     * sent to the finding sink when the check is finished with them
+     */
+    private transient List<Finding> pendingFindings;
+
+    /**
+     * Index of ancestors and descendants shared by the validators that need them. Built on first use during each call to
+     * {@link #validate()}, after the records themselves have been checked (and possibly repaired).
+     */
+    private transient PedigreeIndex pedigreeIndex;
+
+    /**
+     * While {@link #validate(ForkJoinPool)} is running with auto-repair allowed, the lock for each record that can be validated from
+     * more than one task. Null otherwise.
+     */
+    private transient Map<ModelElement, ReentrantLock> recordLocks;
+
     /** The results. */
     private final ValidationResults results = new ValidationResults();
 
+    /**
+     * The bookkeeping of which check made each finding in the last validation, when revalidation is enabled. Null otherwise.
+     */
+    private transient RevalidationTracker revalidationTracker;
+
+    /**
+     * Whether validation keeps track of which check made each finding, so that {@link #revalidate(Collection)} can replace only the
+     * findings of the checks it makes again
+     */
+    private boolean revalidationEnabled;
+
     /**
      * The extra validators. Callers may declare their own validators and register them to be executied
      */
@@ -508,6 +918,16 @@ public class Validator implements Serializable {
         return autoRepairResponder;
     }
 
+    /**
+     * Get where findings go as they are made
+     * 
+     * @return where findings go as they are made - the results, unless another sink has been set
+     * @since 4.0.2
+     */
+    public FindingSink getFindingSink() {
+        return findingSink == null ? results : findingSink;
+    }
+
     /**
      * Get the gedcom
      * 
@@ -544,7 +964,39 @@ public class Validator implements Serializable {
     }
 
     /**
-     * Create a finding - automatically adds to the results.
+     * Get whether the finding sink asked for the last validation to stop before it was finished
+     * 
+     * @return true if the last validation was stopped early by the finding sink
+     * @since 4.0.2
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Get whether each finding records a stack trace of where in the validation framework it was made
+     * 
+     * @return true if each finding records a stack trace of where it was made
+     * @since 4.0.2
+     */
+    public boolean isCaptureStackTraces() {
+        return captureStackTraces;
+    }
+
+    /**
+     * Get whether validation keeps track of which check made each finding, so that {@link #revalidate(Collection)} can check only
+     * what has changed
+     * 
+     * @return true if revalidation is enabled
+     * @since 4.0.2
+     */
+    public boolean isRevalidationEnabled() {
+        return revalidationEnabled;
+    }
+
+    /**
+     * Create a finding - automatically adds to the results, or sends it to the finding sink. During validation, the finding is sent
+     * once the check that made it is finished with it; otherwise it is sent straight away.
      * 
      * @param itemOfConcern
      *            the item of concern. Required.
@@ -575,10 +1027,111 @@ public class Validator implements Serializable {
         f.problemCode = problemCode.getCode();
         f.problemDescription = problemCode.getDescription();
         f.fieldNameOfConcern = fieldNameOfConcern;
-        results.add(f);
+        if (currentUnit != null) {
+            f.unit = currentUnit.get();
+        }
+        if (captureStackTraces) {
+            Writer result = new StringWriter();
+            PrintWriter printWriter = new PrintWriter(result);
+            new ValidationException().printStackTrace(printWriter);
+            f.stackTrace = result.toString();
+        }
+        List<Finding> buffer = getFindingBuffer();
+        if (buffer == null) {
+            deliver(f);
+        } else {
+            buffer.add(f);
+        }
         return f;
     }
 
+    /**
+     * <p>
+     * Validate again after some records have changed, checking only what the changes can have affected, and replacing the findings
+     * of those checks in the results. Requires {@link #setRevalidationEnabled(boolean)} to have been turned on before the last call
+     * to {@link #validate()} or {@link #validate(ForkJoinPool)}; otherwise, or if the gedcom has never been validated, or if a
+     * finding sink other than the results has been set, the whole gedcom is validated.
+     * </p>
+     * <p>
+     * The header, submission and trailer are always checked again. Each changed individual, family, multimedia, note, repository or
+     * submitter record is checked again, along with the records whose checks took in a changed record along the way - the families
+     * a changed individual is a spouse in, and the records that refer to a changed multimedia or submitter record. Records that are
+     * no longer in the gedcom lose their findings. The supplementary validators built into gedcom4j check again the changed
+     * individuals and families, their immediate families, and the descendants of the changed individuals; other supplementary
+     * validators are run again over the whole gedcom.
+     * </p>
+     * <p>
+     * When a family link changes, pass the records on both sides of it - the family, and the individual added to or removed from
+     * it. Findings from checks made for the first time come after the others in the results.
+     * </p>
+     * 
+     * @param changedRecords
+     *            the root-level records that have been added, changed or removed since the last validation. Required.
+     * @throws IllegalArgumentException
+     *             if changedRecords is null
+     * @since 4.0.2
+     */
+    public void revalidate(Collection<? extends ModelElement> changedRecords) {
+        if (changedRecords == null) {
+            throw new IllegalArgumentException("changedRecords is a required argument");
+        }
+        if (revalidationTracker == null || !revalidationTracker.hasFindings() || findingSink != null) {
+            validate();
+            return;
+        }
+        aborted = false;
+        List<ModelElement> changed = new ArrayList<>();
+        Set<ModelElement> seen = Collections.newSetFromMap(new IdentityHashMap<ModelElement, Boolean>());
+        for (ModelElement record : changedRecords) {
+            if (record != null && seen.add(record)) {
+                changed.add(record);
+            }
+        }
+        if (pedigreeIndex != null) {
+            for (ModelElement record : changed) {
+                if (record instanceof Individual) {
+                    pedigreeIndex.invalidate((Individual) record);
+                } else if (record instanceof Family) {
+                    pedigreeIndex.invalidate((Family) record);
+                }
+            }
+        }
+        List<Finding> newFindings = new ArrayList<>();
+        findingBuffer = new ThreadLocal<>();
+        findingBuffer.set(newFindings);
+        currentUnit = new ThreadLocal<>();
+        parsedDates = newParsedDates();
+        try {
+            revalidationTracker.clearUnit(HEADER_UNIT);
+            currentUnit.set(HEADER_UNIT);
+            checkHeader();
+            revalidationTracker.clearUnit(SUBMISSION_UNIT);
+            currentUnit.set(SUBMISSION_UNIT);
+            checkSubmission();
+            currentUnit.set(null);
+            for (RecordCheck<?> recordCheck : getRecordChecks()) {
+                recheckRecords(recordCheck, changed);
+            }
+            revalidationTracker.clearUnit(TRAILER_UNIT);
+            currentUnit.set(TRAILER_UNIT);
+            checkTrailer();
+            currentUnit.set(null);
+            recheckSupplementaryValidators(changed);
+        } finally {
+            findingBuffer = null;
+            currentUnit = null;
+            individualScope = null;
+            familyScope = null;
+            parsedDates = null;
+        }
+        revalidationTracker.fileFindings(newFindings);
+        revalidationTracker.removeStaleUnits(supplementaryValidators);
+        results.clear();
+        for (Finding f : revalidationTracker.getFindings()) {
+            results.add(f);
+        }
+    }
+
     /**
      * Sets the auto repair responder.
      *
@@ -590,7 +1143,46 @@ public class Validator implements Serializable {
     }
 
     /**
-     * {@inheritDoc}
+     * Set whether each finding records a stack trace of where in the validation framework it was made. Useful when debugging
+     * validators, but expensive on files with many findings.
+     * 
+     * @param captureStackTraces
+     *            true if each finding should record a stack trace of where it was made
+     * @since 4.0.2
+     */
+    public void setCaptureStackTraces(boolean captureStackTraces) {
+        this.captureStackTraces = captureStackTraces;
+    }
+
+    /**
+     * Set where findings go as they are made. The results are cleared at the start of each validation, and stay empty while another
+     * sink is set. If the sink asks for validation to stop, no more findings are sent to it, the checks still to be made are
+     * skipped, and {@link #isAborted()} returns true until the next validation.
+     * 
+     * @param findingSink
+     *            where findings should go as they are made, or null to add them to the results
+     * @since 4.0.2
+     */
+    public void setFindingSink(FindingSink findingSink) {
+        this.findingSink = findingSink == results ? null : findingSink; // NOPMD - deliberately checking for the results themselves
+    }
+
+    /**
+     * Set whether validation keeps track of which check made each finding, so that {@link #revalidate(Collection)} can check only
+     * what has changed. Takes effect from the next call to {@link #validate()} or {@link #validate(ForkJoinPool)}, and only while
+     * findings go to the results. Off by default, since the bookkeeping takes memory in proportion to the number of findings and of
+     * references to multimedia and submitter records.
+     * 
+     * @param revalidationEnabled
+     *            true if validation should keep track of which check made each finding
+     * @since 4.0.2
+     */
+    public void setRevalidationEnabled(boolean revalidationEnabled) {
+        this.revalidationEnabled = revalidationEnabled;
+    }
+
+    /**
+     * {@inheritDoc}
      */
     @Override
     @SuppressWarnings("PMD.CompareObjectsWithEquals")
@@ -619,33 +1211,91 @@ public class Validator implements Serializable {
     /**
      * Validate the gedcom
      */
-    @SuppressWarnings("checkstyle:WhitespaceAround")
     public void validate() {
+        validate(null);
+    }
+
+    /**
+     * <p>
+     * Validate the gedcom, checking the records in parallel.
+     * </p>
+     * <p>
+     * The root-level records of each kind are split into slices that are checked as separate tasks in the pool, and once all the
+     * records have been checked, each supplementary validator runs as a separate task. The findings of each task are kept apart and
+     * added to the results when the tasks alongside it are done, in the same order that {@link #validate()} adds them.
+     * </p>
+     * <p>
+     * Calls to the {@link AutoRepairResponder} are serialized, so it need not be thread-safe. Individuals, multimedia and submitters
+     * can be validated from more than one task, since they are also checked from the records that refer to them, so when auto-repair
+     * is allowed, each of them is locked while it is being checked and repaired, including while the records it refers to are
+     * checked, so that a record is only ever being repaired by one thread. Which of those tasks gets to repair a record first
+     * depends on timing, so with auto-repair allowed the findings can come out in a different order than {@link #validate()} gives.
+     * Custom supplementary validators must be safe to run at the same time as the others.
+     * </p>
+     * <p>
+     * Findings made by the tasks running alongside each other are held until all those tasks are done, so that they can be added to
+     * the results in order. When a finding sink other than the results is set, though, the passes that apply the rules among the
+     * supplementary validators send their findings to it after each record, from the threads of the pool, so a sink that asks for
+     * validation to stop takes effect straight away there.
+     * </p>
+     * 
+     * @param pool
+     *            the pool to run the validation tasks in. If null, the gedcom is validated on the calling thread, exactly as by
+     *            {@link #validate()}.
+     * @since 4.0.2
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    public void validate(ForkJoinPool pool) {
         results.clear();
-        checkHeader();
-        checkSubmission();
-        checkFamilies();
-        checkIndividuals();
-        checkMultimedia();
-        checkNotes();
-        checkRepositories();
-        checkNotes();
-        checkSubmitters();
-        if (gedcom.getTrailer() == null) {
-            Finding vf = newFinding(gedcom, Severity.ERROR, ProblemCode.MISSING_REQUIRED_VALUE, "trailer");
-            if (mayRepair(vf)) {
-                gedcom.setTrailer(new Trailer());
-                vf.addRepair(new AutoRepair(null, new Trailer()));
+        aborted = false;
+        pedigreeIndex = null;
+        revalidationTracker = null;
+        if (revalidationEnabled && findingSink == null) {
+            currentUnit = new ThreadLocal<>();
+            revalidationTracker = new RevalidationTracker();
+        }
+        parsedDates = newParsedDates();
+        pendingFindings = new ArrayList<>();
+        findingBuffer = new ThreadLocal<>();
+        findingBuffer.set(pendingFindings);
+        if (pool != null) {
+            heldRecordLocks = new ThreadLocal<>();
+            if (autoRepairResponder != null && autoRepairResponder != AUTO_REPAIR_NONE) {
+                recordLocks = new IdentityHashMap<>();
             }
         }
-        for (Class<? extends AbstractValidator> avc : supplementaryValidators) {
-            try {
-                AbstractValidator av = avc.getConstructor(Validator.class).newInstance(this);
-                av.validate();
-            } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException
-                    | NoSuchMethodException | SecurityException e) {
-                throw new ValidationException("Unable to instantiate and invoke custom validator " + avc.getName(), e);
+        ValidationTasks tasks = new ValidationTasks(this, pool);
+        try {
+            setCurrentUnit(HEADER_UNIT);
+            checkHeader();
+            setCurrentUnit(SUBMISSION_UNIT);
+            checkSubmission();
+            setCurrentUnit(null);
+            deliverPendingFindings();
+            for (RecordCheck<?> recordCheck : getRecordChecks()) {
+                if (!aborted) {
+                    tasks.checkRecords(recordCheck);
+                }
+            }
+            if (!aborted) {
+                setCurrentUnit(TRAILER_UNIT);
+                checkTrailer();
+                setCurrentUnit(null);
+                deliverPendingFindings();
+            }
+            if (!aborted) {
+                runSupplementaryValidators(tasks);
             }
+        } finally {
+            pendingFindings = null;
+            findingBuffer = null;
+            heldRecordLocks = null;
+            recordLocks = null;
+            currentUnit = null;
+            parsedDates = null;
+        }
+        if (revalidationTracker != null) {
+            revalidationTracker.fileFindings(results.getAllFindings());
         }
     }
 
@@ -659,24 +1309,216 @@ public class Validator implements Serializable {
     }
 
     /**
-     * Check individuals.
+     * Add findings to the buffer of the current thread, if it has one, or else send them to the finding sink. Deliberately
+     * package-private.
+     * 
+     * @param findings
+     *            the findings to add
      */
-    void checkIndividuals() {
-        Iterator<Map.Entry<String, Individual>> itr = gedcom.getIndividuals().entrySet().iterator();
-        while (itr.hasNext()) {
-            Entry<String, Individual> entry = itr.next();
-            if (entry.getValue() == null || entry.getKey() == null) {
-                Finding vf = newFinding(gedcom, Severity.ERROR, ProblemCode.LIST_WITH_NULL_VALUE, "individuals");
-                if (mayRepair(vf)) {
-                    vf.addRepair(new AutoRepair(null, null));
-                    itr.remove();
-                }
+    void addFindings(List<Finding> findings) {
+        List<Finding> buffer = getFindingBuffer();
+        for (Finding f : findings) {
+            if (buffer == null) {
+                deliver(f);
             } else {
-                new IndividualValidator(this, entry.getValue()).validate();
+                buffer.add(f);
             }
         }
     }
 
+    /**
+     * Start checking a record that can be validated from more than one task. When validating in parallel with auto-repair allowed,
+     * this locks the record, keeping the locks of any records the current thread is already in the middle of checking, so that no
+     * other thread can repair those records until this thread has finished with them. Must be paired with a call to
+     * {@link #endRecord()}. Deliberately package-private.
+     * <p>
+     * Records are always locked in the same order, so no two threads can each be waiting for a lock the other holds: individuals
+     * are only checked from tasks that hold no record lock, and then lock the submitters and multimedia they refer to; submitters
+     * refer to no other locked records, and multimedia only to the multimedia they are continued in.
+     * </p>
+     * 
+     * @param record
+     *            the record about to be checked
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    void beginRecord(ModelElement record) {
+        if (currentUnit != null && !(record instanceof Individual)) {
+            UnitKey unit = currentUnit.get();
+            if (unit != null && unit.getRecord() != record) {
+                revalidationTracker.addDependent(record, unit);
+            }
+        }
+        if (recordLocks == null) {
+            return;
+        }
+        ReentrantLock lock;
+        synchronized (recordLocks) {
+            lock = recordLocks.get(record);
+            if (lock == null) {
+                lock = new ReentrantLock();
+                recordLocks.put(record, lock);
+            }
+        }
+        Deque<ReentrantLock> held = heldRecordLocks.get();
+        if (held == null) {
+            held = new ArrayDeque<>();
+            heldRecordLocks.set(held);
+        }
+        lock.lock();
+        held.push(lock);
+    }
+
+    /**
+     * Check one entry from one of the maps of root-level records, keeping track of the check while revalidation is enabled.
+     * Deliberately package-private.
+     * 
+     * @param <T>
+     *            the type of record
+     * @param recordCheck
+     *            the check to make
+     * @param entry
+     *            the entry to check
+     * @return false if the entry is a null entry that auto-repair allows to be removed from the map, true otherwise
+     */
+    <T extends ModelElement> boolean checkEntry(RecordCheck<T> recordCheck, Entry<String, T> entry) {
+        if (currentUnit == null) {
+            return recordCheck.check(entry);
+        }
+        UnitKey previous = currentUnit.get();
+        currentUnit.set(new UnitKey(recordCheck.phase, entry.getValue()));
+        try {
+            return recordCheck.check(entry);
+        } finally {
+            currentUnit.set(previous);
+        }
+    }
+
+    /**
+     * Send a finding to the finding sink, unless the sink has already asked for validation to stop. Deliberately package-private.
+     * 
+     * @param finding
+     *            the finding
+     */
+    void deliver(Finding finding) {
+        if (aborted) {
+            return;
+        }
+        if (findingSink == null) {
+            results.add(finding);
+        } else if (!findingSink.accept(finding)) {
+            aborted = true;
+        }
+    }
+
+    /**
+     * Send findings to the finding sink, one at a time, from any thread - never at the same time as another thread does.
+     * Deliberately package-private.
+     * 
+     * @param findings
+     *            the findings
+     */
+    synchronized void deliverAll(List<Finding> findings) {
+        for (Finding f : findings) {
+            deliver(f);
+        }
+    }
+
+    /**
+     * Send the findings made on the calling thread by the check just finished to the finding sink, if validation is running.
+     * Deliberately package-private.
+     */
+    void deliverPendingFindings() {
+        if (pendingFindings != null) {
+            for (Finding f : pendingFindings) {
+                deliver(f);
+            }
+            pendingFindings.clear();
+        }
+    }
+
+    /**
+     * Finish checking a record started with {@link #beginRecord(ModelElement)}, releasing its lock. The locks of the records the
+     * current thread was checking before, if any, are still held. Deliberately package-private.
+     */
+    void endRecord() {
+        if (recordLocks == null) {
+            return;
+        }
+        heldRecordLocks.get().pop().unlock();
+    }
+
+    /**
+     * Get the families a supplementary validator should check: all of them, or while revalidating, only those that changes can have
+     * affected. Deliberately package-private.
+     * 
+     * @return the families a supplementary validator should check
+     */
+    Iterable<Family> getFamiliesToCheck() {
+        Collection<Family> families = familyScope == null ? gedcom.getFamilies().values() : familyScope;
+        if (currentUnit == null) {
+            return families;
+        }
+        return new RecordsToCheck<>(families);
+    }
+
+    /**
+     * Get the buffer the current thread collects its findings in. Deliberately package-private.
+     * 
+     * @return the buffer the current thread collects its findings in, or null if its findings are sent to the finding sink
+     *         straight away
+     */
+    List<Finding> getFindingBuffer() {
+        return findingBuffer == null ? null : findingBuffer.get();
+    }
+
+    /**
+     * Get the individuals a supplementary validator should check: all of them, or while revalidating, only those that changes can
+     * have affected. Deliberately package-private.
+     * 
+     * @return the individuals a supplementary validator should check
+     */
+    Iterable<Individual> getIndividualsToCheck() {
+        Collection<Individual> individuals = individualScope == null ? gedcom.getIndividuals().values() : individualScope;
+        if (currentUnit == null) {
+            return individuals;
+        }
+        return new RecordsToCheck<>(individuals);
+    }
+
+    /**
+     * Get the index of ancestors and descendants for the gedcom being validated, building it if needed. Deliberately
+     * package-private.
+     * 
+     * @return the index of ancestors and descendants for the gedcom being validated
+     */
+    synchronized PedigreeIndex getPedigreeIndex() {
+        if (pedigreeIndex == null) {
+            pedigreeIndex = new PedigreeIndex(gedcom);
+        }
+        return pedigreeIndex;
+    }
+
+    /**
+     * Do findings go to a finding sink other than the results? Deliberately package-private.
+     * 
+     * @return true if a finding sink other than the results is set
+     */
+    boolean hasFindingSink() {
+        return findingSink != null;
+    }
+
+    /**
+     * Is a supplementary validator a rule, which checks records one at a time in a shared pass over the records, rather than by
+     * having its {@link AbstractValidator#validate()} method called? Deliberately package-private.
+     * 
+     * @param validatorClass
+     *            the class of the supplementary validator
+     * @return true if the supplementary validator is an {@link IndividualRule} or a {@link FamilyRule}
+     */
+    static boolean isRule(Class<?> validatorClass) {
+        return IndividualRule.class.isAssignableFrom(validatorClass) || FamilyRule.class.isAssignableFrom(validatorClass);
+    }
+
     /**
      * Is the string supplied non-null, and has something other than whitespace in it? Deliberately package-private
      * 
@@ -697,13 +1539,14 @@ public class Validator implements Serializable {
     }
 
     /**
-     * Check if the finding can be auto-repaired. Delegates to the registered auto-repair responder, if any.
+     * Check if the finding can be auto-repaired. Delegates to the registered auto-repair responder, if any. Calls to the responder
+     * are serialized when validating in parallel.
      * 
      * @param validationFinding
      *            the validation finding
      * @return true if the finding may be auto-repaired
      */
-    boolean mayRepair(Finding validationFinding) {
+    synchronized boolean mayRepair(Finding validationFinding) {
         if (autoRepairResponder != null) {
             return autoRepairResponder.mayRepair(validationFinding);
         }
@@ -711,90 +1554,159 @@ public class Validator implements Serializable {
     }
 
     /**
-     * Check families.
+     * Instantiate a supplementary validator. Deliberately package-private.
+     * 
+     * @param avc
+     *            the class of the supplementary validator
+     * @return the supplementary validator
+     * @throws ValidationException
+     *             if the validator cannot be instantiated
      */
-    private void checkFamilies() {
-        Iterator<Map.Entry<String, Family>> itr = gedcom.getFamilies().entrySet().iterator();
-        while (itr.hasNext()) {
-            Entry<String, Family> entry = itr.next();
-            if (entry.getValue() == null || entry.getKey() == null) {
-                Finding vf = newFinding(gedcom, Severity.ERROR, ProblemCode.LIST_WITH_NULL_VALUE, "submitter");
-                if (mayRepair(vf)) {
-                    vf.addRepair(new AutoRepair(null, null));
-                    itr.remove();
-                }
-            } else {
-                new FamilyValidator(this, entry.getValue()).validate();
-            }
+    AbstractValidator newSupplementaryValidator(Class<? extends AbstractValidator> avc) {
+        try {
+            return avc.getConstructor(Validator.class).newInstance(this);
+        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException
+                | NoSuchMethodException | SecurityException e) {
+            throw new ValidationException("Unable to instantiate and invoke custom validator " + avc.getName(), e);
         }
     }
 
     /**
-     * Check the header
+     * Parse a date string. While validating, each date string is parsed only once for each imprecise date preference, and each
+     * validator that asks for it gets its own copy of the date. Deliberately package-private.
+     * 
+     * @param dateString
+     *            the date string
+     * @param pref
+     *            the preference for handling an imprecise date
+     * @return the date, if one can be derived from the string
      */
-    private void checkHeader() {
-        if (gedcom.getHeader() == null) {
-            Header header = new Header();
-            gedcom.setHeader(header);
+    Date parseDate(String dateString, ImpreciseDatePreference pref) {
+        Map<ImpreciseDatePreference, ConcurrentMap<String, Long>> dates = parsedDates;
+        if (dates == null || pref == null) {
+            return DATE_PARSER.parse(dateString, pref);
         }
-        new HeaderValidator(this, gedcom.getHeader()).validate();
+        ConcurrentMap<String, Long> datesForPref = dates.get(pref);
+        Long millis = datesForPref.get(dateString);
+        if (millis == null) {
+            Date result = DATE_PARSER.parse(dateString, pref);
+            datesForPref.putIfAbsent(dateString, result == null ? NO_DATE : result.getTime());
+            return result;
+        }
+        return millis == NO_DATE ? null : new Date(millis);
     }
 
     /**
-     * Check multimedia.
+     * Instantiate and run a supplementary validator. Deliberately package-private.
+     * 
+     * @param avc
+     *            the class of the supplementary validator
+     * @throws ValidationException
+     *             if the validator cannot be instantiated
      */
-    private void checkMultimedia() {
-        Iterator<Map.Entry<String, Multimedia>> itr = gedcom.getMultimedia().entrySet().iterator();
-        while (itr.hasNext()) {
-            Entry<String, Multimedia> entry = itr.next();
-            if (entry.getValue() == null || entry.getKey() == null) {
-                Finding vf = newFinding(gedcom, Severity.ERROR, ProblemCode.LIST_WITH_NULL_VALUE, "multimedia");
-                if (mayRepair(vf)) {
-                    vf.addRepair(new AutoRepair(null, null));
-                    itr.remove();
-                }
-            } else {
-                new MultimediaValidator(this, entry.getValue()).validate();
-            }
+    void runSupplementaryValidator(Class<? extends AbstractValidator> avc) {
+        setCurrentUnit(avc, null);
+        try {
+            newSupplementaryValidator(avc).validate();
+        } finally {
+            setCurrentUnit(null);
         }
     }
 
     /**
-     * Check notes
+     * Set the check the current thread is making, if revalidation is enabled. Deliberately package-private.
+     * 
+     * @param source
+     *            the stage of validation (an Integer), or the class of supplementary validator; or null if the current thread is
+     *            making no check
+     * @param record
+     *            the record being checked, if any
      */
-    private void checkNotes() {
-        for (NoteRecord note : gedcom.getNotes().values()) {
-            if (note == null) {
-                newFinding(gedcom, Severity.ERROR, ProblemCode.LIST_WITH_NULL_VALUE, "notes");
-                continue;
-            }
-            // Root level notes should have xrefs
-            if (!isSpecified(note.getXref())) {
-                newFinding(note, Severity.ERROR, ProblemCode.MISSING_REQUIRED_VALUE, "xref");
+    void setCurrentUnit(Object source, ModelElement record) {
+        setCurrentUnit(source == null ? null : new UnitKey(source, record));
+    }
+
+    /**
+     * Set the buffer the current thread collects its findings in, while {@link #validate(ForkJoinPool)} is running. Deliberately
+     * package-private.
+     * 
+     * @param buffer
+     *            the buffer the current thread is to collect its findings in, or null to send them to the finding sink straight
+     *            away
+     */
+    void setFindingBuffer(List<Finding> buffer) {
+        findingBuffer.set(buffer);
+    }
+
+    /**
+     * Add a family and its members to the records supplementary validators should check again
+     * 
+     * @param family
+     *            the family. Ignored if null.
+     * @param families
+     *            the families to check again
+     * @param individuals
+     *            the individuals to check again
+     * @param seen
+     *            the records already added
+     */
+    private void addToScope(Family family, List<Family> families, List<Individual> individuals, Set<ModelElement> seen) {
+        if (family == null || !seen.add(family)) {
+            return;
+        }
+        families.add(family);
+        addToScope(family.getHusband(), individuals, seen);
+        addToScope(family.getWife(), individuals, seen);
+        if (family.getChildren() != null) {
+            for (IndividualReference child : family.getChildren()) {
+                addToScope(child, individuals, seen);
             }
-            new NoteRecordValidator(this, note).validate();
         }
     }
 
     /**
-     * Check all the repositories in the gedcom
+     * Add an individual to the records supplementary validators should check again
+     * 
+     * @param individual
+     *            the individual. Ignored if null.
+     * @param individuals
+     *            the individuals to check again
+     * @param seen
+     *            the records already added
      */
-    private void checkRepositories() {
-        Iterator<Entry<String, Repository>> itr = gedcom.getRepositories().entrySet().iterator();
-        while (itr.hasNext()) {
-            Entry<String, Repository> entry = itr.next();
-            if (entry.getValue() == null || entry.getKey() == null) {
-                Finding vf = newFinding(gedcom, Severity.ERROR, ProblemCode.LIST_WITH_NULL_VALUE, "repositories");
-                if (mayRepair(vf)) {
-                    vf.addRepair(new AutoRepair(null, null));
-                    itr.remove();
-                }
-            } else {
-                new RepositoryValidator(this, entry.getValue()).validate();
-            }
+    private void addToScope(Individual individual, List<Individual> individuals, Set<ModelElement> seen) {
+        if (individual != null && seen.add(individual)) {
+            individuals.add(individual);
         }
     }
 
+    /**
+     * Add a referenced individual to the records supplementary validators should check again
+     * 
+     * @param reference
+     *            the reference to the individual. Ignored if null.
+     * @param individuals
+     *            the individuals to check again
+     * @param seen
+     *            the records already added
+     */
+    private void addToScope(IndividualReference reference, List<Individual> individuals, Set<ModelElement> seen) {
+        if (reference != null) {
+            addToScope(reference.getIndividual(), individuals, seen);
+        }
+    }
+
+    /**
+     * Check the header
+     */
+    private void checkHeader() {
+        if (gedcom.getHeader() == null) {
+            Header header = new Header();
+            gedcom.setHeader(header);
+        }
+        new HeaderValidator(this, gedcom.getHeader()).validate();
+    }
+
     /**
      * Check submission
      */
@@ -811,20 +1723,14 @@ public class Validator implements Serializable {
     }
 
     /**
-     * Check all the submitters in the gedcom
+     * Check the trailer
      */
-    private void checkSubmitters() {
-        Iterator<Entry<String, Submitter>> itr = gedcom.getSubmitters().entrySet().iterator();
-        while (itr.hasNext()) {
-            Entry<String, Submitter> entry = itr.next();
-            if (entry.getValue() == null || entry.getKey() == null) {
-                Finding vf = newFinding(gedcom, Severity.ERROR, ProblemCode.LIST_WITH_NULL_VALUE, "submitter");
-                if (mayRepair(vf)) {
-                    vf.addRepair(new AutoRepair(null, null));
-                    itr.remove();
-                }
-            } else {
-                new SubmitterValidator(this, entry.getValue()).validate();
+    private void checkTrailer() {
+        if (gedcom.getTrailer() == null) {
+            Finding vf = newFinding(gedcom, Severity.ERROR, ProblemCode.MISSING_REQUIRED_VALUE, "trailer");
+            if (mayRepair(vf)) {
+                gedcom.setTrailer(new Trailer());
+                vf.addRepair(new AutoRepair(null, new Trailer()));
             }
         }
     }
@@ -866,4 +1772,232 @@ public class Validator implements Serializable {
         }
     }
 
+    /**
+     * Get the checks of the root-level records, in the order they are made
+     * 
+     * @return the checks of the root-level records
+     */
+    @SuppressWarnings("PMD.ExcessiveMethodLength")
+    private List<RecordCheck<?>> getRecordChecks() {
+        List<RecordCheck<?>> result = new ArrayList<>(7);
+        result.add(new RecordCheck<Family>(FAMILIES_PHASE, "submitter") {
+            @Override
+            Map<String, Family> getRecords() {
+                return gedcom.getFamilies();
+            }
+
+            @Override
+            void validate(Family family) {
+                new FamilyValidator(Validator.this, family).validate();
+            }
+        });
+        result.add(new RecordCheck<Individual>(FAMILIES_PHASE + 1, "individuals") {
+            @Override
+            Map<String, Individual> getRecords() {
+                return gedcom.getIndividuals();
+            }
+
+            @Override
+            void validate(Individual individual) {
+                new IndividualValidator(Validator.this, individual).validate();
+            }
+        });
+        result.add(new RecordCheck<Multimedia>(FAMILIES_PHASE + 2, "multimedia") {
+            @Override
+            Map<String, Multimedia> getRecords() {
+                return gedcom.getMultimedia();
+            }
+
+            @Override
+            void validate(Multimedia multimedia) {
+                new MultimediaValidator(Validator.this, multimedia).validate();
+            }
+        });
+        result.add(new NotesCheck(FAMILIES_PHASE + 3));
+        result.add(new RecordCheck<Repository>(FAMILIES_PHASE + 4, "repositories") {
+            @Override
+            Map<String, Repository> getRecords() {
+                return gedcom.getRepositories();
+            }
+
+            @Override
+            void validate(Repository repository) {
+                new RepositoryValidator(Validator.this, repository).validate();
+            }
+        });
+        result.add(new NotesCheck(FAMILIES_PHASE + 5));
+        result.add(new RecordCheck<Submitter>(FAMILIES_PHASE + 6, "submitter") {
+            @Override
+            Map<String, Submitter> getRecords() {
+                return gedcom.getSubmitters();
+            }
+
+            @Override
+            void validate(Submitter submitter) {
+                new SubmitterValidator(Validator.this, submitter).validate();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get the records from a list that are in one of the maps of root-level records of the gedcom
+     * 
+     * @param <T>
+     *            the type of record
+     * @param records
+     *            the records
+     * @param recordsInGedcom
+     *            the map of records in the gedcom
+     * @return the records from the list that are in the map under their xrefs, in the same order
+     */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private <T extends HasXref> List<T> inGedcom(List<T> records, Map<String, T> recordsInGedcom) {
+        List<T> result = new ArrayList<>(records.size());
+        for (T record : records) {
+            if (recordsInGedcom.get(record.getXref()) == record) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Make an empty set of maps of parsed dates, one for each imprecise date preference
+     * 
+     * @return an empty set of maps of parsed dates
+     */
+    private static Map<ImpreciseDatePreference, ConcurrentMap<String, Long>> newParsedDates() {
+        Map<ImpreciseDatePreference, ConcurrentMap<String, Long>> result = new EnumMap<>(ImpreciseDatePreference.class);
+        for (ImpreciseDatePreference pref : ImpreciseDatePreference.values()) {
+            result.put(pref, new ConcurrentHashMap<String, Long>());
+        }
+        return result;
+    }
+
+    /**
+     * Check again the records of one kind that changes can have affected
+     * 
+     * @param <T>
+     *            the type of record
+     * @param recordCheck
+     *            the check of that kind of record
+     * @param changed
+     *            the changed records
+     */
+    private <T extends ModelElement> void recheckRecords(RecordCheck<T> recordCheck, List<ModelElement> changed) {
+        List<ModelElement> toCheck = new ArrayList<>(changed);
+        for (ModelElement record : changed) {
+            for (UnitKey unit : revalidationTracker.getDependents(record)) {
+                if (unit.getSource().equals(recordCheck.phase)) {
+                    toCheck.add(unit.getRecord());
+                }
+            }
+            if (recordCheck.phase == FAMILIES_PHASE && record instanceof Individual && ((Individual) record)
+                    .getFamiliesWhereSpouse() != null) {
+                for (FamilySpouse fs : ((Individual) record).getFamiliesWhereSpouse()) {
+                    if (fs != null && fs.getFamily() != null) {
+                        toCheck.add(fs.getFamily());
+                    }
+                }
+            }
+        }
+        Set<ModelElement> checked = Collections.newSetFromMap(new IdentityHashMap<ModelElement, Boolean>());
+        for (ModelElement record : toCheck) {
+            if (checked.add(record)) {
+                revalidationTracker.clearUnit(new UnitKey(recordCheck.phase, record));
+                Entry<String, T> entry = recordCheck.findEntry(record);
+                if (entry != null) {
+                    checkEntry(recordCheck, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Run the supplementary validators again over the records that changes can have affected
+     * 
+     * @param changed
+     *            the changed records
+     */
+    @SuppressWarnings("checkstyle:WhitespaceAround")
+    private void recheckSupplementaryValidators(List<ModelElement> changed) {
+        List<Individual> individuals = new ArrayList<>();
+        List<Family> families = new ArrayList<>();
+        Set<ModelElement> seen = Collections.newSetFromMap(new IdentityHashMap<ModelElement, Boolean>());
+        for (ModelElement record : changed) {
+            if (record instanceof Individual) {
+                addToScope((Individual) record, individuals, seen);
+            } else if (record instanceof Family) {
+                addToScope((Family) record, families, individuals, seen);
+            }
+        }
+        int changedIndividuals = individuals.size();
+        for (int i = 0; i < changedIndividuals; i++) {
+            Individual individual = individuals.get(i);
+            if (individual.getFamiliesWhereChild() != null) {
+                for (FamilyChild fc : individual.getFamiliesWhereChild()) {
+                    if (fc != null) {
+                        addToScope(fc.getFamily(), families, individuals, seen);
+                    }
+                }
+            }
+            if (individual.getFamiliesWhereSpouse() != null) {
+                for (FamilySpouse fs : individual.getFamiliesWhereSpouse()) {
+                    if (fs != null) {
+                        addToScope(fs.getFamily(), families, individuals, seen);
+                    }
+                }
+            }
+        }
+        PedigreeIndex pedigree = getPedigreeIndex();
+        for (int i = 0; i < changedIndividuals; i++) {
+            for (Individual descendant : pedigree.getDescendants(individuals.get(i))) {
+                addToScope(descendant, individuals, seen);
+            }
+        }
+        List<Individual> individualsInGedcom = inGedcom(individuals, gedcom.getIndividuals());
+        List<Family> familiesInGedcom = inGedcom(families, gedcom.getFamilies());
+
+        for (Class<? extends AbstractValidator> avc : supplementaryValidators) {
+            if (isRule(avc) || revalidationTracker.isScoped(avc)) {
+                revalidationTracker.clearUnit(new UnitKey(avc, null));
+                for (Individual individual : individuals) {
+                    revalidationTracker.clearUnit(new UnitKey(avc, individual));
+                }
+                for (Family family : families) {
+                    revalidationTracker.clearUnit(new UnitKey(avc, family));
+                }
+            } else {
+                revalidationTracker.clearUnitsOf(avc);
+            }
+        }
+        individualScope = individualsInGedcom;
+        familyScope = familiesInGedcom;
+        runSupplementaryValidators(new ValidationTasks(this, null));
+    }
+
+    /**
+     * Run the supplementary validators over the individuals and families they should check
+     * 
+     * @param tasks
+     *            the scheduler to run them with
+     */
+    private void runSupplementaryValidators(ValidationTasks tasks) {
+        tasks.runSupplementaryValidators(individualScope == null ? gedcom.getIndividuals().values() : individualScope,
+                familyScope == null ? gedcom.getFamilies().values() : familyScope);
+    }
+
+    /**
+     * Set the check the current thread is making, if revalidation is enabled
+     * 
+     * @param unit
+     *            the check, or null if none
+     */
+    private void setCurrentUnit(UnitKey unit) {
+        if (currentUnit != null) {
+            currentUnit.set(unit);
+        }
+    }
+
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.diagnostics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.gedcom4j.Options;
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test for {@link GedcomCompactor}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class GedcomCompactorTest {
+
+    /**
+     * Put the options back how they were
+     */
+    @After
+    public void tearDown() {
+        Options.resetToDefaults();
+    }
+
+    /**
+     * Test that compacting leaves the gedcom equal to how it was, whether done in parallel or not
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testCompactLeavesContentAlone() throws IOException, GedcomParserException {
+        Options.setCollectionInitializationEnabled(true);
+        Gedcom original = load();
+        Gedcom sequential = load();
+        Gedcom parallel = load();
+
+        CompactionResult sequentialResult = new GedcomCompactor().compact(sequential);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new GedcomCompactor().compact(parallel, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(original, sequential);
+        assertEquals(original, parallel);
+        assertTrue(sequentialResult.getTrimmedListCount() > 0);
+        assertTrue(sequentialResult.getReclaimedBytes() > 0);
+        assertEquals(0, sequentialResult.getDroppedListCount());
+    }
+
+    /**
+     * Test that strings with the same value held as separate objects end up as the same object
+     */
+    @Test
+    public void testDuplicateStrings() {
+        String surname = "Smith";
+        String sameSurname = new String(surname); // NOPMD - deliberately a separate object
+        Gedcom g = gedcomWithAliases(surname, sameSurname);
+
+        CompactionResult result = new GedcomCompactor().compact(g);
+
+        assertEquals(1, result.getDeduplicatedStringCount());
+        assertEquals(HeapFootprint.sizeOfString(surname), result.getDeduplicatedStringBytes());
+        assertSame(g.getIndividuals().get("@I0@").getAliases().get(0).getValue(), g.getIndividuals().get("@I1@").getAliases().get(0)
+                .getValue());
+    }
+
+    /**
+     * Test that empty lists are dropped only while collection initialization is turned off
+     */
+    @Test
+    public void testEmptyLists() {
+        Options.setCollectionInitializationEnabled(true);
+        Gedcom initialized = gedcomWithAliases("A", "B");
+        CompactionResult result = new GedcomCompactor().compact(initialized);
+        assertEquals(0, result.getDroppedListCount());
+        assertNotNull(initialized.getIndividuals().get("@I0@").getEvents());
+
+        Options.setCollectionInitializationEnabled(false);
+        Gedcom uninitialized = gedcomWithAliases("A", "B");
+        uninitialized.getIndividuals().get("@I0@").getEvents(true);
+        result = new GedcomCompactor().compact(uninitialized);
+        assertEquals(1, result.getDroppedListCount());
+        assertNull(uninitialized.getIndividuals().get("@I0@").getEvents());
+        assertEquals(1, uninitialized.getIndividuals().get("@I0@").getAliases().size());
+    }
+
+    /**
+     * Test that a null gedcom is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGedcom() {
+        new GedcomCompactor().compact(null);
+    }
+
+    /**
+     * Make a gedcom with two individuals, each with an alias
+     * 
+     * @param alias1
+     *            the first individual's alias
+     * @param alias2
+     *            the second individual's alias
+     * @return the gedcom
+     */
+    private Gedcom gedcomWithAliases(String alias1, String alias2) {
+        Gedcom g = new Gedcom();
+        String[] aliases = { alias1, alias2 };
+        for (int i = 0; i < aliases.length; i++) {
+            Individual individual = new Individual();
+            individual.setXref("@I" + i + "@");
+            individual.getAliases(true).add(new StringWithCustomFacts(aliases[i]));
+            g.getIndividuals().put(individual.getXref(), individual);
+        }
+        return g;
+    }
+
+    /**
+     * Load the sample file
+     * 
+     * @return the gedcom
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    private Gedcom load() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/willis.ged");
+        return gp.getGedcom();
+    }
+}
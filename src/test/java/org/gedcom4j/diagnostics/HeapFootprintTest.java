@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.diagnostics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.gedcom4j.Options;
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test for {@link HeapFootprint}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class HeapFootprintTest {
+
+    /**
+     * Put the options back how they were
+     */
+    @After
+    public void tearDown() {
+        Options.resetToDefaults();
+    }
+
+    /**
+     * Test that strings with the same value held as separate objects are counted as duplicates
+     */
+    @Test
+    public void testDuplicateStrings() {
+        String surname = "Smith";
+        HeapFootprint same = new HeapFootprint(gedcomWithAliases(surname, surname), 0);
+        String sameSurname = new String(surname); // NOPMD - deliberately a separate object
+        HeapFootprint separate = new HeapFootprint(gedcomWithAliases(surname, sameSurname), 0);
+
+        assertEquals(same.getStringCount() + 1, separate.getStringCount());
+        assertEquals(same.getDistinctStringCount(), separate.getDistinctStringCount());
+        assertTrue(separate.getDuplicateStringBytes() > same.getDuplicateStringBytes());
+    }
+
+    /**
+     * Test that empty collections are counted, such as those made when collection initialization is turned on
+     */
+    @Test
+    public void testEmptyCollections() {
+        Options.setCollectionInitializationEnabled(false);
+        HeapFootprint uninitialized = new HeapFootprint(gedcomWithAliases("A", "B"), 0);
+        Options.setCollectionInitializationEnabled(true);
+        HeapFootprint initialized = new HeapFootprint(gedcomWithAliases("A", "B"), 0);
+
+        assertTrue(initialized.getEmptyCollectionCount() > uninitialized.getEmptyCollectionCount());
+        assertTrue(initialized.getEmptyCollectionBytes() > uninitialized.getEmptyCollectionBytes());
+        assertTrue(initialized.getTotalBytes() > uninitialized.getTotalBytes());
+    }
+
+    /**
+     * Test that the heaviest records come out heaviest first
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testHeaviestRecords() throws IOException, GedcomParserException {
+        HeapFootprint hf = new HeapFootprint(load(), 5);
+        assertEquals(5, hf.getHeaviestRecords().size());
+        long previous = Long.MAX_VALUE;
+        for (RecordFootprint rf : hf.getHeaviestRecords()) {
+            assertNotNull(rf.getXref());
+            assertTrue(rf.getRetainedBytes() <= previous);
+            previous = rf.getRetainedBytes();
+        }
+    }
+
+    /**
+     * Test that a negative number of heaviest records is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeHeaviestRecordCount() {
+        new HeapFootprint(new Gedcom(), -1);
+    }
+
+    /**
+     * Test that a null gedcom is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGedcom() {
+        new HeapFootprint(null, 10);
+    }
+
+    /**
+     * Test that every record is counted, and that the bytes of the record types and shared objects add up to the total
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testRecordTypes() throws IOException, GedcomParserException {
+        Gedcom g = load();
+        HeapFootprint hf = new HeapFootprint(g, 0);
+        long recordTypeBytes = 0;
+        boolean foundIndividuals = false;
+        for (ClassFootprint cf : hf.getRecordTypeFootprints()) {
+            recordTypeBytes += cf.getRetainedBytes();
+            if ("Individual".equals(cf.getName())) {
+                assertEquals(g.getIndividuals().size(), cf.getInstanceCount());
+                foundIndividuals = true;
+            }
+        }
+        assertTrue(foundIndividuals);
+        assertEquals(hf.getTotalBytes(), recordTypeBytes + hf.getSharedBytes());
+        assertTrue(hf.getReport().startsWith("Total bytes\tShared bytes\n" + hf.getTotalBytes() + "\t"));
+    }
+
+    /**
+     * Make a gedcom with two individuals, each with an alias
+     * 
+     * @param alias1
+     *            the first individual's alias
+     * @param alias2
+     *            the second individual's alias
+     * @return the gedcom
+     */
+    private Gedcom gedcomWithAliases(String alias1, String alias2) {
+        Gedcom g = new Gedcom();
+        String[] aliases = { alias1, alias2 };
+        for (int i = 0; i < aliases.length; i++) {
+            Individual individual = new Individual();
+            individual.setXref("@I" + i + "@");
+            individual.getAliases(true).add(new StringWithCustomFacts(aliases[i]));
+            g.getIndividuals().put(individual.getXref(), individual);
+        }
+        return g;
+    }
+
+    /**
+     * Load the sample file
+     * 
+     * @return the gedcom
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    private Gedcom load() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/RelationshipTest.ged");
+        return gp.getGedcom();
+    }
+}
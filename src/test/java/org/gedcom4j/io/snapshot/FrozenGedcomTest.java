@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.gedcom4j.Options;
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
+import org.gedcom4j.model.PersonalName;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test for {@link FrozenGedcom}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class FrozenGedcomTest {
+
+    /**
+     * Put the options back how they were
+     */
+    @After
+    public void tearDown() {
+        Options.resetToDefaults();
+    }
+
+    /**
+     * Test that changing the original after freezing it doesn't change the frozen copy
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testChangesToOriginalNotSeen() throws IOException, GedcomParserException {
+        Gedcom g = load(false);
+        Gedcom frozen = new FrozenGedcom(g).getGedcom();
+        Individual i = g.getIndividuals().get("@I00032@");
+        String sex = i.getSex().getValue();
+        i.getSex().setValue("X");
+        i.getNames().get(0).setBasic("Changed /Name/");
+        g.getIndividuals().remove("@I00044@");
+
+        Individual frozenIndividual = frozen.getIndividuals().get("@I00032@");
+        assertEquals(sex, frozenIndividual.getSex().getValue());
+        assertFalse("Changed /Name/".equals(frozenIndividual.getNames().get(0).getBasic()));
+        assertNotNull(frozen.getIndividuals().get("@I00044@"));
+    }
+
+    /**
+     * Test that freezing a lazily-loaded gedcom gives the same as freezing one loaded the usual way
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testLazyLoaded() throws IOException, GedcomParserException {
+        Gedcom eager = new FrozenGedcom(load(false)).getGedcom();
+        Gedcom lazy = new FrozenGedcom(load(true)).getGedcom();
+        assertEquals(eager, lazy);
+    }
+
+    /**
+     * Test that a null gedcom is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGedcom() {
+        new FrozenGedcom(null);
+    }
+
+    /**
+     * Test that references between records lead to the records of the frozen copy
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testReferencesLeadIntoCopy() throws IOException, GedcomParserException {
+        Gedcom g = load(false);
+        Gedcom frozen = new FrozenGedcom(g).getGedcom();
+        for (Family f : frozen.getFamilies().values()) {
+            assertNotSame(g.getFamilies().get(f.getXref()), f);
+            for (IndividualReference ir : f.getChildren()) {
+                assertSame(frozen.getIndividuals().get(ir.getIndividual().getXref()), ir.getIndividual());
+            }
+            if (f.getHusband() != null) {
+                assertSame(frozen.getIndividuals().get(f.getHusband().getIndividual().getXref()), f.getHusband().getIndividual());
+            }
+        }
+    }
+
+    /**
+     * Test that the frozen copy is equal to the original, when the original has every collection initialized like the copy
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testSameAsOriginal() throws IOException, GedcomParserException {
+        Options.setCollectionInitializationEnabled(true);
+        Gedcom g = load(false);
+        Gedcom frozen = new FrozenGedcom(g).getGedcom();
+        assertNotSame(g, frozen);
+        assertEquals(g, frozen);
+    }
+
+    /**
+     * Test that the collections of the frozen copy can't be changed, and that the getters never create or swap anything
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testUnmodifiable() throws IOException, GedcomParserException {
+        Gedcom frozen = new FrozenGedcom(load(false)).getGedcom();
+        Individual i = frozen.getIndividuals().get("@I00032@");
+        try {
+            frozen.getIndividuals().remove("@I00032@");
+            fail("Should not be able to remove a record");
+        } catch (UnsupportedOperationException expected) {
+            assertSame(i, frozen.getIndividuals().get("@I00032@"));
+        }
+        try {
+            i.getNames(true).add(new PersonalName());
+            fail("Should not be able to add a name");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals(1, i.getNames().size());
+        }
+        assertTrue(i.getAliases().isEmpty());
+        assertSame(i.getAliases(), i.getAliases(true));
+
+        StringWithCustomFacts sex = i.getSex();
+        assertFalse(sex.isShared());
+        assertSame(sex, i.getSex());
+        assertTrue(sex.getCustomFacts().isEmpty());
+    }
+
+    /**
+     * Load the sample file
+     * 
+     * @param lazily
+     *            true if the records are to be loaded lazily
+     * @return the gedcom
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    private Gedcom load(boolean lazily) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoadingEnabled(lazily);
+        gp.load("sample/RelationshipTest.ged");
+        return gp.getGedcom();
+    }
+}
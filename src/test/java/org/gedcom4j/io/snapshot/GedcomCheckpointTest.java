@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.PersonalName;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link GedcomCheckpoint}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class GedcomCheckpointTest {
+
+    /**
+     * Test that only root-level items can be saved
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBeforeChangeNeedsRootLevelItem() {
+        GedcomCheckpoint cp = new GedcomCheckpoint(new Gedcom());
+        cp.beforeChange(new PersonalName());
+    }
+
+    /**
+     * Test that a null gedcom is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGedcom() {
+        new GedcomCheckpoint(null);
+    }
+
+    /**
+     * Test that restoring a checkpoint undoes changes to records, their contents, and the maps of records, keeping the same record
+     * objects - and can be done more than once
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testRestore() throws IOException, GedcomParserException {
+        Gedcom g = load();
+        Gedcom original = load();
+        GedcomCheckpoint cp = new GedcomCheckpoint(g);
+
+        Individual i = g.getIndividuals().get("@I00032@");
+        PersonalName name = i.getNames().get(0);
+        cp.beforeChange(i);
+        name.setBasic("Someone /Else/");
+        i.getEvents(true).clear();
+        Family f = g.getFamilies().get("@F00014@");
+        cp.beforeChange(f);
+        f.setHusband(null);
+        g.getIndividuals().remove("@I00044@");
+        Individual added = new Individual();
+        added.setXref("@NEW@");
+        g.getIndividuals().put("@NEW@", added);
+        cp.beforeChange(g.getHeader());
+        g.getHeader().setSourceSystem(null);
+        assertFalse(original.equals(g));
+
+        cp.restore();
+        assertEquals(original, g);
+        assertSame(i, g.getIndividuals().get("@I00032@"));
+        assertSame(f, g.getFamilies().get("@F00014@"));
+        assertNull(g.getIndividuals().get("@NEW@"));
+        // References between records are still to the same objects
+        assertSame(f, i.getFamiliesWhereSpouse().get(0).getFamily());
+        assertSame(i, f.getHusband().getIndividual());
+
+        f.setHusband(null);
+        cp.restore();
+        assertEquals(original, g);
+    }
+
+    /**
+     * Test that a record changed without being saved first keeps its changes
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testUnsavedChangesKept() throws IOException, GedcomParserException {
+        Gedcom g = load();
+        GedcomCheckpoint cp = new GedcomCheckpoint(g);
+        g.getIndividuals().get("@I00032@").getNames().get(0).setBasic("Someone /Else/");
+        cp.restore();
+        assertEquals("Someone /Else/", g.getIndividuals().get("@I00032@").getNames().get(0).getBasic());
+    }
+
+    /**
+     * Load the sample file
+     * 
+     * @return the loaded sample file
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    private Gedcom load() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/RelationshipTest.ged");
+        return gp.getGedcom();
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.GedcomWriterException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link SnapshotReader}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class SnapshotReaderTest {
+
+    /**
+     * Test that a buffer that doesn't hold a snapshot is rejected
+     * 
+     * @throws GedcomParserException
+     *             if the buffer doesn't hold a snapshot, which is what we expect
+     */
+    @Test(expected = GedcomParserException.class)
+    public void testNotASnapshot() throws GedcomParserException {
+        new SnapshotReader().load(ByteBuffer.wrap("0 HEAD\n1 CHAR UTF-8\n0 TRLR\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Test that snapshots naming classes outside the object model are rejected, rather than those classes being loaded
+     * 
+     * @throws GedcomParserException
+     *             if the snapshot is rejected, which is what we expect
+     */
+    @Test
+    public void testOnlyModelClassesLoaded() throws GedcomParserException {
+        byte[] name = "java.lang.Thread".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer snapshot = ByteBuffer.allocate(32);
+        snapshot.putInt(SnapshotFormat.MAGIC).putInt(SnapshotFormat.VERSION);
+        snapshot.put((byte) 1).put((byte) name.length).put(name);
+        snapshot.put((byte) 1).put((byte) 0).put((byte) 0);
+        snapshot.flip();
+        try {
+            new SnapshotReader().load(snapshot);
+            fail("Expected a GedcomParserException");
+        } catch (GedcomParserException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("not part of the object model"));
+        }
+    }
+
+    /**
+     * Test that records refer to each other after loading just as they did before saving - the same objects, not copies
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed, or the snapshot can't be loaded
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    @Test
+    public void testReferencesKept() throws IOException, GedcomParserException, GedcomWriterException {
+        Gedcom g = roundTrip(parse("sample/RelationshipTest.ged"));
+        int checked = 0;
+        for (Individual i : g.getIndividuals().values()) {
+            if (i.getFamiliesWhereChild() == null) {
+                continue;
+            }
+            for (FamilyChild fc : i.getFamiliesWhereChild()) {
+                Family f = fc.getFamily();
+                assertSame(g.getFamilies().get(f.getXref()), f);
+                if (f.getHusband() != null) {
+                    assertSame(g.getIndividuals().get(f.getHusband().getIndividual().getXref()), f.getHusband().getIndividual());
+                    checked++;
+                }
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    /**
+     * Test that a parsed file, custom facts and all, is loaded back from a snapshot equal to how it was saved
+     * 
+     * @throws IOException
+     *             if the sample files can't be read
+     * @throws GedcomParserException
+     *             if the sample files can't be parsed, or the snapshots can't be loaded
+     * @throws GedcomWriterException
+     *             if the snapshots can't be written
+     */
+    @Test
+    public void testRoundTrip() throws IOException, GedcomParserException, GedcomWriterException {
+        for (String filename : Arrays.asList("sample/TGC551.ged", "sample/customtagstorture.ged", "sample/willis.ged")) {
+            Gedcom original = parse(filename);
+            Gedcom loaded = roundTrip(original);
+            assertNotSame(original, loaded);
+            assertEquals(filename, original, loaded);
+            assertEquals(filename, original.getIndividuals().keySet(), loaded.getIndividuals().keySet());
+        }
+    }
+
+    /**
+     * Test that custom facts survive the round trip
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed, or the snapshot can't be loaded
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    @Test
+    public void testRoundTripCustomFacts() throws IOException, GedcomParserException, GedcomWriterException {
+        Gedcom original = parse("sample/customtagstorture.ged");
+        assertFalse(original.getHeader().getCustomFacts().isEmpty());
+        Gedcom loaded = roundTrip(original);
+        assertEquals(original.getHeader().getCustomFacts(), loaded.getHeader().getCustomFacts());
+        assertEquals(original.getHeader().getCustomFacts().get(0).getTag(), loaded.getHeader().getCustomFacts().get(0).getTag());
+    }
+
+    /**
+     * Test loading a snapshot from a file
+     * 
+     * @throws IOException
+     *             if the files can't be read or written
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed, or the snapshot can't be loaded
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    @Test
+    public void testRoundTripFile() throws IOException, GedcomParserException, GedcomWriterException {
+        Gedcom original = parse("sample/TGC551.ged");
+        new File("tmp").mkdirs();
+        new SnapshotWriter(original).write("tmp/TGC551.g4js");
+        SnapshotReader sr = new SnapshotReader();
+        assertNull(sr.getGedcom());
+        sr.load("tmp/TGC551.g4js");
+        assertNotNull(sr.getGedcom());
+        assertEquals(original, sr.getGedcom());
+    }
+
+    /**
+     * Test that a snapshot cut short is rejected
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    @Test
+    public void testTruncated() throws IOException, GedcomParserException, GedcomWriterException {
+        byte[] snapshot = write(parse("sample/TGC551.ged"));
+        try {
+            new SnapshotReader().load(ByteBuffer.wrap(snapshot, 0, snapshot.length / 2));
+            fail("Expected a GedcomParserException");
+        } catch (GedcomParserException expected) {
+            assertEquals("Snapshot is corrupt", expected.getMessage());
+        }
+    }
+
+    /**
+     * Test that a snapshot from a later version of the format is rejected
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    @Test
+    public void testUnsupportedVersion() throws IOException, GedcomParserException, GedcomWriterException {
+        byte[] snapshot = write(new Gedcom());
+        snapshot[7]++;
+        try {
+            new SnapshotReader().load(ByteBuffer.wrap(snapshot));
+            fail("Expected a GedcomParserException");
+        } catch (GedcomParserException expected) {
+            assertEquals("Unsupported snapshot format version 2", expected.getMessage());
+        }
+    }
+
+    /**
+     * Parse a sample file
+     * 
+     * @param filename
+     *            the name of the file
+     * @return the gedcom parsed
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private Gedcom parse(String filename) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load(filename);
+        return gp.getGedcom();
+    }
+
+    /**
+     * Save a gedcom to a snapshot and load it back
+     * 
+     * @param gedcom
+     *            the gedcom
+     * @return the gedcom loaded from the snapshot
+     * @throws GedcomParserException
+     *             if the snapshot can't be loaded
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    private Gedcom roundTrip(Gedcom gedcom) throws GedcomParserException, GedcomWriterException {
+        SnapshotReader sr = new SnapshotReader();
+        sr.load(ByteBuffer.wrap(write(gedcom)));
+        return sr.getGedcom();
+    }
+
+    /**
+     * Save a gedcom to a snapshot
+     * 
+     * @param gedcom
+     *            the gedcom
+     * @return the snapshot
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    private byte[] write(Gedcom gedcom) throws GedcomWriterException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            new SnapshotWriter(gedcom).write(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+}
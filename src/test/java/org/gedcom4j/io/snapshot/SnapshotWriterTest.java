@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.snapshot;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomWriterException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.PersonalName;
+import org.junit.Test;
+
+/**
+ * Test for {@link SnapshotWriter}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class SnapshotWriterTest {
+
+    /**
+     * Test that the same gedcom always gives the same snapshot
+     * 
+     * @throws IOException
+     *             if the snapshot can't be written
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    @Test
+    public void testDeterministic() throws IOException, GedcomWriterException {
+        Gedcom g = gedcomWithPeople(10);
+        SnapshotWriter sw = new SnapshotWriter(g);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        sw.write(first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        sw.write(second);
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+    }
+
+    /**
+     * Test the header and record table
+     * 
+     * @throws IOException
+     *             if the snapshot can't be written
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    @Test
+    public void testHeader() throws IOException, GedcomWriterException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SnapshotWriter(new Gedcom()).write(out);
+        ByteBuffer snapshot = ByteBuffer.wrap(out.toByteArray());
+        assertEquals(SnapshotFormat.MAGIC, snapshot.getInt());
+        assertEquals(SnapshotFormat.VERSION, snapshot.getInt());
+    }
+
+    /**
+     * Test that a null gedcom is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGedcom() {
+        new SnapshotWriter(null);
+    }
+
+    /**
+     * Test that each distinct string is written once, however many times it occurs
+     * 
+     * @throws IOException
+     *             if the snapshot can't be written
+     * @throws GedcomWriterException
+     *             if the snapshot can't be written
+     */
+    @Test
+    public void testStringsWrittenOnce() throws IOException, GedcomWriterException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SnapshotWriter(gedcomWithPeople(100)).write(out);
+        String snapshot = new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+        String name = "Tobias /Snapshot/";
+        assertEquals(snapshot.indexOf(name), snapshot.lastIndexOf(name));
+        assertTrue(snapshot.indexOf(name) > 0);
+    }
+
+    /**
+     * Make a gedcom of people who all have the same name
+     * 
+     * @param count
+     *            how many people
+     * @return the gedcom
+     */
+    private Gedcom gedcomWithPeople(int count) {
+        Gedcom g = new Gedcom();
+        for (int i = 1; i <= count; i++) {
+            Individual ind = new Individual();
+            ind.setXref("@I" + i + "@");
+            PersonalName pn = new PersonalName();
+            pn.setBasic("Tobias /Snapshot/");
+            ind.getNames(true).add(pn);
+            g.getIndividuals().put(ind.getXref(), ind);
+        }
+        return g;
+    }
+}
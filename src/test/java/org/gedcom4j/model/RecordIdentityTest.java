@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.gedcom4j.Options;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the record identity mode of equality and hashing of root-level records, turned on with
+ * {@link Options#setRecordIdentityEnabled(boolean)}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class RecordIdentityTest {
+
+    /**
+     * Set up before each test
+     */
+    @Before
+    public void setUp() {
+        Options.resetToDefaults();
+    }
+
+    /**
+     * Tear down after each test
+     */
+    @After
+    public void tearDown() {
+        Options.resetToDefaults();
+    }
+
+    /**
+     * Test that record identity is off by default, so equality compares contents
+     */
+    @Test
+    public void testContentEqualityByDefault() {
+        assertFalse(Options.isRecordIdentityEnabled());
+        Individual i1 = individual("@I1@", "Walter");
+        Individual i2 = individual("@I2@", "Walter");
+        assertEquals(i1.deepEquals(i2), i1.equals(i2));
+        assertFalse(i1.equals(i2));
+
+        i2.setXref("@I1@");
+        assertEquals(i1, i2);
+        assertEquals(i1.contentHash(), i1.hashCode());
+        assertEquals(i1.hashCode(), i2.hashCode());
+    }
+
+    /**
+     * Test that deepEquals and contentHash still compare contents when record identity is turned on
+     */
+    @Test
+    public void testDeepEqualsWithRecordIdentity() {
+        Individual i1 = individual("@I1@", "Walter");
+        Individual i2 = individual("@I1@", "Walter");
+        int contentHash = i1.contentHash();
+
+        Options.setRecordIdentityEnabled(true);
+        assertTrue(i1.deepEquals(i2));
+        assertEquals(contentHash, i1.contentHash());
+        assertEquals(i1.contentHash(), i2.contentHash());
+
+        i2.getNames().get(0).setBasic("Walter /Whitman/");
+        assertFalse(i1.deepEquals(i2));
+        assertEquals("Same xref is still the same record", i1, i2);
+    }
+
+    /**
+     * Test record identity for families
+     */
+    @Test
+    public void testFamilyRecordIdentity() {
+        Options.setRecordIdentityEnabled(true);
+        Family f1 = new Family();
+        f1.setXref("@F1@");
+        Family f2 = new Family();
+        f2.setXref("@F1@");
+        f2.setNumChildren("3");
+        assertEquals(f1, f2);
+        assertEquals(f1.hashCode(), f2.hashCode());
+        assertFalse(f1.deepEquals(f2));
+
+        f2.setXref("@F2@");
+        assertNotEquals(f1, f2);
+    }
+
+    /**
+     * Test that records are equal by xref, hash by xref, and are never equal to records of other types or records without an xref,
+     * when record identity is turned on
+     */
+    @Test
+    public void testRecordIdentity() {
+        Options.setRecordIdentityEnabled(true);
+        Individual i1 = individual("@I1@", "Walter");
+        Individual i2 = individual("@I1@", "Wally");
+        assertEquals(i1, i2);
+        assertEquals("@I1@".hashCode(), i1.hashCode());
+        assertEquals(i1.hashCode(), i2.hashCode());
+
+        Set<Individual> set = new HashSet<>();
+        set.add(i1);
+        assertTrue(set.contains(i2));
+
+        Individual noXref1 = individual(null, "Walter");
+        Individual noXref2 = individual(null, "Walter");
+        assertEquals(noXref1, noXref1);
+        assertNotEquals(noXref1, noXref2);
+        assertEquals(System.identityHashCode(noXref1), noXref1.hashCode());
+
+        Source s = new Source("@I1@");
+        assertNotEquals(s, i1);
+        assertFalse(i1.equals(null)); // NOPMD - deliberately checking equals(null)
+    }
+
+    /**
+     * Test that changing the contents of a record doesn't change its hash code when record identity is turned on, so it can still
+     * be found in hashed collections
+     */
+    @Test
+    public void testStableHashCode() {
+        Options.setRecordIdentityEnabled(true);
+        Individual i = individual("@I1@", "Walter");
+        Set<Individual> set = new HashSet<>();
+        set.add(i);
+        i.getNames().get(0).setBasic("Walter /Whitman/");
+        i.getAliases(true).add(new StringWithCustomFacts("Walt"));
+        assertTrue(set.contains(i));
+    }
+
+    /**
+     * Make an individual
+     * 
+     * @param xref
+     *            the xref
+     * @param name
+     *            the name
+     * @return the individual
+     */
+    private Individual individual(String xref, String name) {
+        Individual i = new Individual();
+        i.setXref(xref);
+        PersonalName pn = new PersonalName();
+        pn.setBasic(name);
+        i.getNames(true).add(pn);
+        return i;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link RecordResolver}
+ * 
+ * @author frizbog
+ */
+public class RecordResolverTest {
+
+    /**
+     * A resolver that counts the records it is asked to fill in
+     */
+    private static final class CountingResolver extends RecordResolver {
+
+        /**
+         * How many records it has been asked to fill in
+         */
+        private int filled;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void fill(HasXref record) {
+            filled++;
+        }
+    }
+
+    /**
+     * Test that only the records a resolver has marked are passed to it, including through the getters that follow references
+     */
+    @Test
+    public void testOnlyMarkedRecordsFilled() {
+        CountingResolver resolver = new CountingResolver();
+        Family marked = new Family();
+        resolver.attach(marked);
+        Family unmarked = new Family();
+
+        assertSame(unmarked, RecordResolver.resolve(unmarked));
+        assertNull(RecordResolver.resolve(null));
+        assertEquals(0, resolver.filled);
+
+        assertSame(marked, RecordResolver.resolve(marked));
+        assertEquals(1, resolver.filled);
+
+        FamilyChild fc = new FamilyChild();
+        fc.setFamily(marked);
+        assertSame(marked, fc.getFamily());
+        assertEquals(2, resolver.filled);
+
+        // A copy is a new record, made by the caller, so it is not marked
+        RecordResolver.resolve(new Family(marked));
+        assertEquals(2, resolver.filled);
+    }
+}
@@ -27,6 +27,11 @@
 package org.gedcom4j.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.junit.Test;
 
@@ -39,6 +44,37 @@ import org.junit.Test;
 @SuppressWarnings("PMD.AddEmptyString")
 public class StringWithCustomFactsTest {
 
+    /**
+     * Test that a shared instance cannot be changed, and that {@link StringWithCustomFacts#unshared(StringWithCustomFacts)} gives a
+     * copy that can
+     */
+    @Test
+    public void testSharedInstance() {
+        StringWithCustomFacts s = StringWithCustomFacts.newSharedInstance("M");
+        assertTrue(s.isShared());
+        try {
+            s.setValue("F");
+            fail("Should not be able to change a shared instance");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals("M", s.getValue());
+        }
+        try {
+            s.getCustomFacts(true);
+            fail("Should not be able to give a shared instance custom facts");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals(null, s.getCustomFacts());
+        }
+
+        StringWithCustomFacts u = StringWithCustomFacts.unshared(s);
+        assertNotSame(s, u);
+        assertFalse(u.isShared());
+        assertEquals(s, u);
+        u.setValue("F");
+        assertEquals("M", s.getValue());
+        assertSame(u, StringWithCustomFacts.unshared(u));
+        assertEquals(null, StringWithCustomFacts.unshared(null));
+    }
+
     /**
      * Test toString when the value is null and custom facts collection is empty
      */
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link XrefMap}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class XrefMapTest {
+
+    /**
+     * Test that the map behaves like a {@link HashMap} through a long run of random changes, with a mix of numbered xrefs, xrefs
+     * with other prefixes and leading zeros, xrefs that aren't numbered, and null keys and values
+     */
+    @Test
+    public void testAgainstHashMap() {
+        Random random = new Random(20161018L);
+        Map<String, String> expected = new HashMap<>();
+        XrefMap<String> actual = new XrefMap<>();
+        for (int i = 0; i < 20000; i++) {
+            String key = randomKey(random);
+            String value = random.nextInt(20) == 0 ? null : "V" + i;
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.put(key, value), actual.put(key, value));
+                    break;
+                case 2:
+                    assertEquals(expected.remove(key), actual.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), actual.get(key));
+                    assertEquals(expected.containsKey(key), actual.containsKey(key));
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected.keySet(), actual.keySet());
+    }
+
+    /**
+     * Test that removing through the entry set's iterator works, and that changing the map otherwise while iterating fails
+     */
+    @Test
+    public void testIteratorRemove() {
+        XrefMap<String> map = new XrefMap<>();
+        for (int i = 1; i <= 100; i++) {
+            map.put("@I" + i + "@", "I" + i);
+            map.put("@X" + i + "@", "X" + i);
+        }
+        map.put("NOT-AN-XREF", "other");
+        Iterator<Entry<String, String>> itr = map.entrySet().iterator();
+        while (itr.hasNext()) {
+            Entry<String, String> e = itr.next();
+            assertEquals(map.get(e.getKey()), e.getValue());
+            if (e.getKey().hashCode() % 2 == 0) {
+                itr.remove();
+            }
+        }
+        for (Entry<String, String> e : map.entrySet()) {
+            assertTrue(e.getKey().hashCode() % 2 != 0);
+        }
+        assertEquals(map.size(), new ArrayList<>(map.keySet()).size());
+
+        try {
+            for (String key : map.keySet()) {
+                map.put(key + "!", "new");
+            }
+            fail("Expected a ConcurrentModificationException");
+        } catch (ConcurrentModificationException expected) {
+            // Good
+        }
+    }
+
+    /**
+     * Test that numbered xrefs come out in number order, and that setting an entry's value changes the map
+     */
+    @Test
+    public void testNumberOrderAndSetValue() {
+        XrefMap<String> map = new XrefMap<>(5);
+        map.put("@I3@", "three");
+        map.put("@I1@", "one");
+        map.put("@I2@", "two");
+        List<String> keys = new ArrayList<>(map.keySet());
+        assertEquals("[@I1@, @I2@, @I3@]", keys.toString());
+
+        for (Entry<String, String> e : map.entrySet()) {
+            e.setValue(e.getValue().toUpperCase());
+        }
+        assertEquals("TWO", map.get("@I2@"));
+        assertFalse(map.containsKey("@I4@"));
+        assertFalse(map.containsKey("@I02@"));
+        assertNull(map.get(Integer.valueOf(2)));
+    }
+
+    /**
+     * Test that a map can be serialized and read back
+     * 
+     * @throws IOException
+     *             if the map can't be written or read
+     * @throws ClassNotFoundException
+     *             if a class can't be found
+     */
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        XrefMap<String> map = new XrefMap<>();
+        map.put("@I1@", "one");
+        map.put("@F1@", "family");
+        map.put(null, "null key");
+        map.put("@I2@", null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(map);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Object read = in.readObject();
+            assertTrue(read instanceof XrefMap);
+            assertEquals(map, read);
+        }
+    }
+
+    /**
+     * Make a random key
+     * 
+     * @param random
+     *            the source of randomness
+     * @return the key
+     */
+    private String randomKey(Random random) {
+        int n = random.nextInt(3000);
+        switch (random.nextInt(10)) {
+            case 0:
+                return "@F" + n + "@";
+            case 1:
+                return "@I0" + n + "@";
+            case 2:
+                return "KEY" + n;
+            case 3:
+                return random.nextInt(10) == 0 ? null : "@I" + random.nextInt(2000000000) + "@";
+            default:
+                return "@I" + n + "@";
+        }
+    }
+
+    /**
+     * Test that setting the value of an entry kept in the hash table while iterating doesn't move any entries, even when putting
+     * its key as a new one would grow the array of numbered records
+     */
+    @Test
+    public void testSetValueInHashTable() {
+        XrefMap<String> map = new XrefMap<>();
+        map.put("@I1@", "1");
+        map.put("@I30@", "30");
+        for (int i = 2; i <= 8; i++) {
+            map.put("@I" + i + "@", String.valueOf(i));
+        }
+        assertEquals(9, map.size());
+
+        List<String> keys = new ArrayList<>();
+        for (Entry<String, String> e : map.entrySet()) {
+            keys.add(e.getKey());
+            if ("@I30@".equals(e.getKey())) {
+                e.setValue("thirty");
+            }
+        }
+        assertEquals(9, keys.size());
+        assertEquals(new HashMap<>(map).keySet(), new HashSet<>(keys));
+        assertEquals("thirty", map.get("@I30@"));
+        assertFalse(map.containsKey("@I25@"));
+        assertEquals(9, map.size());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.model.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link GedcomJournal}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class GedcomJournalTest {
+
+    /**
+     * Test discarding changes that are no longer needed
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testDiscardChanges() throws IOException, GedcomParserException {
+        Gedcom g = load();
+        GedcomJournal j = new GedcomJournal(g);
+        j.modified(g.getIndividuals().get("@I00032@"));
+        j.modified(g.getIndividuals().get("@I00044@"));
+        j.modified(g.getFamilies().get("@F00014@"));
+        j.discardChanges(2);
+
+        List<ChangeEvent> changes = j.getChangesSince(2);
+        assertEquals(1, changes.size());
+        assertEquals("@F00014@", changes.get(0).getXref());
+        try {
+            j.getChangesSince(1);
+            fail("Changes up to version 2 have been discarded");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(3, j.getVersion());
+        }
+        j.discardChanges(10);
+        assertTrue(j.getChangesSince(3).isEmpty());
+    }
+
+    /**
+     * Test that a listener is told about each change as it is noted
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testListener() throws IOException, GedcomParserException {
+        Gedcom g = load();
+        GedcomJournal j = new GedcomJournal(g);
+        final List<ChangeEvent> heard = new ArrayList<>();
+        ChangeListener listener = new ChangeListener() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void changeNotification(ChangeEvent e) {
+                heard.add(e);
+            }
+        };
+        j.registerChangeListener(listener);
+        j.modified(g.getIndividuals().get("@I00032@"));
+        g.getIndividuals().remove("@I00044@");
+        j.scan();
+        assertEquals(j.getChangesSince(0), heard);
+        assertSame(j, heard.get(0).getSource());
+
+        j.unregisterChangeListener(listener);
+        j.modified(g.getIndividuals().get("@I00032@"));
+        assertEquals(2, heard.size());
+    }
+
+    /**
+     * Test noting changes to the contents of records, and their dirty flags
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testModified() throws IOException, GedcomParserException {
+        Gedcom g = load();
+        GedcomJournal j = new GedcomJournal(g);
+        assertEquals(0, j.getVersion());
+        assertTrue(j.getChangesSince(0).isEmpty());
+
+        Individual i = g.getIndividuals().get("@I00032@");
+        i.setSex(new StringWithCustomFacts("F"));
+        assertEquals(1, j.modified(i));
+        assertTrue(j.isDirty(i));
+        assertFalse(j.isDirty(g.getIndividuals().get("@I00044@")));
+        assertEquals(1, j.getDirtyRecords().size());
+
+        List<ChangeEvent> changes = j.getChangesSince(0);
+        assertEquals(1, changes.size());
+        assertEquals(ChangeType.MODIFIED, changes.get(0).getChangeType());
+        assertSame(i, changes.get(0).getRecord());
+        assertEquals(1, changes.get(0).getVersion());
+
+        j.clearDirty();
+        assertFalse(j.isDirty(i));
+        assertEquals(1, j.getVersion());
+    }
+
+    /**
+     * Test that a null gedcom is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGedcom() {
+        new GedcomJournal(null);
+    }
+
+    /**
+     * Test that scanning finds the records added, removed and replaced since the last scan
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testScan() throws IOException, GedcomParserException {
+        Gedcom g = load();
+        GedcomJournal j = new GedcomJournal(g);
+        assertEquals(0, j.scan());
+
+        Individual added = new Individual();
+        added.setXref("@NEW@");
+        g.getIndividuals().put(added.getXref(), added);
+        Individual removed = g.getIndividuals().remove("@I00044@");
+        Individual replaced = g.getIndividuals().get("@I00032@");
+        Individual replacement = new Individual(replaced);
+        g.getIndividuals().put(replacement.getXref(), replacement);
+        assertEquals(4, j.scan());
+
+        List<ChangeEvent> changes = j.getChangesSince(0);
+        assertEquals(4, changes.size());
+        assertEquals(ChangeType.REMOVED, changes.get(0).getChangeType());
+        assertEquals(ChangeType.REMOVED, changes.get(1).getChangeType());
+        assertEquals(ChangeType.ADDED, changes.get(2).getChangeType());
+        assertEquals(ChangeType.ADDED, changes.get(3).getChangeType());
+        assertTrue(j.isDirty(added));
+        assertTrue(j.isDirty(replacement));
+        assertFalse(j.isDirty(removed));
+        assertFalse(j.isDirty(replaced));
+        for (int v = 1; v <= 4; v++) {
+            assertEquals(v, changes.get(v - 1).getVersion());
+        }
+
+        // Nothing more to find
+        assertEquals(4, j.scan());
+    }
+
+    /**
+     * Load the sample file
+     * 
+     * @return the gedcom
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    private Gedcom load() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/RelationshipTest.ged");
+        return gp.getGedcom();
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.Source;
+import org.junit.Test;
+
+/**
+ * Test for loading root-level records lazily, with {@link GedcomParser#setLazyLoadingEnabled(boolean)}
+ * 
+ * @author frizbog
+ */
+public class LazyLoadingTest {
+
+    /**
+     * Test that changes made to a record are kept, and it is still the same object, once nothing else refers to it and the garbage
+     * collector has run
+     * 
+     * @throws IOException
+     *             if the sample file cannot be read
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     */
+    @Test
+    public void testChangesKept() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoadingEnabled(true);
+        gp.load("sample/willis.ged");
+        Gedcom g = gp.getGedcom();
+
+        String key = g.getSources().keySet().iterator().next();
+        g.getSources().get(key).setRecIdNumber("EDITED");
+        int identity = System.identityHashCode(g.getSources().get(key));
+        System.gc(); // NOPMD - deliberately letting anything only held weakly be collected
+
+        Source s = g.getSources().get(key);
+        assertEquals("EDITED", s.getRecIdNumber().getValue());
+        assertEquals(identity, System.identityHashCode(s));
+    }
+
+    /**
+     * Test that a record is the same object each time it is asked for, and that references between records lead to the same
+     * objects as the maps
+     * 
+     * @throws IOException
+     *             if the sample file cannot be read
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     */
+    @Test
+    public void testIdentity() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoadingEnabled(true);
+        gp.load("sample/RelationshipTest.ged");
+        Gedcom g = gp.getGedcom();
+
+        for (Individual i : g.getIndividuals().values()) {
+            assertSame(i, g.getIndividuals().get(i.getXref()));
+            if (i.getFamiliesWhereSpouse() != null) {
+                for (FamilySpouse fs : i.getFamiliesWhereSpouse()) {
+                    Family f = fs.getFamily();
+                    assertSame(f, g.getFamilies().get(f.getXref()));
+                    boolean found = f.getHusband() != null && f.getHusband().getIndividual() == i || f.getWife() != null && f
+                            .getWife().getIndividual() == i;
+                    assertTrue("Spouse in family " + f.getXref() + " should be the same object as " + i.getXref(), found);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that records are only parsed when they are asked for - a record with lines that cannot be parsed can be loaded, counted
+     * and looked up by key, and only fails when it is asked for
+     * 
+     * @throws IOException
+     *             if the sample file cannot be read
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     */
+    @Test
+    public void testRecordsParsedWhenNeeded() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoadingEnabled(true);
+        gp.load("sample/Sopranos.ged");
+        Gedcom g = gp.getGedcom();
+
+        assertEquals(8, g.getIndividuals().size());
+        assertTrue(g.getIndividuals().containsKey("@I1@"));
+        assertTrue(g.getIndividuals().keySet().contains("@I1@"));
+        assertFalse(g.getIndividuals().containsKey("@I999@"));
+        assertTrue(gp.getErrors().isEmpty());
+
+        Individual livia = g.getIndividuals().get("@I6@");
+        assertNotNull(livia);
+        assertEquals("/Livia/", livia.getNames().get(0).getBasic());
+
+        try {
+            g.getIndividuals().get("@I1@");
+            fail("Expected an IllegalStateException for the record with a line break without a CONT tag");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getCause() instanceof GedcomParserException);
+        }
+    }
+
+    /**
+     * Test that problems found when the records of a lazily-loaded file are parsed are added to the errors of the load that read
+     * it, even after the parser has loaded another file
+     * 
+     * @throws IOException
+     *             if the sample file cannot be read
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     */
+    @Test
+    public void testReusedParser() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setLazyLoadingEnabled(true);
+        gp.load("sample/TGC551.ged");
+        Gedcom first = gp.getGedcom();
+        List<String> firstErrors = gp.getErrors();
+        assertTrue(firstErrors.isEmpty());
+
+        gp.load("sample/RelationshipTest.ged");
+        List<String> secondErrors = gp.getErrors();
+        assertNotSame(firstErrors, secondErrors);
+        useAllRecords(first);
+        assertFalse(firstErrors.isEmpty());
+        assertTrue(secondErrors.isEmpty());
+    }
+
+    /**
+     * Test that a lazily-loaded file has the same data as the same file loaded as usual, once every record has been used
+     * 
+     * @throws IOException
+     *             if the sample file cannot be read
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     */
+    @Test
+    public void testSameAsUsualLoad() throws IOException, GedcomParserException {
+        for (String fileName : new String[] { "sample/TGC551.ged", "sample/willis-ansel.ged", "sample/RelationshipTest.ged" }) {
+            GedcomParser usual = new GedcomParser();
+            usual.load(fileName);
+            GedcomParser lazy = new GedcomParser();
+            lazy.setLazyLoadingEnabled(true);
+            lazy.load(fileName);
+
+            // Records referred to but missing from the file turn up as the records referring to them are parsed
+            useAllRecords(lazy.getGedcom());
+            assertEquals(fileName, usual.getGedcom(), lazy.getGedcom());
+            assertEquals(fileName, usual.getErrors().size(), lazy.getErrors().size());
+            assertEquals(fileName, usual.getWarnings().size(), lazy.getWarnings().size());
+        }
+    }
+
+    /**
+     * Use every record, and everything they refer to, so that every record has been parsed
+     * 
+     * @param g
+     *            the lazily-loaded {@link Gedcom}
+     */
+    private void useAllRecords(Gedcom g) {
+        for (Individual i : g.getIndividuals().values()) {
+            if (i.getFamiliesWhereChild() != null) {
+                for (FamilyChild fc : i.getFamiliesWhereChild()) {
+                    assertNotNull(fc.getFamily());
+                }
+            }
+        }
+        for (Map<?, ?> m : new Map<?, ?>[] { g.getFamilies(), g.getMultimedia(), g.getNotes(), g.getRepositories(), g
+                .getSources(), g.getSubmitters() }) {
+            for (Object o : m.values()) {
+                assertNotNull(o);
+            }
+        }
+    }
+}
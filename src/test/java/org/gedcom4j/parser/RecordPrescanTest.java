@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.junit.Test;
+
+/**
+ * Test for {@link RecordPrescan}
+ * 
+ * @author frizbog
+ * @since 4.0.2
+ */
+public class RecordPrescanTest {
+
+    /**
+     * Test that the records counted by looking through the file match the records loaded
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testCountRecords() throws IOException, GedcomParserException {
+        Map<String, Integer> counts = RecordPrescan.countRecords("sample/willis.ged");
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/willis.ged");
+        Gedcom g = gp.getGedcom();
+        assertEquals(Integer.valueOf(g.getIndividuals().size()), counts.get("INDI"));
+        assertEquals(Integer.valueOf(g.getFamilies().size()), counts.get("FAM"));
+    }
+
+    /**
+     * Test that a file loaded with the record prescan turned on comes out the same as without it
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test
+    public void testLoadWithPrescan() throws IOException, GedcomParserException {
+        GedcomParser plain = new GedcomParser();
+        plain.load("sample/TGC551.ged");
+        GedcomParser prescanned = new GedcomParser();
+        prescanned.setRecordPrescanEnabled(true);
+        assertTrue(prescanned.isRecordPrescanEnabled());
+        prescanned.load("sample/TGC551.ged");
+        assertEquals(plain.getGedcom(), prescanned.getGedcom());
+    }
+}
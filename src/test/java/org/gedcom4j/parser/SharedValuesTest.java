@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.PersonalName;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.junit.Test;
+
+/**
+ * Test for the parser giving shared {@link StringWithCustomFacts} instances to values without custom facts
+ * 
+ * @author frizbog
+ */
+public class SharedValuesTest {
+
+    /**
+     * Test that the setters of the parts of personal names, which change the value they hold rather than replacing it, replace a
+     * shared instance instead
+     * 
+     * @throws IOException
+     *             if the sample file cannot be read
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     */
+    @Test
+    public void testNameSetters() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setValueSharingEnabled(true);
+        gp.load("sample/5.5.1 sample 1.ged");
+        PersonalName name = null;
+        for (Individual i : gp.getGedcom().getIndividuals().values()) {
+            for (PersonalName pn : i.getNames()) {
+                if (pn.getSurname() != null && pn.getSurname().isShared()) {
+                    name = pn;
+                }
+            }
+        }
+        assertNotNull(name);
+        StringWithCustomFacts surname = name.getSurname();
+        name.setSurname("Changed");
+        assertEquals("Changed", name.getSurname().getValue());
+        assertNotSame(surname, name.getSurname());
+        assertFalse("Changed".equals(surname.getValue()));
+    }
+
+    /**
+     * Test that values are only shared when value sharing is turned on
+     * 
+     * @throws IOException
+     *             if the sample file cannot be read
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     */
+    @Test
+    public void testOffByDefault() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        assertFalse(gp.isValueSharingEnabled());
+        gp.load("sample/willis.ged");
+        List<Individual> men = getMen(gp.getGedcom());
+        assertNotSame(men.get(0).getSex(), men.get(1).getSex());
+        assertFalse(men.get(0).getSex().isShared());
+
+        men.get(0).getSex().setValue("F");
+        assertEquals("M", men.get(1).getSex().getValue());
+    }
+
+    /**
+     * Test that each load has a pool of shared values of its own, which the records of a lazily-loaded file go on using after the
+     * parser has loaded another file
+     * 
+     * @throws IOException
+     *             if the sample file cannot be read
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     */
+    @Test
+    public void testPoolPerLoad() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setValueSharingEnabled(true);
+        gp.setLazyLoadingEnabled(true);
+        gp.load("sample/willis.ged");
+        Gedcom first = gp.getGedcom();
+
+        gp.setLazyLoadingEnabled(false);
+        gp.load("sample/willis.ged");
+        StringWithCustomFacts secondM = getMen(gp.getGedcom()).get(0).getSex();
+        assertTrue(secondM.isShared());
+        assertSame(secondM, gp.getSharedValue("M"));
+
+        // The records of the first file are only parsed now
+        List<Individual> firstMen = getMen(first);
+        StringWithCustomFacts firstM = firstMen.get(0).getSex();
+        assertTrue(firstM.isShared());
+        assertNotSame(secondM, firstM);
+        for (Individual i : firstMen) {
+            assertSame(firstM, i.getSex());
+        }
+    }
+
+    /**
+     * Test that the getters return shared instances as they are, without changing anything, and that the setters replace them
+     * 
+     * @throws IOException
+     *             if the sample file cannot be read
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     */
+    @Test
+    public void testSetters() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setValueSharingEnabled(true);
+        gp.load("sample/willis.ged");
+        List<Individual> men = getMen(gp.getGedcom());
+        StringWithCustomFacts m = men.get(0).getSex();
+        assertTrue(m.isShared());
+        assertSame(m, men.get(0).getSex());
+        for (Individual i : men) {
+            assertSame(m, i.getSex());
+        }
+        try {
+            m.setValue("F");
+            fail("Should not be able to change a shared instance");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals("M", m.getValue());
+        }
+
+        men.get(0).setSex("F");
+        assertEquals("F", men.get(0).getSex().getValue());
+        assertEquals("M", men.get(1).getSex().getValue());
+    }
+
+    /**
+     * Test that the parser gives the same shared instance for the same value, when value sharing is turned on
+     */
+    @Test
+    public void testSharedValue() {
+        GedcomParser gp = new GedcomParser();
+        assertFalse(gp.getSharedValue("M").isShared());
+        assertNotSame(gp.getSharedValue("M"), gp.getSharedValue("M"));
+
+        gp.setValueSharingEnabled(true);
+        StringWithCustomFacts s = gp.getSharedValue("M");
+        assertNotNull(s);
+        assertTrue(s.isShared());
+        assertEquals("M", s.getValue());
+        assertSame(s, gp.getSharedValue("M"));
+        assertFalse(s == gp.getSharedValue("F")); // NOPMD - deliberately using ==
+    }
+
+    /**
+     * Get the men in a loaded file whose sex has no custom facts, so it can be shared
+     * 
+     * @param g
+     *            the loaded file
+     * @return the men, of whom there are at least two
+     */
+    private List<Individual> getMen(Gedcom g) {
+        List<Individual> men = new ArrayList<>();
+        for (Individual i : g.getIndividuals().values()) {
+            StringWithCustomFacts sex = i.getSex();
+            if (sex != null && "M".equals(sex.getValue()) && (sex.getCustomFacts() == null || sex.getCustomFacts().isEmpty())) {
+                men.add(i);
+            }
+        }
+        assertTrue(men.size() > 1);
+        return men;
+    }
+}
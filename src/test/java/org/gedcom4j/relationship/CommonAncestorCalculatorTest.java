@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.relationship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.parser.GedcomParser;
+import org.gedcom4j.query.Finder;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link CommonAncestorCalculator}
+ * 
+ * @author frizbog
+ */
+public class CommonAncestorCalculatorTest {
+
+    /**
+     * The class under test
+     */
+    private final CommonAncestorCalculator classUnderTest = new CommonAncestorCalculator();
+
+    /**
+     * A finder test fixture for the test
+     */
+    private Finder finder;
+
+    /**
+     * Set up test fixtures
+     * 
+     * @throws IOException
+     *             if the gedcom file can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Before
+    public void setUp() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/RelationshipTestExtended.ged");
+        Gedcom g = gp.getGedcom();
+        assertNotNull(g);
+        finder = new Finder(g);
+    }
+
+    /**
+     * Test that when one individual is an ancestor of the other, he or she is the lowest common ancestor
+     */
+    @Test
+    public void testAncestor() {
+        Individual alex = getPerson("Zucco", "Alex");
+        Individual grandpa = getPerson("Zucco", "George");
+
+        List<CommonAncestor> lca = classUnderTest.getLowestCommonAncestors(alex, grandpa);
+        assertEquals(1, lca.size());
+        assertSame(grandpa, lca.get(0).getAncestor());
+        assertEquals(2, lca.get(0).getGenerationsFrom1());
+        assertEquals(0, lca.get(0).getGenerationsFrom2());
+
+        lca = classUnderTest.getLowestCommonAncestors(grandpa, alex);
+        assertEquals(1, lca.size());
+        assertEquals(0, lca.get(0).getGenerationsFrom1());
+        assertEquals(2, lca.get(0).getGenerationsFrom2());
+    }
+
+    /**
+     * Test that all common ancestors come back nearest first, and agree with {@link Individual#getAncestors()}
+     */
+    @Test
+    public void testCommonAncestors() {
+        Individual alex = getPerson("Zucco", "Alex");
+        Individual jerome = getPerson("Knight", "Jerome");
+
+        List<CommonAncestor> common = classUnderTest.getCommonAncestors(alex, jerome);
+        Set<Individual> expected = new HashSet<>(alex.getAncestors());
+        expected.retainAll(jerome.getAncestors());
+        Set<Individual> actual = new HashSet<>();
+        int previous = 0;
+        for (CommonAncestor ca : common) {
+            actual.add(ca.getAncestor());
+            int total = ca.getGenerationsFrom1() + ca.getGenerationsFrom2();
+            assertTrue(total >= previous);
+            previous = total;
+            assertEquals(new GenerationCounter().getGenerationCount(alex, ca.getAncestor()), ca.getGenerationsFrom1());
+            assertEquals(new GenerationCounter().getGenerationCount(jerome, ca.getAncestor()), ca.getGenerationsFrom2());
+        }
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Test first cousins, whose lowest common ancestors are their shared grandparents
+     */
+    @Test
+    public void testCousins() {
+        Individual alex = getPerson("Zucco", "Alex");
+        Individual olivia = getPerson("Zucco", "Olivia");
+
+        List<CommonAncestor> lca = classUnderTest.getLowestCommonAncestors(alex, olivia);
+        assertEquals(2, lca.size());
+        Set<Individual> ancestors = new HashSet<>();
+        for (CommonAncestor ca : lca) {
+            ancestors.add(ca.getAncestor());
+            assertEquals(2, ca.getGenerationsFrom1());
+            assertEquals(2, ca.getGenerationsFrom2());
+        }
+        assertTrue(ancestors.contains(getPerson("Zucco", "George")));
+        assertTrue(ancestors.contains(getPerson("Smith", "Hannah")));
+        assertTrue(classUnderTest.getCommonAncestors(alex, olivia).size() > 2);
+    }
+
+    /**
+     * Test that null individuals are rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNull() {
+        classUnderTest.getCommonAncestors(getPerson("Zucco", "Alex"), null);
+    }
+
+    /**
+     * Test people with no ancestors in common
+     */
+    @Test
+    public void testUnrelated() {
+        assertTrue(classUnderTest.getLowestCommonAncestors(getPerson("Zucco", "Alex"), new Individual()).isEmpty());
+    }
+
+    /**
+     * Helper method to get a person and assert they exist
+     * 
+     * @param surname
+     *            the surname of the person we want
+     * @param givenName
+     *            the given name of the person we want
+     * @return the person
+     */
+    private Individual getPerson(String surname, String givenName) {
+        Individual result = finder.findByName(surname, givenName).get(0);
+        assertNotNull("Couldn't find " + givenName + " " + surname + " by name in the gedcom", result);
+        return result;
+    }
+}
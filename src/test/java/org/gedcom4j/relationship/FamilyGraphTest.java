@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.relationship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link FamilyGraph}
+ * 
+ * @author frizbog
+ */
+public class FamilyGraphTest {
+
+    /**
+     * Test that the graph gives the same ancestors as {@link Individual#getAncestors()}, including in a file with a circular
+     * ancestral relationship
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testAncestors() throws IOException, GedcomParserException {
+        for (String fileName : new String[] { "sample/RelationshipTest.ged", "sample/problemFile.ged" }) {
+            Gedcom g = load(fileName);
+            FamilyGraph classUnderTest = new FamilyGraph(g);
+            for (Individual i : g.getIndividuals().values()) {
+                int id = classUnderTest.getIndividualId(i);
+                assertEquals("Ancestors of " + i, i.getAncestors(), new HashSet<>(classUnderTest.asSet(classUnderTest
+                        .getAncestors(id))));
+            }
+        }
+    }
+
+    /**
+     * Test that {@link AncestryCalculator} gives the same extended ancestry and lowest common ancestors when working from a graph
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testAncestryCalculator() throws IOException, GedcomParserException {
+        Gedcom g = load("sample/RelationshipTest.ged");
+        AncestryCalculator plain = new AncestryCalculator();
+        AncestryCalculator withGraph = new AncestryCalculator(new FamilyGraph(g));
+        for (Individual i : g.getIndividuals().values()) {
+            assertEquals(plain.getExtendedAncestry(i), new HashSet<>(withGraph.getExtendedAncestry(i)));
+            for (Individual j : g.getIndividuals().values()) {
+                assertEquals(plain.getLowestCommonAncestors(i, j), new HashSet<>(withGraph.getLowestCommonAncestors(i, j)));
+            }
+        }
+    }
+
+    /**
+     * Test that {@link GenerationCounter} finds every ancestor when working from a graph, and never takes a longer path than the
+     * default walk
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testGenerationCounter() throws IOException, GedcomParserException {
+        Gedcom g = load("sample/RelationshipTest.ged");
+        GenerationCounter plain = new GenerationCounter();
+        GenerationCounter withGraph = new GenerationCounter(new FamilyGraph(g));
+        int compared = 0;
+        for (Individual i : g.getIndividuals().values()) {
+            assertEquals(0, withGraph.getGenerationCount(i, i));
+            for (Individual a : i.getAncestors()) {
+                int gens = withGraph.getGenerationCount(i, a);
+                assertTrue(gens > 0);
+                assertTrue(gens <= plain.getGenerationCount(i, a));
+                compared++;
+            }
+        }
+        assertTrue(compared > 0);
+    }
+
+    /**
+     * Test that {@link GenerationCounter} rejects someone who isn't an ancestor when working from a graph, like it does without
+     * one
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testGenerationCounterNotAncestor() throws IOException, GedcomParserException {
+        Gedcom g = load("sample/RelationshipTest.ged");
+        Individual i = g.getIndividuals().values().iterator().next();
+        new GenerationCounter(new FamilyGraph(g)).getGenerationCount(i, new Individual());
+    }
+
+    /**
+     * Test that the parent, child, spouse, and family links in the graph are consistent with each other and the model
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testLinks() throws IOException, GedcomParserException {
+        Gedcom g = load("sample/RelationshipTest.ged");
+        FamilyGraph classUnderTest = new FamilyGraph(g);
+        assertEquals(g.getIndividuals().size(), classUnderTest.getIndividualCount());
+        assertEquals(g.getFamilies().size(), classUnderTest.getFamilyCount());
+        for (int i = 0; i < classUnderTest.getIndividualCount(); i++) {
+            Individual ind = classUnderTest.getIndividual(i);
+            assertEquals(i, classUnderTest.getIndividualId(ind));
+            assertEquals(ind.getFamiliesWhereChild(true).size(), classUnderTest.getFamilyWhereChildCount(i));
+            assertEquals(ind.getFamiliesWhereSpouse(true).size(), classUnderTest.getFamilyWhereSpouseCount(i));
+            for (int k = 0; k < classUnderTest.getParentCount(i); k++) {
+                int parent = classUnderTest.getParent(i, k);
+                assertTrue(classUnderTest.getDescendants(parent).get(i));
+                boolean found = false;
+                for (int c = 0; c < classUnderTest.getChildCount(parent); c++) {
+                    found |= classUnderTest.getChild(parent, c) == i;
+                }
+                assertTrue(found);
+            }
+            for (int k = 0; k < classUnderTest.getSpouseCount(i); k++) {
+                int spouse = classUnderTest.getSpouse(i, k);
+                boolean found = false;
+                for (int s = 0; s < classUnderTest.getSpouseCount(spouse); s++) {
+                    found |= classUnderTest.getSpouse(spouse, s) == i;
+                }
+                assertTrue(found);
+            }
+        }
+        for (int f = 0; f < classUnderTest.getFamilyCount(); f++) {
+            assertSame(classUnderTest.getFamily(f), g.getFamilies().get(classUnderTest.getFamily(f).getXref()));
+            assertEquals(f, classUnderTest.getFamilyId(classUnderTest.getFamily(f)));
+            assertEquals(classUnderTest.getFamily(f).getChildren(true).size(), classUnderTest.getFamilyChildCount(f));
+            int husband = classUnderTest.getHusband(f);
+            if (husband != FamilyGraph.NONE) {
+                assertSame(classUnderTest.getFamily(f).getHusband().getIndividual(), classUnderTest.getIndividual(husband));
+            }
+            int wife = classUnderTest.getWife(f);
+            if (wife != FamilyGraph.NONE) {
+                assertSame(classUnderTest.getFamily(f).getWife().getIndividual(), classUnderTest.getIndividual(wife));
+            }
+        }
+        assertEquals(FamilyGraph.NONE, classUnderTest.getIndividualId(new Individual()));
+    }
+
+    /**
+     * Test that a null gedcom is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGedcom() {
+        new FamilyGraph(null);
+    }
+
+    /**
+     * Load a gedcom
+     * 
+     * @param fileName
+     *            the name of the file to load
+     * @return the gedcom
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    private Gedcom load(String fileName) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load(fileName);
+        Gedcom g = gp.getGedcom();
+        assertNotNull(g);
+        return g;
+    }
+}
@@ -33,8 +33,12 @@ import static org.junit.Assert.assertTrue;
 import java.io.IOException;
 
 import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
 import org.gedcom4j.model.Gedcom;
 import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.parser.GedcomParser;
 import org.gedcom4j.query.Finder;
 import org.junit.Before;
@@ -170,6 +174,61 @@ public class GenerationCounterTest {
         assertEquals(0, classUnderTest.getGenerationCount(sally, sally));
     }
 
+    /**
+     * Test that when an ancestor can be reached along lines of different lengths, the shortest is counted - whether counting in a
+     * family graph or by walking the model objects, and even when the longer line is the one through the first parent
+     */
+    @Test
+    public void testShortestLine() {
+        Individual child = new Individual();
+        Individual father = new Individual();
+        Individual mother = new Individual();
+        Individual paternalGrandfather = new Individual();
+        Individual ancestor = new Individual();
+        addParents(child, father, mother);
+        addParents(father, paternalGrandfather, null);
+        addParents(paternalGrandfather, ancestor, null);
+        addParents(mother, ancestor, null);
+
+        assertEquals(2, classUnderTest.getGenerationCount(child, ancestor));
+
+        Gedcom g = new Gedcom();
+        g.getIndividuals().put("@I1@", child);
+        assertEquals(2, new GenerationCounter(new FamilyGraph(g)).getGenerationCount(child, ancestor));
+        assertEquals(2, new GenerationCounter(new FamilyGraph(new Gedcom())).getGenerationCount(child, ancestor));
+    }
+
+    /**
+     * Helper method to make a family for a child's parents, linked on both sides
+     * 
+     * @param child
+     *            the child
+     * @param father
+     *            the father. Optional.
+     * @param mother
+     *            the mother. Optional.
+     */
+    private void addParents(Individual child, Individual father, Individual mother) {
+        Family f = new Family();
+        if (father != null) {
+            f.setHusband(new IndividualReference(father));
+        }
+        if (mother != null) {
+            f.setWife(new IndividualReference(mother));
+        }
+        for (Individual parent : new Individual[] { father, mother }) {
+            if (parent != null) {
+                FamilySpouse fs = new FamilySpouse();
+                fs.setFamily(f);
+                parent.getFamiliesWhereSpouse(true).add(fs);
+            }
+        }
+        f.getChildren(true).add(new IndividualReference(child));
+        FamilyChild fc = new FamilyChild();
+        fc.setFamily(f);
+        child.getFamiliesWhereChild(true).add(fc);
+    }
+
     /**
      * Helper method to get a person and assert they exist
      * 
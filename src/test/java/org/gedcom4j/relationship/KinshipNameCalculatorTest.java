@@ -27,11 +27,17 @@
 package org.gedcom4j.relationship;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.model.Gedcom;
@@ -59,6 +65,11 @@ public class KinshipNameCalculatorTest {
      */
     private Finder finder;
 
+    /**
+     * The gedcom being tested against
+     */
+    private Gedcom gedcom;
+
     /**
      * Class under test. Always use a locale in the test to ensure we are using the properties file we expect to use.
      */
@@ -86,6 +97,7 @@ public class KinshipNameCalculatorTest {
         assertEquals("There are supposed to be 31 families in the gedcom - are you using the right file/file version?", 31, g
                 .getFamilies().size());
         finder = new Finder(g);
+        gedcom = g;
     }
 
     /**
@@ -357,6 +369,24 @@ public class KinshipNameCalculatorTest {
 
     }
 
+    /**
+     * Test that supplying a pedigree index gives the same names for every pair of people
+     */
+    @Test
+    public void testPedigreeIndex() {
+        KinshipNameCalculator indexed = new KinshipNameCalculator();
+        PedigreeIndex index = new PedigreeIndex(gedcom);
+        indexed.setPedigreeIndex(index);
+        assertSame(index, indexed.getPedigreeIndex());
+        for (Individual i1 : gedcom.getIndividuals().values()) {
+            for (Individual i2 : gedcom.getIndividuals().values()) {
+                assertEquals(knc.getRelationshipName(i1, i2), indexed.getRelationshipName(i1, i2));
+            }
+        }
+        indexed.setPedigreeIndex(null);
+        assertNull(indexed.getPedigreeIndex());
+    }
+
     /**
      * Test for situations where people are not blood relatives but are related through spouses
      */
@@ -406,6 +436,64 @@ public class KinshipNameCalculatorTest {
 
     }
 
+    /**
+     * Test that naming everyone's relationship to one person at once gives the same names as asking one at a time, whether done in
+     * parallel or not
+     */
+    @Test
+    public void testRelationshipNames() {
+        Individual alex = getPerson("Zucco", "Alex");
+        FamilyGraph graph = new FamilyGraph(gedcom);
+        Map<Individual, String> names = knc.getRelationshipNames(gedcom, alex);
+        Map<Individual, String> parallel = knc.getRelationshipNames(graph, alex, gedcom.getIndividuals().values(),
+                new ForkJoinPool(4));
+        assertFalse(names.isEmpty());
+        assertEquals(names.size(), parallel.size());
+        for (Individual i : gedcom.getIndividuals().values()) {
+            assertEquals("Relationship to " + i, knc.getRelationshipName(alex, i), names.get(i));
+            assertEquals("Relationship to " + i, knc.getRelationshipName(alex, i), parallel.get(i));
+        }
+        assertEquals("Self", names.get(alex));
+        assertEquals("Sister", names.get(getPerson("Zucco", "Betsy")));
+        assertEquals("3rd Cousin 1 time removed's Husband", names.get(getPerson("Queen", "Quincy")));
+    }
+
+    /**
+     * Test naming the relationships between everyone and the people within a couple of steps of them
+     */
+    @Test
+    public void testRelationshipNamesWithin() {
+        Individual alex = getPerson("Zucco", "Alex");
+        Map<Individual, Map<Individual, String>> names = knc.getRelationshipNamesWithin(new FamilyGraph(gedcom), 2,
+                new ForkJoinPool(2));
+        assertEquals(gedcom.getIndividuals().size(), names.size());
+        for (Map.Entry<Individual, Map<Individual, String>> e : names.entrySet()) {
+            for (Map.Entry<Individual, String> n : e.getValue().entrySet()) {
+                assertEquals(knc.getRelationshipName(e.getKey(), n.getKey()), n.getValue());
+            }
+        }
+        Map<Individual, String> alexs = names.get(alex);
+        assertEquals("Sister", alexs.get(getPerson("Zucco", "Betsy")));
+        assertEquals("Mother-in-Law", alexs.get(getPerson("Olds", "Zoe")));
+        // Three steps away
+        assertFalse(alexs.containsKey(getPerson("Andrews", "Theresa")));
+        assertFalse(alexs.containsKey(alex));
+    }
+
+    /**
+     * Test that the rewording rules are applied in the order of their numbers, not the bundle's key order
+     */
+    @Test
+    public void testRewordingOrder() {
+        List<String[]> rewordings = knc.getRewordings();
+        assertEquals(12, rewordings.size());
+        assertEquals("Husband's Brother", rewordings.get(0)[0]);
+        assertEquals("Wife's Brother", rewordings.get(1)[0]);
+        assertEquals("Wife's Father", rewordings.get(10)[0]);
+        assertEquals("Spouse's Father", rewordings.get(11)[0]);
+        assertEquals("Father-in-Law", rewordings.get(11)[1]);
+    }
+
     /**
      * Test a person's relationship to himself
      */
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.relationship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
+import org.gedcom4j.parser.GedcomParser;
+import org.gedcom4j.query.Finder;
+import org.junit.Test;
+
+/**
+ * Test for {@link PedigreeIndex}
+ * 
+ * @author frizbog
+ */
+public class PedigreeIndexTest {
+
+    /**
+     * Test that the index gives the right ancestors and descendants for every individual in a file with a circular ancestral
+     * relationship in it
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testCircularAncestryMatchesIndividual() throws IOException, GedcomParserException {
+        assertMatchesIndividual(load("sample/problemFile.ged"));
+    }
+
+    /**
+     * Test {@link PedigreeIndex#getCircularRelationship(Individual)} against the ancestors of each individual, in a file with a
+     * circular ancestral relationship and in one without
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testGetCircularRelationship() throws IOException, GedcomParserException {
+        Gedcom g = load("sample/problemFile.ged");
+        PedigreeIndex classUnderTest = new PedigreeIndex(g);
+        int circular = 0;
+        for (Individual i : g.getIndividuals().values()) {
+            Set<Individual> expected = new HashSet<>();
+            Set<Individual> ancestors = i.getAncestors();
+            if (ancestors.contains(i)) {
+                for (Individual a : ancestors) {
+                    if (a.getAncestors().contains(i)) {
+                        expected.add(a);
+                    }
+                }
+                circular++;
+            }
+            assertEquals(expected, new HashSet<>(classUnderTest.getCircularRelationship(i)));
+        }
+        assertTrue(circular > 0);
+
+        g = load("sample/RelationshipTest.ged");
+        classUnderTest = new PedigreeIndex(g);
+        for (Individual i : g.getIndividuals().values()) {
+            assertTrue(classUnderTest.getCircularRelationship(i).isEmpty());
+        }
+    }
+
+    /**
+     * Test that the index gives the right ancestors and descendants for every individual in a well-formed file
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testMatchesIndividual() throws IOException, GedcomParserException {
+        assertMatchesIndividual(load("sample/RelationshipTest.ged"));
+    }
+
+    /**
+     * Test that invalidating a family picks up changes to its children
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testInvalidateFamily() throws IOException, GedcomParserException {
+        Gedcom g = load("sample/RelationshipTest.ged");
+        Finder finder = new Finder(g);
+        Individual alex = finder.findByName("Zucco", "Alex").get(0);
+        Individual james = finder.findByName("Andrews", "James").get(0);
+        PedigreeIndex classUnderTest = new PedigreeIndex(g);
+
+        // Make James a child in Alex's parents' family, which makes him a sibling of Alex
+        Family f = alex.getFamiliesWhereChild().get(0).getFamily();
+        int alexsAncestors = classUnderTest.getAncestors(alex).size();
+        assertTrue(classUnderTest.getAncestors(james).isEmpty());
+        assertFalse(classUnderTest.getDescendants(f.getHusband().getIndividual()).contains(james));
+
+        FamilyChild fc = new FamilyChild();
+        fc.setFamily(f);
+        james.getFamiliesWhereChild(true).add(fc);
+        f.getChildren(true).add(new IndividualReference(james));
+
+        // Stale until invalidated
+        assertTrue(classUnderTest.getAncestors(james).isEmpty());
+        classUnderTest.invalidate(f);
+
+        assertEquals(alexsAncestors, classUnderTest.getAncestors(james).size());
+        assertTrue(classUnderTest.getDescendants(f.getHusband().getIndividual()).contains(james));
+        assertEquals(new HashSet<>(james.getAncestors()), new HashSet<>(classUnderTest.getAncestors(james)));
+        assertMatchesIndividual(g, classUnderTest);
+    }
+
+    /**
+     * Test that invalidating an individual picks up changes to the families he is a child in, and the ancestors of his
+     * descendants
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testInvalidateIndividual() throws IOException, GedcomParserException {
+        Gedcom g = load("sample/RelationshipTest.ged");
+        Finder finder = new Finder(g);
+        Individual alex = finder.findByName("Zucco", "Alex").get(0);
+        PedigreeIndex classUnderTest = new PedigreeIndex(g);
+        assertMatchesIndividual(g, classUnderTest);
+
+        // Orphan Alex's mother, which should take her ancestors out of Alex's ancestors
+        Individual mom = alex.getFamiliesWhereChild().get(0).getFamily().getWife().getIndividual();
+        assertFalse(classUnderTest.getAncestors(mom).isEmpty());
+        mom.getFamiliesWhereChild().clear();
+        classUnderTest.invalidate(mom);
+
+        assertTrue(classUnderTest.getAncestors(mom).isEmpty());
+        assertMatchesIndividual(g, classUnderTest);
+    }
+
+    /**
+     * Test {@link PedigreeIndex#isAncestor(Individual, Individual)}
+     * 
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    @Test
+    public void testIsAncestor() throws IOException, GedcomParserException {
+        Gedcom g = load("sample/RelationshipTest.ged");
+        PedigreeIndex classUnderTest = new PedigreeIndex(g);
+        for (Individual i : g.getIndividuals().values()) {
+            Set<Individual> ancestors = i.getAncestors();
+            for (Individual a : g.getIndividuals().values()) {
+                assertEquals(ancestors.contains(a), classUnderTest.isAncestor(a, i));
+            }
+        }
+    }
+
+    /**
+     * Test that null arguments are rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullIndividual() {
+        new PedigreeIndex().getAncestors(null);
+    }
+
+    /**
+     * Assert that a new index over the gedcom gives the same ancestors as {@link Individual#getAncestors()} and the same
+     * descendants as a simple traversal
+     * 
+     * @param g
+     *            the gedcom
+     */
+    private void assertMatchesIndividual(Gedcom g) {
+        assertMatchesIndividual(g, new PedigreeIndex(g));
+    }
+
+    /**
+     * Assert that an index gives the same ancestors as {@link Individual#getAncestors()} and the same descendants as a simple
+     * traversal
+     * 
+     * @param g
+     *            the gedcom
+     * @param classUnderTest
+     *            the index
+     */
+    private void assertMatchesIndividual(Gedcom g, PedigreeIndex classUnderTest) {
+        for (Individual i : g.getIndividuals().values()) {
+            assertEquals("Ancestors of " + i, i.getAncestors(), new HashSet<>(classUnderTest.getAncestors(i)));
+            assertEquals("Descendants of " + i, getDescendants(i), new HashSet<>(classUnderTest.getDescendants(i)));
+        }
+    }
+
+    /**
+     * Get the descendants of an individual by walking down through the families they are a spouse in. Unlike
+     * {@link Individual#getDescendants()}, includes descendants who are not spouses themselves.
+     * 
+     * @param individual
+     *            the individual
+     * @return the descendants of the individual
+     */
+    private Set<Individual> getDescendants(Individual individual) {
+        Set<Individual> result = new HashSet<>();
+        Deque<Individual> toVisit = new ArrayDeque<>();
+        toVisit.add(individual);
+        while (!toVisit.isEmpty()) {
+            Individual i = toVisit.remove();
+            if (i.getFamiliesWhereSpouse() == null) {
+                continue;
+            }
+            for (FamilySpouse fs : i.getFamiliesWhereSpouse()) {
+                if (fs.getFamily().getChildren() == null) {
+                    continue;
+                }
+                for (IndividualReference c : fs.getFamily().getChildren()) {
+                    if (result.add(c.getIndividual())) {
+                        toVisit.add(c.getIndividual());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Load a gedcom
+     * 
+     * @param fileName
+     *            the name of the file to load
+     * @return the gedcom
+     * @throws IOException
+     *             if the gedcom can't be read
+     * @throws GedcomParserException
+     *             if the gedcom can't be parsed
+     */
+    private Gedcom load(String fileName) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load(fileName);
+        Gedcom g = gp.getGedcom();
+        assertNotNull(g);
+        return g;
+    }
+}
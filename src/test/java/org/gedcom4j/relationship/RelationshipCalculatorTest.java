@@ -27,7 +27,9 @@
 package org.gedcom4j.relationship;
 
 import static org.gedcom4j.relationship.RelationshipName.AUNT;
+import static org.gedcom4j.relationship.RelationshipName.DAUGHTER;
 import static org.gedcom4j.relationship.RelationshipName.FATHER;
+import static org.gedcom4j.relationship.RelationshipName.MOTHER;
 import static org.gedcom4j.relationship.RelationshipName.GRANDFATHER;
 import static org.gedcom4j.relationship.RelationshipName.GRANDSON;
 import static org.gedcom4j.relationship.RelationshipName.GREAT_GRANDDAUGHTER;
@@ -37,16 +39,25 @@ import static org.gedcom4j.relationship.RelationshipName.GREAT_GREAT_GRANDMOTHER
 import static org.gedcom4j.relationship.RelationshipName.GREAT_GREAT_GRANDSON;
 import static org.gedcom4j.relationship.RelationshipName.GREAT_GREAT_GREAT_GRANDFATHER;
 import static org.gedcom4j.relationship.RelationshipName.GREAT_GREAT_GREAT_GRANDSON;
+import static org.gedcom4j.relationship.RelationshipName.HUSBAND;
 import static org.gedcom4j.relationship.RelationshipName.SISTER;
+import static org.gedcom4j.relationship.RelationshipName.WIFE;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.FamilySpouse;
 import org.gedcom4j.model.Gedcom;
 import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.parser.GedcomParser;
 import org.gedcom4j.query.Finder;
 import org.junit.Before;
@@ -68,6 +79,11 @@ public class RelationshipCalculatorTest {
      */
     private Finder finder;
 
+    /**
+     * The gedcom the finder searches
+     */
+    private Gedcom gedcom;
+
     /**
      * {@link RelationshipCalculator} test fixture
      */
@@ -95,6 +111,7 @@ public class RelationshipCalculatorTest {
         assertEquals("There are supposed to be 18 families in the gedcom - are you using the right file/file version?", 18, g
                 .getFamilies().size());
         finder = new Finder(g);
+        gedcom = g;
     }
 
     /**
@@ -124,6 +141,27 @@ public class RelationshipCalculatorTest {
 
     }
 
+    /**
+     * Test that every equally short chain is found - a brother and sister are related through both their father and their mother
+     */
+    @Test
+    public void testCalculateRelationshipBothParents() {
+        Individual alex = getPerson("Zucco", "Alex");
+        Individual betsy = getPerson("Zucco", "Betsy");
+
+        rc.calculateRelationships(alex, betsy, false);
+        assertEquals("Betsy is Alex's father's daughter and his mother's daughter", 2, rc.getRelationshipsFound().size());
+        boolean viaFather = false;
+        boolean viaMother = false;
+        for (Relationship r : rc.getRelationshipsFound()) {
+            assertEquals(2, r.getChain().size());
+            viaFather |= r.getChain().get(0).getName() == FATHER;
+            viaMother |= r.getChain().get(0).getName() == MOTHER;
+        }
+        assertTrue(viaFather);
+        assertTrue(viaMother);
+    }
+
     /**
      * Test method for
      * {@link RelationshipCalculator#calculateRelationships(org.gedcom4j.model.Individual, org.gedcom4j.model.Individual, boolean)}
@@ -313,6 +351,36 @@ public class RelationshipCalculatorTest {
                 GREAT_GREAT_GREAT_GRANDSON, r.getChain().get(0).getName());
     }
 
+    /**
+     * Test that a very long line of descent doesn't overflow the stack
+     */
+    @Test
+    public void testCalculateRelationshipLongLine() {
+        List<Individual> line = new ArrayList<>();
+        line.add(new Individual());
+        for (int i = 1; i < 5000; i++) {
+            Individual child = line.get(i - 1);
+            Individual father = new Individual();
+            Family f = new Family();
+            f.setHusband(new IndividualReference(father));
+            f.getChildren(true).add(new IndividualReference(child));
+            FamilyChild fc = new FamilyChild();
+            fc.setFamily(f);
+            child.getFamiliesWhereChild(true).add(fc);
+            FamilySpouse fs = new FamilySpouse();
+            fs.setFamily(f);
+            father.getFamiliesWhereSpouse(true).add(fs);
+            line.add(father);
+        }
+
+        rc.calculateRelationships(line.get(0), line.get(line.size() - 1), false);
+        assertEquals(1, rc.getRelationshipsFound().size());
+        assertEquals(line.size() - 1, rc.getRelationshipsFound().get(0).getChain().size());
+        for (SimpleRelationship sr : rc.getRelationshipsFound().get(0).getChain()) {
+            assertEquals(FATHER, sr.getName());
+        }
+    }
+
     /**
      * Test method for
      * {@link RelationshipCalculator#calculateRelationships(org.gedcom4j.model.Individual, org.gedcom4j.model.Individual, boolean)}
@@ -362,6 +430,75 @@ public class RelationshipCalculatorTest {
 
     }
 
+    /**
+     * Test that a child listed by a family (CHIL) but with no FAMC back to it can still be stepped to from the parent, even though
+     * the search working back from the other end can't see that link
+     */
+    @Test
+    public void testCalculateRelationshipOneSidedChil() {
+        Individual start = new Individual();
+        Individual father = new Individual();
+        Individual daughter = new Individual();
+        daughter.setSex("F");
+        Individual sonInLaw = new Individual();
+
+        Family parents = marry(father, null);
+        addChild(parents, start, true, true);
+        addChild(parents, daughter, true, false);
+        Family startsFamily = marry(start, null);
+        for (int i = 0; i < 5; i++) {
+            addChild(startsFamily, new Individual(), true, true);
+        }
+        marry(sonInLaw, daughter);
+        Gedcom g = new Gedcom();
+        g.getIndividuals().put("@I1@", start);
+
+        assertSameInGraph(g, start, sonInLaw, false);
+        rc.calculateRelationships(start, sonInLaw, false);
+        assertEquals(1, rc.getRelationshipsFound().size());
+        List<SimpleRelationship> chain = rc.getRelationshipsFound().get(0).getChain();
+        assertEquals(3, chain.size());
+        assertEquals(FATHER, chain.get(0).getName());
+        assertEquals(DAUGHTER, chain.get(1).getName());
+        assertEquals(daughter, chain.get(1).getIndividual2());
+        assertEquals(HUSBAND, chain.get(2).getName());
+    }
+
+    /**
+     * Test that a child with a FAMC to a family that doesn't list him or her (no CHIL) can still step to the father, and that a
+     * longer chain that is linked on both sides isn't preferred over it
+     */
+    @Test
+    public void testCalculateRelationshipOneSidedFamc() {
+        Individual start = new Individual();
+        Individual wife = new Individual();
+        Individual father = new Individual();
+        Individual brother = new Individual();
+
+        Family startsFamily = marry(start, wife);
+        List<Individual> children = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Individual child = new Individual();
+            addChild(startsFamily, child, true, true);
+            children.add(child);
+        }
+        Family parents = marry(father, null);
+        addChild(parents, wife, false, true);
+        addChild(parents, brother, true, true);
+        marry(brother, children.get(0));
+        Gedcom g = new Gedcom();
+        g.getIndividuals().put("@I1@", start);
+
+        assertSameInGraph(g, start, father, false);
+        rc.calculateRelationships(start, father, false);
+        assertEquals(1, rc.getRelationshipsFound().size());
+        List<SimpleRelationship> chain = rc.getRelationshipsFound().get(0).getChain();
+        assertEquals("Should go through the wife, not the daughter's husband", 2, chain.size());
+        assertEquals(WIFE, chain.get(0).getName());
+        assertEquals(wife, chain.get(0).getIndividual2());
+        assertEquals(FATHER, chain.get(1).getName());
+    }
+
     /**
      * Test method for
      * {@link RelationshipCalculator#calculateRelationships(org.gedcom4j.model.Individual, org.gedcom4j.model.Individual, boolean)}
@@ -441,6 +578,88 @@ public class RelationshipCalculatorTest {
         assertEquals("The relationship should be an father/son one", FATHER, r.getChain().get(0).getName());
     }
 
+    /**
+     * Test that searching a family graph finds the same relationships as reading the model objects, between everyone in the
+     * gedcom, and that the same calculator can be used again and again
+     */
+    @Test
+    public void testGraphMatchesModel() {
+        RelationshipCalculator graphRc = new RelationshipCalculator(new FamilyGraph(gedcom));
+        int related = 0;
+        for (Individual i1 : gedcom.getIndividuals().values()) {
+            for (Individual i2 : gedcom.getIndividuals().values()) {
+                for (boolean simplified : new boolean[] { false, true }) {
+                    rc.calculateRelationships(i1, i2, simplified);
+                    graphRc.calculateRelationships(i1, i2, simplified);
+                    assertEquals(rc.getRelationshipsFound().size(), graphRc.getRelationshipsFound().size());
+                    assertEquals(new HashSet<>(rc.getRelationshipsFound()), new HashSet<>(graphRc.getRelationshipsFound()));
+                    if (!rc.getRelationshipsFound().isEmpty()) {
+                        related++;
+                    }
+                }
+            }
+        }
+        assertTrue(related > 0);
+
+        graphRc = new RelationshipCalculator(new FamilyGraph(new Gedcom()));
+        Individual alex = getPerson("Zucco", "Alex");
+        Individual theresa = getPerson("Andrews", "Theresa");
+        graphRc.calculateRelationships(alex, theresa, true);
+        assertEquals(1, graphRc.getRelationshipsFound().size());
+        assertEquals(AUNT, graphRc.getRelationshipsFound().get(0).getChain().get(0).getName());
+    }
+
+    /**
+     * Test method for {@link RelationshipCalculator#RelationshipCalculator(FamilyGraph)} with no graph
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testGraphRequired() {
+        new RelationshipCalculator(null);
+    }
+
+    /**
+     * Helper method to add a child to a family
+     * 
+     * @param family
+     *            the family
+     * @param child
+     *            the child
+     * @param chil
+     *            whether the family should list the child (CHIL)
+     * @param famc
+     *            whether the child should point back to the family (FAMC)
+     */
+    private void addChild(Family family, Individual child, boolean chil, boolean famc) {
+        if (chil) {
+            family.getChildren(true).add(new IndividualReference(child));
+        }
+        if (famc) {
+            FamilyChild fc = new FamilyChild();
+            fc.setFamily(family);
+            child.getFamiliesWhereChild(true).add(fc);
+        }
+    }
+
+    /**
+     * Helper method to check that searching a family graph of a gedcom finds the same relationships as {@link #rc}, which reads
+     * the model objects
+     * 
+     * @param g
+     *            the gedcom
+     * @param from
+     *            the individual to start from
+     * @param to
+     *            the individual to look for
+     * @param simplified
+     *            whether the relationships should be simplified
+     */
+    private void assertSameInGraph(Gedcom g, Individual from, Individual to, boolean simplified) {
+        RelationshipCalculator graphRc = new RelationshipCalculator(new FamilyGraph(g));
+        graphRc.calculateRelationships(from, to, simplified);
+        rc.calculateRelationships(from, to, simplified);
+        assertEquals(rc.getRelationshipsFound(), graphRc.getRelationshipsFound());
+    }
+
     /**
      * Helper method to get a person and assert they exist
      * 
@@ -455,4 +674,31 @@ public class RelationshipCalculatorTest {
         assertNotNull("Couldn't find " + givenName + " " + surname + " by name in the gedcom", result);
         return result;
     }
+
+    /**
+     * Helper method to make a family for a couple, linked on both sides
+     * 
+     * @param husband
+     *            the husband. Optional.
+     * @param wife
+     *            the wife. Optional.
+     * @return the family
+     */
+    private Family marry(Individual husband, Individual wife) {
+        Family f = new Family();
+        for (Individual spouse : new Individual[] { husband, wife }) {
+            if (spouse != null) {
+                FamilySpouse fs = new FamilySpouse();
+                fs.setFamily(f);
+                spouse.getFamiliesWhereSpouse(true).add(fs);
+            }
+        }
+        if (husband != null) {
+            f.setHusband(new IndividualReference(husband));
+        }
+        if (wife != null) {
+            f.setWife(new IndividualReference(wife));
+        }
+        return f;
+    }
 }
@@ -27,11 +27,15 @@
 package org.gedcom4j.validate;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.validate.Validator.Finding;
 import org.junit.Test;
 
 /**
@@ -74,6 +78,15 @@ public class CircularAncestryValidatorTest extends AbstractValidatorTestCase {
                 "familiesWhereChild");
 
         assertEquals(3, validator.getResults().getByCode(ProblemCode.CIRCULAR_ANCESTRAL_RELATIONSHIP).size());
+        for (Finding f : validator.getResults().getByCode(ProblemCode.CIRCULAR_ANCESTRAL_RELATIONSHIP)) {
+            Individual i = (Individual) f.getItemOfConcern();
+            assertFalse(f.getRelatedItems().isEmpty());
+            assertFalse(f.getRelatedItems().contains(i));
+            for (ModelElement related : f.getRelatedItems()) {
+                assertTrue(i.getAncestors().contains(related));
+                assertTrue(((Individual) related).getAncestors().contains(i));
+            }
+        }
     }
 
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link DatedItem}
+ * 
+ * @author frizbog
+ */
+public class DatedItemTest {
+
+    /**
+     * One hour, in milliseconds
+     */
+    private static final long HOUR = 60L * 60 * 1000;
+
+    /**
+     * Test for {@link DatedItem#groupWithinWindow(List, long)} - the groups don't depend on the order the items are supplied in.
+     * Items at 36, 0 and 72 hours make two groups, since 72 hours is beyond the window from the earliest item, even though it is
+     * within the window of the first item supplied.
+     */
+    @Test
+    public void testGroupIgnoresSuppliedOrder() {
+        List<DatedItem<String>> items = new ArrayList<>();
+        items.add(new DatedItem<>(new Date(36 * HOUR), "b"));
+        items.add(new DatedItem<>(new Date(0), "a"));
+        items.add(new DatedItem<>(new Date(72 * HOUR), "c"));
+
+        List<List<DatedItem<String>>> groups = DatedItem.groupWithinWindow(items, DatedItem.MULTIPLE_BIRTH_WINDOW);
+        assertEquals(2, groups.size());
+        assertEquals("[a, b]", itemsOf(groups.get(0)));
+        assertEquals("[c]", itemsOf(groups.get(1)));
+
+        Collections.reverse(items);
+        groups = DatedItem.groupWithinWindow(items, DatedItem.MULTIPLE_BIRTH_WINDOW);
+        assertEquals(2, groups.size());
+        assertEquals("[a, b]", itemsOf(groups.get(0)));
+        assertEquals("[c]", itemsOf(groups.get(1)));
+    }
+
+    /**
+     * Test for {@link DatedItem#groupWithinWindow(List, long)} with nothing to group
+     */
+    @Test
+    public void testGroupNothing() {
+        assertTrue(DatedItem.groupWithinWindow(new ArrayList<DatedItem<String>>(), DatedItem.MULTIPLE_BIRTH_WINDOW).isEmpty());
+    }
+
+    /**
+     * Test for {@link DatedItem#groupWithinWindow(List, long)} - items supplied out of order are grouped by date, each group
+     * measured from its earliest item
+     */
+    @Test
+    public void testGroupWithinWindow() {
+        List<DatedItem<String>> items = new ArrayList<>();
+        items.add(new DatedItem<>(new Date(95 * HOUR), "e"));
+        items.add(new DatedItem<>(new Date(47 * HOUR), "b"));
+        items.add(new DatedItem<>(new Date(0), "a"));
+        items.add(new DatedItem<>(new Date(48 * HOUR), "c"));
+        items.add(new DatedItem<>(new Date(48 * HOUR), "d"));
+
+        List<List<DatedItem<String>>> groups = DatedItem.groupWithinWindow(items, DatedItem.MULTIPLE_BIRTH_WINDOW);
+        assertEquals(2, groups.size());
+        assertEquals("[a, b]", itemsOf(groups.get(0)));
+        assertEquals("[c, d, e]", itemsOf(groups.get(1)));
+        assertEquals(new Date(48 * HOUR), groups.get(1).get(0).getDate());
+    }
+
+    /**
+     * Get the items in a group
+     * 
+     * @param group
+     *            the group
+     * @return the group's items, as a string
+     */
+    private String itemsOf(List<DatedItem<String>> group) {
+        List<String> result = new ArrayList<>();
+        for (DatedItem<String> di : group) {
+            result.add(di.getItem());
+        }
+        return result.toString();
+    }
+}
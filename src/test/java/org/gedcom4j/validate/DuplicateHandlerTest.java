@@ -41,6 +41,55 @@ import org.junit.Test;
  */
 public class DuplicateHandlerTest {
 
+    /**
+     * An item that counts the calls made to its {@link #hashCode()} and {@link #equals(Object)} methods
+     */
+    private static final class CountingItem {
+
+        /**
+         * The value that decides equality
+         */
+        private final String value;
+
+        /**
+         * The number of calls to {@link #equals(Object)}
+         */
+        private int equalsCalls;
+
+        /**
+         * The number of calls to {@link #hashCode()}
+         */
+        private int hashCodeCalls;
+
+        /**
+         * Constructor
+         * 
+         * @param value
+         *            the value that decides equality
+         */
+        CountingItem(String value) {
+            this.value = value;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj) {
+            equalsCalls++;
+            return obj instanceof CountingItem && value.equals(((CountingItem) obj).value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            hashCodeCalls++;
+            return value.hashCode();
+        }
+    }
+
     /**
      * Test only counting the duplicates
      */
@@ -91,4 +140,62 @@ public class DuplicateHandlerTest {
         assertEquals("After removing, repeated calls should return 0 duplicates counted/removed", 0, classUnderTest.remove());
     }
 
+    /**
+     * Test that removing after the list has changed since counting removes the duplicates the list holds now
+     */
+    @Test
+    public void testRemovingAfterListChanged() {
+        ArrayList<String> list = new ArrayList<>(Arrays.asList(new String[] { "A", "B", "B", "C" }));
+        DuplicateHandler<String> classUnderTest = new DuplicateHandler<>(list);
+        assertEquals(1, classUnderTest.count());
+        list.set(2, "D");
+        list.set(3, "A");
+        assertEquals(1, classUnderTest.remove());
+        assertEquals(Arrays.asList(new String[] { "A", "B", "D" }), list);
+
+        list.add("B");
+        assertEquals(1, classUnderTest.count());
+        list.remove(0);
+        list.add("D");
+        assertEquals(2, classUnderTest.remove());
+        assertEquals(Arrays.asList(new String[] { "B", "D" }), list);
+    }
+
+    /**
+     * Test that each item's hash code is worked out only once when counting and then removing, and that the same object appearing
+     * twice is recognized without calling {@link Object#equals(Object)}
+     */
+    @Test
+    public void testHashesEachItemOnce() {
+        CountingItem a = new CountingItem("A");
+        CountingItem b1 = new CountingItem("B");
+        CountingItem b2 = new CountingItem("B");
+        CountingItem c = new CountingItem("C");
+        ArrayList<CountingItem> list = new ArrayList<>(Arrays.asList(a, b1, a, b2, c, a));
+        DuplicateHandler<CountingItem> classUnderTest = new DuplicateHandler<>(list);
+        assertEquals(3, classUnderTest.count());
+        assertEquals(3, classUnderTest.remove());
+
+        assertEquals(3, a.hashCodeCalls);
+        assertEquals(1, b1.hashCodeCalls);
+        assertEquals(1, b2.hashCodeCalls);
+        assertEquals(1, c.hashCodeCalls);
+        assertEquals(0, a.equalsCalls);
+        assertEquals(1, b2.equalsCalls);
+        assertEquals(Arrays.asList(a, b1, c), list);
+    }
+
+    /**
+     * Test that lists too short to have duplicates are left alone
+     */
+    @Test
+    public void testShortLists() {
+        CountingItem a = new CountingItem("A");
+        ArrayList<CountingItem> list = new ArrayList<>(Arrays.asList(a));
+        assertEquals(0, new DuplicateHandler<>(list).count());
+        assertEquals(0, new DuplicateHandler<>(new ArrayList<CountingItem>()).remove());
+        assertEquals(0, new DuplicateHandler<CountingItem>(null).count());
+        assertEquals(0, a.hashCodeCalls);
+    }
+
 }
@@ -141,7 +141,7 @@ public class IndividualValidatorTest extends AbstractValidatorTestCase {
     }
 
     /**
-     * Test for {@link Validator#checkIndividuals()} with a malformed xref on an individual, which does not match its key in the
+     * Test for {@link Validator#validate()} with a malformed xref on an individual, which does not match its key in the
      * individuals map
      */
     @Test
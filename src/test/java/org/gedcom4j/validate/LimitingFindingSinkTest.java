@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link LimitingFindingSink}
+ * 
+ * @author frizbog
+ */
+public class LimitingFindingSinkTest {
+
+    /**
+     * Test that validation stops once enough errors have been found
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testMaxErrors() throws IOException, GedcomParserException {
+        Validator v = new Validator(load());
+        ValidationResults kept = new ValidationResults();
+        LimitingFindingSink sink = new LimitingFindingSink(kept);
+        sink.setMaxErrors(3);
+        v.setFindingSink(sink);
+        v.validate();
+
+        assertTrue(v.isAborted());
+        assertEquals(3, sink.getErrorCount());
+        assertEquals(3, kept.getBySeverity(Severity.ERROR).size());
+
+        v.setFindingSink(null);
+        v.validate();
+        assertFalse(v.isAborted());
+        assertTrue(v.getResults().getBySeverity(Severity.ERROR).size() > 3);
+    }
+
+    /**
+     * Test that no more than the allowed number of findings for each problem code are passed on
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testMaxFindingsPerProblemCode() throws IOException, GedcomParserException {
+        Validator v = new Validator(load());
+        v.validate();
+        int total = v.getResults().getAllFindings().size();
+        int expectedSuppressed = 0;
+        for (ProblemCode pc : ProblemCode.values()) {
+            expectedSuppressed += Math.max(0, v.getResults().getByCode(pc).size() - 1);
+        }
+
+        ValidationResults kept = new ValidationResults();
+        LimitingFindingSink sink = new LimitingFindingSink(kept);
+        sink.setMaxFindingsPerProblemCode(1);
+        v.setFindingSink(sink);
+        v.validate();
+
+        assertFalse(v.isAborted());
+        assertTrue(expectedSuppressed > 0);
+        assertEquals(expectedSuppressed, sink.getSuppressedCount());
+        assertEquals(total - expectedSuppressed, kept.getAllFindings().size());
+        for (ProblemCode pc : ProblemCode.values()) {
+            assertEquals(Math.min(1, sink.getReceivedCount(pc.getCode())), kept.getByCode(pc).size());
+        }
+    }
+
+    /**
+     * Test that a sink to pass findings on to is required
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullDelegate() {
+        new LimitingFindingSink(null);
+    }
+
+    /**
+     * Load the test file
+     * 
+     * @return the gedcom
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private Gedcom load() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/problemFile.ged");
+        return gp.getGedcom();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.gedcom4j.exception.ValidationException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.PersonalName;
+import org.gedcom4j.model.StringWithCustomFacts;
+import org.junit.Test;
+
+/**
+ * Test for {@link ModelAccessors}
+ * 
+ * @author frizbog
+ */
+public class ModelAccessorsTest {
+
+    /**
+     * A class whose getters fail
+     */
+    public static class Failing {
+        /**
+         * Get a value, failing with an error
+         * 
+         * @return never returns
+         */
+        public String getError() {
+            throw new StackOverflowError("Deliberately thrown");
+        }
+
+        /**
+         * Get a value, failing with an exception
+         * 
+         * @return never returns
+         */
+        public String getException() {
+            throw new IllegalStateException("Deliberately thrown");
+        }
+    }
+
+    /**
+     * A class whose only field has an <code>is</code> getter
+     */
+    public static class Flagged {
+        /**
+         * Get the flag
+         * 
+         * @return always true
+         */
+        public boolean isFlagged() {
+            return true;
+        }
+    }
+
+    /**
+     * Test {@link ModelAccessors#copy(ModelElement)}
+     */
+    @Test
+    public void testCopy() {
+        Individual i = new Individual();
+        i.setXref("@I1@");
+        i.getNames(true).add(new PersonalName());
+        ModelElement copy = ModelAccessors.copy(i);
+        assertNotSame(i, copy);
+        assertEquals(i, copy);
+        assertEquals(Individual.class, copy.getClass());
+
+        Family f = new Family();
+        f.setHusband(new IndividualReference(i));
+        copy = ModelAccessors.copy(f);
+        assertNotSame(f, copy);
+        assertEquals(f, copy);
+    }
+
+    /**
+     * Test {@link ModelAccessors#copy(ModelElement)} on a class with no copy constructor
+     */
+    @Test(expected = ValidationException.class)
+    public void testCopyNoCopyConstructor() {
+        ModelAccessors.copy(new StringWithCustomFacts("Foo") {
+            /**
+             * Serial Version UID
+             */
+            private static final long serialVersionUID = 1L;
+        });
+    }
+
+    /**
+     * Test {@link ModelAccessors#get(Object, String)}
+     */
+    @Test
+    public void testGet() {
+        Individual i = new Individual();
+        i.setXref("@I1@");
+        assertEquals("@I1@", ModelAccessors.get(i, "xref"));
+        assertSame(i.getNames(true), ModelAccessors.get(i, "names"));
+        // Second time round comes from the cache
+        assertEquals("@I1@", ModelAccessors.get(i, "xref"));
+        i.setXref("@I2@");
+        assertEquals("@I2@", ModelAccessors.get(i, "xref"));
+        assertEquals(Boolean.TRUE, ModelAccessors.get(new Flagged(), "flagged"));
+    }
+
+    /**
+     * Test {@link ModelAccessors#get(Object, String)} for a getter that throws an error, which should not be wrapped
+     */
+    @Test(expected = StackOverflowError.class)
+    public void testGetError() {
+        ModelAccessors.get(new Failing(), "error");
+    }
+
+    /**
+     * Test {@link ModelAccessors#get(Object, String)} for a getter that throws an exception, which should be wrapped
+     */
+    @Test
+    public void testGetException() {
+        try {
+            ModelAccessors.get(new Failing(), "exception");
+            fail("Expected a ValidationException");
+        } catch (ValidationException e) {
+            assertEquals(IllegalStateException.class, e.getCause().getClass());
+        }
+    }
+
+    /**
+     * Test {@link ModelAccessors#get(Object, String)} for a field with no getter
+     */
+    @Test(expected = ValidationException.class)
+    public void testGetNoGetter() {
+        ModelAccessors.get(new Individual(), "noSuchField");
+    }
+
+}
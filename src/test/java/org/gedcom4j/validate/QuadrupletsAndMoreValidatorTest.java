@@ -27,11 +27,18 @@
 package org.gedcom4j.validate;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualEvent;
+import org.gedcom4j.model.IndividualReference;
+import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.validate.Validator.Finding;
 import org.junit.Test;
 
 /**
@@ -41,6 +48,23 @@ import org.junit.Test;
  */
 public class QuadrupletsAndMoreValidatorTest extends AbstractValidatorTestCase {
 
+    /**
+     * Test for {@link QuadrupletsAndMoreValidator} that births are grouped in date order, each group measured from its earliest
+     * birth, whatever order the children are listed in. Children born on the 2nd, 1st, 3rd and 2nd are not four births within 48
+     * hours, since the 3rd is 48 hours after the 1st, even though each is within 48 hours of the first child listed.
+     */
+    @Test
+    public void testGroupingByDateOrder() {
+        QuadrupletsAndMoreValidator qv = new QuadrupletsAndMoreValidator(validator);
+        qv.checkFamily(familyBornOn("2 JAN 1900", "1 JAN 1900", "3 JAN 1900", "2 JAN 1900"));
+        assertTrue(validator.getResults().getByCode(ProblemCode.MORE_THAN_THREE_CHILDREN_BORN_WITHIN_48_HOURS).isEmpty());
+
+        qv.checkFamily(familyBornOn("2 JAN 1900", "1 JAN 1900", "3 JAN 1900", "2 JAN 1900", "1 JAN 1900"));
+        List<Finding> findings = validator.getResults().getByCode(ProblemCode.MORE_THAN_THREE_CHILDREN_BORN_WITHIN_48_HOURS);
+        assertEquals(1, findings.size());
+        assertEquals(4, findings.get(0).getRelatedItems().size());
+    }
+
     /**
      * Test for {@link QuadrupletsAndMoreValidator} where there is no problem.
      *
@@ -76,4 +100,24 @@ public class QuadrupletsAndMoreValidatorTest extends AbstractValidatorTestCase {
         assertEquals(1, validator.getResults().getByCode(ProblemCode.MORE_THAN_THREE_CHILDREN_BORN_WITHIN_48_HOURS).size());
     }
 
+    /**
+     * Make a family with a child born on each of the dates supplied, listed in the order supplied
+     * 
+     * @param birthDates
+     *            the children's birth dates
+     * @return the family
+     */
+    private Family familyBornOn(String... birthDates) {
+        Family f = new Family();
+        for (String birthDate : birthDates) {
+            Individual child = new Individual();
+            IndividualEvent birth = new IndividualEvent();
+            birth.setType(IndividualEventType.BIRTH);
+            birth.setDate(birthDate);
+            child.getEvents(true).add(birth);
+            f.getChildren(true).add(new IndividualReference(child));
+        }
+        return f;
+    }
+
 }
@@ -27,11 +27,13 @@
 package org.gedcom4j.validate;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.io.IOException;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
 import org.gedcom4j.parser.GedcomParser;
 import org.gedcom4j.validate.Validator.Finding;
 import org.junit.Before;
@@ -170,6 +172,63 @@ public class ValidationResultsTest {
         assertEquals(0, vr.getFindingsForObject(g.getFamilies().get("@F1@")).size());
     }
 
+    /**
+     * Test that findings are kept by the identity of the object they concern, so that equal copies do not share findings, and
+     * changes to the object after the finding was made do not lose its findings
+     */
+    @Test
+    public void testGetFindingsForObjectByIdentity() {
+        Validator v = new Validator(g);
+        ValidationResults vr = v.getResults();
+        Individual i = g.getIndividuals().get("@I1@");
+        Individual copy = new Individual(i);
+        assertEquals(i, copy);
+        Finding f = v.newFinding(i, Severity.INFO, ProblemCode.DUPLICATE_VALUE, null);
+        assertEquals(0, vr.getFindingsForObject(copy).size());
+        i.setXref("@CHANGED@");
+        assertEquals(1, vr.getFindingsForObject(i).size());
+        assertSame(f, vr.getFindingsForObject(i).get(0));
+    }
+
+    /**
+     * Test that the findings stay in order in each index, and that the indexes follow changes made to findings after they were
+     * added
+     */
+    @Test
+    public void testIndexesFollowChanges() {
+        Validator v = new Validator(g);
+        ValidationResults vr = v.getResults();
+        Finding f1 = v.newFinding(g.getIndividuals().get("@I1@"), Severity.INFO, ProblemCode.DUPLICATE_VALUE, null);
+        Finding f2 = v.newFinding(g.getIndividuals().get("@I2@"), Severity.WARNING, ProblemCode.DUPLICATE_VALUE, null);
+        Finding f3 = v.newFinding(g.getIndividuals().get("@I3@"), Severity.INFO, ProblemCode.DUPLICATE_VALUE, null);
+        assertEquals(3, vr.getByCode(ProblemCode.DUPLICATE_VALUE).size());
+        assertSame(f1, vr.getBySeverity(Severity.INFO).get(0));
+        assertSame(f3, vr.getBySeverity(Severity.INFO).get(1));
+
+        f3.setProblemCode(1001);
+        f1.setProblemCode(1001);
+        assertEquals(1, vr.getByCode(ProblemCode.DUPLICATE_VALUE).size());
+        assertSame(f2, vr.getByCode(ProblemCode.DUPLICATE_VALUE).get(0));
+        assertEquals(2, vr.getByCode(1001).size());
+        assertSame(f1, vr.getByCode(1001).get(0));
+        assertSame(f3, vr.getByCode(1001).get(1));
+
+        f2.setSeverity(Severity.INFO);
+        assertEquals(0, vr.getBySeverity(Severity.WARNING).size());
+        assertEquals(3, vr.getBySeverity(Severity.INFO).size());
+        assertSame(f1, vr.getBySeverity(Severity.INFO).get(0));
+        assertSame(f2, vr.getBySeverity(Severity.INFO).get(1));
+        assertSame(f3, vr.getBySeverity(Severity.INFO).get(2));
+
+        f2.setItemOfConcern(g.getIndividuals().get("@I1@"));
+        assertEquals(2, vr.getFindingsForObject(g.getIndividuals().get("@I1@")).size());
+        assertEquals(0, vr.getFindingsForObject(g.getIndividuals().get("@I2@")).size());
+
+        vr.clear();
+        f1.setProblemCode(1002);
+        assertEquals(0, vr.getByCode(1002).size());
+    }
+
     /**
      * Test {@link ValidationResults#toString()}
      */
@@ -160,7 +160,7 @@ public class ValidatorFindingTest {
         assertNull(f.getProblemDescription());
         f.setProblemDescription("FRYING PAN");
         assertEquals("FRYING PAN", f.getProblemDescription());
-        assertNotNull(f.getStackTrace());
+        assertNull(f.getStackTrace());
     }
 
     /**
@@ -29,22 +29,36 @@ package org.gedcom4j.validate;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilySpouse;
 import org.gedcom4j.model.Gedcom;
 import org.gedcom4j.model.GedcomVersion;
 import org.gedcom4j.model.Header;
 import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualEvent;
+import org.gedcom4j.model.IndividualReference;
 import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.MultimediaReference;
 import org.gedcom4j.model.NoteRecord;
 import org.gedcom4j.model.Repository;
 import org.gedcom4j.model.Source;
 import org.gedcom4j.model.Submitter;
+import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.parser.DateParser;
+import org.gedcom4j.parser.DateParser.ImpreciseDatePreference;
 import org.gedcom4j.parser.GedcomParser;
 import org.gedcom4j.validate.Validator.Finding;
 import org.junit.Test;
@@ -58,6 +72,117 @@ import org.junit.Test;
 @SuppressWarnings("PMD.TooManyMethods")
 public class ValidatorTest implements AutoRepairResponder {
 
+    /**
+     * A custom supplementary validator that is a rule for individuals, and counts the individuals it is handed
+     */
+    public static class CountingIndividualRule extends EveryIndividualRule {
+
+        /**
+         * The number of individuals handed to any instance so far
+         */
+        static final AtomicInteger CHECKED = new AtomicInteger();
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = -1796390722049412406L;
+
+        /**
+         * Constructor
+         * 
+         * @param validator
+         *            the {@link Validator} that orchestrates validation and tracks results
+         */
+        public CountingIndividualRule(Validator validator) {
+            super(validator);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void checkIndividual(Individual individual) {
+            CHECKED.incrementAndGet();
+            super.checkIndividual(individual);
+        }
+    }
+
+    /**
+     * A custom supplementary validator that changes a date it has parsed, then parses the same date string again
+     */
+    public static class DateChangingValidator extends AbstractValidator {
+
+        /**
+         * The date parsed the second time by the last instance to run
+         */
+        static Date reparsed;
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = 6001468306217409387L;
+
+        /**
+         * Constructor
+         * 
+         * @param validator
+         *            the {@link Validator} that orchestrates validation and tracks results
+         */
+        public DateChangingValidator(Validator validator) {
+            super(validator);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void validate() {
+            parseDate("1 JAN 1900", ImpreciseDatePreference.PRECISE).setTime(0);
+            reparsed = parseDate("1 JAN 1900", ImpreciseDatePreference.PRECISE);
+        }
+    }
+
+    /**
+     * A custom supplementary validator that is a rule for individuals, and makes an informational finding for each one
+     */
+    public static class EveryIndividualRule extends AbstractValidator implements IndividualRule {
+
+        /**
+         * Serial Version UID
+         */
+        private static final long serialVersionUID = 2313760429683925170L;
+
+        /**
+         * Constructor
+         * 
+         * @param validator
+         *            the {@link Validator} that orchestrates validation and tracks results
+         */
+        public EveryIndividualRule(Validator validator) {
+            super(validator);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void checkIndividual(Individual individual) {
+            newFinding(individual, Severity.INFO, ProblemCode.MISSING_REQUIRED_VALUE, "xref");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void validate() {
+            for (Individual i : getValidator().getIndividualsToCheck()) {
+                if (i != null) {
+                    checkIndividual(i);
+                }
+            }
+        }
+    }
+
     /**
      * Serial Version UID
      */
@@ -71,6 +196,24 @@ public class ValidatorTest implements AutoRepairResponder {
         return false;
     }
 
+    /**
+     * Test for {@link Validator#setCaptureStackTraces(boolean)}, which is off by default
+     */
+    @Test
+    public void testCaptureStackTraces() {
+        Gedcom g = new Gedcom();
+        Validator v = new Validator(g);
+        assertFalse(v.isCaptureStackTraces());
+        Finding f = v.newFinding(g, Severity.ERROR, ProblemCode.MISSING_REQUIRED_VALUE, null);
+        assertNull(f.getStackTrace());
+
+        v.setCaptureStackTraces(true);
+        assertTrue(v.isCaptureStackTraces());
+        f = v.newFinding(g, Severity.ERROR, ProblemCode.MISSING_REQUIRED_VALUE, null);
+        assertNotNull(f.getStackTrace());
+        assertTrue(f.getStackTrace().contains("Validator.newFinding"));
+    }
+
     /**
      * Test for constructor with a null argument, which is forbidden
      */
@@ -80,6 +223,120 @@ public class ValidatorTest implements AutoRepairResponder {
         new Validator(null); // boom
     }
 
+    /**
+     * Test that a custom supplementary validator that is an {@link IndividualRule} is handed each individual once, whether
+     * validating on one thread or in parallel
+     * 
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     * @throws IOException
+     *             if the sample file cannot be read
+     */
+    @Test
+    public void testCustomIndividualRule() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/TGC551.ged");
+        Validator v = new Validator(gp.getGedcom());
+        v.getSupplementaryValidators().add(EveryIndividualRule.class);
+        v.validate();
+        int individuals = gp.getGedcom().getIndividuals().size();
+        assertEquals(individuals, v.getResults().getBySeverity(Severity.INFO).size());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            v.validate(pool);
+            assertEquals(individuals, v.getResults().getBySeverity(Severity.INFO).size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test for {@link Validator#setFindingSink(FindingSink)} - the sink gets the same findings, complete, that would otherwise have
+     * gone to the results. Only their order may differ, as the findings of the rules are sent after each record.
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testFindingSink() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/problemFile.ged");
+        Validator v = new Validator(gp.getGedcom());
+        assertSame(v.getResults(), v.getFindingSink());
+        v.validate();
+        List<String> expected = new ArrayList<>();
+        for (Finding f : v.getResults().getAllFindings()) {
+            expected.add(f.toString());
+        }
+        assertFalse(expected.isEmpty());
+
+        final List<String> streamed = new ArrayList<>();
+        FindingSink sink = new FindingSink() {
+            @Override
+            public boolean accept(Finding finding) {
+                streamed.add(finding.toString());
+                return true;
+            }
+        };
+        v.setFindingSink(sink);
+        assertSame(sink, v.getFindingSink());
+        v.validate();
+        Collections.sort(expected);
+        Collections.sort(streamed);
+        assertEquals(expected, streamed);
+        assertTrue(v.getResults().getAllFindings().isEmpty());
+        assertFalse(v.isAborted());
+
+        v.setFindingSink(null);
+        assertSame(v.getResults(), v.getFindingSink());
+    }
+
+    /**
+     * Test that the rules among the supplementary validators send their findings to a finding sink after each record, and stop
+     * handing out records as soon as the sink asks for validation to stop - whether validating on one thread or in parallel
+     * 
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     * @throws IOException
+     *             if the sample file cannot be read
+     */
+    @Test
+    public void testFindingSinkStopsRules() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/TGC551.ged");
+        int individuals = gp.getGedcom().getIndividuals().size();
+        assertTrue(individuals > 4);
+        Validator v = new Validator(gp.getGedcom());
+        v.getSupplementaryValidators().add(CountingIndividualRule.class);
+        final AtomicInteger accepted = new AtomicInteger();
+        v.setFindingSink(new FindingSink() {
+            @Override
+            public boolean accept(Finding finding) {
+                accepted.incrementAndGet();
+                return CountingIndividualRule.CHECKED.get() == 0;
+            }
+        });
+
+        CountingIndividualRule.CHECKED.set(0);
+        v.validate();
+        assertTrue(v.isAborted());
+        assertEquals(1, CountingIndividualRule.CHECKED.get());
+
+        CountingIndividualRule.CHECKED.set(0);
+        accepted.set(0);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            v.validate(pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(v.isAborted());
+        assertTrue(CountingIndividualRule.CHECKED.get() < individuals);
+    }
+
     /**
      * Test method for {@link Validator#getAutoRepairResponder()}.
      */
@@ -227,6 +484,87 @@ public class ValidatorTest implements AutoRepairResponder {
                 v.toString());
     }
 
+    /**
+     * Test that a validator that changes a date it asked to have parsed does not change the date handed to anyone else
+     */
+    @Test
+    public void testParsedDatesNotShared() {
+        Validator v = new Validator(new Gedcom());
+        v.getSupplementaryValidators().add(DateChangingValidator.class);
+        DateChangingValidator.reparsed = null;
+        v.validate();
+        assertNotNull(DateChangingValidator.reparsed);
+        assertEquals(new DateParser().parse("1 JAN 1900", ImpreciseDatePreference.PRECISE), DateChangingValidator.reparsed);
+    }
+
+    /**
+     * Test for {@link Validator#revalidate(java.util.Collection)}, adding, changing, and removing a record, and checking the
+     * results against a full validation each time
+     * 
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     * @throws IOException
+     *             if the sample file cannot be read
+     */
+    @Test
+    public void testRevalidate() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/RelationshipTest.ged");
+        Gedcom g = gp.getGedcom();
+        Validator v = new Validator(g);
+        v.setRevalidationEnabled(true);
+        assertTrue(v.isRevalidationEnabled());
+        v.validate();
+        List<String> before = sortedFindings(v);
+
+        Individual i = new Individual();
+        i.setXref("@I99999@");
+        IndividualEvent birth = new IndividualEvent();
+        birth.setType(IndividualEventType.BIRTH);
+        birth.setDate("1 JAN 2100");
+        i.getEvents(true).add(birth);
+        g.getIndividuals().put(i.getXref(), i);
+        v.revalidate(Collections.singletonList(i));
+        assertEquals(sortedFindings(new Validator(g)), sortedFindings(v));
+        assertFalse(v.getResults().getFindingsForObject(birth).isEmpty());
+
+        birth.setDate("1 JAN 1900");
+        v.revalidate(Collections.singletonList(i));
+        assertEquals(sortedFindings(new Validator(g)), sortedFindings(v));
+
+        g.getIndividuals().remove(i.getXref());
+        v.revalidate(Collections.singletonList(i));
+        assertEquals(before, sortedFindings(v));
+        assertTrue(v.getResults().getFindingsForObject(birth).isEmpty());
+    }
+
+    /**
+     * Test for {@link Validator#revalidate(java.util.Collection)} when there is no tracked run to build on, which should fall back
+     * to a full validation
+     * 
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     * @throws IOException
+     *             if the sample file cannot be read
+     */
+    @Test
+    public void testRevalidateWithoutTrackedRun() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/RelationshipTest.ged");
+        Validator v = new Validator(gp.getGedcom());
+        v.revalidate(new ArrayList<Individual>());
+        assertEquals(sortedFindings(new Validator(gp.getGedcom())), sortedFindings(v));
+        assertFalse(v.isRevalidationEnabled());
+    }
+
+    /**
+     * Test for {@link Validator#revalidate(java.util.Collection)} with a null collection
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRevalidateNull() {
+        new Validator(new Gedcom()).revalidate(null);
+    }
+
     /**
      * Test method for {@link Validator#setAutoRepairResponder(AutoRepairResponder)}.
      */
@@ -284,4 +622,192 @@ public class ValidatorTest implements AutoRepairResponder {
                 + "problemDescription=Child has surname(s) that do not match those of either parent, "
                 + "relatedItems=[Patty /Klinghoffer/ aka NoHusband], ]]], autoRepairResponder=AUTO_REPAIR_ALL]", v.toString());
     }
+
+    /**
+     * Test method for {@link Validator#validate(ForkJoinPool)}, which should give the same findings in the same order as
+     * {@link Validator#validate()}.
+     * 
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     * @throws IOException
+     *             if the sample file cannot be read
+     */
+    @Test
+    public void testValidateInParallel() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/TGC551.ged");
+        Validator v = new Validator(gp.getGedcom());
+        v.validate();
+        List<String> sequential = new ArrayList<>();
+        for (Finding f : v.getResults().getAllFindings()) {
+            sequential.add(f.toString());
+        }
+        assertFalse(sequential.isEmpty());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            v.validate(pool);
+            List<String> parallel = new ArrayList<>();
+            for (Finding f : v.getResults().getAllFindings()) {
+                parallel.add(f.toString());
+            }
+            assertEquals(sequential, parallel);
+
+            v.validate(null);
+            assertEquals(sequential.size(), v.getResults().getAllFindings().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test method for {@link Validator#validate(ForkJoinPool)} with auto-repair allowed
+     * 
+     * @throws GedcomParserException
+     *             if the sample file cannot be parsed
+     * @throws IOException
+     *             if the sample file cannot be read
+     */
+    @Test
+    public void testValidateInParallelWithRepairs() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/RelationshipTest.ged");
+        Validator v = new Validator(gp.getGedcom());
+        v.setAutoRepairResponder(Validator.AUTO_REPAIR_ALL);
+        v.validate();
+        String sequential = v.toString();
+
+        gp = new GedcomParser();
+        gp.load("sample/RelationshipTest.ged");
+        v = new Validator(gp.getGedcom());
+        v.setAutoRepairResponder(Validator.AUTO_REPAIR_ALL);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            v.validate(pool);
+            assertEquals(sequential, v.toString());
+
+            Gedcom g = new Gedcom();
+            g.getIndividuals().put("Foo", null);
+            g.getFamilies().put("Foo", null);
+            g.getSubmitters().put("Foo", null);
+            g.getNotes().put("Foo", null);
+            g.getMultimedia().put("Foo", null);
+            g.setSubmission(null);
+            v = new Validator(g);
+            v.setAutoRepairResponder(Validator.AUTO_REPAIR_ALL);
+            v.validate(pool);
+            assertEquals(7, v.getResults().getAllFindings().size());
+            assertTrue(g.getIndividuals().isEmpty());
+            assertTrue(g.getFamilies().isEmpty());
+            assertTrue(g.getSubmitters().isEmpty());
+            assertTrue(g.getMultimedia().isEmpty());
+            v.validate(pool);
+            assertEquals(2, v.getResults().getAllFindings().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test method for {@link Validator#validate(ForkJoinPool)} with auto-repair allowed, where the individuals being repaired are
+     * also validated from their families, and have duplicates and nulls to repair, and events that refer to a multimedia record.
+     * Each individual must stay locked while its events are being gone through, so the repairs come out the same as validating on
+     * one thread.
+     */
+    @Test
+    public void testValidateInParallelWithRepairsUnderFamilies() {
+        Gedcom g = newGedcomWithRepairsUnderFamilies();
+        Validator v = new Validator(g);
+        v.setAutoRepairResponder(Validator.AUTO_REPAIR_ALL);
+        v.validate();
+        List<String> sequential = sortedFindings(v);
+        for (Individual i : g.getIndividuals().values()) {
+            assertEquals(5, i.getEvents().size());
+            assertEquals(16, i.getFamiliesWhereSpouse().size());
+            assertTrue(i.getCustomFacts().isEmpty());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int run = 0; run < 20; run++) {
+                g = newGedcomWithRepairsUnderFamilies();
+                v = new Validator(g);
+                v.setAutoRepairResponder(Validator.AUTO_REPAIR_ALL);
+                v.validate(pool);
+                assertEquals(sequential, sortedFindings(v));
+                for (Individual i : g.getIndividuals().values()) {
+                    assertEquals(5, i.getEvents().size());
+                    assertEquals(16, i.getFamiliesWhereSpouse().size());
+                    assertTrue(i.getCustomFacts().isEmpty());
+                    assertTrue(i.getEvents().get(0).getCustomFacts().isEmpty());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Build a gedcom of families whose husbands have duplicate family links, null custom facts, and duplicate events that each
+     * have a null custom fact and refer to the same multimedia record
+     * 
+     * @return the gedcom
+     */
+    private Gedcom newGedcomWithRepairsUnderFamilies() {
+        Gedcom g = new Gedcom();
+        Multimedia mm = new Multimedia();
+        mm.setXref("@M1@");
+        g.getMultimedia().put(mm.getXref(), mm);
+        List<Individual> husbands = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Individual h = new Individual();
+            h.setXref("@I" + i + "@");
+            h.getCustomFacts(true).add(null);
+            for (int e = 0; e < 5; e++) {
+                IndividualEvent ev = new IndividualEvent();
+                ev.setType(IndividualEventType.BIRTH);
+                ev.setDate("1 JAN " + (1900 + e));
+                ev.getMultimedia(true).add(new MultimediaReference(mm));
+                ev.getCustomFacts(true).add(null);
+                h.getEvents(true).add(ev);
+                h.getEvents(true).add(ev);
+            }
+            g.getIndividuals().put(h.getXref(), h);
+            husbands.add(h);
+        }
+        // Each husband is in families spread across every slice of the families, and one of his family links is duplicated
+        for (int i = 0; i < 400; i++) {
+            Family f = new Family();
+            f.setXref("@F" + i + "@");
+            Individual h = husbands.get(i % husbands.size());
+            f.setHusband(new IndividualReference(h));
+            for (int d = 0; d < (i < husbands.size() ? 2 : 1); d++) {
+                FamilySpouse fs = new FamilySpouse();
+                fs.setFamily(f);
+                h.getFamiliesWhereSpouse(true).add(fs);
+            }
+            g.getFamilies().put(f.getXref(), f);
+        }
+        return g;
+    }
+
+    /**
+     * Get the string forms of the findings of a validator, sorted, running the validation first if it has no results yet
+     * 
+     * @param v
+     *            the validator
+     * @return the sorted string forms of the findings
+     */
+    private List<String> sortedFindings(Validator v) {
+        if (v.getResults().getAllFindings().isEmpty()) {
+            v.validate();
+        }
+        List<String> result = new ArrayList<>();
+        for (Finding f : v.getResults().getAllFindings()) {
+            result.add(f.toString());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
 }